@@ -0,0 +1,64 @@
+package SigmaEC.bench;
+
+import SigmaEC.util.Parameters;
+import java.util.Properties;
+
+/**
+ * A single microbenchmark: one operation on a hot path of the library (a
+ * fitness call, one mutation, one round of selection...), together with a
+ * name and a description of the parameters it was set up with.
+ *
+ * Everything that should not be timed (building components, generating a
+ * population) belongs in the constructor or in setUp().  The result of each
+ * call to run() is consumed by the BenchmarkRunner, so that the JIT cannot
+ * discard the work.
+ *
+ * @author Eric O. Scott
+ */
+public abstract class Benchmark {
+    private final String name;
+    private final String params;
+
+    protected Benchmark(final String name, final String params) {
+        assert(name != null);
+        assert(!name.isEmpty());
+        assert(params != null);
+        this.name = name;
+        this.params = params;
+    }
+
+    public String getName() { return name; }
+
+    /** @return A short description of the configuration, such as "numDimensions=10". */
+    public String getParams() { return params; }
+
+    /** Called once before the warmup iterations begin. */
+    public void setUp() { }
+
+    /** Perform one operation and return its result. */
+    public abstract Object run();
+
+    /** Build a Parameters database from alternating parameter names and values. */
+    public static Parameters parameters(final String... namesAndValues) {
+        assert(namesAndValues != null);
+        assert(namesAndValues.length % 2 == 0);
+        final Parameters.Builder builder = new Parameters.Builder(new Properties());
+        for (int i = 0; i < namesAndValues.length; i += 2)
+            builder.setParameter(namesAndValues[i], namesAndValues[i + 1]);
+        return builder.build();
+    }
+
+    /** @return A list parameter value holding n copies of value. */
+    public static String repeat(final double value, final int n) {
+        assert(n > 0);
+        final StringBuilder sb = new StringBuilder(String.valueOf(value));
+        for (int i = 1; i < n; i++)
+            sb.append(Parameters.LIST_DELIMITER).append(value);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s)", name, params);
+    }
+}
@@ -0,0 +1,131 @@
+package SigmaEC.bench;
+
+import SigmaEC.util.math.Statistics;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the microbenchmarks and writes one CSV row per benchmark, so that the
+ * results of two versions of the library can be diffed or plotted side by
+ * side.
+ *
+ * Each benchmark is run for a number of warmup iterations (to let the JIT
+ * settle) that are discarded, and then for a number of measured iterations of
+ * fixed duration.  The throughput of each measured iteration, in operations
+ * per second, is summarized by its mean, standard deviation, minimum and
+ * maximum.
+ *
+ * Usage: java SigmaEC.bench.BenchmarkRunner [-filter regex] [-warmup n]
+ * [-iterations n] [-time milliseconds] [-out file]
+ *
+ * @author Eric O. Scott
+ */
+public class BenchmarkRunner {
+    public final static String CSV_HEADER = "benchmark, params, iterations, meanOpsPerSec, stdOpsPerSec, minOpsPerSec, maxOpsPerSec";
+    /** Number of operations performed between checks of the clock. */
+    private final static int BATCH_SIZE = 64;
+
+    /** Results are written here so the JIT cannot eliminate the benchmarked calls. */
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+
+    public BenchmarkRunner(final int warmupIterations, final int measuredIterations, final long iterationMillis) {
+        assert(warmupIterations >= 0);
+        assert(measuredIterations > 1);
+        assert(iterationMillis > 0);
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis*1000000;
+    }
+
+    /** @return Every benchmark that the runner knows about. */
+    public static List<Benchmark> allBenchmarks() {
+        return new ArrayList<Benchmark>() {{
+            addAll(ObjectiveBenchmarks.create());
+            addAll(OperatorBenchmarks.create());
+            addAll(ParametersBenchmarks.create());
+        }};
+    }
+
+    /** @return The throughput of each measured iteration, in operations per second. */
+    public double[] run(final Benchmark benchmark) {
+        assert(benchmark != null);
+        benchmark.setUp();
+        for (int i = 0; i < warmupIterations; i++)
+            iteration(benchmark);
+        final double[] opsPerSec = new double[measuredIterations];
+        for (int i = 0; i < measuredIterations; i++)
+            opsPerSec[i] = iteration(benchmark);
+        return opsPerSec;
+    }
+
+    private double iteration(final Benchmark benchmark) {
+        long ops = 0;
+        final long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++)
+                sink = benchmark.run();
+            ops += BATCH_SIZE;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return ops/(elapsed/1e9);
+    }
+
+    /** @return A CSV row summarizing the given throughput measurements. */
+    public static String csvRow(final Benchmark benchmark, final double[] opsPerSec) {
+        assert(benchmark != null);
+        assert(opsPerSec != null);
+        assert(opsPerSec.length > 0);
+        final double mean = Statistics.mean(opsPerSec);
+        return String.format("%s, %s, %d, %f, %f, %f, %f", benchmark.getName(), benchmark.getParams(), opsPerSec.length,
+                mean, Statistics.std(opsPerSec, mean), Statistics.min(opsPerSec), Statistics.max(opsPerSec));
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Pattern filter = Pattern.compile(".*");
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        String out = null;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length)
+                usage();
+            switch (args[i]) {
+                case "-filter": filter = Pattern.compile(args[++i]); break;
+                case "-warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "-iterations": iterations = Integer.parseInt(args[++i]); break;
+                case "-time": time = Long.parseLong(args[++i]); break;
+                case "-out": out = args[++i]; break;
+                default: usage();
+            }
+        }
+        if (warmup < 0 || iterations < 2 || time <= 0)
+            usage();
+
+        final BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        try (final PrintWriter writer = new PrintWriter(out == null ? new OutputStreamWriter(System.out) : new FileWriter(out))) {
+            writer.println(CSV_HEADER);
+            for (final Benchmark b : allBenchmarks()) {
+                if (!filter.matcher(b.toString()).find())
+                    continue;
+                System.err.println(String.format("%s: running %s", BenchmarkRunner.class.getSimpleName(), b));
+                writer.println(csvRow(b, runner.run(b)));
+                writer.flush();
+            }
+        }
+    }
+
+    private static void usage() {
+        System.err.println(String.format("Usage: java %s [-filter regex] [-warmup n] [-iterations n (>= 2)] [-time milliseconds] [-out file]", BenchmarkRunner.class.getName()));
+        System.exit(1);
+    }
+}
@@ -0,0 +1,202 @@
+package SigmaEC.bench;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.function.BooleanFunction;
+import SigmaEC.evaluate.objective.function.TruthTableObjective;
+import SigmaEC.evaluate.objective.real.SphereObjective;
+import SigmaEC.represent.Initializer;
+import SigmaEC.represent.cgp.IntVectorToCartesianIndividualDecoder;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.represent.linear.IntVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fitness evaluation benchmarks: every objective in
+ * SigmaEC.evaluate.objective.real at several dimensionalities, and
+ * TruthTableObjective on CGP circuits.  One operation is one call to
+ * fitness(), cycling through a fixed pool of random individuals.
+ *
+ * LatticeObjective is left out because it cannot be built from Parameters.
+ *
+ * @author Eric O. Scott
+ */
+public final class ObjectiveBenchmarks {
+    public final static int[] DIMENSIONS = new int[] { 2, 10, 100, 1000 };
+    public final static int POOL_SIZE = 256;
+    public final static long SEED = 42;
+
+    private ObjectiveBenchmarks() throws AssertionError {
+        throw new AssertionError(ObjectiveBenchmarks.class.getSimpleName() + ": Attempted to instantiate static utility class.");
+    }
+
+    public static List<Benchmark> create() {
+        final List<Benchmark> benchmarks = new ArrayList<>();
+        for (final int n : DIMENSIONS) {
+            benchmarks.add(real("AckleyObjective", n));
+            benchmarks.add(real("GaussianObjective", n, "height", "1.0", "std", "1.0"));
+            benchmarks.add(real("LinearRidgeObjective", n, "width", "1.0", "highFitness", "2.0",
+                    "interceptVector", Benchmark.repeat(0.0, n), "slopeVector", unitVector(n)));
+            benchmarks.add(real("NoiseyQuarticObjective", n, "random", "SigmaEC.SRandom", "random.seed", String.valueOf(SEED)));
+            benchmarks.add(real("PhillipsHeadObjective", n, "shortAxis", "1", "longAxis", "2"));
+            benchmarks.add(real("PinCushionGaussianObjective", n, "intervals", Benchmark.repeat(1.0, n), "height", "1.0", "std", "0.1"));
+            benchmarks.add(real("PinCushionSphereObjective", n, "intervals", Benchmark.repeat(1.0, n), "width", "0.5"));
+            benchmarks.add(real("PlaneObjective", n, "point", Benchmark.repeat(0.0, n + 1), "normalVector", Benchmark.repeat(1.0, n + 1)));
+            benchmarks.add(real("RastriginObjective", n));
+            benchmarks.add(real("RosenbrockObjective", n));
+            benchmarks.add(real("SchwefelObjective", n));
+            benchmarks.add(real("SimpleDeceptiveObjective", n, "basinStd", "1.0"));
+            benchmarks.add(real("SphereObjective", n));
+            benchmarks.add(real("StepObjective", n));
+            benchmarks.add(real("ValleyObjective", n, "optimum", Benchmark.repeat(0.0, n), "slopeVector", unitVector(n)));
+        }
+        // These two are only defined in two dimensions
+        benchmarks.add(real("HolderTableObjective", 2));
+        benchmarks.add(real("ShekelObjective", 2));
+        benchmarks.add(direct());
+        benchmarks.add(truthTable());
+        return benchmarks;
+    }
+
+    /** @return A pool of random individuals, evaluated on the sphere function. */
+    public static List<DoubleVectorIndividual<ScalarFitness>> population(final int numDimensions, final int size) {
+        assert(numDimensions > 0);
+        assert(size > 0);
+        final Parameters parameters = Benchmark.parameters(
+                "initializer", "SigmaEC.represent.linear.DoubleVectorInitializer",
+                "initializer.populationSize", String.valueOf(size),
+                "initializer.numDimensions", String.valueOf(numDimensions),
+                "initializer.defaultMinValue", "-5.0",
+                "initializer.defaultMaxValue", "5.0",
+                "initializer.random", "SigmaEC.SRandom",
+                "initializer.random.seed", String.valueOf(SEED));
+        final Initializer<DoubleVectorIndividual<ScalarFitness>> initializer = parameters.getInstanceFromParameter("initializer", Initializer.class);
+        final List<DoubleVectorIndividual<ScalarFitness>> population = initializer.generatePopulation();
+        final SphereObjective sphere = new SphereObjective(numDimensions);
+        final List<DoubleVectorIndividual<ScalarFitness>> evaluated = new ArrayList<>(population.size());
+        for (final DoubleVectorIndividual<ScalarFitness> ind : population)
+            evaluated.add(ind.setFitness(sphere.fitness(ind)));
+        return evaluated;
+    }
+
+    private static String unitVector(final int n) {
+        return "1.0" + (n > 1 ? Parameters.LIST_DELIMITER + Benchmark.repeat(0.0, n - 1) : "");
+    }
+
+    private static Benchmark real(final String className, final int numDimensions, final String... extraParameters) {
+        final String[] namesAndValues = new String[4 + extraParameters.length];
+        namesAndValues[0] = "objective";
+        namesAndValues[1] = "SigmaEC.evaluate.objective.real." + className;
+        namesAndValues[2] = "objective.numDimensions";
+        namesAndValues[3] = String.valueOf(numDimensions);
+        for (int i = 0; i < extraParameters.length; i += 2) {
+            namesAndValues[4 + i] = "objective." + extraParameters[i];
+            namesAndValues[5 + i] = extraParameters[i + 1];
+        }
+        return new PoolBenchmark<DoubleVectorIndividual<ScalarFitness>>(className, "numDimensions=" + numDimensions) {
+            private ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective;
+
+            @Override
+            public void setUp() {
+                objective = Benchmark.parameters(namesAndValues).getInstanceFromParameter("objective", ObjectiveFunction.class);
+                setPool(population(numDimensions, POOL_SIZE));
+            }
+
+            @Override
+            protected Object run(final DoubleVectorIndividual<ScalarFitness> ind) {
+                return objective.fitness(ind);
+            }
+        };
+    }
+
+    private static Benchmark direct() {
+        return new PoolBenchmark<Double>("DirectObjective", "numDimensions=1") {
+            private ObjectiveFunction<Double, ScalarFitness> objective;
+
+            @Override
+            public void setUp() {
+                objective = Benchmark.parameters("objective", "SigmaEC.evaluate.objective.real.DirectObjective")
+                        .getInstanceFromParameter("objective", ObjectiveFunction.class);
+                final List<Double> pool = new ArrayList<>(POOL_SIZE);
+                for (final DoubleVectorIndividual<ScalarFitness> ind : population(1, POOL_SIZE))
+                    pool.add(ind.getElement(0));
+                setPool(pool);
+            }
+
+            @Override
+            protected Object run(final Double ind) {
+                return objective.fitness(ind);
+            }
+        };
+    }
+
+    /** XOR against circuits of the size used in CGPExample. */
+    private static Benchmark truthTable() {
+        final Parameters parameters = Benchmark.parameters(
+                "cgpParameters", "SigmaEC.represent.cgp.CGPParameters",
+                "cgpParameters.numInputs", "6",
+                "cgpParameters.numOutputs", "5",
+                "cgpParameters.numLayers", "50",
+                "cgpParameters.numNodesPerLayer", "1",
+                "cgpParameters.maxArity", "2",
+                "cgpParameters.levelsBack", "50",
+                "cgpParameters.numPrimitives", "1",
+                "initializer", "SigmaEC.represent.cgp.CGPIntVectorInitializer",
+                "initializer.populationSize", String.valueOf(POOL_SIZE),
+                "initializer.cgpParameters", "%cgpParameters",
+                "initializer.random", "SigmaEC.SRandom",
+                "initializer.random.seed", String.valueOf(SEED),
+                "decoder", "SigmaEC.represent.cgp.IntVectorToCartesianIndividualDecoder",
+                "decoder.cgpParameters", "%cgpParameters",
+                "decoder.primitives", "SigmaEC.evaluate.objective.function.NAND",
+                "objective", "SigmaEC.evaluate.objective.function.TruthTableObjective",
+                "objective.targetFunction", "SigmaEC.evaluate.objective.function.XOR");
+        return new PoolBenchmark<BooleanFunction>("TruthTableObjective", "numInputs=6;numLayers=50") {
+            private TruthTableObjective objective;
+
+            @Override
+            public void setUp() {
+                objective = parameters.getInstanceFromParameter("objective", ObjectiveFunction.class);
+                final Initializer<IntVectorIndividual<ScalarFitness>> initializer = parameters.getInstanceFromParameter("initializer", Initializer.class);
+                final IntVectorToCartesianIndividualDecoder decoder = parameters.getInstanceFromParameter("decoder", IntVectorToCartesianIndividualDecoder.class);
+                final List<BooleanFunction> pool = new ArrayList<>(POOL_SIZE);
+                for (final IntVectorIndividual<ScalarFitness> ind : initializer.generatePopulation())
+                    pool.add(decoder.decode(ind));
+                setPool(pool);
+            }
+
+            @Override
+            protected Object run(final BooleanFunction ind) {
+                return objective.fitness(ind);
+            }
+        };
+    }
+
+    /** A benchmark whose operation is applied to each element of a pool in turn. */
+    static abstract class PoolBenchmark<T> extends Benchmark {
+        private List<T> pool;
+        private int next = 0;
+
+        PoolBenchmark(final String name, final String params) {
+            super(name, params);
+        }
+
+        protected final void setPool(final List<T> pool) {
+            assert(pool != null);
+            assert(!pool.isEmpty());
+            this.pool = pool;
+            next = 0;
+        }
+
+        protected abstract Object run(final T element);
+
+        @Override
+        public final Object run() {
+            final T element = pool.get(next);
+            next = (next + 1) % pool.size();
+            return run(element);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package SigmaEC.bench;
+
+import SigmaEC.bench.ObjectiveBenchmarks.PoolBenchmark;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.operate.Mator;
+import SigmaEC.operate.Mutator;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.select.SelectionProbability;
+import SigmaEC.select.Selector;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Variation and selection benchmarks on real-valued populations.  Mutation
+ * and crossover are measured per offspring at several genome lengths;
+ * selection is measured per call on populations of several sizes.
+ *
+ * @author Eric O. Scott
+ */
+public final class OperatorBenchmarks {
+    public final static int[] DIMENSIONS = new int[] { 10, 100, 1000 };
+    public final static int[] POPULATION_SIZES = new int[] { 10, 100, 1000 };
+    public final static int NUM_DIMENSIONS_FOR_SELECTION = 10;
+
+    private OperatorBenchmarks() throws AssertionError {
+        throw new AssertionError(OperatorBenchmarks.class.getSimpleName() + ": Attempted to instantiate static utility class.");
+    }
+
+    public static List<Benchmark> create() {
+        final List<Benchmark> benchmarks = new ArrayList<>();
+        for (final int n : DIMENSIONS) {
+            benchmarks.add(mutator(n));
+            benchmarks.add(mator(n, 1));
+            benchmarks.add(mator(n, 2));
+        }
+        for (final int size : POPULATION_SIZES) {
+            benchmarks.add(tournamentSelector(size));
+            benchmarks.add(susSelector(size));
+            benchmarks.add(rankingSelectionProbability(size));
+        }
+        return benchmarks;
+    }
+
+    /** Gaussian mutation of every gene, with hard bounds. */
+    private static Benchmark mutator(final int numDimensions) {
+        return new PoolBenchmark<DoubleVectorIndividual<ScalarFitness>>("DoubleGeneMutator", "numDimensions=" + numDimensions) {
+            private Mutator<DoubleVectorIndividual<ScalarFitness>> mutator;
+
+            @Override
+            public void setUp() {
+                final Parameters parameters = Benchmark.parameters(
+                        "random", "SigmaEC.SRandom",
+                        "random.seed", String.valueOf(ObjectiveBenchmarks.SEED),
+                        "mutator", "SigmaEC.operate.DoubleGeneMutator",
+                        "mutator.random", "%random",
+                        "mutator.distribution", "SigmaEC.util.math.dist.GaussianDistribution",
+                        "mutator.distribution.std", "0.5",
+                        "mutator.distribution.random", "%random",
+                        "mutator.mutationRate", "SigmaEC.operate.ConstantMutationRate",
+                        "mutator.mutationRate.rate", "1.0",
+                        "mutator.dimensions", String.valueOf(numDimensions),
+                        "mutator.defaultMinValue", "-5.0",
+                        "mutator.defaultMaxValue", "5.0");
+                mutator = parameters.getInstanceFromParameter("mutator", Mutator.class);
+                setPool(ObjectiveBenchmarks.population(numDimensions, ObjectiveBenchmarks.POOL_SIZE));
+            }
+
+            @Override
+            protected Object run(final DoubleVectorIndividual<ScalarFitness> ind) {
+                return mutator.mutate(ind, 0);
+            }
+        };
+    }
+
+    private static Benchmark mator(final int numDimensions, final int numCutPoints) {
+        return new PoolBenchmark<List<DoubleVectorIndividual<ScalarFitness>>>("NPointCrossoverMator", String.format("numDimensions=%d;numCutPoints=%d", numDimensions, numCutPoints)) {
+            private Mator<DoubleVectorIndividual<ScalarFitness>> mator;
+
+            @Override
+            public void setUp() {
+                mator = Benchmark.parameters(
+                        "mator", "SigmaEC.operate.NPointCrossoverMator",
+                        "mator.numCutPoints", String.valueOf(numCutPoints),
+                        "mator.random", "SigmaEC.SRandom",
+                        "mator.random.seed", String.valueOf(ObjectiveBenchmarks.SEED))
+                        .getInstanceFromParameter("mator", Mator.class);
+                final List<DoubleVectorIndividual<ScalarFitness>> population = ObjectiveBenchmarks.population(numDimensions, ObjectiveBenchmarks.POOL_SIZE);
+                final List<List<DoubleVectorIndividual<ScalarFitness>>> pairs = new ArrayList<>(population.size()/2);
+                for (int i = 0; i + 1 < population.size(); i += 2)
+                    pairs.add(new ArrayList<>(population.subList(i, i + 2)));
+                setPool(pairs);
+            }
+
+            @Override
+            protected Object run(final List<DoubleVectorIndividual<ScalarFitness>> parents) {
+                return mator.mate(parents);
+            }
+        };
+    }
+
+    /** Binary tournaments; one operation selects one individual. */
+    private static Benchmark tournamentSelector(final int populationSize) {
+        return new SelectionBenchmark("TournamentSelector", populationSize) {
+            private Selector<DoubleVectorIndividual<ScalarFitness>> selector;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                selector = Benchmark.parameters(
+                        "selector", "SigmaEC.select.TournamentSelector",
+                        "selector.tournamentSize", "2",
+                        "selector.fitnessComparator", "SigmaEC.select.ScalarFitnessComparator",
+                        "selector.fitnessComparator.minimize", "true",
+                        "selector.random", "SigmaEC.SRandom",
+                        "selector.random.seed", String.valueOf(ObjectiveBenchmarks.SEED))
+                        .getInstanceFromParameter("selector", Selector.class);
+            }
+
+            @Override
+            public Object run() {
+                return selector.selectIndividual(population);
+            }
+        };
+    }
+
+    /** Linear ranking with stochastic universal sampling; one operation
+     * selects a whole population's worth of parents. */
+    private static Benchmark susSelector(final int populationSize) {
+        return new SelectionBenchmark("SUSSelector", populationSize) {
+            private Selector<DoubleVectorIndividual<ScalarFitness>> selector;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                selector = Benchmark.parameters(
+                        "selector", "SigmaEC.select.SUSSelector",
+                        "selector.selectionProbability", "SigmaEC.select.RankingSelectionProbability",
+                        "selector.selectionProbability.power", "1",
+                        "selector.selectionProbability.comparator", "SigmaEC.select.ScalarFitnessComparator",
+                        "selector.selectionProbability.comparator.minimize", "true",
+                        "selector.random", "SigmaEC.SRandom",
+                        "selector.random.seed", String.valueOf(ObjectiveBenchmarks.SEED))
+                        .getInstanceFromParameter("selector", Selector.class);
+            }
+
+            @Override
+            public Object run() {
+                return selector.selectMultipleIndividuals(population, population.size());
+            }
+        };
+    }
+
+    /** One operation computes the selection probabilities of a whole population. */
+    private static Benchmark rankingSelectionProbability(final int populationSize) {
+        return new SelectionBenchmark("RankingSelectionProbability", populationSize) {
+            private SelectionProbability<DoubleVectorIndividual<ScalarFitness>> probability;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                probability = Benchmark.parameters(
+                        "probability", "SigmaEC.select.RankingSelectionProbability",
+                        "probability.power", "1",
+                        "probability.comparator", "SigmaEC.select.ScalarFitnessComparator",
+                        "probability.comparator.minimize", "true")
+                        .getInstanceFromParameter("probability", SelectionProbability.class);
+            }
+
+            @Override
+            public Object run() {
+                return probability.probability(population);
+            }
+        };
+    }
+
+    /** A benchmark that operates on a fixed, evaluated population. */
+    private static abstract class SelectionBenchmark extends Benchmark {
+        private final int populationSize;
+        protected List<DoubleVectorIndividual<ScalarFitness>> population;
+
+        SelectionBenchmark(final String name, final int populationSize) {
+            super(name, "populationSize=" + populationSize);
+            assert(populationSize > 0);
+            this.populationSize = populationSize;
+        }
+
+        @Override
+        public void setUp() {
+            population = ObjectiveBenchmarks.population(NUM_DIMENSIONS_FOR_SELECTION, populationSize);
+        }
+    }
+}
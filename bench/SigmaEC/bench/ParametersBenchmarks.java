@@ -0,0 +1,58 @@
+package SigmaEC.bench;
+
+import SigmaEC.select.Selector;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks of Parameters.getInstanceFromParameter(), which builds every
+ * component of an experiment by reflection.
+ *
+ * "fresh" resolves a selector whose random number generator is given by a
+ * '%' reference in a newly built database, so the operation includes the
+ * reflective construction of both objects.  "registered" looks up an instance
+ * that has already been created, which is what every later reference to a
+ * shared component costs.
+ *
+ * @author Eric O. Scott
+ */
+public final class ParametersBenchmarks {
+
+    private ParametersBenchmarks() throws AssertionError {
+        throw new AssertionError(ParametersBenchmarks.class.getSimpleName() + ": Attempted to instantiate static utility class.");
+    }
+
+    public static List<Benchmark> create() {
+        final Parameters parameters = Benchmark.parameters(
+                "random", "SigmaEC.SRandom",
+                "random.seed", String.valueOf(ObjectiveBenchmarks.SEED),
+                "selector", "SigmaEC.select.TournamentSelector",
+                "selector.tournamentSize", "2",
+                "selector.fitnessComparator", "SigmaEC.select.ScalarFitnessComparator",
+                "selector.fitnessComparator.minimize", "true",
+                "selector.random", "%random");
+        return new ArrayList<Benchmark>() {{
+            add(new Benchmark("Parameters.getInstanceFromParameter", "fresh") {
+                @Override
+                public Object run() {
+                    return new Parameters.Builder(parameters).build().getInstanceFromParameter("selector", Selector.class);
+                }
+            });
+            add(new Benchmark("Parameters.getInstanceFromParameter", "registered") {
+                private Parameters registered;
+
+                @Override
+                public void setUp() {
+                    registered = new Parameters.Builder(parameters).build();
+                    registered.getInstanceFromParameter("selector", Selector.class);
+                }
+
+                @Override
+                public Object run() {
+                    return registered.getInstanceFromParameter("selector", Selector.class);
+                }
+            });
+        }};
+    }
+}
@@ -2,14 +2,51 @@ package SigmaEC;
 
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * The random number generator shared by SigmaEC's components.
+ *
+ * Parallel code can make its results independent of the number of threads
+ * (and avoid contending on this generator's lock) by running each unit of
+ * work inside a Stream.  While a thread has a Stream open, every SRandom it
+ * draws from behaves as an independent generator whose seed is derived from
+ * the SRandom's own seed and the Stream's key, instead of advancing the shared
+ * state.  Keys are usually built from a root value that the dispatching thread
+ * draws from the shared generator plus the index of the unit of work (an
+ * island, an individual, etc.), so they differ from run to run and step to
+ * step, but not with the way work is scheduled onto threads:
+ *
+ * <pre>
+ * final long root = random.nextLong();
+ * ... on some worker thread, for work item i:
+ * final SRandom.Stream s = SRandom.openStream(root, i);
+ * try {
+ *     ... code that uses random ...
+ * } finally {
+ *     s.close();
+ * }
+ * </pre>
+ *
+ * Streams nest: a Stream opened inside another one derives its key from its
+ * parent's, so nested parallel sections stay reproducible too.
  *
  * @author Eric 'Siggy' Scott
  */
 public class SRandom extends MersenneTwister {
     private final static String P_SEED = "seed";
-    
+
+    private final static ThreadLocal<Stream> currentStream = new ThreadLocal<>();
+    // Lets draws skip the ThreadLocal lookup when no thread has a Stream open
+    private final static AtomicInteger numOpenStreams = new AtomicInteger();
+
+    private long seed;
+
     public SRandom(final Parameters parameters, final String base) {
         super();
         assert(parameters != null);
@@ -18,4 +55,119 @@ public class SRandom extends MersenneTwister {
         if (seedOpt.isDefined())
             setSeed(seedOpt.get());
     }
+
+    public SRandom(final long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(final long seed) {
+        super.setSeed(seed);
+        this.seed = seed;
+    }
+
+    /** Reads the generator's state, including the seed that Streams derive their seeds from. */
+    @Override
+    public synchronized void readState(final DataInputStream stream) throws IOException {
+        super.readState(stream);
+        seed = stream.readLong();
+    }
+
+    /** Writes the generator's state, including the seed that Streams derive their seeds from. */
+    @Override
+    public synchronized void writeState(final DataOutputStream stream) throws IOException {
+        super.writeState(stream);
+        stream.writeLong(seed);
+    }
+
+    @Override
+    protected int next(final int bits) {
+        final Option<MersenneTwister> streamGenerator = streamGenerator();
+        if (streamGenerator.isDefined())
+            return streamGenerator.get().next(bits);
+        return super.next(bits);
+    }
+
+    @Override
+    public double nextGaussian() {
+        final Option<MersenneTwister> streamGenerator = streamGenerator();
+        if (streamGenerator.isDefined())
+            return streamGenerator.get().nextGaussian();
+        return super.nextGaussian();
+    }
+
+    /** @return The generator that this thread's open Stream (if any) uses in place of this one. */
+    private Option<MersenneTwister> streamGenerator() {
+        if (numOpenStreams.get() == 0)
+            return Option.NONE;
+        final Stream stream = currentStream.get();
+        if (stream == null)
+            return Option.NONE;
+        return new Option<>(stream.generatorFor(this));
+    }
+
+    /**
+     * Derive a well-mixed seed for one of several independent streams (ex.
+     * the runs of an experiment) from a single master seed, using the
+     * SplitMix64 mixing function.  Consecutive stream numbers give unrelated
+     * seeds.
+     */
+    public static long deriveSeed(final long masterSeed, final long stream) {
+        long z = masterSeed + (stream + 1)*0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Redirect every SRandom that the current thread draws from to the
+     * independent stream identified by (root, index), until the returned
+     * Stream is closed.
+     */
+    public static Stream openStream(final long root, final long index) {
+        final Stream parent = currentStream.get();
+        final long parentKey = (parent == null) ? 0 : parent.key;
+        final Stream stream = new Stream(parent, deriveSeed(deriveSeed(parentKey, root), index));
+        currentStream.set(stream);
+        numOpenStreams.incrementAndGet();
+        return stream;
+    }
+
+    /** A reproducible random number stream that is confined to one thread. */
+    public final static class Stream implements AutoCloseable {
+        private final Stream parent;
+        private final long key;
+        private final Map<SRandom, MersenneTwister> generators = new IdentityHashMap<>();
+        private boolean closed = false;
+
+        private Stream(final Stream parent, final long key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        private MersenneTwister generatorFor(final SRandom random) {
+            assert(random != null);
+            MersenneTwister generator = generators.get(random);
+            if (generator == null) {
+                final long s = deriveSeed(random.seed, key);
+                generator = new MersenneTwister(new int[] { (int) (s >>> 32), (int) s });
+                generators.put(random, generator);
+            }
+            return generator;
+        }
+
+        /** Return the thread to the enclosing Stream, or to the shared generators. */
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            assert(currentStream.get() == this);
+            closed = true;
+            if (parent == null)
+                currentStream.remove();
+            else
+                currentStream.set(parent);
+            numOpenStreams.decrementAndGet();
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.ContractObject;
+import SigmaEC.util.Parameters;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free running total of objective evaluations.
+ *
+ * Point the "counter" parameter of every EvaluationOperator in a run (ex. one
+ * per island) at a single instance with the '%' syntax, and the total will
+ * include every evaluation made by any of them on any thread.  Stopping
+ * conditions that read the same instance can then stop a run after a fixed
+ * number of evaluations.
+ *
+ * The total is never reset: readers that want a per-run count should remember
+ * the value at the start of the run and subtract it.
+ *
+ * @author Eric O. Scott
+ */
+public class EvaluationCounter extends ContractObject {
+    private final AtomicLong count = new AtomicLong();
+
+    public EvaluationCounter(final Parameters parameters, final String base) {
+        this();
+    }
+
+    public EvaluationCounter() {
+        assert(repOK());
+    }
+
+    /** Count numEvaluations more evaluations. */
+    public void add(final long numEvaluations) {
+        assert(numEvaluations >= 0);
+        count.addAndGet(numEvaluations);
+    }
+
+    /** Count one more evaluation. */
+    public void increment() {
+        count.incrementAndGet();
+    }
+
+    /** @return The total number of evaluations counted so far. */
+    public long get() {
+        return count.get();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return count != null
+                && count.get() >= 0;
+    }
+
+    /** Counters are compared by identity, since each one is meant to be shared. */
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: count=%d]", this.getClass().getSimpleName(), count.get());
+    }
+    // </editor-fold>
+}
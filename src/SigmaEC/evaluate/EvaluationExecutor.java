@@ -0,0 +1,304 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.ContractObject;
+import SigmaEC.represent.IDSpace;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-lived pool of worker threads that can be shared by every component
+ * that needs to run work in parallel (evaluation, migration, etc.).
+ *
+ * Wire a single instance into several components by referencing it with the
+ * '%' syntax in the parameter file, so that they all draw from the same pool
+ * instead of creating and tearing down a thread pool every generation.
+ *
+ * The threads are daemon threads, so a pool that is never shut down will not
+ * keep the JVM alive.  After shutdown() is called, the next task submission
+ * transparently starts a fresh pool, so it is safe for an Experiment to shut
+ * the executor down when it finishes even if it is nested inside another one.
+ *
+ * A task that calls invokeAll() on the same executor it is running on (ex.
+ * an objective that fans a batch out onto the evaluator's executor) would
+ * wait for subtasks that can never be scheduled once every thread is doing
+ * the same.  So invokeAll() runs nested batches serially on the calling
+ * thread instead of queueing them; see isWorkerThread().
+ *
+ * Each task runs in the IDSpace of the thread that submitted it, so
+ * individuals created on the pool's threads take their IDs from the run that
+ * asked for them.
+ * 
+ * The executor also keeps simple statistics (queue depth and thread
+ * utilization) that can be reported with an ExecutorStatisticsPopulationMetric.
+ *
+ * @author Eric O. Scott
+ */
+public class EvaluationExecutor extends ContractObject implements Executor {
+    public final static String P_NUM_THREADS = "numThreads";
+    public final static String P_KEEP_ALIVE = "keepAliveSeconds";
+    public final static long DEFAULT_KEEP_ALIVE = 60;
+
+    /** The executor that owns the current thread, if it is a worker thread. */
+    private final static ThreadLocal<EvaluationExecutor> OWNER = new ThreadLocal<>();
+
+    private final int numThreads;
+    private final long keepAliveSeconds;
+    private InstrumentedThreadPool pool;
+
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile long statisticsStartTime = System.nanoTime();
+
+    public EvaluationExecutor(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+        if (numThreads < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_NUM_THREADS, numThreads));
+        keepAliveSeconds = parameters.getOptionalLongParameter(Parameters.push(base, P_KEEP_ALIVE), DEFAULT_KEEP_ALIVE);
+        if (keepAliveSeconds < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_KEEP_ALIVE, keepAliveSeconds));
+        assert(repOK());
+    }
+
+    public EvaluationExecutor(final int numThreads) {
+        assert(numThreads > 0);
+        this.numThreads = numThreads;
+        this.keepAliveSeconds = DEFAULT_KEEP_ALIVE;
+        assert(repOK());
+    }
+
+    public int getNumThreads() { return numThreads; }
+
+    /** @return true if the calling thread is one of this executor's workers,
+     * in which case it must not block waiting on other tasks in the pool. */
+    public boolean isWorkerThread() {
+        return OWNER.get() == this;
+    }
+
+    /** Execute a batch of tasks on the pool and wait for all of them to
+     * complete.  If called from one of the pool's own threads, the tasks are
+     * run one after another on that thread instead.
+     * @see java.util.concurrent.ExecutorService#invokeAll(java.util.Collection) */
+    public <T> List<Future<T>> invokeAll(final Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        assert(tasks != null);
+        if (isWorkerThread()) {
+            final List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (final Callable<T> t : tasks) {
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedException();
+                }
+                final FutureTask<T> future = new FutureTask<>(t);
+                future.run();
+                futures.add(future);
+            }
+            return futures;
+        }
+        return getPool().invokeAll(tasks);
+    }
+
+    /** Run a task on the pool.  Any exception it throws is discarded, so
+     * callers should capture failures themselves (ex. with a FutureTask).
+     * @see java.util.concurrent.Executor#execute(java.lang.Runnable) */
+    @Override
+    public void execute(final Runnable command) {
+        assert(command != null);
+        getPool().execute(new InstrumentedTask<>(IDSpace.current().wrap(command), null));
+    }
+
+    /** @see java.util.concurrent.ExecutorService#submit(java.util.concurrent.Callable) */
+    public <T> Future<T> submit(final Callable<T> task) {
+        assert(task != null);
+        return getPool().submit(task);
+    }
+
+    /** Let queued tasks finish, then release the pool's threads.  The
+     * executor may still be used afterward: a new pool will be started on
+     * demand. */
+    public synchronized void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+        pool = null;
+    }
+
+    private synchronized InstrumentedThreadPool getPool() {
+        if (pool == null || pool.isShutdown())
+            pool = new InstrumentedThreadPool();
+        return pool;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Statistics">
+    /** @return The number of tasks currently waiting for a free thread. */
+    public synchronized int getQueueDepth() {
+        return pool == null ? 0 : pool.getQueue().size();
+    }
+
+    /** @return The largest queue depth observed since the statistics were last reset. */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /** @return The number of tasks that have finished since the statistics were last reset. */
+    public long getCompletedTaskCount() {
+        return completedTasks.get();
+    }
+
+    /** @return The fraction of available thread-time (numThreads * wall time)
+     * that was spent executing tasks since the statistics were last reset. */
+    public double getUtilization() {
+        final long elapsed = System.nanoTime() - statisticsStartTime;
+        if (elapsed <= 0)
+            return 0.0;
+        return (double) busyNanos.get() / ((double) elapsed * numThreads);
+    }
+
+    public void resetStatistics() {
+        busyNanos.set(0);
+        completedTasks.set(0);
+        maxQueueDepth.set(0);
+        statisticsStartTime = System.nanoTime();
+    }
+    // </editor-fold>
+
+    /** A fixed-size ThreadPoolExecutor that records queue depth and busy time. */
+    private class InstrumentedThreadPool extends ThreadPoolExecutor {
+        InstrumentedThreadPool() {
+            super(numThreads, numThreads, keepAliveSeconds, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory(EvaluationExecutor.this));
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            super.execute(command);
+            final int depth = getQueue().size();
+            int max;
+            do {
+                max = maxQueueDepth.get();
+            } while (depth > max && !maxQueueDepth.compareAndSet(max, depth));
+        }
+
+        @Override
+        protected <V> RunnableFuture<V> newTaskFor(final Callable<V> callable) {
+            return new InstrumentedTask<>(IDSpace.current().wrap(callable));
+        }
+    }
+
+    /** Records its statistics before its result is published, so that they
+     * are up to date by the time invokeAll() returns. */
+    private class InstrumentedTask<V> extends FutureTask<V> {
+        private long startTime;
+
+        InstrumentedTask(final Callable<V> callable) {
+            super(callable);
+        }
+
+        InstrumentedTask(final Runnable runnable, final V result) {
+            super(runnable, result);
+        }
+
+        @Override
+        public void run() {
+            startTime = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void set(final V v) {
+            record();
+            super.set(v);
+        }
+
+        @Override
+        protected void setException(final Throwable t) {
+            record();
+            super.setException(t);
+        }
+
+        private void record() {
+            busyNanos.addAndGet(System.nanoTime() - startTime);
+            completedTasks.incrementAndGet();
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final static AtomicInteger poolNumber = new AtomicInteger();
+        private final int pool = poolNumber.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+        private final EvaluationExecutor owner;
+
+        DaemonThreadFactory(final EvaluationExecutor owner) {
+            assert(owner != null);
+            this.owner = owner;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Runnable marked = new Runnable() {
+                @Override
+                public void run() {
+                    OWNER.set(owner);
+                    r.run();
+                }
+            };
+            final Thread t = new Thread(marked, String.format("%s-%d-%d", EvaluationExecutor.class.getSimpleName(), pool, threadNumber.incrementAndGet()));
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_NUM_THREADS != null
+                && !P_NUM_THREADS.isEmpty()
+                && P_KEEP_ALIVE != null
+                && !P_KEEP_ALIVE.isEmpty()
+                && numThreads > 0
+                && keepAliveSeconds > 0
+                && busyNanos != null
+                && completedTasks != null
+                && maxQueueDepth != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EvaluationExecutor))
+            return false;
+        final EvaluationExecutor ref = (EvaluationExecutor) o;
+        return numThreads == ref.numThreads
+                && keepAliveSeconds == ref.keepAliveSeconds;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + this.numThreads;
+        hash = 59 * hash + (int) (this.keepAliveSeconds ^ (this.keepAliveSeconds >>> 32));
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%d, %s=%d]", this.getClass().getSimpleName(),
+                P_NUM_THREADS, numThreads,
+                P_KEEP_ALIVE, keepAliveSeconds);
+    }
+    // </editor-fold>
+}
@@ -1,29 +1,97 @@
 package SigmaEC.evaluate;
 
+import SigmaEC.SRandom;
 import SigmaEC.meta.Operator;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.meta.Fitness;
 import SigmaEC.operate.constraint.Constraint;
 import SigmaEC.represent.Decoder;
 import SigmaEC.represent.Individual;
+import SigmaEC.represent.lineage.LineageRecorder;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * An operator that transforms unevaluated individuals into evaluated individuals.
  * 
+ * Parallel evaluation runs on an EvaluationExecutor.  If none is given, the
+ * operator creates its own, which is kept alive between generations.  To share
+ * one pool among several operators (ex. one per island), point each of their
+ * "executor" parameters at the same instance with the '%' syntax.  The
+ * objective may share it too: batches it fans out from one of the executor's
+ * own threads run serially on that thread (see EvaluationExecutor).
+ * 
+ * Individuals are handed to the objective in batches through
+ * ObjectiveFunction.fitnessBatch(), so that objectives with a native batch
+ * implementation can share work across them.  In parallel mode the population
+ * is split into one contiguous chunk per thread, or into chunks of "chunkSize"
+ * individuals if it is set.
+ * 
+ * Setting "maxInFlight" switches to asynchronous mode, meant for objectives
+ * that mostly wait on I/O (ex. an ExternalObjective).  Individuals are
+ * dispatched through ObjectiveFunction.fitnessAsync() without waiting for
+ * each other, and the calling thread only waits (for the oldest one) when
+ * maxInFlight evaluations are already outstanding, regardless of the number
+ * of processors.  Objectives that evaluate without holding a thread (like
+ * ExternalObjective's one-process-per-individual mode) need no threads beyond
+ * the caller's.  Others run on a pool of up to maxInFlight threads, which
+ * are only started as they are needed and retire when idle.
+ * 
+ * Setting "randomStreams" makes evaluation with a stochastic objective
+ * reproducible regardless of the number of threads: each individual is
+ * evaluated (one at a time) inside its own SRandom.Stream, keyed by its index
+ * and by a root value drawn from "random".
+ * 
+ * Individuals shed their parent IDs when they are evaluated.  If a "lineage"
+ * recorder is given, each evaluated individual's new ID is reported to it
+ * along with the IDs it descends from first, so ancestry can be kept without
+ * holding on to any individuals.  Whichever threads the objective runs on,
+ * evaluated individuals are created (and so given their IDs) on the calling
+ * thread, in population order, so IDs and lineage don't depend on how the
+ * work was scheduled.
+ * 
+ * If a "counter" is given, every individual that is evaluated is added to it.
+ * Share one EvaluationCounter among all the evaluators of a run to count
+ * evaluations across threads and islands.
+ * 
+ * Setting "timeoutSeconds" or "speculativeFraction" keeps one slow evaluation
+ * from holding up the whole generation.  Individuals are then evaluated one
+ * per task.  An evaluation that runs for longer than timeoutSeconds is
+ * cancelled by interrupting its thread (an ExternalObjective responds by
+ * killing its process), and the individual is given "penaltyFitness" (a Fitness
+ * of the objective's type, ex. a ScalarFitness with a "value") if one is set,
+ * or else every outstanding evaluation is cancelled and the run fails.  Once
+ * speculativeFraction of the individuals have been evaluated, a duplicate is
+ * started for each evaluation that is still running, and whichever copy
+ * finishes first wins.  The counter counts every evaluation that was started,
+ * so duplicates count as calls to the objective.
+ * 
+ * Setting "deduplicate" evaluates each distinct genome (see GenomeKey) in the
+ * population only once, and gives its fitness to every copy.  This pays off
+ * when cloning or low mutation rates fill each generation with duplicates,
+ * but it assumes the objective is deterministic.  The counter only counts
+ * distinct genomes, and a DeduplicationPopulationMetric reports the
+ * duplicate rate.
+ * 
  * @author Eric O. Scott
  */
 public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> extends Operator<T> {
@@ -32,12 +100,37 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
     public final static String P_REEVALUATE = "reevaluate";
     public final static String P_NUM_THREADS = "numThreads";
     public final static String P_CONSTRAINT = "constraint";
+    public final static String P_EXECUTOR = "executor";
+    public final static String P_MAX_IN_FLIGHT = "maxInFlight";
+    public final static String P_CHUNK_SIZE = "chunkSize";
+    public final static String P_RANDOM_STREAMS = "randomStreams";
+    public final static String P_RANDOM = "random";
+    public final static String P_LINEAGE = "lineage";
+    public final static String P_COUNTER = "counter";
+    public final static String P_TIMEOUT = "timeoutSeconds";
+    public final static String P_PENALTY_FITNESS = "penaltyFitness";
+    public final static String P_SPECULATIVE_FRACTION = "speculativeFraction";
+    public final static String P_DEDUPLICATE = "deduplicate";
     
     private final Option<Decoder<T, P>> decoder;
     private final ObjectiveFunction<P, F> objective;
     private final boolean reevaluate;
     private final int numThreads;
     private final Option<Constraint<T>> constraint;
+    private final EvaluationExecutor executor;
+    private final boolean asynchronous;
+    private final Option<Integer> chunkSize;
+    private final Option<SRandom> random;
+    private final Option<LineageRecorder> lineage;
+    private final Option<EvaluationCounter> counter;
+    private final Option<Long> timeoutNanos;
+    private final Option<F> penaltyFitness;
+    private final Option<Double> speculativeFraction;
+    private final AtomicLong numTimeouts = new AtomicLong();
+    private final AtomicLong numSpeculativeRuns = new AtomicLong();
+    private final boolean deduplicate;
+    private final AtomicLong numDeduplicationCandidates = new AtomicLong();
+    private final AtomicLong numDuplicates = new AtomicLong();
     
     public EvaluationOperator(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -45,8 +138,51 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
         decoder = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_DECODER), Decoder.class);
         objective = parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class);
         reevaluate = parameters.getOptionalBooleanParameter(Parameters.push(base, P_REEVALUATE), false);
-        numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
         constraint = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_CONSTRAINT), Constraint.class);
+        chunkSize = parameters.getOptionalIntParameter(Parameters.push(base, P_CHUNK_SIZE));
+        if (chunkSize.isDefined() && chunkSize.get() < 1)
+            throw new IllegalStateException(String.format("%s: '%s' is %d, but must be positive.", this.getClass().getSimpleName(), Parameters.push(base, P_CHUNK_SIZE), chunkSize.get()));
+        final Option<EvaluationExecutor> sharedExecutor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        final Option<Integer> maxInFlight = parameters.getOptionalIntParameter(Parameters.push(base, P_MAX_IN_FLIGHT));
+        asynchronous = maxInFlight.isDefined();
+        if (parameters.getOptionalBooleanParameter(Parameters.push(base, P_RANDOM_STREAMS), false)) {
+            if (asynchronous)
+                throw new IllegalStateException(String.format("%s: '%s' cannot be used together with '%s'.", this.getClass().getSimpleName(), Parameters.push(base, P_RANDOM_STREAMS), Parameters.push(base, P_MAX_IN_FLIGHT)));
+            random = new Option<>((SRandom) parameters.getInstanceFromParameter(Parameters.push(base, P_RANDOM), SRandom.class));
+        }
+        else
+            random = Option.NONE;
+        lineage = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_LINEAGE), LineageRecorder.class);
+        counter = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_COUNTER), EvaluationCounter.class);
+        final Option<Double> timeoutSeconds = parameters.getOptionalDoubleParameter(Parameters.push(base, P_TIMEOUT));
+        if (timeoutSeconds.isDefined() && !(timeoutSeconds.get() > 0.0))
+            throw new IllegalStateException(String.format("%s: '%s' is %f, but must be positive.", this.getClass().getSimpleName(), Parameters.push(base, P_TIMEOUT), timeoutSeconds.get()));
+        timeoutNanos = timeoutSeconds.isDefined() ? new Option<>((long) (timeoutSeconds.get()*1.0e9)) : Option.NONE;
+        penaltyFitness = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_PENALTY_FITNESS), Fitness.class);
+        if (penaltyFitness.isDefined() && !timeoutSeconds.isDefined())
+            throw new IllegalStateException(String.format("%s: '%s' is defined, but '%s' is not.", this.getClass().getSimpleName(), Parameters.push(base, P_PENALTY_FITNESS), Parameters.push(base, P_TIMEOUT)));
+        speculativeFraction = parameters.getOptionalDoubleParameter(Parameters.push(base, P_SPECULATIVE_FRACTION));
+        if (speculativeFraction.isDefined() && !(speculativeFraction.get() > 0.0 && speculativeFraction.get() <= 1.0))
+            throw new IllegalStateException(String.format("%s: '%s' is %f, but must be in (0, 1].", this.getClass().getSimpleName(), Parameters.push(base, P_SPECULATIVE_FRACTION), speculativeFraction.get()));
+        deduplicate = parameters.getOptionalBooleanParameter(Parameters.push(base, P_DEDUPLICATE), false);
+        if (asynchronous) {
+            if (sharedExecutor.isDefined() || parameters.isDefined(Parameters.push(base, P_NUM_THREADS)))
+                throw new IllegalStateException(String.format("%s: '%s' cannot be used together with '%s' or '%s'.", this.getClass().getSimpleName(), Parameters.push(base, P_MAX_IN_FLIGHT), Parameters.push(base, P_NUM_THREADS), Parameters.push(base, P_EXECUTOR)));
+            if (maxInFlight.get() < 1)
+                throw new IllegalStateException(String.format("%s: '%s' is %d, but must be positive.", this.getClass().getSimpleName(), Parameters.push(base, P_MAX_IN_FLIGHT), maxInFlight.get()));
+            numThreads = maxInFlight.get();
+            executor = new EvaluationExecutor(numThreads);
+        }
+        else if (sharedExecutor.isDefined()) {
+            if (parameters.isDefined(Parameters.push(base, P_NUM_THREADS)))
+                throw new IllegalStateException(String.format("%s: both '%s' and '%s' are defined.  Set the number of threads on the executor instead.", this.getClass().getSimpleName(), Parameters.push(base, P_NUM_THREADS), Parameters.push(base, P_EXECUTOR)));
+            executor = sharedExecutor.get();
+            numThreads = executor.getNumThreads();
+        }
+        else {
+            numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+            executor = new EvaluationExecutor(numThreads);
+        }
         assert(repOK());
     }
     
@@ -55,8 +191,23 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
         decoder = builder.decoder;
         objective = builder.objective;
         reevaluate = builder.reevaluate;
-        numThreads = builder.numThreads;
+        asynchronous = builder.maxInFlight.isDefined();
+        if (asynchronous)
+            numThreads = builder.maxInFlight.get();
+        else
+            numThreads = builder.executor.isDefined() ? builder.executor.get().getNumThreads() : builder.numThreads;
         constraint = builder.constraint;
+        chunkSize = builder.chunkSize;
+        random = builder.random;
+        lineage = builder.lineage;
+        counter = builder.counter;
+        timeoutNanos = builder.timeoutNanos;
+        penaltyFitness = builder.penaltyFitness;
+        speculativeFraction = builder.speculativeFraction;
+        deduplicate = builder.deduplicate;
+        assert(!(penaltyFitness.isDefined() && !timeoutNanos.isDefined()));
+        assert(!(asynchronous && random.isDefined()));
+        executor = (!asynchronous && builder.executor.isDefined()) ? builder.executor.get() : new EvaluationExecutor(numThreads);
         assert(repOK());
     }
     
@@ -66,6 +217,16 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
         boolean reevaluate = false;
         int numThreads = Runtime.getRuntime().availableProcessors();
         Option<Constraint<T>> constraint = Option.NONE;
+        Option<EvaluationExecutor> executor = Option.NONE;
+        Option<Integer> maxInFlight = Option.NONE;
+        Option<Integer> chunkSize = Option.NONE;
+        Option<SRandom> random = Option.NONE;
+        Option<LineageRecorder> lineage = Option.NONE;
+        Option<EvaluationCounter> counter = Option.NONE;
+        Option<Long> timeoutNanos = Option.NONE;
+        Option<F> penaltyFitness = Option.NONE;
+        Option<Double> speculativeFraction = Option.NONE;
+        boolean deduplicate = false;
         
         public Builder(final ObjectiveFunction<P, F> objective) {
             this.objective = objective;
@@ -97,6 +258,73 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
             this.constraint = new Option<>(constraint);
             return this;
         }
+        
+        /** Share an existing executor.  Overrides setNumThreads(). */
+        public Builder setExecutor(final EvaluationExecutor executor) {
+            assert(executor != null);
+            this.executor = new Option<>(executor);
+            return this;
+        }
+        
+        /** Evaluate asynchronously, with up to maxInFlight evaluations
+         * outstanding.  Overrides setNumThreads() and setExecutor(). */
+        public Builder setMaxInFlight(final int maxInFlight) {
+            assert(maxInFlight > 0);
+            this.maxInFlight = new Option<>(maxInFlight);
+            return this;
+        }
+        
+        public Builder setChunkSize(final int chunkSize) {
+            assert(chunkSize > 0);
+            this.chunkSize = new Option<>(chunkSize);
+            return this;
+        }
+        
+        /** Evaluate each individual in its own stream of random numbers,
+         * derived from the given generator. */
+        public Builder setRandomStreams(final SRandom random) {
+            assert(random != null);
+            this.random = new Option<>(random);
+            return this;
+        }
+        
+        public Builder setLineage(final LineageRecorder lineage) {
+            assert(lineage != null);
+            this.lineage = new Option<>(lineage);
+            return this;
+        }
+        
+        public Builder setCounter(final EvaluationCounter counter) {
+            assert(counter != null);
+            this.counter = new Option<>(counter);
+            return this;
+        }
+        
+        public Builder setTimeout(final double timeoutSeconds) {
+            assert(timeoutSeconds > 0.0);
+            this.timeoutNanos = new Option<>((long) (timeoutSeconds*1.0e9));
+            return this;
+        }
+        
+        /** Give individuals whose evaluation times out this fitness instead
+         * of failing.  Requires setTimeout(). */
+        public Builder setPenaltyFitness(final F penaltyFitness) {
+            assert(penaltyFitness != null);
+            this.penaltyFitness = new Option<>(penaltyFitness);
+            return this;
+        }
+        
+        public Builder setSpeculativeFraction(final double speculativeFraction) {
+            assert(speculativeFraction > 0.0);
+            assert(speculativeFraction <= 1.0);
+            this.speculativeFraction = new Option<>(speculativeFraction);
+            return this;
+        }
+        
+        public Builder setDeduplicate(final boolean deduplicate) {
+            this.deduplicate = deduplicate;
+            return this;
+        }
     }
     
     /** Evaluate the fitness of all the individuals in a population.
@@ -109,78 +337,532 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
      */
     @Override
     public List<T> operate(final int run, final int step, final List<T> parentPopulation) {
-        assert(run >= 0);
-        assert(step >= 0);
+        final List<T> result = evaluatePopulation(parentPopulation);
+        if (lineage.isDefined())
+            lineage.get().flush();
+        return result;
+    }
+    
+    private List<T> evaluatePopulation(final List<T> parentPopulation) {
         assert(parentPopulation != null);
         assert(!Misc.containsNulls(parentPopulation));
-        if (numThreads == 1)
+        if (deduplicate)
+            return evaluateDistinct(parentPopulation);
+        return dispatch(parentPopulation);
+    }
+    
+    /** Evaluate only the first individual with each genome, and copy its
+     * fitness to the rest. */
+    private List<T> evaluateDistinct(final List<T> parentPopulation) {
+        final int size = parentPopulation.size();
+        final List<T> distinct = new ArrayList<>(size);
+        // For each individual, its position in distinct, or its representative's negated and offset by one if it's a duplicate
+        final int[] positions = new int[size];
+        final Map<GenomeKey, Integer> seen = new HashMap<>();
+        int candidates = 0;
+        for (int i = 0; i < size; i++) {
+            final T ind = parentPopulation.get(i);
+            if (!reevaluate && ind.isEvaluated()) {
+                positions[i] = distinct.size();
+                distinct.add(ind);
+                continue;
+            }
+            candidates++;
+            final GenomeKey key = GenomeKey.of(ind);
+            final Integer representative = seen.get(key);
+            if (representative != null)
+                positions[i] = -representative - 1;
+            else {
+                seen.put(key, distinct.size());
+                positions[i] = distinct.size();
+                distinct.add(ind);
+            }
+        }
+        numDeduplicationCandidates.addAndGet(candidates);
+        numDuplicates.addAndGet(size - distinct.size());
+        
+        final List<T> evaluated = dispatch(distinct);
+        assert(evaluated.size() == distinct.size());
+        final List<T> childPopulation = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (positions[i] >= 0)
+                childPopulation.add(evaluated.get(positions[i]));
+            else
+                childPopulation.add(retire(parentPopulation.get(i), evaluated.get(-positions[i] - 1).getFitness()));
+        }
+        return childPopulation;
+    }
+    
+    private List<T> dispatch(final List<T> parentPopulation) {
+        assert(parentPopulation != null);
+        if (timeoutNanos.isDefined() || speculativeFraction.isDefined())
+            return evaluateWithDeadlines(parentPopulation);
+        if (asynchronous)
+            return evaluateAsynchronously(parentPopulation);
+        if (random.isDefined())
+            return evaluateWithStreams(parentPopulation);
+        if (numThreads == 1 || parentPopulation.size() == 1)
             return evaluateSequentially(parentPopulation);
         
-        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        final Collection<Callable<T>> tasks = new ArrayList<Callable<T>>(parentPopulation.size()) {{
+        for (final T ind : parentPopulation) {
+            if (constraint.isDefined() && constraint.get().isViolated(ind))
+                throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
+        }
+        final int size = parentPopulation.size();
+        final int chunk = chunkSize.isDefined() ? chunkSize.get() : (size + numThreads - 1)/numThreads;
+        final Collection<Callable<List<F>>> tasks = new ArrayList<Callable<List<F>>>() {{
+            for (int start = 0; start < size; start += chunk)
+                add(new EvalThread(parentPopulation.subList(start, Math.min(start + chunk, size))));
+        }};
+        try {
+            final List<Future<List<F>>> results = executor.invokeAll(tasks);
+            final List<T> childPopulation = new ArrayList<>(size);
+            for (final Future<List<F>> f : results)
+                for (final F fitness : f.get())
+                    childPopulation.add(retire(parentPopulation.get(childPopulation.size()), fitness));
+            return childPopulation;
+        } catch (final InterruptedException | ExecutionException ex) {
+            Logger.getLogger(EvaluationOperator.class.getName()).log(Level.SEVERE, null, ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    private List<T> evaluateSequentially(final List<T> parentPopulation) {
+        assert(parentPopulation != null);
+        assert(!Misc.containsNulls(parentPopulation));
+        // Gather everything that needs to be (re)evaluated into a single batch
+        final List<T> toEvaluate = new ArrayList<>(parentPopulation.size());
+        for (final T ind : parentPopulation) {
+            if (constraint.isDefined() && constraint.get().isViolated(ind))
+                throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
+            if (reevaluate || !ind.isEvaluated())
+                toEvaluate.add(ind);
+        }
+        final Iterator<T> evaluated = evaluateBatch(toEvaluate).iterator();
+        
+        final List<T> childPopulation = new ArrayList<>(parentPopulation.size());
+        for (final T ind : parentPopulation) {
+            if (!reevaluate && ind.isEvaluated())
+                // Keep existing fitness value
+                childPopulation.add(retire(ind));
+            else
+                childPopulation.add(evaluated.next());
+        }
+        assert(!evaluated.hasNext());
+        return childPopulation;
+    }
+    
+    private List<T> evaluateWithStreams(final List<T> parentPopulation) {
+        assert(parentPopulation != null);
+        assert(!Misc.containsNulls(parentPopulation));
+        for (final T ind : parentPopulation) {
+            if (constraint.isDefined() && constraint.get().isViolated(ind))
+                throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
+        }
+        // Drawn on the calling thread, so it doesn't depend on the scheduling below
+        final long root = random.get().nextLong();
+        final int size = parentPopulation.size();
+        if (numThreads == 1)
+            return retireAll(parentPopulation, evaluateRangeInStreams(root, parentPopulation, 0, size));
+        
+        final int chunk = chunkSize.isDefined() ? chunkSize.get() : (size + numThreads - 1)/numThreads;
+        final Collection<Callable<List<F>>> tasks = new ArrayList<Callable<List<F>>>() {{
+            for (int start = 0; start < size; start += chunk) {
+                final int from = start;
+                final int to = Math.min(start + chunk, size);
+                add(new Callable<List<F>>() {
+                    @Override
+                    public List<F> call() throws Exception {
+                        return evaluateRangeInStreams(root, parentPopulation, from, to);
+                    }
+                });
+            }
+        }};
+        try {
+            final List<Future<List<F>>> results = executor.invokeAll(tasks);
+            final List<F> fitnesses = new ArrayList<>(size);
+            for (final Future<List<F>> f : results)
+                fitnesses.addAll(f.get());
+            return retireAll(parentPopulation, fitnesses);
+        } catch (final InterruptedException | ExecutionException ex) {
+            Logger.getLogger(EvaluationOperator.class.getName()).log(Level.SEVERE, null, ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /** @return The fitness of each individual in [from, to), or null for
+     * those whose existing fitness is kept. */
+    private List<F> evaluateRangeInStreams(final long root, final List<T> population, final int from, final int to) {
+        assert(population != null);
+        assert(from >= 0);
+        assert(to <= population.size());
+        final List<F> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            final T ind = population.get(i);
+            if (!reevaluate && ind.isEvaluated())
+                result.add(null); // Keep existing fitness value
+            else {
+                final SRandom.Stream stream = SRandom.openStream(root, i);
+                try {
+                    result.add(fitnessOf(ind));
+                } finally {
+                    stream.close();
+                }
+            }
+        }
+        return result;
+    }
+    
+    /** Retire each individual with the corresponding fitness, or with its
+     * existing fitness where that is null. */
+    private List<T> retireAll(final List<T> population, final List<F> fitnesses) {
+        assert(population != null);
+        assert(fitnesses != null);
+        assert(population.size() == fitnesses.size());
+        final List<T> result = new ArrayList<>(population.size());
+        for (int i = 0; i < population.size(); i++)
+            result.add(fitnesses.get(i) == null ? retire(population.get(i)) : retire(population.get(i), fitnesses.get(i)));
+        return result;
+    }
+    
+    /** Evaluate a batch of individuals with a single call to the objective.
+     * @return New individuals with their fitness set and their parents cleared,
+     *   in the same order as inds. */
+    public List<T> evaluateBatch(final List<T> inds) {
+        assert(inds != null);
+        final List<F> fitnesses = fitnessBatch(inds);
+        final List<T> result = new ArrayList<>(inds.size());
+        for (int i = 0; i < inds.size(); i++)
+            result.add(retire(inds.get(i), fitnesses.get(i)));
+        return result;
+    }
+    
+    /** Compute the fitness of a batch of individuals with a single call to
+     * the objective, without retiring them. */
+    private List<F> fitnessBatch(final List<T> inds) {
+        assert(inds != null);
+        if (inds.isEmpty())
+            return new ArrayList<>(0);
+        final List<P> phenotypes = new ArrayList<>(inds.size());
+        for (final T ind : inds)
+            phenotypes.add(decoder.isDefined() ? decoder.get().decode(ind) : (P) ind);
+        final List<F> fitnesses = objective.fitnessBatch(phenotypes);
+        assert(fitnesses.size() == inds.size());
+        if (counter.isDefined())
+            counter.get().add(inds.size());
+        return fitnesses;
+    }
+    
+    private List<T> evaluateAsynchronously(final List<T> parentPopulation) {
+        assert(parentPopulation != null);
+        assert(!Misc.containsNulls(parentPopulation));
+        final int size = parentPopulation.size();
+        final List<Future<F>> fitnesses = new ArrayList<>(size);
+        final List<T> childPopulation = new ArrayList<>(size);
+        int numInFlight = 0;
+        try {
+            // Dispatch each individual as soon as there is room, so that the evaluations overlap
             for (final T ind : parentPopulation) {
                 if (constraint.isDefined() && constraint.get().isViolated(ind))
                     throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
-                add(new EvalThread(ind));
+                if (!reevaluate && ind.isEvaluated())
+                    fitnesses.add(null); // Keep existing fitness value
+                else {
+                    while (numInFlight == numThreads) {
+                        if (retireNext(parentPopulation, fitnesses, childPopulation))
+                            numInFlight--;
+                    }
+                    final P phenotype = decoder.isDefined() ? decoder.get().decode(ind) : (P) ind;
+                    fitnesses.add(objective.fitnessAsync(phenotype, executor));
+                    numInFlight++;
+                    if (counter.isDefined())
+                        counter.get().increment();
+                }
             }
-        }};
-        try {
-            final List<Future<T>> results = executor.invokeAll(tasks);
-            final List<T> childPopulation = new ArrayList<>(parentPopulation.size());
-            for (final Future<T> f : results)
-                childPopulation.add(f.get());
+            // Then collect the rest of the results in order
+            while (childPopulation.size() < size)
+                retireNext(parentPopulation, fitnesses, childPopulation);
             return childPopulation;
         } catch (final InterruptedException | ExecutionException ex) {
+            for (final Future<F> f : fitnesses) {
+                if (f != null)
+                    f.cancel(true);
+            }
             Logger.getLogger(EvaluationOperator.class.getName()).log(Level.SEVERE, null, ex);
             throw new IllegalStateException(ex);
         }
-        finally {
-            executor.shutdown();
-        }
     }
     
-    private List<T> evaluateSequentially(final List<T> parentPopulation) {
+    /** Wait for the oldest dispatched individual that hasn't been retired yet
+     * and add it to childPopulation.
+     * 
+     * @return True if it was evaluated, false if it kept its existing fitness. */
+    private boolean retireNext(final List<T> parentPopulation, final List<Future<F>> fitnesses, final List<T> childPopulation) throws InterruptedException, ExecutionException {
+        final int i = childPopulation.size();
+        assert(i < fitnesses.size());
+        final Future<F> f = fitnesses.get(i);
+        childPopulation.add(f == null ? retire(parentPopulation.get(i)) : retire(parentPopulation.get(i), f.get()));
+        return f != null;
+    }
+    
+    /** Evaluate each individual in its own task, cancelling evaluations that
+     * time out and duplicating the stragglers. */
+    private List<T> evaluateWithDeadlines(final List<T> parentPopulation) {
         assert(parentPopulation != null);
         assert(!Misc.containsNulls(parentPopulation));
-        return new ArrayList<T>(parentPopulation.size()) {{
-                for (final T ind : parentPopulation) {
-                    if (constraint.isDefined() && constraint.get().isViolated(ind))
-                        throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
-                    if (!reevaluate && ind.isEvaluated())
-                        // Keep existing fitness value
-                        add((T) ind.clearParents());
-                    else {
-                        // Evaluate or re-evaluate fitness
-                        add(evaluate(ind));
+        final long root = random.isDefined() ? random.get().nextLong() : 0;
+        final int size = parentPopulation.size();
+        final CompletionService<F> completion = new ExecutorCompletionService<>(executor);
+        final Map<Future<F>, Integer> indexOf = new HashMap<>();
+        final List<List<Future<F>>> attempts = new ArrayList<>(size);
+        // When each individual's first attempt began to run
+        final AtomicLongArray startTimes = new AtomicLongArray(size);
+        final List<F> fitnesses = new ArrayList<>(size);
+        int pending = 0;
+        for (int i = 0; i < size; i++) {
+            final T ind = parentPopulation.get(i);
+            if (constraint.isDefined() && constraint.get().isViolated(ind))
+                throw new IllegalStateException(String.format("%s: unexpected constraint violation detected.", this.getClass().getSimpleName()));
+            fitnesses.add(null);
+            attempts.add(new ArrayList<Future<F>>(2));
+            startTimes.set(i, Long.MIN_VALUE);
+            if (reevaluate || !ind.isEvaluated()) {
+                submitAttempt(completion, indexOf, attempts, startTimes, root, parentPopulation, i);
+                pending++;
+            }
+        }
+        final int numToEvaluate = pending;
+        int numStarted = pending;
+        final int speculateAfter = speculativeFraction.isDefined() ? (int) Math.ceil(speculativeFraction.get()*numToEvaluate) : Integer.MAX_VALUE;
+        
+        try {
+            while (pending > 0) {
+                final Future<F> done = timeoutNanos.isDefined() ? completion.poll(nanosUntilNextTimeout(fitnesses, attempts, startTimes), TimeUnit.NANOSECONDS) : completion.take();
+                if (done != null && !done.isCancelled()) {
+                    final int i = indexOf.get(done);
+                    if (fitnesses.get(i) == null) {
+                        fitnesses.set(i, done.get());
+                        cancelAll(attempts.get(i)); // Stop the other copy, if there is one
+                        pending--;
                     }
                 }
-        }};
+                if (timeoutNanos.isDefined()) {
+                    final long now = System.nanoTime();
+                    for (int i = 0; i < size; i++) {
+                        if (fitnesses.get(i) != null || attempts.get(i).isEmpty() || !hasStarted(startTimes, i))
+                            continue;
+                        if (now - startTimes.get(i) >= timeoutNanos.get()) {
+                            numTimeouts.incrementAndGet();
+                            if (!penaltyFitness.isDefined()) {
+                                cancelEverything(attempts, startTimes);
+                                throw new IllegalStateException(String.format("%s: evaluation of individual %d timed out after %f seconds.", this.getClass().getSimpleName(), i, timeoutNanos.get()/1.0e9));
+                            }
+                            cancelAll(attempts.get(i));
+                            fitnesses.set(i, penaltyFitness.get());
+                            pending--;
+                        }
+                    }
+                }
+                if (numToEvaluate - pending >= speculateAfter) {
+                    for (int i = 0; i < size; i++) {
+                        if (fitnesses.get(i) == null && attempts.get(i).size() == 1 && hasStarted(startTimes, i)) {
+                            submitAttempt(completion, indexOf, attempts, startTimes, root, parentPopulation, i);
+                            numSpeculativeRuns.incrementAndGet();
+                            numStarted++;
+                        }
+                    }
+                }
+            }
+        } catch (final InterruptedException | ExecutionException ex) {
+            cancelEverything(attempts, startTimes);
+            Logger.getLogger(EvaluationOperator.class.getName()).log(Level.SEVERE, null, ex);
+            throw new IllegalStateException(ex);
+        }
+        if (counter.isDefined())
+            counter.get().add(numStarted);
+        
+        final List<T> childPopulation = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final T ind = parentPopulation.get(i);
+            childPopulation.add(attempts.get(i).isEmpty() ? retire(ind) : retire(ind, fitnesses.get(i)));
+        }
+        return childPopulation;
+    }
+    
+    private void submitAttempt(final CompletionService<F> completion, final Map<Future<F>, Integer> indexOf, final List<List<Future<F>>> attempts, final AtomicLongArray startTimes, final long root, final List<T> population, final int i) {
+        final T ind = population.get(i);
+        final Future<F> f = completion.submit(new Callable<F>() {
+            @Override
+            public F call() throws Exception {
+                startTimes.compareAndSet(i, Long.MIN_VALUE, System.nanoTime());
+                final P phenotype = decoder.isDefined() ? decoder.get().decode(ind) : (P) ind;
+                if (!random.isDefined())
+                    return objective.fitness(phenotype);
+                final SRandom.Stream stream = SRandom.openStream(root, i);
+                try {
+                    return objective.fitness(phenotype);
+                } finally {
+                    stream.close();
+                }
+            }
+        });
+        indexOf.put(f, i);
+        attempts.get(i).add(f);
+    }
+    
+    private static boolean hasStarted(final AtomicLongArray startTimes, final int i) {
+        return startTimes.get(i) != Long.MIN_VALUE;
+    }
+    
+    /** @return How long to wait before the next running evaluation times out.
+     * Evaluations that haven't started yet can't time out any sooner than a
+     * whole timeout from now. */
+    private long nanosUntilNextTimeout(final List<F> fitnesses, final List<List<Future<F>>> attempts, final AtomicLongArray startTimes) {
+        final long now = System.nanoTime();
+        long wait = timeoutNanos.get();
+        for (int i = 0; i < fitnesses.size(); i++) {
+            if (fitnesses.get(i) == null && !attempts.get(i).isEmpty() && hasStarted(startTimes, i))
+                wait = Math.min(wait, startTimes.get(i) + timeoutNanos.get() - now);
+        }
+        return Math.max(wait, 1);
+    }
+    
+    private static <F> void cancelAll(final List<Future<F>> futures) {
+        for (final Future<F> f : futures)
+            f.cancel(true);
+    }
+    
+    /** Cancel every outstanding evaluation.  The queued ones go first, since
+     * interrupting a running one frees its thread to start the next in line. */
+    private static <F> void cancelEverything(final List<List<Future<F>>> attempts, final AtomicLongArray startTimes) {
+        for (int i = 0; i < attempts.size(); i++) {
+            if (!hasStarted(startTimes, i))
+                cancelAll(attempts.get(i));
+        }
+        for (final List<Future<F>> a : attempts)
+            cancelAll(a);
+    }
+    
+    /** @return The number of evaluations that have been cancelled for taking
+     * longer than timeoutSeconds. */
+    public long getNumTimeouts() {
+        return numTimeouts.get();
+    }
+    
+    /** @return The number of duplicate evaluations that have been started
+     * for stragglers. */
+    public long getNumSpeculativeRuns() {
+        return numSpeculativeRuns.get();
+    }
+    
+    /** @return The number of individuals that have needed evaluation while
+     * "deduplicate" was set, since the statistics were last reset. */
+    public long getNumDeduplicationCandidates() {
+        return numDeduplicationCandidates.get();
     }
     
-    private class EvalThread implements Callable<T> {
-        private final T ind;
+    /** @return The number of those individuals whose fitness was copied from
+     * an earlier individual with the same genome instead of being evaluated. */
+    public long getNumDuplicates() {
+        return numDuplicates.get();
+    }
+    
+    public void resetDeduplicationStatistics() {
+        numDeduplicationCandidates.set(0);
+        numDuplicates.set(0);
+    }
+    
+    private class EvalThread implements Callable<List<F>> {
+        private final List<T> chunk;
         
-        EvalThread(final T ind) {
-            assert(ind != null);
-            this.ind = ind;
+        EvalThread(final List<T> chunk) {
+            assert(chunk != null);
+            this.chunk = chunk;
             assert(repOK());
         }
         
         @Override
-        public T call() throws Exception {
+        public List<F> call() throws Exception {
             assert(repOK());
-            return evaluate(ind);
+            return fitnessBatch(chunk);
         }
         
         public final boolean repOK() {
-            return ind != null;
+            return chunk != null;
         }
     }
     
+    /** Evaluate an individual with a single call to the objective, whether
+     * or not it has been evaluated before.  Options that apply to whole
+     * populations (ex. "constraint", "timeoutSeconds" or "randomStreams") are
+     * ignored; use operateInd() to have them applied. */
     public T evaluate(final T ind) {
+        return retire(ind, fitnessOf(ind));
+    }
+    
+    /** Evaluate a single individual the same way operate() would evaluate a
+     * member of the population, honouring every option that applies to it.
+     * "deduplicate" has nothing to compare a lone individual against, so it
+     * has no effect here.  Unlike operate(), this does not flush the lineage
+     * recorder.
+     * 
+     * @param ind The individual to evaluate.
+     * @param step Ignored.
+     * @return A new individual with its fitness value (re)set and its parents
+     *   attribute cleared. */
+    public T operateInd(final T ind, final int step) {
+        assert(ind != null);
+        return dispatch(Collections.singletonList(ind)).get(0);
+    }
+    
+    /** @return True if deduplicate was set. */
+    public boolean isDeduplicating() {
+        return deduplicate;
+    }
+    
+    /** @return True if operateInd() could queue tasks on the given executor
+     * and wait for them, which can deadlock if it is called from the
+     * executor's own threads. */
+    public boolean waitsOnTasksIn(final EvaluationExecutor executor) {
+        return (timeoutNanos.isDefined() || speculativeFraction.isDefined()) && executor == this.executor;
+    }
+    
+    private F fitnessOf(final T ind) {
         final P phenotype = decoder.isDefined() ? decoder.get().decode(ind) : (P) ind;
         final F fitness = objective.fitness(phenotype);
-        return (T) ind.clearParents().setFitness(fitness);
+        if (counter.isDefined())
+            counter.get().increment();
+        return fitness;
+    }
+    
+    /** Produce the evaluated copy of an individual, with its parents cleared
+     * and its fitness set, and report its lineage. */
+    private T retire(final T ind, final F fitness) {
+        assert(ind != null);
+        assert(fitness != null);
+        return recordLineage(ind, (T) ind.clearParents().setFitness(fitness));
+    }
+    
+    /** Like retire(T, F), but keeps the individual's existing fitness. */
+    private T retire(final T ind) {
+        assert(ind != null);
+        return recordLineage(ind, (T) ind.clearParents());
+    }
+    
+    private T recordLineage(final T ind, final T result) {
+        assert(ind != null);
+        assert(result != null);
+        if (lineage.isDefined()) {
+            final long[] parentIDs;
+            if (ind.hasParents())
+                parentIDs = ind.getParentIDs().get();
+            else if (ind.isEvaluated())
+                parentIDs = new long[] { ind.getID() }; // An existing individual that only got a new ID
+            else
+                parentIDs = new long[0];
+            lineage.get().record(result.getID(), parentIDs);
+        }
+        return result;
     }
 
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
@@ -190,8 +872,44 @@ public class EvaluationOperator<T extends Individual<F>, P, F extends Fitness> e
                 && !P_DECODER.isEmpty()
                 && P_OBJECTIVE != null
                 && !P_OBJECTIVE.isEmpty()
+                && P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
                 && decoder != null
-                && objective != null;
+                && objective != null
+                && P_MAX_IN_FLIGHT != null
+                && !P_MAX_IN_FLIGHT.isEmpty()
+                && P_CHUNK_SIZE != null
+                && !P_CHUNK_SIZE.isEmpty()
+                && chunkSize != null
+                && random != null
+                && lineage != null
+                && counter != null
+                && P_COUNTER != null
+                && !P_COUNTER.isEmpty()
+                && P_TIMEOUT != null
+                && !P_TIMEOUT.isEmpty()
+                && P_PENALTY_FITNESS != null
+                && !P_PENALTY_FITNESS.isEmpty()
+                && P_SPECULATIVE_FRACTION != null
+                && !P_SPECULATIVE_FRACTION.isEmpty()
+                && P_DEDUPLICATE != null
+                && !P_DEDUPLICATE.isEmpty()
+                && timeoutNanos != null
+                && penaltyFitness != null
+                && speculativeFraction != null
+                && !(timeoutNanos.isDefined() && timeoutNanos.get() <= 0)
+                && !(penaltyFitness.isDefined() && !timeoutNanos.isDefined())
+                && !(speculativeFraction.isDefined() && !(speculativeFraction.get() > 0.0 && speculativeFraction.get() <= 1.0))
+                && P_LINEAGE != null
+                && !P_LINEAGE.isEmpty()
+                && !(asynchronous && random.isDefined())
+                && P_RANDOM_STREAMS != null
+                && !P_RANDOM_STREAMS.isEmpty()
+                && P_RANDOM != null
+                && !P_RANDOM.isEmpty()
+                && !(chunkSize.isDefined() && chunkSize.get() < 1)
+                && numThreads > 0
+                && executor != null;
     }
 
     @Override
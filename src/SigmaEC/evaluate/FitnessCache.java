@@ -0,0 +1,589 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.ContractObject;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.meta.Fitness;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe, bounded memo of fitness values, keyed on genome content (see
+ * GenomeKey) rather than on whole individuals, and on the objective that
+ * computed them.
+ *
+ * The cache holds at most "maxEntries" entries (default 100000), or, if
+ * "maxBytes" is given instead, roughly that many bytes of keys.  When it is
+ * full, entries are evicted according to "policy":
+ * <ul>
+ * <li>LRU (the default) evicts the least-recently used entry.</li>
+ * <li>TINY_LFU is a W-TinyLFU policy: new entries wait in a small LRU window,
+ * and are only admitted to the main (segmented LRU) region if they have been
+ * looked up more often than the entry they would replace, as estimated by a
+ * count-min sketch.  This keeps a burst of one-off genomes from flushing out
+ * the ones that keep coming back.</li>
+ * </ul>
+ *
+ * If several threads miss on the same genome at once, only one of them
+ * evaluates it and the rest wait for its result.
+ *
+ * One instance may be shared among several objectives (and metrics) with the
+ * '%' syntax, so that they draw on a single memory budget.  Every entry is
+ * tagged with the objective instance that computed it, so objectives never
+ * see each other's values.  A FitnessCachePopulationMetric reports the
+ * cache's hit, miss, and eviction counts.
+ *
+ * @author Eric O. Scott
+ */
+public class FitnessCache<F extends Fitness> extends ContractObject {
+    public final static String P_MAX_ENTRIES = "maxEntries";
+    public final static String P_MAX_BYTES = "maxBytes";
+    public final static String P_POLICY = "policy";
+    public final static long DEFAULT_MAX_ENTRIES = 100000;
+    /** Estimated bytes used by each entry besides its key (map nodes, the fitness object...). */
+    private final static long ENTRY_OVERHEAD = 96;
+
+    public static enum EvictionPolicy { LRU, TINY_LFU };
+
+    private final EvictionPolicy policy;
+    private final boolean boundedByBytes;
+    private final long capacity;
+    private final Store<F> store;
+    private final ConcurrentMap<Key, Promise<F>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong collapsedMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public FitnessCache(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        policy = EvictionPolicy.valueOf(parameters.getOptionalStringParameter(Parameters.push(base, P_POLICY), EvictionPolicy.LRU.toString()));
+        boundedByBytes = parameters.isDefined(Parameters.push(base, P_MAX_BYTES));
+        if (boundedByBytes) {
+            if (parameters.isDefined(Parameters.push(base, P_MAX_ENTRIES)))
+                throw new IllegalStateException(String.format("%s: only one of '%s' and '%s' may be defined.", this.getClass().getSimpleName(), Parameters.push(base, P_MAX_ENTRIES), Parameters.push(base, P_MAX_BYTES)));
+            capacity = parameters.getLongParameter(Parameters.push(base, P_MAX_BYTES));
+        }
+        else
+            capacity = parameters.getOptionalLongParameter(Parameters.push(base, P_MAX_ENTRIES), DEFAULT_MAX_ENTRIES);
+        if (capacity < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), boundedByBytes ? P_MAX_BYTES : P_MAX_ENTRIES, capacity));
+        store = newStore();
+        assert(repOK());
+    }
+
+    /** A cache holding at most maxEntries entries. */
+    public FitnessCache(final long maxEntries, final EvictionPolicy policy) {
+        assert(maxEntries > 0);
+        assert(policy != null);
+        this.policy = policy;
+        this.boundedByBytes = false;
+        this.capacity = maxEntries;
+        store = newStore();
+        assert(repOK());
+    }
+
+    private Store<F> newStore() {
+        // Size the frequency sketch for about as many distinct genomes as fit in the cache
+        final long expectedEntries = boundedByBytes ? capacity/(ENTRY_OVERHEAD + 64) : capacity;
+        return policy == EvictionPolicy.LRU ? new LruStore<F>(capacity) : new TinyLfuStore<F>(capacity, expectedEntries);
+    }
+
+    /** @return The fitness of phenotype, either from the cache or by
+     * evaluating it on objective (which is then remembered). */
+    public <P> F fitness(final P phenotype, final ObjectiveFunction<P, F> objective) {
+        assert(phenotype != null);
+        assert(objective != null);
+        final Key key = new Key(objective, GenomeKey.of(phenotype));
+        final F cached = lookup(key);
+        if (cached != null)
+            return cached;
+        final Promise<F> promise = new Promise<>();
+        final Promise<F> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            // Someone else is already evaluating this genome
+            collapsedMisses.incrementAndGet();
+            return existing.await();
+        }
+        misses.incrementAndGet();
+        try {
+            final F fitness = objective.fitness(phenotype);
+            remember(key, fitness);
+            promise.complete(fitness);
+            return fitness;
+        } catch (final RuntimeException e) {
+            promise.fail(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, promise);
+        }
+    }
+
+    /** Like fitness(), but sends every genome that is missing from the cache
+     * (and isn't already being evaluated by another thread) to objective in a
+     * single call to fitnessBatch().  Duplicate genomes within the batch are
+     * evaluated only once.
+     * @return The fitness of each phenotype, in order. */
+    public <P> List<F> fitnessBatch(final List<? extends P> phenotypes, final ObjectiveFunction<P, F> objective) {
+        assert(phenotypes != null);
+        assert(objective != null);
+        final int size = phenotypes.size();
+        final List<F> result = new ArrayList<>(size);
+        final List<Key> keys = new ArrayList<>(size);
+        final Map<Integer, Promise<F>> waiting = new LinkedHashMap<>();
+        final Map<Key, Promise<F>> claimed = new LinkedHashMap<>();
+        final List<P> toEvaluate = new ArrayList<>();
+        final List<Integer> toEvaluateIndices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final P phenotype = phenotypes.get(i);
+            final Key key = new Key(objective, GenomeKey.of(phenotype));
+            keys.add(key);
+            result.add(lookup(key));
+            if (result.get(i) != null)
+                continue;
+            final Promise<F> ours = claimed.get(key);
+            if (ours != null) {
+                collapsedMisses.incrementAndGet();
+                waiting.put(i, ours);
+                continue;
+            }
+            final Promise<F> promise = new Promise<>();
+            final Promise<F> existing = inFlight.putIfAbsent(key, promise);
+            if (existing != null) {
+                collapsedMisses.incrementAndGet();
+                waiting.put(i, existing);
+                continue;
+            }
+            misses.incrementAndGet();
+            claimed.put(key, promise);
+            toEvaluate.add(phenotype);
+            toEvaluateIndices.add(i);
+        }
+
+        // Finish everything we claimed before waiting on anyone else, so that no two threads can wait on each other
+        try {
+            if (!toEvaluate.isEmpty()) {
+                final List<F> fitnesses = objective.fitnessBatch(toEvaluate);
+                assert(fitnesses.size() == toEvaluate.size());
+                for (int j = 0; j < fitnesses.size(); j++) {
+                    final int i = toEvaluateIndices.get(j);
+                    final F fitness = fitnesses.get(j);
+                    result.set(i, fitness);
+                    remember(keys.get(i), fitness);
+                    claimed.get(keys.get(i)).complete(fitness);
+                }
+            }
+        } catch (final RuntimeException e) {
+            for (final Promise<F> p : claimed.values())
+                p.fail(e);
+            throw e;
+        } finally {
+            for (final Map.Entry<Key, Promise<F>> entry : claimed.entrySet())
+                inFlight.remove(entry.getKey(), entry.getValue());
+        }
+        for (final Map.Entry<Integer, Promise<F>> entry : waiting.entrySet())
+            result.set(entry.getKey(), entry.getValue().await());
+        return result;
+    }
+
+    private synchronized F lookup(final Key key) {
+        final F fitness = store.get(key);
+        if (fitness != null)
+            hits.incrementAndGet();
+        return fitness;
+    }
+
+    private synchronized void remember(final Key key, final F fitness) {
+        assert(fitness != null);
+        final long weight = boundedByBytes ? key.genome.getSizeInBytes() + ENTRY_OVERHEAD : 1;
+        evictions.addAndGet(store.put(key, fitness, weight));
+    }
+
+    /** Forget every cached fitness value.  Statistics are kept. */
+    public synchronized void clear() {
+        store.clear();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Statistics">
+    /** @return The number of entries in the cache. */
+    public synchronized int size() { return store.size(); }
+    /** @return The total weight of the cache's entries: their count, or an
+     * estimate of their size in bytes if the cache is bounded by maxBytes. */
+    public synchronized long getWeight() { return store.weight(); }
+    public long getCapacity() { return capacity; }
+    public boolean isBoundedByBytes() { return boundedByBytes; }
+    public EvictionPolicy getPolicy() { return policy; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    /** @return The number of misses that waited for another thread's evaluation
+     * of the same genome instead of evaluating it again. */
+    public long getCollapsedMisses() { return collapsedMisses.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    /** @return The fraction of lookups that were answered without an
+     * evaluation, or 0 if there have been none. */
+    public double getHitRate() {
+        final long h = hits.get();
+        final long total = h + misses.get() + collapsedMisses.get();
+        return total == 0 ? 0.0 : (double) h/total;
+    }
+
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+        collapsedMisses.set(0);
+        evictions.set(0);
+    }
+    // </editor-fold>
+
+    /** A result that another thread is still computing. */
+    private static class Promise<F> extends FutureTask<F> {
+        Promise() {
+            super(new Callable<F>() {
+                @Override
+                public F call() throws Exception {
+                    throw new UnsupportedOperationException();
+                }
+            });
+        }
+
+        void complete(final F value) { set(value); }
+        void fail(final Throwable t) { setException(t); }
+
+        F await() {
+            try {
+                return get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            } catch (final ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+    }
+
+    /** A genome, qualified by the objective that evaluated it.  Objectives
+     * are compared by identity, since two objectives may be equal by their
+     * parameters but still hold different state. */
+    private final static class Key {
+        final Object objective;
+        final GenomeKey genome;
+
+        Key(final Object objective, final GenomeKey genome) {
+            assert(objective != null);
+            assert(genome != null);
+            this.objective = objective;
+            this.genome = genome;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key))
+                return false;
+            final Key ref = (Key) o;
+            return objective == ref.objective
+                    && genome.equals(ref.genome);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31*System.identityHashCode(objective) + genome.hashCode();
+        }
+    }
+
+    private static class Entry<F> {
+        final F value;
+        final long weight;
+
+        Entry(final F value, final long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /** The eviction policy.  Not thread-safe: the cache synchronizes access. */
+    private static abstract class Store<F> {
+        /** @return The value for key, or null, and record the access. */
+        abstract F get(Key key);
+        /** Add an entry, evicting others as needed.
+         * @return The number of entries evicted. */
+        abstract int put(Key key, F value, long weight);
+        abstract int size();
+        abstract long weight();
+        abstract void clear();
+
+        static <F> Map.Entry<Key, Entry<F>> eldest(final LinkedHashMap<Key, Entry<F>> map) {
+            final Iterator<Map.Entry<Key, Entry<F>>> it = map.entrySet().iterator();
+            return it.hasNext() ? it.next() : null;
+        }
+    }
+
+    private static class LruStore<F> extends Store<F> {
+        private final long capacity;
+        private final LinkedHashMap<Key, Entry<F>> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight = 0;
+
+        LruStore(final long capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        F get(final Key key) {
+            final Entry<F> e = map.get(key);
+            return e == null ? null : e.value;
+        }
+
+        @Override
+        int put(final Key key, final F value, final long w) {
+            final Entry<F> old = map.put(key, new Entry<>(value, w));
+            weight += w - (old == null ? 0 : old.weight);
+            int evicted = 0;
+            while (weight > capacity && !map.isEmpty()) {
+                final Map.Entry<Key, Entry<F>> eldest = eldest(map);
+                map.remove(eldest.getKey());
+                weight -= eldest.getValue().weight;
+                evicted++;
+            }
+            return evicted;
+        }
+
+        @Override int size() { return map.size(); }
+        @Override long weight() { return weight; }
+
+        @Override
+        void clear() {
+            map.clear();
+            weight = 0;
+        }
+    }
+
+    /** W-TinyLFU: an LRU admission window in front of a segmented LRU main
+     * region, with admission to the main region decided by estimated
+     * frequency. */
+    private static class TinyLfuStore<F> extends Store<F> {
+        private final long windowCapacity;
+        private final long mainCapacity;
+        private final long protectedCapacity;
+        private final LinkedHashMap<Key, Entry<F>> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Key, Entry<F>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Key, Entry<F>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private long windowWeight = 0;
+        private long probationWeight = 0;
+        private long protectedWeight = 0;
+        private final FrequencySketch sketch;
+
+        TinyLfuStore(final long capacity, final long expectedEntries) {
+            windowCapacity = Math.max(1, capacity/100);
+            mainCapacity = Math.max(1, capacity - windowCapacity);
+            protectedCapacity = mainCapacity*8/10;
+            sketch = new FrequencySketch(expectedEntries);
+        }
+
+        @Override
+        F get(final Key key) {
+            sketch.increment(key);
+            Entry<F> e = window.get(key);
+            if (e != null)
+                return e.value;
+            e = protectedSegment.get(key);
+            if (e != null)
+                return e.value;
+            e = probation.remove(key);
+            if (e != null) {
+                // A second hit earns an entry a place in the protected segment
+                probationWeight -= e.weight;
+                protectedSegment.put(key, e);
+                protectedWeight += e.weight;
+                while (protectedWeight > protectedCapacity) {
+                    final Map.Entry<Key, Entry<F>> demoted = eldest(protectedSegment);
+                    protectedSegment.remove(demoted.getKey());
+                    protectedWeight -= demoted.getValue().weight;
+                    probation.put(demoted.getKey(), demoted.getValue());
+                    probationWeight += demoted.getValue().weight;
+                }
+                return e.value;
+            }
+            return null;
+        }
+
+        @Override
+        int put(final Key key, final F value, final long w) {
+            remove(key);
+            window.put(key, new Entry<>(value, w));
+            windowWeight += w;
+            int evicted = 0;
+            while (windowWeight > windowCapacity) {
+                final Map.Entry<Key, Entry<F>> candidate = eldest(window);
+                window.remove(candidate.getKey());
+                windowWeight -= candidate.getValue().weight;
+                evicted += admit(candidate.getKey(), candidate.getValue());
+            }
+            return evicted;
+        }
+
+        /** Move an entry from the window into the main region if it is used
+         * more often than the entries it would displace.
+         * @return The number of entries evicted (possibly the candidate itself). */
+        private int admit(final Key key, final Entry<F> candidate) {
+            if (candidate.weight > mainCapacity)
+                return 1;
+            int evicted = 0;
+            while (probationWeight + protectedWeight + candidate.weight > mainCapacity) {
+                final boolean fromProbation = !probation.isEmpty();
+                final Map.Entry<Key, Entry<F>> victim = fromProbation ? eldest(probation) : eldest(protectedSegment);
+                if (sketch.frequency(key) <= sketch.frequency(victim.getKey()))
+                    return evicted + 1; // Reject the candidate
+                if (fromProbation) {
+                    probation.remove(victim.getKey());
+                    probationWeight -= victim.getValue().weight;
+                }
+                else {
+                    protectedSegment.remove(victim.getKey());
+                    protectedWeight -= victim.getValue().weight;
+                }
+                evicted++;
+            }
+            probation.put(key, candidate);
+            probationWeight += candidate.weight;
+            return evicted;
+        }
+
+        private void remove(final Key key) {
+            Entry<F> e;
+            if ((e = window.remove(key)) != null)
+                windowWeight -= e.weight;
+            else if ((e = probation.remove(key)) != null)
+                probationWeight -= e.weight;
+            else if ((e = protectedSegment.remove(key)) != null)
+                protectedWeight -= e.weight;
+        }
+
+        @Override int size() { return window.size() + probation.size() + protectedSegment.size(); }
+        @Override long weight() { return windowWeight + probationWeight + protectedWeight; }
+
+        @Override
+        void clear() {
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+            sketch.clear();
+        }
+    }
+
+    /** A count-min sketch of how often each key has been looked up, with
+     * small saturating counters that are periodically halved so that old
+     * popularity fades. */
+    private static class FrequencySketch {
+        private final static int DEPTH = 4;
+        private final static int MAX_COUNT = 15;
+        private final static int[] SEEDS = { 0x97cb3127, 0xa6d4b0f9, 0xc2b2ae35, 0x27d4eb2f };
+        private final int[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(final long expectedEntries) {
+            final int width = Integer.highestOneBit((int) Math.max(16, Math.min(expectedEntries, 1 << 22)) - 1) << 1;
+            table = new int[DEPTH][width];
+            mask = width - 1;
+            sampleSize = 10*width;
+        }
+
+        private int index(final Key key, final int row) {
+            int h = key.hashCode()*SEEDS[row];
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        void increment(final Key key) {
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                final int i = index(key, row);
+                if (table[row][i] < MAX_COUNT) {
+                    table[row][i]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize)
+                age();
+        }
+
+        int frequency(final Key key) {
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++)
+                min = Math.min(min, table[row][index(key, row)]);
+            return min;
+        }
+
+        private void age() {
+            for (final int[] row : table) {
+                for (int i = 0; i < row.length; i++)
+                    row[i] >>>= 1;
+            }
+            additions /= 2;
+        }
+
+        void clear() {
+            for (final int[] row : table) {
+                for (int i = 0; i < row.length; i++)
+                    row[i] = 0;
+            }
+            additions = 0;
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_MAX_ENTRIES != null
+                && !P_MAX_ENTRIES.isEmpty()
+                && P_MAX_BYTES != null
+                && !P_MAX_BYTES.isEmpty()
+                && P_POLICY != null
+                && !P_POLICY.isEmpty()
+                && policy != null
+                && capacity > 0
+                && store != null
+                && inFlight != null
+                && hits.get() >= 0
+                && misses.get() >= 0
+                && collapsedMisses.get() >= 0
+                && evictions.get() >= 0;
+    }
+
+    /** Caches are compared by identity, since each one is meant to be shared. */
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%d, size=%d]", this.getClass().getSimpleName(),
+                P_POLICY, policy,
+                boundedByBytes ? P_MAX_BYTES : P_MAX_ENTRIES, capacity,
+                size());
+    }
+    // </editor-fold>
+}
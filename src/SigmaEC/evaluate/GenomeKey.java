@@ -0,0 +1,175 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.ContractObject;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.represent.linear.IntVectorIndividual;
+import SigmaEC.represent.linear.LinearGenomeIndividual;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies a phenotype by its genome alone, for use as a key in a
+ * FitnessCache.  Two individuals with equal genomes have equal keys even if
+ * their IDs, fitness, or parents differ.
+ *
+ * Double and int vectors are keyed on their arrays, and other linear genomes
+ * on their list of genes.  Any other phenotype is used as its own key, so it
+ * must implement equals() and hashCode() on its content.
+ *
+ * @author Eric O. Scott
+ */
+public final class GenomeKey extends ContractObject {
+    /** A rough per-object overhead used when estimating sizes, in bytes. */
+    private final static int OBJECT_OVERHEAD = 16;
+    private final static int REFERENCE_SIZE = 8;
+    /** The assumed size of phenotypes we know nothing about, in bytes. */
+    private final static int DEFAULT_SIZE = 64;
+
+    private final Class<?> type;
+    private final Object genome;
+    private final int hash;
+    private final long sizeInBytes;
+
+    private GenomeKey(final Class<?> type, final Object genome, final int genomeHash, final long genomeBytes) {
+        assert(type != null);
+        assert(genome != null);
+        this.type = type;
+        this.genome = genome;
+        this.hash = 31*type.hashCode() + genomeHash;
+        this.sizeInBytes = OBJECT_OVERHEAD + 3*REFERENCE_SIZE + genomeBytes;
+        assert(repOK());
+    }
+
+    public static GenomeKey of(final Object phenotype) {
+        assert(phenotype != null);
+        final Class<?> type = phenotype.getClass();
+        if (phenotype instanceof DoubleVectorIndividual) {
+            // Individuals are immutable, so the view can be kept without copying
+            final double[] genome = ((DoubleVectorIndividual) phenotype).getGenomeView();
+            return new GenomeKey(type, genome, Arrays.hashCode(genome), OBJECT_OVERHEAD + 8L*genome.length);
+        }
+        if (phenotype instanceof IntVectorIndividual) {
+            final int[] genome = ((IntVectorIndividual) phenotype).getGenomeArray();
+            return new GenomeKey(type, genome, Arrays.hashCode(genome), OBJECT_OVERHEAD + 4L*genome.length);
+        }
+        if (phenotype instanceof LinearGenomeIndividual) {
+            final List<?> genome = ((LinearGenomeIndividual) phenotype).getGenome();
+            return new GenomeKey(type, genome, genome.hashCode(), OBJECT_OVERHEAD + (long) (REFERENCE_SIZE + DEFAULT_SIZE/2)*genome.size());
+        }
+        return new GenomeKey(type, phenotype, phenotype.hashCode(), DEFAULT_SIZE);
+    }
+
+    /**
+     * A 128-bit hash of the genome and its type, for keys that have to outlive
+     * the JVM (unlike hashCode(), which may not be stable from run to run).
+     * Vector genomes are hashed on their exact values; other genomes on the
+     * toString() of their genes, which must identify them.
+     *
+     * @return The high and low halves of the fingerprint.
+     */
+    public long[] getFingerprint() {
+        final Fingerprinter f = new Fingerprinter();
+        f.add(type.getName());
+        if (genome instanceof double[]) {
+            for (final double x : (double[]) genome)
+                f.add(Double.doubleToLongBits(x));
+        }
+        else if (genome instanceof int[]) {
+            for (final int x : (int[]) genome)
+                f.add(x);
+        }
+        else if (genome instanceof List) {
+            for (final Object gene : (List<?>) genome)
+                f.add(String.valueOf(gene));
+        }
+        else
+            f.add(genome.toString());
+        return f.finish();
+    }
+
+    /** @return A 64-bit hash of a string that is stable across JVMs. */
+    public static long fingerprint(final String s) {
+        assert(s != null);
+        final Fingerprinter f = new Fingerprinter();
+        f.add(s);
+        return f.finish()[0];
+    }
+
+    /** Two independently-seeded 64-bit multiply-xorshift hashes, fed one
+     * long at a time. */
+    private static class Fingerprinter {
+        private long h1 = 0x9E3779B97F4A7C15L;
+        private long h2 = 0xC2B2AE3D27D4EB4FL;
+        private long length = 0;
+
+        void add(final long x) {
+            h1 = mix(h1 ^ x) * 0xBF58476D1CE4E5B9L;
+            h2 = mix(h2 + x) * 0x94D049BB133111EBL;
+            length++;
+        }
+
+        void add(final String s) {
+            add(s.length());
+            for (int i = 0; i < s.length(); i++)
+                add(s.charAt(i));
+        }
+
+        long[] finish() {
+            return new long[] { mix(h1 ^ length), mix(h2 + length) };
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /** @return A rough estimate of the memory this key holds on to, in bytes. */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return type != null
+                && genome != null
+                && sizeInBytes > 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof GenomeKey))
+            return false;
+        final GenomeKey ref = (GenomeKey)o;
+        if (hash != ref.hash || !type.equals(ref.type))
+            return false;
+        if (genome instanceof double[])
+            return ref.genome instanceof double[] && Arrays.equals((double[]) genome, (double[]) ref.genome);
+        if (genome instanceof int[])
+            return ref.genome instanceof int[] && Arrays.equals((int[]) genome, (int[]) ref.genome);
+        return genome.equals(ref.genome);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final String genomeString;
+        if (genome instanceof double[])
+            genomeString = Arrays.toString((double[]) genome);
+        else if (genome instanceof int[])
+            genomeString = Arrays.toString((int[]) genome);
+        else
+            genomeString = Objects.toString(genome);
+        return String.format("[%s: type=%s, genome=%s]", this.getClass().getSimpleName(), type.getSimpleName(), genomeString);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,355 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.ContractObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A file of scalar fitness values that persists across runs and experiments,
+ * keyed by (namespace, genome fingerprint).  The namespace identifies the
+ * objective, so that values from different objectives never mix.
+ *
+ * The file is a memory-mapped, append-only log of fixed-size records behind
+ * a small header.  Opening it reads the log into an in-memory hash index, so
+ * lookups are lock-free and never touch the disk; adding a value appends one
+ * record.  A record only becomes part of the log once the header's record
+ * count has been updated, so a crash part-way through an append loses at most
+ * that record.  If a value is replaced, its old record is left behind as
+ * garbage, and compact() (run automatically on open when at least half the
+ * log is garbage) rewrites the file with only the live records.
+ *
+ * There is one store per file in each JVM: open() returns the same instance
+ * to every caller, so concurrent runs share it safely.  The file is locked
+ * while it is open, and it is an error to open it from a second process.
+ *
+ * @author Eric O. Scott
+ */
+public final class PersistentFitnessStore extends ContractObject {
+    private final static long MAGIC = 0x5349474D41464954L; // "SIGMAFIT"
+    private final static int VERSION = 1;
+    private final static int COUNT_OFFSET = 16;
+    private final static int HEADER_SIZE = 32;
+    /** namespace, fingerprint (two longs), and fitness. */
+    private final static int RECORD_SIZE = 32;
+    private final static long INITIAL_CAPACITY = 1024;
+
+    private final static Map<File, PersistentFitnessStore> OPEN = new HashMap<>();
+
+    private final File file;
+    private final ConcurrentMap<Key, Double> index = new ConcurrentHashMap<>();
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private long capacity;
+    /** The number of records in the log, including replaced ones. */
+    private long numRecords;
+
+    /** @return The store backed by the given file, opening (or creating) it
+     * if no one in this JVM has yet. */
+    public static PersistentFitnessStore open(final File file) {
+        assert(file != null);
+        synchronized (OPEN) {
+            final File canonical;
+            try {
+                canonical = file.getCanonicalFile();
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            PersistentFitnessStore store = OPEN.get(canonical);
+            if (store == null) {
+                store = new PersistentFitnessStore(canonical);
+                OPEN.put(canonical, store);
+            }
+            return store;
+        }
+    }
+
+    private PersistentFitnessStore(final File file) {
+        assert(file != null);
+        this.file = file;
+        try {
+            map();
+            load();
+            if (numRecords > INITIAL_CAPACITY && numRecords > 2*index.size()) {
+                try {
+                    compact();
+                } catch (final IllegalStateException ex) {
+                    if (buffer == null)
+                        throw ex;
+                    // The old log is still open, so carry on with it
+                    Logger.getLogger(PersistentFitnessStore.class.getName()).log(Level.WARNING, null, ex);
+                }
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException(String.format("%s: could not open '%s'.", this.getClass().getSimpleName(), file), ex);
+        }
+        assert(repOK());
+    }
+
+    /** Open the file, lock it, check or write its header, and map it. */
+    private void map() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        lock = channel.tryLock();
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException(String.format("%s: '%s' is in use by another process.", this.getClass().getSimpleName(), file));
+        }
+        final long size = channel.size();
+        if (size == 0) {
+            numRecords = 0;
+            capacity = INITIAL_CAPACITY;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity*RECORD_SIZE);
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, VERSION);
+            buffer.putInt(12, RECORD_SIZE);
+            buffer.putLong(COUNT_OFFSET, 0);
+            return;
+        }
+        if (size < HEADER_SIZE)
+            throw new IOException("file is too short to be a fitness store.");
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION || header.getInt(12) != RECORD_SIZE)
+            throw new IOException("not a fitness store, or written by an incompatible version.");
+        // Ignore any records the file was truncated in the middle of
+        numRecords = Math.min(header.getLong(COUNT_OFFSET), (size - HEADER_SIZE)/RECORD_SIZE);
+        capacity = Math.max(INITIAL_CAPACITY, (size - HEADER_SIZE)/RECORD_SIZE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity*RECORD_SIZE);
+    }
+
+    /** Read every record into the index, later records replacing earlier ones. */
+    private void load() {
+        index.clear();
+        for (long i = 0; i < numRecords; i++) {
+            final int position = (int) (HEADER_SIZE + i*RECORD_SIZE);
+            final Key key = new Key(buffer.getLong(position), buffer.getLong(position + 8), buffer.getLong(position + 16));
+            index.put(key, buffer.getDouble(position + 24));
+        }
+    }
+
+    /** @return The stored fitness for a genome under the given namespace, or
+     * null if there is none. */
+    public Double get(final long namespace, final long[] fingerprint) {
+        assert(fingerprint != null);
+        assert(fingerprint.length == 2);
+        return index.get(new Key(namespace, fingerprint[0], fingerprint[1]));
+    }
+
+    /** Store a fitness value, replacing any previous one for the same key. */
+    public synchronized void put(final long namespace, final long[] fingerprint, final double fitness) {
+        assert(fingerprint != null);
+        assert(fingerprint.length == 2);
+        if (buffer == null)
+            throw new IllegalStateException(String.format("%s: '%s' has been closed.", this.getClass().getSimpleName(), file));
+        final Key key = new Key(namespace, fingerprint[0], fingerprint[1]);
+        final Double old = index.get(key);
+        if (old != null && Double.doubleToLongBits(old) == Double.doubleToLongBits(fitness))
+            return;
+        if (numRecords == capacity)
+            grow();
+        final int position = (int) (HEADER_SIZE + numRecords*RECORD_SIZE);
+        buffer.putLong(position, key.namespace);
+        buffer.putLong(position + 8, key.high);
+        buffer.putLong(position + 16, key.low);
+        buffer.putDouble(position + 24, fitness);
+        numRecords++;
+        buffer.putLong(COUNT_OFFSET, numRecords); // Commits the record
+        index.put(key, fitness);
+    }
+
+    private void grow() {
+        final long newCapacity = 2*capacity;
+        if (HEADER_SIZE + newCapacity*RECORD_SIZE > Integer.MAX_VALUE)
+            throw new IllegalStateException(String.format("%s: '%s' is full.", this.getClass().getSimpleName(), file));
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + newCapacity*RECORD_SIZE);
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        capacity = newCapacity;
+    }
+
+    /** Rewrite the file with only the live records and no spare capacity.
+     * If that fails, the store goes back to the old log, or, if even that
+     * can't be reopened, is closed. */
+    public void compact() {
+        synchronized (OPEN) { // Same lock order as close()
+            synchronized (this) {
+                compactLog();
+            }
+        }
+        assert(repOK());
+    }
+
+    private void compactLog() {
+        if (buffer == null)
+            throw new IllegalStateException(String.format("%s: '%s' has been closed.", this.getClass().getSimpleName(), file));
+        final File temp = new File(file.getPath() + ".compact");
+        try {
+            try (final RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+                out.setLength(0);
+                final FileChannel outChannel = out.getChannel();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putLong(0, MAGIC);
+                header.putInt(8, VERSION);
+                header.putInt(12, RECORD_SIZE);
+                header.putLong(COUNT_OFFSET, index.size());
+                outChannel.write(header, 0);
+                final ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE*1024);
+                long position = HEADER_SIZE;
+                for (final Map.Entry<Key, Double> entry : index.entrySet()) {
+                    records.putLong(entry.getKey().namespace);
+                    records.putLong(entry.getKey().high);
+                    records.putLong(entry.getKey().low);
+                    records.putDouble(entry.getValue());
+                    if (!records.hasRemaining())
+                        position += writeAll(outChannel, records, position);
+                }
+                writeAll(outChannel, records, position);
+                outChannel.force(true);
+            }
+            release();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(); // The index is already up to date
+        } catch (final IOException | IllegalStateException ex) {
+            temp.delete();
+            recover();
+            throw new IllegalStateException(String.format("%s: could not compact '%s'.", this.getClass().getSimpleName(), file), ex);
+        }
+    }
+
+    /** After a failed compaction, reopen the log if it was released (the
+     * index still matches it), or else close this store, so that a later
+     * open() starts afresh instead of returning a store with no file. */
+    private void recover() {
+        if (buffer != null)
+            return;
+        try {
+            map();
+        } catch (final IOException | IllegalStateException ex) {
+            buffer = null;
+            try {
+                raf.close();
+            } catch (final IOException ex2) {
+                // Nothing more we can do
+            }
+            index.clear();
+            OPEN.remove(file);
+        }
+    }
+
+    private static long writeAll(final FileChannel channel, final ByteBuffer records, final long position) throws IOException {
+        records.flip();
+        long written = 0;
+        while (records.hasRemaining())
+            written += channel.write(records, position + written);
+        records.clear();
+        return written;
+    }
+
+    /** Write any changes through to the disk. */
+    public synchronized void flush() {
+        if (buffer != null)
+            buffer.force();
+    }
+
+    /** Flush and close the file.  A later call to open() will read it afresh. */
+    public void close() {
+        synchronized (OPEN) {
+            synchronized (this) {
+                if (buffer == null)
+                    return;
+                flush();
+                try {
+                    release();
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                index.clear();
+                OPEN.remove(file);
+            }
+        }
+    }
+
+    private void release() throws IOException {
+        buffer = null;
+        lock.release();
+        channel.close();
+        raf.close();
+    }
+
+    public File getFile() { return file; }
+    /** @return The number of distinct keys stored. */
+    public int size() { return index.size(); }
+    /** @return The number of records in the log, including replaced ones. */
+    public synchronized long getNumRecords() { return numRecords; }
+
+    private final static class Key {
+        final long namespace;
+        final long high;
+        final long low;
+
+        Key(final long namespace, final long high, final long low) {
+            this.namespace = namespace;
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key))
+                return false;
+            final Key ref = (Key) o;
+            return namespace == ref.namespace
+                    && high == ref.high
+                    && low == ref.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32) ^ high ^ namespace);
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final synchronized boolean repOK() {
+        return file != null
+                && index != null
+                && (buffer == null || (numRecords >= index.size()
+                        && numRecords <= capacity
+                        && buffer.getLong(COUNT_OFFSET) == numRecords));
+    }
+
+    /** Stores are compared by identity, since there is one per file. */
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: file=%s, size=%d]", this.getClass().getSimpleName(), file, size());
+    }
+    // </editor-fold>
+}
@@ -2,14 +2,24 @@ package SigmaEC.evaluate;
 
 import SigmaEC.meta.Fitness;
 import SigmaEC.util.Misc;
+import SigmaEC.util.Parameters;
 
 /**
  *
  * @author Eric O Scott
  */
 public class ScalarFitness extends Fitness {
+    public final static String P_VALUE = "value";
+    
     private final double fitness;
     
+    public ScalarFitness(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        this.fitness = parameters.getDoubleParameter(Parameters.push(base, P_VALUE));
+        assert(repOK());
+    }
+    
     public ScalarFitness(final double fitness) {
         this.fitness = fitness;
         assert(repOK());
@@ -23,7 +33,8 @@ public class ScalarFitness extends Fitness {
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
     @Override
     public final boolean repOK() {
-        return true;
+        return P_VALUE != null
+                && !P_VALUE.isEmpty();
     }
 
     @Override
@@ -1,8 +1,10 @@
 package SigmaEC.evaluate.objective;
 
+import SigmaEC.evaluate.EvaluationExecutor;
 import SigmaEC.evaluate.ScalarFitness;
 import SigmaEC.represent.Individual;
 import SigmaEC.represent.format.GenomeFormatter;
+import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -11,21 +13,73 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * An objective that launches an external command to perform fitness evaluation.
  * 
+ * By default a new process is launched for every individual: it is sent the
+ * individual's genome on stdin, and prints its fitness on stdout before
+ * exiting.  In this mode fitnessAsync() starts the process and returns
+ * right away, without occupying a thread while it runs: the fitness is read
+ * when the Future's get() is called, and cancelling the Future kills the
+ * process.
+ * 
+ * If "numWorkers" is set, up to that many long-lived worker processes are
+ * kept running instead (see ExternalWorkerPool).  A worker reads one genome
+ * per line from stdin and prints one fitness per line on stdout, for as long
+ * as it runs.  A worker that crashes or takes longer than
+ * "workerTimeoutSeconds" to reply is restarted, and the evaluation retried up
+ * to "maxRetries" times.  Evaluations made from more threads than there are
+ * workers wait for a free one.
+ * 
+ * If "batch" is true, fitnessBatch() instead streams a whole batch of genomes,
+ * one per line, to a single invocation of the command, which must print one
+ * fitness per line, in the same order.  Large batches can be split into chunks
+ * of "batchSize" individuals, each sent to its own process.  The chunks run in
+ * parallel on "executor" (or on a pool of one thread per processor), and each
+ * one's input is written on a separate thread while its output is read, so
+ * that neither side waits for the other to drain a pipe.  When fitnessBatch()
+ * is itself called from one of the executor's threads (ex. by an
+ * EvaluationOperator sharing the same executor), the chunks run one after
+ * another on that thread instead, since waiting on the pool from inside it
+ * can deadlock.
+ * 
  * @author Eric O. Scott
  */
 public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T, ScalarFitness> {
     public final static String P_DIMENSIONS = "dimensions";
     public final static String P_COMMAND = "command";
     public final static String P_FORMATTER = "formatter";
+    public final static String P_NUM_WORKERS = "numWorkers";
+    public final static String P_WORKER_TIMEOUT = "workerTimeoutSeconds";
+    public final static String P_MAX_RETRIES = "maxRetries";
+    public final static int DEFAULT_MAX_RETRIES = 1;
+    public final static String P_BATCH = "batch";
+    public final static String P_BATCH_SIZE = "batchSize";
+    public final static String P_EXECUTOR = "executor";
+    private final static long POLL_MILLIS = 10;
     
     private final int dimensions;
     private final String command;
     private final GenomeFormatter<T> formatter;
+    private final Option<ExternalWorkerPool> workers;
+    private final boolean batch;
+    private final Option<Integer> batchSize;
+    private final EvaluationExecutor executor;
 
     public ExternalObjective(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -33,13 +87,43 @@ public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T
         dimensions = parameters.getIntParameter(Parameters.push(base, P_DIMENSIONS));
         command = parameters.getStringParameter(Parameters.push(base, P_COMMAND));
         formatter = parameters.getInstanceFromParameter(Parameters.push(base, P_FORMATTER), GenomeFormatter.class);
+        final Option<Integer> numWorkers = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_WORKERS));
+        if (numWorkers.isDefined()) {
+            if (numWorkers.get() < 1)
+                throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_NUM_WORKERS, numWorkers.get()));
+            final double timeout = parameters.getOptionalDoubleParameter(Parameters.push(base, P_WORKER_TIMEOUT), 0.0);
+            if (timeout < 0.0)
+                throw new IllegalStateException(String.format("%s: %s is %f, but must be non-negative.", this.getClass().getSimpleName(), P_WORKER_TIMEOUT, timeout));
+            final int maxRetries = parameters.getOptionalIntParameter(Parameters.push(base, P_MAX_RETRIES), DEFAULT_MAX_RETRIES);
+            if (maxRetries < 0)
+                throw new IllegalStateException(String.format("%s: %s is %d, but must be non-negative.", this.getClass().getSimpleName(), P_MAX_RETRIES, maxRetries));
+            workers = new Option<>(new ExternalWorkerPool(command, numWorkers.get(), (long) (timeout*1000), maxRetries));
+        }
+        else
+            workers = Option.NONE;
+        batch = parameters.getOptionalBooleanParameter(Parameters.push(base, P_BATCH), false);
+        if (batch && workers.isDefined())
+            throw new IllegalStateException(String.format("%s: '%s' cannot be used together with '%s'.", this.getClass().getSimpleName(), Parameters.push(base, P_BATCH), Parameters.push(base, P_NUM_WORKERS)));
+        batchSize = parameters.getOptionalIntParameter(Parameters.push(base, P_BATCH_SIZE));
+        if (batchSize.isDefined() && batchSize.get() < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_BATCH_SIZE, batchSize.get()));
+        final Option<EvaluationExecutor> sharedExecutor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        executor = sharedExecutor.isDefined() ? sharedExecutor.get() : new EvaluationExecutor(Runtime.getRuntime().availableProcessors());
         assert(repOK());
     }
     
+    /** If the calling thread is interrupted while the command is running (ex.
+     * because an EvaluationOperator's timeout cancelled the evaluation), the
+     * process is killed rather than left running. */
     @Override
     public ScalarFitness fitness(final T ind) {
+        if (workers.isDefined())
+            return fitnessFromWorker(ind);
+        if (batch)
+            return fitnessBatch(Collections.singletonList(ind)).get(0);
+        Process p = null;
         try {
-            final Process p = Runtime.getRuntime().exec(command);
+            p = Runtime.getRuntime().exec(command);
             final Writer carlSimInput = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()));
             carlSimInput.write(formatter.genomeToString(ind));
             carlSimInput.close(); // Sends EOF
@@ -47,8 +131,205 @@ public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T
             
             System.err.println(streamToString(p.getErrorStream()));
             return new ScalarFitness(Double.valueOf(streamToString(p.getInputStream())));
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
         } catch (final Exception ex) {
             throw new IllegalStateException(ex);
+        } finally {
+            if (p != null)
+                p.destroy(); // Has no effect if the process has already exited
+        }
+    }
+
+    /** Unless "numWorkers" or "batch" is set, this launches the command and
+     * returns without waiting for it, and the executor is not used. */
+    @Override
+    public Future<ScalarFitness> fitnessAsync(final T ind, final Executor executor) {
+        assert(ind != null);
+        assert(executor != null);
+        if (workers.isDefined() || batch)
+            return super.fitnessAsync(ind, executor);
+        Process p = null;
+        try {
+            final ProcessBuilder builder = new ProcessBuilder(command.trim().split("\\s+"));
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            p = builder.start();
+            final Writer input = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()));
+            input.write(formatter.genomeToString(ind));
+            input.close(); // Sends EOF
+            return new ProcessFitness(p);
+        } catch (final IOException ex) {
+            if (p != null)
+                p.destroy();
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /** The fitness that a running process will print when it exits. */
+    private class ProcessFitness implements Future<ScalarFitness> {
+        private final Process process;
+        private volatile ScalarFitness result;
+        private volatile boolean cancelled = false;
+        
+        ProcessFitness(final Process process) {
+            assert(process != null);
+            this.process = process;
+        }
+        
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            if (isDone())
+                return false;
+            process.destroy();
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            if (cancelled || result != null)
+                return true;
+            try {
+                process.exitValue();
+                return true;
+            } catch (final IllegalThreadStateException ex) {
+                return false; // Still running
+            }
+        }
+
+        @Override
+        public synchronized ScalarFitness get() throws InterruptedException, ExecutionException {
+            if (cancelled)
+                throw new CancellationException();
+            if (result == null) {
+                try {
+                    final String output = streamToString(process.getInputStream());
+                    process.waitFor();
+                    result = new ScalarFitness(Double.valueOf(output));
+                } catch (final IOException | NumberFormatException ex) {
+                    if (cancelled)
+                        throw new CancellationException();
+                    throw new ExecutionException(ex);
+                } finally {
+                    process.destroy(); // Has no effect if the process has already exited
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public ScalarFitness get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isDone()) {
+                if (System.nanoTime() >= deadline)
+                    throw new TimeoutException();
+                Thread.sleep(POLL_MILLIS);
+            }
+            return get();
+        }
+    }
+
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends T> inds) {
+        assert(inds != null);
+        if (!batch)
+            return super.fitnessBatch(inds);
+        final int size = inds.size();
+        final int chunk = batchSize.isDefined() ? batchSize.get() : Math.max(size, 1);
+        if (size <= chunk)
+            return fitnessChunk(inds);
+        if (executor.isWorkerThread()) {
+            final List<ScalarFitness> fitnesses = new ArrayList<>(size);
+            for (int start = 0; start < size; start += chunk)
+                fitnesses.addAll(fitnessChunk(inds.subList(start, Math.min(start + chunk, size))));
+            return fitnesses;
+        }
+        
+        final Collection<Callable<List<ScalarFitness>>> tasks = new ArrayList<Callable<List<ScalarFitness>>>() {{
+            for (int start = 0; start < size; start += chunk) {
+                final List<? extends T> sublist = inds.subList(start, Math.min(start + chunk, size));
+                add(new Callable<List<ScalarFitness>>() {
+                    @Override
+                    public List<ScalarFitness> call() throws Exception {
+                        return fitnessChunk(sublist);
+                    }
+                });
+            }
+        }};
+        try {
+            final List<ScalarFitness> fitnesses = new ArrayList<>(size);
+            for (final Future<List<ScalarFitness>> f : executor.invokeAll(tasks))
+                fitnesses.addAll(f.get());
+            return fitnesses;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /** Evaluate a chunk of individuals with one invocation of the command. */
+    private List<ScalarFitness> fitnessChunk(final List<? extends T> inds) {
+        assert(inds != null);
+        Process p = null;
+        try {
+            final ProcessBuilder builder = new ProcessBuilder(command.trim().split("\\s+"));
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            p = builder.start();
+            final Writer input = new BufferedWriter(new OutputStreamWriter(p.getOutputStream()));
+            final Thread writer = new Thread(String.format("%s-writer", this.getClass().getSimpleName())) {
+                @Override
+                public void run() {
+                    try {
+                        for (final T ind : inds) {
+                            input.write(formatter.genomeToString(ind));
+                            input.write('\n');
+                        }
+                        input.close(); // Sends EOF
+                    } catch (final IOException ex) {
+                        // The process exited early; that will be reported when its output comes up short
+                        Logger.getLogger(ExternalObjective.class.getName()).log(Level.WARNING, null, ex);
+                    }
+                }
+            };
+            writer.setDaemon(true);
+            writer.start();
+            
+            final BufferedReader output = new BufferedReader(new InputStreamReader(p.getInputStream()));
+            final List<ScalarFitness> fitnesses = new ArrayList<>(inds.size());
+            String line;
+            while (fitnesses.size() < inds.size() && (line = output.readLine()) != null)
+                fitnesses.add(new ScalarFitness(Double.valueOf(line.trim())));
+            if (fitnesses.size() < inds.size())
+                throw new IllegalStateException(String.format("%s: '%s' returned %d fitness values for a batch of %d individuals.", this.getClass().getSimpleName(), command, fitnesses.size(), inds.size()));
+            writer.join();
+            p.waitFor();
+            return fitnesses;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            if (p != null)
+                p.destroy();
+        }
+    }
+
+    private ScalarFitness fitnessFromWorker(final T ind) {
+        try {
+            final String reply = workers.get().request(formatter.genomeToString(ind));
+            return new ScalarFitness(Double.valueOf(reply.trim()));
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
         }
     }
 
@@ -84,7 +365,24 @@ public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T
                 && dimensions > 0
                 && command != null
                 && !command.isEmpty()
-                && formatter != null;
+                && formatter != null
+                && workers != null
+                && P_NUM_WORKERS != null
+                && !P_NUM_WORKERS.isEmpty()
+                && P_WORKER_TIMEOUT != null
+                && !P_WORKER_TIMEOUT.isEmpty()
+                && P_MAX_RETRIES != null
+                && !P_MAX_RETRIES.isEmpty()
+                && P_BATCH != null
+                && !P_BATCH.isEmpty()
+                && P_BATCH_SIZE != null
+                && !P_BATCH_SIZE.isEmpty()
+                && P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
+                && batchSize != null
+                && !(batchSize.isDefined() && batchSize.get() < 1)
+                && !(batch && workers.isDefined())
+                && executor != null;
     }
 
     @Override
@@ -94,7 +392,10 @@ public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T
         final ExternalObjective ref = (ExternalObjective)o;
         return dimensions == ref.dimensions
                 && command.equals(ref.command)
-                && formatter.equals(ref.formatter);
+                && formatter.equals(ref.formatter)
+                && workers.equals(ref.workers)
+                && batch == ref.batch
+                && batchSize.equals(ref.batchSize);
     }
 
     @Override
@@ -103,15 +404,21 @@ public class ExternalObjective<T extends Individual> extends ObjectiveFunction<T
         hash = 17 * hash + this.dimensions;
         hash = 17 * hash + Objects.hashCode(this.command);
         hash = 17 * hash + Objects.hashCode(this.formatter);
+        hash = 17 * hash + Objects.hashCode(this.workers);
+        hash = 17 * hash + (this.batch ? 1 : 0);
+        hash = 17 * hash + Objects.hashCode(this.batchSize);
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("[%s: %s=%d, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+        return String.format("[%s: %s=%d, %s=%s, %s=%s, workers=%s, %s=%B, %s=%s]", this.getClass().getSimpleName(),
                 P_DIMENSIONS, dimensions,
                 P_COMMAND, command,
-                P_FORMATTER, formatter);
+                P_FORMATTER, formatter,
+                workers,
+                P_BATCH, batch,
+                P_BATCH_SIZE, batchSize);
     }
     // </editor-fold>
 }
@@ -0,0 +1,251 @@
+package SigmaEC.evaluate.objective;
+
+import SigmaEC.ContractObject;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of long-lived child processes that answer requests over a simple
+ * line protocol: each request is written to a worker's stdin as a single line,
+ * and the worker replies with a single line on its stdout.  Workers' stderr is
+ * passed through to ours.
+ *
+ * A request waits for an idle worker, so no more than numWorkers requests are
+ * ever outstanding at once, however many threads are making them.  Workers
+ * are started on demand.  If a worker exits, closes its stdout, or fails to
+ * reply within the timeout, it is killed and replaced, and the request is
+ * retried on the new worker up to maxRetries times.  A thread that is
+ * interrupted while it waits for a reply kills its worker too, so a cancelled
+ * request never leaves a busy process behind.
+ *
+ * All workers are killed when shutdown() is called or the JVM exits.
+ *
+ * @author Eric O. Scott
+ */
+public class ExternalWorkerPool extends ContractObject {
+    /** Put on a worker's reply queue when its stdout is closed. */
+    private final static String EOF = new String("EOF");
+    
+    /** Every running worker process, across all pools, so that a single
+     * shutdown hook can kill them without keeping any pool reachable. */
+    private final static Set<Process> RUNNING = Collections.newSetFromMap(new ConcurrentHashMap<Process, Boolean>());
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                for (final Process p : RUNNING)
+                    p.destroy();
+            }
+        });
+    }
+
+    private final List<String> command;
+    private final int numWorkers;
+    private final long timeoutMillis;
+    private final int maxRetries;
+    private final BlockingQueue<Worker> idle;
+    private final List<Worker> workers = new ArrayList<>();
+
+    /**
+     * @param command The command that starts a worker, split on whitespace.
+     * @param numWorkers The largest number of workers to run at once.
+     * @param timeoutMillis How long to wait for a reply before giving up on a
+     * worker, or 0 to wait forever.
+     * @param maxRetries How many times to retry a request after its worker
+     * crashes or times out.
+     */
+    public ExternalWorkerPool(final String command, final int numWorkers, final long timeoutMillis, final int maxRetries) {
+        assert(command != null);
+        assert(!command.trim().isEmpty());
+        assert(numWorkers > 0);
+        assert(timeoutMillis >= 0);
+        assert(maxRetries >= 0);
+        this.command = Arrays.asList(command.trim().split("\\s+"));
+        this.numWorkers = numWorkers;
+        this.timeoutMillis = timeoutMillis;
+        this.maxRetries = maxRetries;
+        idle = new LinkedBlockingQueue<>(numWorkers);
+        // Slots for workers that haven't been started yet
+        for (int i = 0; i < numWorkers; i++)
+            idle.add(new Worker());
+        assert(repOK());
+    }
+
+    public int getNumWorkers() { return numWorkers; }
+    
+    /** @return The number of worker processes running in all pools. */
+    static int getNumRunningProcesses() { return RUNNING.size(); }
+
+    /** Send one request to a worker and wait for its reply, blocking until a
+     * worker is free.
+     * @param request A single line, without a line terminator.
+     * @return The worker's reply, without a line terminator. */
+    public String request(final String request) throws InterruptedException {
+        assert(request != null);
+        assert(request.indexOf('\n') < 0);
+        final Worker worker = idle.take();
+        try {
+            IOException lastFailure = null;
+            for (int attempt = 0; attempt <= maxRetries; attempt++) {
+                try {
+                    return worker.request(request);
+                } catch (final IOException ex) {
+                    Logger.getLogger(ExternalWorkerPool.class.getName()).log(Level.WARNING, String.format("Restarting worker after failed request (attempt %d of %d).", attempt + 1, maxRetries + 1), ex);
+                    worker.kill();
+                    lastFailure = ex;
+                }
+            }
+            throw new IllegalStateException(String.format("%s: request failed after %d attempts.", this.getClass().getSimpleName(), maxRetries + 1), lastFailure);
+        } finally {
+            idle.add(worker);
+        }
+    }
+
+    /** Kill every worker.  The pool may still be used afterward: workers will
+     * be restarted on demand. */
+    public void shutdown() {
+        final List<Worker> toKill;
+        synchronized (workers) {
+            toKill = new ArrayList<>(workers);
+        }
+        for (final Worker w : toKill)
+            w.kill();
+    }
+
+    /** One slot in the pool, holding at most one running process at a time. */
+    private class Worker {
+        private Process process;
+        private Writer in;
+        private BlockingQueue<String> replies;
+
+        /** Only called by the thread that has taken this worker from the idle queue. */
+        String request(final String request) throws IOException, InterruptedException {
+            ensureRunning();
+            try {
+                in.write(request);
+                in.write('\n');
+                in.flush();
+                final String reply = timeoutMillis > 0 ? replies.poll(timeoutMillis, TimeUnit.MILLISECONDS) : replies.take();
+                if (reply == null)
+                    throw new IOException(String.format("worker did not reply within %d ms.", timeoutMillis));
+                if (reply == EOF)
+                    throw new IOException("worker closed its output.");
+                return reply;
+            } catch (final InterruptedException ex) {
+                kill(); // Don't leave it working on an abandoned request
+                throw ex;
+            }
+        }
+
+        private synchronized void ensureRunning() throws IOException {
+            if (process != null && isAlive(process))
+                return;
+            kill();
+            final ProcessBuilder builder = new ProcessBuilder(command);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            process = builder.start();
+            RUNNING.add(process);
+            in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            replies = new LinkedBlockingQueue<>();
+            final BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            final BlockingQueue<String> myReplies = replies;
+            final Thread reader = new Thread(String.format("%s-reader", ExternalWorkerPool.class.getSimpleName())) {
+                @Override
+                public void run() {
+                    try {
+                        String line;
+                        while ((line = out.readLine()) != null)
+                            myReplies.add(line);
+                    } catch (final IOException ex) {
+                        // The process was killed; fall through
+                    }
+                    myReplies.add(EOF);
+                }
+            };
+            reader.setDaemon(true);
+            reader.start();
+            synchronized (workers) {
+                workers.add(this);
+            }
+        }
+
+        synchronized void kill() {
+            if (process != null) {
+                process.destroy();
+                RUNNING.remove(process);
+            }
+            process = null;
+            synchronized (workers) {
+                workers.remove(this);
+            }
+        }
+    }
+
+    private static boolean isAlive(final Process p) {
+        try {
+            p.exitValue();
+            return false;
+        } catch (final IllegalThreadStateException e) {
+            return true;
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return command != null
+                && !command.isEmpty()
+                && numWorkers > 0
+                && timeoutMillis >= 0
+                && maxRetries >= 0
+                && idle != null
+                && idle.size() <= numWorkers
+                && workers != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExternalWorkerPool))
+            return false;
+        final ExternalWorkerPool ref = (ExternalWorkerPool)o;
+        return command.equals(ref.command)
+                && numWorkers == ref.numWorkers
+                && timeoutMillis == ref.timeoutMillis
+                && maxRetries == ref.maxRetries;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 83 * hash + Objects.hashCode(this.command);
+        hash = 83 * hash + this.numWorkers;
+        hash = 83 * hash + (int) (this.timeoutMillis ^ (this.timeoutMillis >>> 32));
+        hash = 83 * hash + this.maxRetries;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: command=%s, numWorkers=%d, timeoutMillis=%d, maxRetries=%d]", this.getClass().getSimpleName(),
+                command, numWorkers, timeoutMillis, maxRetries);
+    }
+    // </editor-fold>
+}
@@ -2,6 +2,12 @@ package SigmaEC.evaluate.objective;
 
 import SigmaEC.ContractObject;
 import SigmaEC.meta.Fitness;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Objective function interface for the Strategy pattern.
@@ -13,6 +19,43 @@ public abstract class ObjectiveFunction<P, F extends Fitness> extends ContractOb
     /** Evaluate the fitness of an individual. */
     public abstract F fitness(P ind);
     
+    /** Evaluate the fitness of a whole batch of individuals.
+     * 
+     * The default implementation just calls fitness() on each one.  Objectives
+     * that can share work across a batch (setup, a single external call, etc.)
+     * should override it.
+     * 
+     * @return The fitness of each individual, in the same order as inds.
+     */
+    public List<F> fitnessBatch(final List<? extends P> inds) {
+        assert(inds != null);
+        final List<F> fitnesses = new ArrayList<>(inds.size());
+        for (final P ind : inds)
+            fitnesses.add(fitness(ind));
+        return fitnesses;
+    }
+    
+    /** Begin evaluating the fitness of an individual and return without
+     * waiting for the result.
+     * 
+     * By default this simply runs fitness() as a task on the given executor.
+     * Objectives that spend most of their time waiting (ex. on an external
+     * process or a file) may override it to hand their work to the executor
+     * in a different way, or to start it without tying up a thread at all
+     * (see ExternalObjective).
+     */
+    public Future<F> fitnessAsync(final P ind, final Executor executor) {
+        assert(executor != null);
+        final FutureTask<F> task = new FutureTask<>(new Callable<F>() {
+            @Override
+            public F call() throws Exception {
+                return fitness(ind);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+    
     /** Notify this that the generation has changed.
      * This may be used, for instance, to update a dynamically changing
      * landscape.
@@ -1,8 +1,6 @@
 package SigmaEC.evaluate.objective.real;
 
 import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
-import SigmaEC.represent.linear.DoubleGene;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -10,7 +8,7 @@ import SigmaEC.util.Parameters;
  *
  * @author Eric O. Scott
  */
-public class AckleyObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+public class AckleyObjective extends DoubleVectorObjective<DoubleVectorIndividual<ScalarFitness>> {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     
     private final int numDimensions;
@@ -24,17 +22,15 @@ public class AckleyObjective extends ObjectiveFunction<DoubleVectorIndividual<Sc
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
-        assert(ind != null);
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
         double sumA = 0;
         double sumB = 0;
-        for (final DoubleGene x : ind.getGenome()) {
-            sumA += Math.pow(x.value, 2);
-            sumB += Math.cos(2.0*Math.PI*x.value);
+        for (int i = offset; i < offset + numDimensions; i++) {
+            final double x = genomes[i];
+            sumA += x*x;
+            sumB += Math.cos(2.0*Math.PI*x);
         }
-        assert(repOK());
-        return new ScalarFitness(-20*Math.exp(-0.2*Math.sqrt(sumA/ind.size())) - Math.exp(sumB/ind.size()) + 20 + Math.E);
+        return -20*Math.exp(-0.2*Math.sqrt(sumA/numDimensions)) - Math.exp(sumB/numDimensions) + 20 + Math.E;
     }
 
     @Override
@@ -0,0 +1,58 @@
+package SigmaEC.evaluate.objective.real;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for real-valued objectives whose value is a plain function of
+ * the genome.  Subclasses implement a single primitive kernel, value(), which
+ * is shared by fitness(), fitnessBatch(), and fitnessBlock().
+ * 
+ * fitnessBlock() evaluates genomes that are packed back-to-back in one array
+ * (such as DoubleVectorSubpopulation's genome block) without creating any
+ * individuals.
+ * 
+ * @author Eric O. Scott
+ */
+public abstract class DoubleVectorObjective<T extends DoubleVectorIndividual> extends ObjectiveFunction<T, ScalarFitness> {
+    
+    /** Compute the objective value of the getNumDimensions() genes stored in
+     * genomes[offset], ..., genomes[offset + getNumDimensions() - 1].
+     * Implementations must not modify the array. */
+    protected abstract double value(final double[] genomes, final int offset);
+    
+    @Override
+    public ScalarFitness fitness(final T ind) {
+        assert(ind != null);
+        assert(ind.size() == getNumDimensions());
+        return new ScalarFitness(value(ind.getGenomeView(), 0));
+    }
+    
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends T> inds) {
+        assert(inds != null);
+        final List<ScalarFitness> fitnesses = new ArrayList<>(inds.size());
+        for (final T ind : inds) {
+            assert(ind.size() == getNumDimensions());
+            fitnesses.add(new ScalarFitness(value(ind.getGenomeView(), 0)));
+        }
+        return fitnesses;
+    }
+    
+    /** Evaluate fitnesses.length genomes stored row-major in a single array.
+     * 
+     * @param genomes An array of fitnesses.length*getNumDimensions() genes.
+     * @param fitnesses Output: the objective value of each genome.
+     */
+    public void fitnessBlock(final double[] genomes, final double[] fitnesses) {
+        assert(genomes != null);
+        assert(fitnesses != null);
+        final int numDimensions = getNumDimensions();
+        assert(genomes.length == fitnesses.length*numDimensions);
+        for (int i = 0; i < fitnesses.length; i++)
+            fitnesses[i] = value(genomes, i*numDimensions);
+    }
+}
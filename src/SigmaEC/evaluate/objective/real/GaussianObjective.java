@@ -1,7 +1,6 @@
 package SigmaEC.evaluate.objective.real;
 
 import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
@@ -11,7 +10,7 @@ import SigmaEC.util.Parameters;
  * @author Eric 'Siggy' Scott
  * @author Jeff Bassett
  */
-public class GaussianObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>
+public class GaussianObjective extends DoubleVectorObjective<DoubleVectorIndividual<ScalarFitness>>
 {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     public final static String P_HEIGHT = "height";
@@ -59,14 +58,14 @@ public class GaussianObjective extends ObjectiveFunction<DoubleVectorIndividual<
     }
     
     @Override
-    public ScalarFitness fitness(DoubleVectorIndividual ind)
-    {
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
+        final double denominator = 2*(std*std);
         double exponent = 0;
-        for (double d : ind.getGenomeArray())
-            exponent+= Math.pow(d, 2)/(2*Math.pow(std, 2));
-        assert(repOK());
-        return new ScalarFitness(height*Math.exp(-exponent));
+        for (int i = offset; i < offset + numDimensions; i++) {
+            final double x = genomes[i];
+            exponent += x*x/denominator;
+        }
+        return height*Math.exp(-exponent);
     }
 
     @Override
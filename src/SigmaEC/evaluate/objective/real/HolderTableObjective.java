@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -12,7 +10,7 @@ import SigmaEC.util.Parameters;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class HolderTableObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class HolderTableObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     
     public HolderTableObjective(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -21,12 +19,10 @@ public class HolderTableObjective extends ObjectiveFunction<DoubleVectorIndividu
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == 2);
-        final double[] genome = ind.getGenomeArray();
-        final double x1 = genome[0];
-        final double x2 = genome[1];
-        return new ScalarFitness(-Math.abs(Math.sin(x1)*Math.cos(x2)*Math.exp(Math.abs(1-Math.sqrt(x1*x1 + x2*x2)/Math.PI))));
+    protected double value(final double[] genomes, final int offset) {
+        final double x1 = genomes[offset];
+        final double x2 = genomes[offset + 1];
+        return -Math.abs(Math.sin(x1)*Math.cos(x2)*Math.exp(Math.abs(1-Math.sqrt(x1*x1 + x2*x2)/Math.PI)));
     }
 
     @Override
@@ -126,7 +126,7 @@ public class LinearRidgeObjective<T extends DoubleVectorIndividual> extends Obje
     public ScalarFitness fitness(T ind)
     {
         assert(ind != null);
-        final double distance = Vector.pointToLineEuclideanDistance(ind.getGenomeArray(), slopeVector, interceptVector);
+        final double distance = Vector.pointToLineEuclideanDistance(ind.getGenomeView(), slopeVector, interceptVector);
         if (distance < width)
             return new ScalarFitness(highFitness);
         else if (gradientXIntercept.isDefined())
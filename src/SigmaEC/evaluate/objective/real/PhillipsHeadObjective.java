@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
@@ -14,7 +12,7 @@ import SigmaEC.util.Parameters;
  * @author Jeff Bassett
  * @author Eric 'Siggy' Scott
  */
-public class PhillipsHeadObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class PhillipsHeadObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     private final static String P_NUM_DIMENSIONS = "numDimensions";
     private final static String P_SHORT_AXIS = "shortAxis";
     private final static String P_LONG_AXIS = "longAxis";
@@ -66,18 +64,16 @@ public class PhillipsHeadObjective extends ObjectiveFunction<DoubleVectorIndivid
      * where s = shortAxisFactor and l = longAxisFactor.
      */
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
-
+    protected double value(final double[] genomes, final int offset) {
         double result = 0;
         final double s = this.shortAxisFactor;
         final double l = this.longAxisFactor;
         int d, longAxis;
 
-        for (longAxis = 0; longAxis < this.getNumDimensions(); longAxis++) {
+        for (longAxis = 0; longAxis < numDimensions; longAxis++) {
             double interResult = 1.0;
-            for (d = 0; d < this.getNumDimensions(); d++) {
-                double x = ind.getElement(d);
+            for (d = 0; d < numDimensions; d++) {
+                double x = genomes[offset + d];
                 if (d == longAxis)
                     interResult = interResult * Math.exp(-x*x/l);
                 else
@@ -85,9 +81,7 @@ public class PhillipsHeadObjective extends ObjectiveFunction<DoubleVectorIndivid
             }
             result = Math.max(result, interResult);
         }
-
-        assert(repOK());
-        return new ScalarFitness(result);
+        return result;
     }
 
     @Override
@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
@@ -13,7 +11,7 @@ import java.util.Arrays;
  * 
  * @author Eric O. Scott
  */
-public class PlaneObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class PlaneObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     public final static String P_POINT = "point";
     public final static String P_NORMAL = "normalVector";
     public final static String P_NUM_DIMENSIONS = "numDimensions";
@@ -39,17 +37,13 @@ public class PlaneObjective extends ObjectiveFunction<DoubleVectorIndividual, Sc
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind != null);
-        final double[] genome = ind.getGenomeArray();
+    protected double value(final double[] genomes, final int offset) {
         final double z0 = point[point.length - 1];
         final double c = normalVector[normalVector.length - 1];
         double sum = 0.0;
         for (int i = 0; i < point.length - 1; i++)
-            sum += normalVector[i] * (genome[i] - point[i]);
-        final double result = -1/c*sum + z0;
-        assert(repOK());
-        return new ScalarFitness(result);
+            sum += normalVector[i] * (genomes[offset + i] - point[i]);
+        return -1/c*sum + z0;
     }
 
     @Override
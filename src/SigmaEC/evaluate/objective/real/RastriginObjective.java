@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -11,7 +9,7 @@ import SigmaEC.util.Parameters;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class RastriginObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class RastriginObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     
     private final int numDimensions;
@@ -28,12 +26,13 @@ public class RastriginObjective extends ObjectiveFunction<DoubleVectorIndividual
     }
 
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
-        double sum = 10*ind.size();
-        for (final double x : ind.getGenomeArray())
+    protected double value(final double[] genomes, final int offset) {
+        double sum = 10*numDimensions;
+        for (int i = offset; i < offset + numDimensions; i++) {
+            final double x = genomes[i];
             sum += x*x - 10*Math.cos(2*Math.PI*x);
-        return new ScalarFitness(sum);
+        }
+        return sum;
     }
 
     @Override
@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -12,7 +10,7 @@ import SigmaEC.util.Parameters;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class RosenbrockObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class RosenbrockObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     
     private final int numDimensions;
@@ -32,13 +30,15 @@ public class RosenbrockObjective extends ObjectiveFunction<DoubleVectorIndividua
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind)
-    {
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
         double sum = 0;
-        for(int i = 0; i < ind.size() - 1; i++)
-            sum+= 100*Math.pow((ind.getElement(i+1) - Math.pow(ind.getElement(i), 2)), 2) + Math.pow((1 - ind.getElement(i)), 2);
-        return new ScalarFitness(sum);
+        for(int i = offset; i < offset + numDimensions - 1; i++) {
+            final double x = genomes[i];
+            final double a = genomes[i+1] - x*x;
+            final double b = 1 - x;
+            sum += 100*(a*a) + b*b;
+        }
+        return sum;
     }
 
     @Override
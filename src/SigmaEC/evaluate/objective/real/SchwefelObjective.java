@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -9,7 +7,7 @@ import SigmaEC.util.Parameters;
  *
  * @author Eric 'Siggy' Scott
  */
-public class SchwefelObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class SchwefelObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     private final static String P_NUM_DIMENSIONS = "numDimensions";
 
     private final int numDimensions;
@@ -24,12 +22,13 @@ public class SchwefelObjective extends ObjectiveFunction<DoubleVectorIndividual,
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
         double sum = 418.9829*numDimensions;
-        for (final double x : ind.getGenomeArray())
+        for (int i = offset; i < offset + numDimensions; i++) {
+            final double x = genomes[i];
             sum -= x * Math.sin(Math.sqrt(Math.abs(x)));
-        return new ScalarFitness(sum);
+        }
+        return sum;
     }
 
     @Override
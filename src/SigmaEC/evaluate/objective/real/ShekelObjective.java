@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.IDoublePoint;
 import SigmaEC.util.Misc;
@@ -15,7 +13,7 @@ import java.util.Arrays;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class ShekelObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class ShekelObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     final private static IDoublePoint[] optima = new IDoublePoint[] {
         new IDoublePoint(-32, -32),
         new IDoublePoint(-32, -16),
@@ -61,14 +59,13 @@ public class ShekelObjective extends ObjectiveFunction<DoubleVectorIndividual, S
     public int getNumDimensions() { return 2; }
 
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind)
-    {
-        assert(ind.size() == 2);
+    protected double value(final double[] genomes, final int offset) {
+        final double x = genomes[offset];
+        final double y = genomes[offset + 1];
         double sum = 0.002;
         for (int i = 0; i < optima.length; i++)
-            sum += 1/(i + Math.pow(ind.getElement(0) - optima[i].x, 2) + Math.pow(ind.getElement(1) - optima[i].y, 2));
-        assert(repOK());
-        return new ScalarFitness(sum);
+            sum += 1/(i + Math.pow(x - optima[i].x, 2) + Math.pow(y - optima[i].y, 2));
+        return sum;
     }
 
     @Override
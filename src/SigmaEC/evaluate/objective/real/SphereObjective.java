@@ -1,7 +1,6 @@
 package SigmaEC.evaluate.objective.real;
 
 import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -13,7 +12,7 @@ import SigmaEC.util.Parameters;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class SphereObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+public class SphereObjective extends DoubleVectorObjective<DoubleVectorIndividual<ScalarFitness>> {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     
     private final int numDimensions;
@@ -40,13 +39,13 @@ public class SphereObjective extends ObjectiveFunction<DoubleVectorIndividual<Sc
     }
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
         double sum = 0;
-        for (double d : ind.getGenomeArray())
-            sum+= Math.pow(d,2);
-        assert(repOK());
-        return new ScalarFitness(sum);
+        for (int i = offset; i < offset + numDimensions; i++) {
+            final double x = genomes[i];
+            sum += x*x;
+        }
+        return sum;
     }
 
     @Override
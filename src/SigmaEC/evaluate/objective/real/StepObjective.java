@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 
@@ -12,7 +10,7 @@ import SigmaEC.util.Parameters;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class StepObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> {
+public class StepObjective extends DoubleVectorObjective<DoubleVectorIndividual> {
     private final static String P_NUM_DIMENSIONS = "numDimensions";
     
     private final int numDimensions;
@@ -33,13 +31,11 @@ public class StepObjective extends ObjectiveFunction<DoubleVectorIndividual, Sca
     
     
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
+    protected double value(final double[] genomes, final int offset) {
         int sum = 0;
-        for(double d : ind.getGenomeArray())
-            sum += (int) d;
-        assert(repOK());
-        return new ScalarFitness(sum);
+        for (int i = offset; i < offset + numDimensions; i++)
+            sum += (int) genomes[i];
+        return sum;
     }
 
     @Override
@@ -1,7 +1,5 @@
 package SigmaEC.evaluate.objective.real;
 
-import SigmaEC.evaluate.ScalarFitness;
-import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
@@ -15,7 +13,7 @@ import java.util.Arrays;
  * 
  * @author Eric 'Siggy' Scott
  */
-public class ValleyObjective extends ObjectiveFunction<DoubleVectorIndividual, ScalarFitness>
+public class ValleyObjective extends DoubleVectorObjective<DoubleVectorIndividual>
 {
     public final static String P_NUM_DIMENSIONS = "numDimensions";
     public final static String P_OPTIMUM = "optimum";
@@ -62,13 +60,26 @@ public class ValleyObjective extends ObjectiveFunction<DoubleVectorIndividual, S
         // Do nothing
     }
     
+    /** The distance to the optimum plus ten times the distance to the line
+     * through it, computed exactly as Vector.euclideanDistance() and
+     * Vector.pointToLineEuclideanDistance() do but without their temporary
+     * arrays. */
     @Override
-    public ScalarFitness fitness(final DoubleVectorIndividual ind) {
-        assert(ind.size() == numDimensions);
-        final double[] genome = ind.getGenomeArray();
-        double result = Vector.euclideanDistance(genome, optimum) + 10*Vector.pointToLineEuclideanDistance(genome, slopeVector, optimum);
-        assert(repOK());
-        return new ScalarFitness(result);
+    protected double value(final double[] genomes, final int offset) {
+        double distanceSquared = 0;
+        double projection = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            final double x = genomes[offset + i];
+            final double d = x - optimum[i];
+            distanceSquared += d*d;
+            projection += (optimum[i] - x) * slopeVector[i];
+        }
+        double lineDistanceSquared = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            final double d = (optimum[i] - genomes[offset + i]) - projection*slopeVector[i];
+            lineDistanceSquared += d*d;
+        }
+        return Math.sqrt(distanceSquared) + 10*Math.sqrt(lineDistanceSquared);
     }
 
     //<editor-fold defaultstate="collapsed" desc="Standard Methods">
@@ -1,12 +1,20 @@
 package SigmaEC.evaluate.transform;
 
+import SigmaEC.evaluate.EvaluationExecutor;
 import SigmaEC.evaluate.ScalarFitness;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.real.DoubleVectorObjective;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
+import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
 import SigmaEC.util.math.Matrix;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * A decorator that applies an affine transformation to an ObjectiveFunction
@@ -17,6 +25,17 @@ import java.util.Arrays;
  * computationally expensive than its worth, especially since we're not using
  * dedicated hardware.  Use TranslateDoubleObjective instead (or in addition).
  * 
+ * fitnessBatch() transforms the whole batch at once, as one cache-blocked
+ * matrix-matrix product over a flat block of genomes (see
+ * Matrix.multiplyTransposed()), and hands the block straight to the wrapped
+ * objective's fitnessBlock() if it is a DoubleVectorObjective.  If an
+ * "executor" is given, the rows of the product are split among its threads,
+ * unless fitnessBatch() is called from one of those threads (ex. by an
+ * EvaluationOperator sharing the executor), in which case it runs serially.
+ * The results are identical to transforming one individual at a time, which
+ * fitness() does with a (fork/join-parallel, if it is large) matrix-vector
+ * product, Matrix.parallelGemv().
+ * 
  * @author Eric 'Siggy' Scott
  * @author Jeff Bassett
  */
@@ -24,18 +43,32 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
     public final static String P_ANGLES = "angles";
     public final static String P_SCALE = "scale";
     public final static String P_OBJECTIVE = "objective";
+    public final static String P_EXECUTOR = "executor";
     
     private final double[][] transformationMatrix;
+    private final double[] flatMatrix;
+    private final Option<EvaluationExecutor> executor;
     private final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective;
     private final int numDimensions;
     
     public AffineTransformedDoubleObjective(final Parameters parameters, final String base) {
-        this(parameters.getDoubleArrayParameter(Parameters.push(base, P_ANGLES)),
-                parameters.getDoubleParameter(Parameters.push(base, P_SCALE)),
-                (ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>) parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class));
+        this(getTransformationMatrix(parameters.getDoubleArrayParameter(Parameters.push(base, P_ANGLES)),
+                        parameters.getDoubleParameter(Parameters.push(base, P_SCALE)),
+                        objectiveParameter(parameters, base).getNumDimensions()),
+                objectiveParameter(parameters, base),
+                executorParameter(parameters, base));
         assert(repOK());
     }
     
+    /** Instances are cached by Parameters, so this returns the same one every time. */
+    private static ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objectiveParameter(final Parameters parameters, final String base) {
+        return parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class);
+    }
+    
+    private static Option<EvaluationExecutor> executorParameter(final Parameters parameters, final String base) {
+        return parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+    }
+    
     /** Convenience constructor for creating affine transformation in R^2.
      * @param angles The angles by which the different axes will be rotated.
      * @param scale The value by which the function will be scaled.
@@ -51,6 +84,22 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
      * @param objective The original objective function.
      */
     public AffineTransformedDoubleObjective(final double[][] transformationMatrix, final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective) throws IllegalArgumentException {
+        this(transformationMatrix, objective, (Option<EvaluationExecutor>) Option.NONE);
+    }
+    
+    /**
+     * @param transformationMatrix The transformation represented as an
+     * augmented matrix.
+     * @param objective The original objective function.
+     * @param executor Threads to share the work of transforming each batch.
+     */
+    public AffineTransformedDoubleObjective(final double[][] transformationMatrix, final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective, final EvaluationExecutor executor) throws IllegalArgumentException {
+        this(transformationMatrix, objective, new Option<>(executor));
+        assert(executor != null);
+    }
+    
+    private AffineTransformedDoubleObjective(final double[][] transformationMatrix, final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective, final Option<EvaluationExecutor> executor) throws IllegalArgumentException {
+        assert(executor != null);
         if (objective == null)
             throw new IllegalArgumentException(this.getClass().getSimpleName() + ": objective is null.");
         if (transformationMatrix == null)
@@ -58,8 +107,10 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
         if (!Matrix.isSquare(transformationMatrix))
             throw new IllegalArgumentException(this.getClass().getSimpleName() + ": transformationMatrix is not square.");
         this.transformationMatrix = Misc.deepCopy2DArray(transformationMatrix);
+        this.flatMatrix = Matrix.flatten(transformationMatrix);
         this.objective = objective;
         this.numDimensions = transformationMatrix.length;
+        this.executor = executor;
     }
     
     /** @return A matrix representation of an affine transformation
@@ -71,36 +122,19 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
         if (angles.length != numDimensions * (numDimensions - 1) / 2)
             throw new IllegalArgumentException(AffineTransformedDoubleObjective.class.getSimpleName() + ": incorrect number of angles.");
 
-        double[][] transformationMatrix = getScaleMatrix(scale, numDimensions);
+        final double[][] transformationMatrix = getScaleMatrix(scale, numDimensions);
 
+        // Right-multiply by one rotation per pair of axes, applied in place
         int angleIndex = 0;
         for (int d1 = 0; d1 < numDimensions-1; d1++) {
             for (int d2 = d1 + 1; d2 < numDimensions; d2++) {
-                double[][] rotMatrix = getAxisRotationMatrix(angles[angleIndex], d1, d2, numDimensions);
-                transformationMatrix = Matrix.multiply(transformationMatrix, rotMatrix);
+                Matrix.rotateColumns(transformationMatrix, d1, d2, Math.cos(angles[angleIndex]), Math.sin(angles[angleIndex]));
                 angleIndex++;
             }
         }
 
         return transformationMatrix;
     }
-    
-    /** @return A rotation matrix for a single axis.  The two dimensions
-     * define the axis of rotation. */
-    private static double[][] getAxisRotationMatrix(final double angle, final int dimension1, final int dimension2, final int numDimensions) throws IllegalArgumentException {
-        if (dimension1 >= numDimensions || dimension2 >= numDimensions)
-            throw new IllegalArgumentException(AffineTransformedDoubleObjective.class.getSimpleName() + ": bad dimension.");
-        if (dimension1 == dimension2)
-            throw new IllegalArgumentException(AffineTransformedDoubleObjective.class.getSimpleName() + ": dimensions are equal.");
-        double[][] rotationMatrix = getScaleMatrix(1.0, numDimensions);
-
-        rotationMatrix[dimension1][dimension1] = Math.cos(angle);
-        rotationMatrix[dimension1][dimension2] = -Math.sin(angle);
-        rotationMatrix[dimension2][dimension1] = Math.sin(angle);
-        rotationMatrix[dimension2][dimension2] = Math.cos(angle);
-
-        return rotationMatrix;
-    }
         
     /** @return A scale matrix. */
     private static double[][] getScaleMatrix(final double scale, final int numDimensions) {
@@ -127,19 +161,77 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
     public DoubleVectorIndividual transform(final DoubleVectorIndividual ind) {
         assert(ind != null);
         assert(ind.size() == getNumDimensions());
-        double[] newPoint = new double[getNumDimensions()];
-        for(int i = 0; i < getNumDimensions(); i++) {
-            newPoint[i] = 0;
-            for(int j = 0; j < getNumDimensions(); j++)
-                newPoint[i] += ind.getElement(j) * transformationMatrix[i][j];
-        }
-        return new DoubleVectorIndividual.Builder(newPoint).build();
+        final double[] point = ind.getGenomeView();
+        final double[] newPoint = new double[getNumDimensions()];
+        Matrix.parallelGemv(flatMatrix, point, newPoint, numDimensions, numDimensions);
+        return DoubleVectorIndividual.Builder.wrap(newPoint).build();
     }
     
     @Override
     public ScalarFitness fitness(final DoubleVectorIndividual ind) {
         return objective.fitness(transform(ind));
     }
+    
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends DoubleVectorIndividual<ScalarFitness>> inds) {
+        assert(inds != null);
+        final int rows = inds.size();
+        final double[] block = new double[rows*numDimensions];
+        for (int r = 0; r < rows; r++) {
+            assert(inds.get(r).size() == numDimensions);
+            System.arraycopy(inds.get(r).getGenomeView(), 0, block, r*numDimensions, numDimensions);
+        }
+        final double[] transformed = new double[block.length];
+        transformBlock(block, transformed);
+        
+        if (objective instanceof DoubleVectorObjective) {
+            final double[] values = new double[rows];
+            ((DoubleVectorObjective) objective).fitnessBlock(transformed, values);
+            final List<ScalarFitness> fitnesses = new ArrayList<>(rows);
+            for (final double v : values)
+                fitnesses.add(new ScalarFitness(v));
+            return fitnesses;
+        }
+        final List<DoubleVectorIndividual<ScalarFitness>> transformedInds = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++)
+            transformedInds.add(DoubleVectorIndividual.Builder.wrap(Arrays.copyOfRange(transformed, r*numDimensions, (r + 1)*numDimensions)).build());
+        return objective.fitnessBatch(transformedInds);
+    }
+    
+    /** Transform a block of genomes stored row-major in one array.
+     * @param out Output, the same length as genomes. */
+    public void transformBlock(final double[] genomes, final double[] out) {
+        assert(genomes != null);
+        assert(out != null);
+        assert(genomes.length == out.length);
+        assert(genomes.length % numDimensions == 0);
+        final int rows = genomes.length/numDimensions;
+        final int numThreads = executor.isDefined() ? Math.min(executor.get().getNumThreads(), rows) : 1;
+        // Waiting on the pool from one of its own threads can deadlock
+        if (numThreads <= 1 || executor.get().isWorkerThread()) {
+            Matrix.multiplyTransposed(genomes, flatMatrix, numDimensions, out, 0, rows);
+            return;
+        }
+        final int chunk = (rows + numThreads - 1)/numThreads;
+        final List<Callable<Void>> tasks = new ArrayList<>(numThreads);
+        for (int start = 0; start < rows; start += chunk) {
+            final int from = start;
+            final int to = Math.min(start + chunk, rows);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Matrix.multiplyTransposed(genomes, flatMatrix, numDimensions, out, from, to);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (final Future<Void> f : executor.get().invokeAll(tasks))
+                f.get();
+        } catch (final InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
 
     @Override
     public void setStep(final int i) {
@@ -151,7 +243,10 @@ public class AffineTransformedDoubleObjective extends ObjectiveFunction<DoubleVe
     public boolean repOK() {
         return objective != null
                 && numDimensions > 0
-                && Matrix.isSquare(transformationMatrix);
+                && Matrix.isSquare(transformationMatrix)
+                && flatMatrix != null
+                && flatMatrix.length == numDimensions*numDimensions
+                && executor != null;
     }
     
     @Override
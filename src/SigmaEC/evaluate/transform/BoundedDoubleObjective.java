@@ -5,7 +5,9 @@ import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.IDoublePoint;
 import SigmaEC.util.Misc;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A decorator that gives hyper-rectangular constraints to an ObjectiveFunction
@@ -73,6 +75,18 @@ public class BoundedDoubleObjective extends ObjectiveFunction<DoubleVectorIndivi
         return bounds;
     }
     
+    public IDoublePoint[] getBounds() {
+        return Arrays.copyOf(bounds, bounds.length);
+    }
+    
+    public double getOutsideValue() {
+        return outsideValue;
+    }
+    
+    public ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> getWrappedObjective() {
+        return objective;
+    }
+    
     private boolean withinBounds(final DoubleVectorIndividual ind) {
         assert(ind.size() == bounds.length);
         for (int i = 0; i < bounds.length; i++)
@@ -93,6 +107,25 @@ public class BoundedDoubleObjective extends ObjectiveFunction<DoubleVectorIndivi
             return new ScalarFitness(outsideValue);
         return objective.fitness(ind);
     }
+    
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends DoubleVectorIndividual<ScalarFitness>> inds) {
+        assert(inds != null);
+        // Only pass the in-bounds individuals on to the wrapped objective
+        final List<DoubleVectorIndividual<ScalarFitness>> inBounds = new ArrayList<>(inds.size());
+        for (final DoubleVectorIndividual<ScalarFitness> ind : inds) {
+            assert(ind.size() == bounds.length);
+            if (withinBounds(ind))
+                inBounds.add(ind);
+        }
+        final List<ScalarFitness> inBoundsFitnesses = objective.fitnessBatch(inBounds);
+        final List<ScalarFitness> fitnesses = new ArrayList<>(inds.size());
+        int j = 0;
+        for (final DoubleVectorIndividual<ScalarFitness> ind : inds)
+            fitnesses.add(withinBounds(ind) ? inBoundsFitnesses.get(j++) : new ScalarFitness(outsideValue));
+        assert(j == inBoundsFitnesses.size());
+        return fitnesses;
+    }
 
     @Override
     public void setStep(final int i) {
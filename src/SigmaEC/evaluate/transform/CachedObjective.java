@@ -1,35 +1,51 @@
 package SigmaEC.evaluate.transform;
 
+import SigmaEC.evaluate.FitnessCache;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.meta.Fitness;
 import SigmaEC.util.Parameters;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * Decorates an ObjectiveFunction with memoization, caching the results of
  * previous evaluations.  This is effective if evaluating the objective is
- * significantly more expensive than evaluating the Individual's hashcode()
- * method.
+ * significantly more expensive than hashing the Individual's genome.
+ * 
+ * Results are kept in a FitnessCache, which is keyed on genomes (so
+ * re-discovered genomes hit even though their individuals differ), bounded,
+ * and safe to use from several evaluation threads.  Set "cache" to share one
+ * cache (and its size bound and eviction policy) with a
+ * FitnessCachePopulationMetric or with other CachedObjectives, whose entries
+ * are kept apart from this one's; otherwise a private cache with the default
+ * settings is used.  If "flush" is true, the cache is cleared at every step.
  * 
  * @author Eric 'Siggy' Scott
  */
 public class CachedObjective<P, F extends Fitness> extends ObjectiveFunction<P, F> {
     final public static String P_FLUSH = "flush";
     final public static String P_OBJECTIVE = "objective";
+    final public static String P_CACHE = "cache";
     
     final private boolean flush;
     final private ObjectiveFunction<P, F> objective;
-    final private Map<P, F> memory = new HashMap<P, F>();
+    final private FitnessCache<F> memory;
     
     public CachedObjective(final Parameters params, final String base) {
         assert(params != null);
         assert(base != null);
-        flush = params.getBooleanParameter(Parameters.push(base, P_FLUSH));
+        flush = params.getOptionalBooleanParameter(Parameters.push(base, P_FLUSH), false);
         objective = params.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class);
+        if (params.isDefined(Parameters.push(base, P_CACHE)))
+            memory = params.getInstanceFromParameter(Parameters.push(base, P_CACHE), FitnessCache.class);
+        else
+            memory = new FitnessCache<>(FitnessCache.DEFAULT_MAX_ENTRIES, FitnessCache.EvictionPolicy.LRU);
         assert(repOK());
     }
     
+    public FitnessCache<F> getCache() {
+        return memory;
+    }
+    
     @Override
     public int getNumDimensions() {
         return objective.getNumDimensions();
@@ -38,13 +54,13 @@ public class CachedObjective<P, F extends Fitness> extends ObjectiveFunction<P,
     @Override
     public F fitness(final P ind) {
         assert(ind != null);
-        if (memory.containsKey(ind))
-            return memory.get(ind);
-        else {
-            final F fitness = objective.fitness(ind);
-            memory.put(ind, fitness);
-            return fitness;
-        }
+        return memory.fitness(ind, objective);
+    }
+
+    @Override
+    public List<F> fitnessBatch(final List<? extends P> inds) {
+        assert(inds != null);
+        return memory.fitnessBatch(inds, objective);
     }
 
     @Override
@@ -57,13 +73,19 @@ public class CachedObjective<P, F extends Fitness> extends ObjectiveFunction<P,
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
     @Override
     final public boolean repOK() {
-        return objective != null
+        return P_FLUSH != null
+                && !P_FLUSH.isEmpty()
+                && P_OBJECTIVE != null
+                && !P_OBJECTIVE.isEmpty()
+                && P_CACHE != null
+                && !P_CACHE.isEmpty()
+                && objective != null
                 && memory != null;
     }
     
     @Override
     public String toString() {
-        return String.format("[%s: flush=%s, objective=%s]", this.getClass().getSimpleName(), flush, objective.toString());
+        return String.format("[%s: flush=%s, objective=%s, cache=%s]", this.getClass().getSimpleName(), flush, objective.toString(), memory.toString());
     }
     
     @Override
@@ -0,0 +1,272 @@
+package SigmaEC.evaluate.transform;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.real.DoubleVectorObjective;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.IDoublePoint;
+import SigmaEC.util.Parameters;
+import SigmaEC.util.math.Matrix;
+import SigmaEC.util.math.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates a stack of TranslatedDoubleObjective,
+ * AffineTransformedDoubleObjective, BoundedDoubleObjective, and
+ * ScalarMultipliedObjective decorators as a single fused plan, without
+ * creating an intermediate individual at every layer.
+ *
+ * When it is constructed, the stack under "objective" is unwrapped into a
+ * list of stages, down to the first layer that isn't one of those four.  Each
+ * evaluation then copies the genome into a per-thread scratch buffer, applies
+ * the translations, linear transformations, and bounds checks to it in place,
+ * calls the innermost objective once, and applies the fitness scaling on the
+ * way back out.  The arithmetic is the same as the decorators', in the same
+ * order, so the results are identical to evaluating the stack directly.
+ *
+ * If the innermost objective is a DoubleVectorObjective, no memory is
+ * allocated apart from the ScalarFitness that is returned (and not even that
+ * through fitnessBlock()).  Any other innermost objective is handed an
+ * individual wrapped around a copy of the transformed point.
+ *
+ * The decorators' parameters are read once, when the plan is built, so they
+ * must not change afterward.
+ *
+ * @author Eric O. Scott
+ */
+public class FusedDoubleObjective extends DoubleVectorObjective<DoubleVectorIndividual<ScalarFitness>> {
+    public final static String P_OBJECTIVE = "objective";
+
+    private final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective;
+    private final Stage[] stages;
+    private final ObjectiveFunction base;
+    private final int numDimensions;
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch(numDimensions);
+        }
+    };
+
+    public FusedDoubleObjective(final Parameters parameters, final String base) {
+        this((ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>) parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class));
+    }
+
+    public FusedDoubleObjective(final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective) {
+        assert(objective != null);
+        this.objective = objective;
+        this.numDimensions = objective.getNumDimensions();
+        final List<Stage> plan = new ArrayList<>();
+        ObjectiveFunction layer = objective;
+        while (true) {
+            if (layer instanceof TranslatedDoubleObjective) {
+                plan.add(new TranslateStage(((TranslatedDoubleObjective) layer).getOffset()));
+                layer = ((TranslatedDoubleObjective) layer).getWrappedObjective();
+            }
+            else if (layer instanceof AffineTransformedDoubleObjective) {
+                plan.add(new LinearStage(((AffineTransformedDoubleObjective) layer).getTransformationMatrix()));
+                layer = ((AffineTransformedDoubleObjective) layer).getWrappedObjective();
+            }
+            else if (layer instanceof BoundedDoubleObjective) {
+                plan.add(new BoundStage(((BoundedDoubleObjective) layer).getBounds(), ((BoundedDoubleObjective) layer).getOutsideValue()));
+                layer = ((BoundedDoubleObjective) layer).getWrappedObjective();
+            }
+            else if (layer instanceof ScalarMultipliedObjective) {
+                plan.add(new ScaleStage(((ScalarMultipliedObjective) layer).getMultiplier(), ((ScalarMultipliedObjective) layer).getOffset()));
+                layer = ((ScalarMultipliedObjective) layer).getWrappedObjective();
+            }
+            else
+                break;
+            if (layer.getNumDimensions() != numDimensions)
+                throw new IllegalArgumentException(String.format("%s: the layers of the objective have different numbers of dimensions.", this.getClass().getSimpleName()));
+        }
+        this.stages = plan.toArray(new Stage[plan.size()]);
+        this.base = layer;
+        assert(repOK());
+    }
+
+    /** @return The number of decorators that were fused. */
+    public int getNumStages() {
+        return stages.length;
+    }
+
+    /** @return The innermost objective, which the plan calls once per evaluation. */
+    public ObjectiveFunction getBaseObjective() {
+        return base;
+    }
+
+    @Override
+    public int getNumDimensions() {
+        return numDimensions;
+    }
+
+    @Override
+    protected double value(final double[] genomes, final int offset) {
+        final Scratch s = scratch.get();
+        System.arraycopy(genomes, offset, s.point, 0, numDimensions);
+        int k = 0;
+        while (k < stages.length && stages[k].enter(s))
+            k++;
+        double value = (k == stages.length) ? evaluateBase(s) : stages[k].rejectedValue();
+        for (int j = k - 1; j >= 0; j--)
+            value = stages[j].leave(value);
+        return value;
+    }
+
+    private double evaluateBase(final Scratch s) {
+        if (base instanceof DoubleVectorObjective) {
+            ((DoubleVectorObjective) base).fitnessBlock(s.point, s.fitness);
+            return s.fitness[0];
+        }
+        return base.fitness(DoubleVectorIndividual.Builder.wrap(Arrays.copyOf(s.point, numDimensions)).build()).asScalar();
+    }
+
+    @Override
+    public void setStep(final int i) {
+        objective.setStep(i);
+    }
+
+    /** Per-thread buffers: the point being transformed, a spare to multiply
+     * it into, and the base objective's output. */
+    private static class Scratch {
+        double[] point;
+        double[] spare;
+        final double[] fitness = new double[1];
+
+        Scratch(final int numDimensions) {
+            point = new double[numDimensions];
+            spare = new double[numDimensions];
+        }
+    }
+
+    private static abstract class Stage {
+        /** Transform the point on the way in.
+         * @return false if evaluation should stop here with rejectedValue(). */
+        abstract boolean enter(Scratch s);
+        double rejectedValue() { throw new IllegalStateException(); }
+        /** Transform the fitness on the way out. */
+        double leave(final double value) { return value; }
+    }
+
+    /** As in TranslatedDoubleObjective. */
+    private static class TranslateStage extends Stage {
+        private final double[] offset;
+
+        TranslateStage(final double[] offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        boolean enter(final Scratch s) {
+            Vector.axpy(1.0, offset, s.point);
+            return true;
+        }
+    }
+
+    /** As in AffineTransformedDoubleObjective. */
+    private static class LinearStage extends Stage {
+        private final double[] matrix;
+        private final int n;
+
+        LinearStage(final double[][] matrix) {
+            this.matrix = Matrix.flatten(matrix);
+            this.n = matrix.length;
+        }
+
+        @Override
+        boolean enter(final Scratch s) {
+            final double[] point = s.point;
+            final double[] newPoint = s.spare;
+            Matrix.gemv(matrix, point, newPoint, n, n);
+            s.spare = point;
+            s.point = newPoint;
+            return true;
+        }
+    }
+
+    /** As in BoundedDoubleObjective. */
+    private static class BoundStage extends Stage {
+        private final double[] min;
+        private final double[] max;
+        private final double outsideValue;
+
+        BoundStage(final IDoublePoint[] bounds, final double outsideValue) {
+            min = new double[bounds.length];
+            max = new double[bounds.length];
+            for (int i = 0; i < bounds.length; i++) {
+                min[i] = bounds[i].x;
+                max[i] = bounds[i].y;
+            }
+            this.outsideValue = outsideValue;
+        }
+
+        @Override
+        boolean enter(final Scratch s) {
+            final double[] point = s.point;
+            for (int i = 0; i < min.length; i++) {
+                if (point[i] < min[i] || point[i] > max[i])
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        double rejectedValue() { return outsideValue; }
+    }
+
+    /** As in ScalarMultipliedObjective. */
+    private static class ScaleStage extends Stage {
+        private final double multiplier;
+        private final double offset;
+
+        ScaleStage(final double multiplier, final double offset) {
+            this.multiplier = multiplier;
+            this.offset = offset;
+        }
+
+        @Override
+        boolean enter(final Scratch s) { return true; }
+
+        @Override
+        double leave(final double value) { return multiplier * value + offset; }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_OBJECTIVE != null
+                && !P_OBJECTIVE.isEmpty()
+                && objective != null
+                && stages != null
+                && base != null
+                && numDimensions > 0
+                && base.getNumDimensions() == numDimensions;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof FusedDoubleObjective))
+            return false;
+        final FusedDoubleObjective ref = (FusedDoubleObjective)o;
+        return objective.equals(ref.objective);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 59 * hash + objective.hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: numStages=%d, %s=%s]", this.getClass().getSimpleName(),
+                stages.length,
+                P_OBJECTIVE, objective);
+    }
+    // </editor-fold>
+}
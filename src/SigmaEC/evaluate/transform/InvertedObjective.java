@@ -3,6 +3,8 @@ package SigmaEC.evaluate.transform;
 import SigmaEC.evaluate.ScalarFitness;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -35,6 +37,16 @@ public class InvertedObjective<T> extends ObjectiveFunction<T, ScalarFitness>
         return new ScalarFitness(-objective.fitness(ind).asScalar());
     }
     
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends T> inds) {
+        assert(inds != null);
+        final List<ScalarFitness> inner = objective.fitnessBatch(inds);
+        final List<ScalarFitness> fitnesses = new ArrayList<>(inner.size());
+        for (final ScalarFitness f : inner)
+            fitnesses.add(new ScalarFitness(-f.asScalar()));
+        return fitnesses;
+    }
+    
     @Override
     public int getNumDimensions() {
         return objective.getNumDimensions();
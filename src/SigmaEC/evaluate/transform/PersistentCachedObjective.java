@@ -0,0 +1,177 @@
+package SigmaEC.evaluate.transform;
+
+import SigmaEC.evaluate.GenomeKey;
+import SigmaEC.evaluate.PersistentFitnessStore;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates an ObjectiveFunction with a PersistentFitnessStore, so that
+ * fitness values survive from run to run and from experiment to experiment:
+ * a warm-started experiment only pays for genomes that no earlier one has
+ * evaluated.
+ *
+ * Values are keyed on the genome's fingerprint (see GenomeKey) and on a
+ * "namespace" that identifies the objective.  The namespace is required,
+ * because nothing else reliably identifies an objective from one JVM to the
+ * next (toString() can leak identity hash codes, and changes whenever a
+ * class's formatting does).  Give differently-configured objectives
+ * different namespaces, and change the namespace whenever the objective's
+ * definition changes.  Only deterministic objectives with scalar fitness
+ * should be stored.
+ *
+ * Every decorator in the JVM that names the same "file" shares one store.
+ * Unlike CachedObjective, this does not stop several threads from evaluating
+ * the same new genome at once; wrap it in a CachedObjective for that.
+ *
+ * @author Eric O. Scott
+ */
+public class PersistentCachedObjective<P> extends ObjectiveFunction<P, ScalarFitness> {
+    public final static String P_FILE = "file";
+    public final static String P_OBJECTIVE = "objective";
+    public final static String P_NAMESPACE = "namespace";
+
+    private final ObjectiveFunction<P, ScalarFitness> objective;
+    private final PersistentFitnessStore store;
+    private final String namespace;
+    private final long namespaceHash;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PersistentCachedObjective(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        objective = parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class);
+        store = PersistentFitnessStore.open(new File(parameters.getStringParameter(Parameters.push(base, P_FILE))));
+        namespace = parameters.getStringParameter(Parameters.push(base, P_NAMESPACE));
+        namespaceHash = GenomeKey.fingerprint(namespace);
+        assert(repOK());
+    }
+
+    public PersistentCachedObjective(final ObjectiveFunction<P, ScalarFitness> objective, final PersistentFitnessStore store, final String namespace) {
+        assert(objective != null);
+        assert(store != null);
+        assert(namespace != null);
+        this.objective = objective;
+        this.store = store;
+        this.namespace = namespace;
+        this.namespaceHash = GenomeKey.fingerprint(namespace);
+        assert(repOK());
+    }
+
+    public PersistentFitnessStore getStore() { return store; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    @Override
+    public int getNumDimensions() {
+        return objective.getNumDimensions();
+    }
+
+    @Override
+    public ScalarFitness fitness(final P ind) {
+        assert(ind != null);
+        final long[] fingerprint = GenomeKey.of(ind).getFingerprint();
+        final Double stored = store.get(namespaceHash, fingerprint);
+        if (stored != null) {
+            hits.incrementAndGet();
+            return new ScalarFitness(stored);
+        }
+        misses.incrementAndGet();
+        final ScalarFitness fitness = objective.fitness(ind);
+        store.put(namespaceHash, fingerprint, fitness.asScalar());
+        return fitness;
+    }
+
+    /** Looks up the whole batch, and sends whatever is missing to the wrapped
+     * objective in a single call to fitnessBatch(). */
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends P> inds) {
+        assert(inds != null);
+        final List<ScalarFitness> result = new ArrayList<>(inds.size());
+        final List<long[]> missingFingerprints = new ArrayList<>();
+        final List<P> missing = new ArrayList<>();
+        final List<Integer> missingIndices = new ArrayList<>();
+        for (int i = 0; i < inds.size(); i++) {
+            final long[] fingerprint = GenomeKey.of(inds.get(i)).getFingerprint();
+            final Double stored = store.get(namespaceHash, fingerprint);
+            if (stored != null) {
+                hits.incrementAndGet();
+                result.add(new ScalarFitness(stored));
+            }
+            else {
+                result.add(null);
+                missingFingerprints.add(fingerprint);
+                missing.add(inds.get(i));
+                missingIndices.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            final List<ScalarFitness> fitnesses = objective.fitnessBatch(missing);
+            assert(fitnesses.size() == missing.size());
+            for (int j = 0; j < fitnesses.size(); j++) {
+                store.put(namespaceHash, missingFingerprints.get(j), fitnesses.get(j).asScalar());
+                result.set(missingIndices.get(j), fitnesses.get(j));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setStep(final int i) {
+        objective.setStep(i);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_FILE != null
+                && !P_FILE.isEmpty()
+                && P_OBJECTIVE != null
+                && !P_OBJECTIVE.isEmpty()
+                && P_NAMESPACE != null
+                && !P_NAMESPACE.isEmpty()
+                && objective != null
+                && store != null
+                && namespace != null
+                && hits.get() >= 0
+                && misses.get() >= 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof PersistentCachedObjective))
+            return false;
+        final PersistentCachedObjective ref = (PersistentCachedObjective)o;
+        return objective.equals(ref.objective)
+                && store.equals(ref.store)
+                && namespace.equals(ref.namespace);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.objective);
+        hash = 41 * hash + Objects.hashCode(this.store);
+        hash = 41 * hash + Objects.hashCode(this.namespace);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+                P_OBJECTIVE, objective,
+                P_FILE, store.getFile(),
+                P_NAMESPACE, namespace);
+    }
+    // </editor-fold>
+}
@@ -5,6 +5,8 @@ import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.represent.Individual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -39,12 +41,36 @@ public class ScalarMultipliedObjective<T extends Individual> extends ObjectiveFu
         assert(repOK());
     }
     
+    public ScalarMultipliedObjective(final ObjectiveFunction<T, ScalarFitness> objective, final double multiplier, final double offset) {
+        assert(objective != null);
+        assert(Double.isFinite(multiplier));
+        assert(Double.isFinite(offset));
+        this.objective = objective;
+        this.multiplier = multiplier;
+        this.offset = offset;
+        assert(repOK());
+    }
+    
+    public double getMultiplier() { return multiplier; }
+    public double getOffset() { return offset; }
+    public ObjectiveFunction<T, ScalarFitness> getWrappedObjective() { return objective; }
+    
     @Override
     public ScalarFitness fitness(final T ind) {
         double product = multiplier * objective.fitness(ind).asScalar() + offset;
         assert(repOK());
         return new ScalarFitness(product);
     }
+    
+    @Override
+    public List<ScalarFitness> fitnessBatch(final List<? extends T> inds) {
+        assert(inds != null);
+        final List<ScalarFitness> inner = objective.fitnessBatch(inds);
+        final List<ScalarFitness> fitnesses = new ArrayList<>(inner.size());
+        for (final ScalarFitness f : inner)
+            fitnesses.add(new ScalarFitness(multiplier * f.asScalar() + offset));
+        return fitnesses;
+    }
 
 
     @Override
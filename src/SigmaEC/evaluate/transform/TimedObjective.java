@@ -0,0 +1,143 @@
+package SigmaEC.evaluate.transform;
+
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.measure.Profiler;
+import SigmaEC.meta.Fitness;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A decorator that records how long each call to an ObjectiveFunction takes in
+ * a Profiler, so that the latency distribution of fitness evaluations can be
+ * reported with a ProfilerPopulationMetric.
+ *
+ * By default every individual is timed separately, even when the evaluator
+ * hands over a whole batch, and the calls are recorded under "component"
+ * (default "fitness").  If the wrapped objective has a native batch
+ * implementation worth keeping, set "batch" to true: batches are then passed
+ * through whole and each batch is recorded as one call under
+ * "component.batch" instead.
+ *
+ * @author Eric O. Scott
+ */
+public class TimedObjective<P, F extends Fitness> extends ObjectiveFunction<P, F> {
+    public final static String P_OBJECTIVE = "objective";
+    public final static String P_PROFILER = "profiler";
+    public final static String P_COMPONENT = "component";
+    public final static String P_BATCH = "batch";
+    public final static String DEFAULT_COMPONENT = "fitness";
+
+    private final ObjectiveFunction<P, F> objective;
+    private final Profiler profiler;
+    private final String component;
+    private final String batchComponent;
+    private final boolean batch;
+
+    public TimedObjective(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        objective = parameters.getInstanceFromParameter(Parameters.push(base, P_OBJECTIVE), ObjectiveFunction.class);
+        profiler = parameters.getInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
+        component = parameters.getOptionalStringParameter(Parameters.push(base, P_COMPONENT), DEFAULT_COMPONENT);
+        batchComponent = component + "." + P_BATCH;
+        batch = parameters.getOptionalBooleanParameter(Parameters.push(base, P_BATCH), false);
+        assert(repOK());
+    }
+
+    public TimedObjective(final ObjectiveFunction<P, F> objective, final Profiler profiler, final boolean batch) {
+        assert(objective != null);
+        assert(profiler != null);
+        this.objective = objective;
+        this.profiler = profiler;
+        this.component = DEFAULT_COMPONENT;
+        this.batchComponent = component + "." + P_BATCH;
+        this.batch = batch;
+        assert(repOK());
+    }
+
+    @Override
+    public F fitness(final P ind) {
+        final long start = System.nanoTime();
+        final F fitness = objective.fitness(ind);
+        profiler.recordSince(component, start);
+        return fitness;
+    }
+
+    @Override
+    public List<F> fitnessBatch(final List<? extends P> inds) {
+        assert(inds != null);
+        if (!batch) {
+            final List<F> fitnesses = new ArrayList<>(inds.size());
+            for (final P ind : inds)
+                fitnesses.add(fitness(ind));
+            return fitnesses;
+        }
+        final long start = System.nanoTime();
+        final List<F> fitnesses = objective.fitnessBatch(inds);
+        profiler.recordSince(batchComponent, start);
+        return fitnesses;
+    }
+
+    @Override
+    public void setStep(final int i) {
+        objective.setStep(i);
+    }
+
+    @Override
+    public int getNumDimensions() {
+        return objective.getNumDimensions();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_OBJECTIVE != null
+                && !P_OBJECTIVE.isEmpty()
+                && P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && P_COMPONENT != null
+                && !P_COMPONENT.isEmpty()
+                && P_BATCH != null
+                && !P_BATCH.isEmpty()
+                && objective != null
+                && profiler != null
+                && component != null
+                && !component.isEmpty()
+                && batchComponent != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof TimedObjective))
+            return false;
+        final TimedObjective ref = (TimedObjective)o;
+        return batch == ref.batch
+                && objective.equals(ref.objective)
+                && profiler.equals(ref.profiler)
+                && component.equals(ref.component);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.objective);
+        hash = 41 * hash + Objects.hashCode(this.profiler);
+        hash = 41 * hash + Objects.hashCode(this.component);
+        hash = 41 * hash + (this.batch ? 1 : 0);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%s, %s=%B, %s=%s]", this.getClass().getSimpleName(),
+                P_COMPONENT, component,
+                P_PROFILER, profiler,
+                P_BATCH, batch,
+                P_OBJECTIVE, objective);
+    }
+    // </editor-fold>
+}
@@ -5,7 +5,10 @@ import SigmaEC.meta.Fitness;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Parameters;
+import SigmaEC.util.math.Vector;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  *
@@ -52,18 +55,34 @@ public class TranslatedDoubleObjective<F extends Fitness> extends ObjectiveFunct
         return offset.length;
     }
     
+    public double[] getOffset() {
+        return Arrays.copyOf(offset, offset.length);
+    }
+    
+    public ObjectiveFunction<DoubleVectorIndividual, F> getWrappedObjective() {
+        return objective;
+    }
+    
     private DoubleVectorIndividual translate(final DoubleVectorIndividual ind) {
         final double[] newPoint = ind.getGenomeArray();
         assert(newPoint.length == offset.length);
-        for (int i = 0; i < offset.length; i++)
-            newPoint[i] += offset[i];
-        return new DoubleVectorIndividual.Builder(newPoint).build();
+        Vector.axpy(1.0, offset, newPoint);
+        return DoubleVectorIndividual.Builder.wrap(newPoint).build();
     }
     
     @Override
     public F fitness(final DoubleVectorIndividual ind) {
         return objective.fitness(translate(ind));
     }
+    
+    @Override
+    public List<F> fitnessBatch(final List<? extends DoubleVectorIndividual> inds) {
+        assert(inds != null);
+        final List<DoubleVectorIndividual> translated = new ArrayList<>(inds.size());
+        for (final DoubleVectorIndividual ind : inds)
+            translated.add(translate(ind));
+        return objective.fitnessBatch(translated);
+    }
 
     @Override
     public void setStep(final int i) {
@@ -1,49 +1,238 @@
 package SigmaEC.experiment;
 
+import SigmaEC.SRandom;
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.measure.WriterPopulationMetric;
 import SigmaEC.meta.CircleOfLife;
 import SigmaEC.meta.CircleOfLife.EvolutionResult;
 import SigmaEC.meta.Fitness;
+import SigmaEC.meta.island.RandomInjectionMigrationPolicy;
+import SigmaEC.meta.island.RandomMigrationPolicy;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.represent.Individual;
+import SigmaEC.represent.lineage.FileLineageRecorder;
+import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Runs a CircleOfLife several times and collects the results.
+ *
+ * By default the runs happen one after another on a single component graph,
+ * so each run picks up the random number stream where the last one left off.
+ *
+ * If independentRuns is true, each run instead gets its own component graph,
+ * freshly instantiated from the parameters, whose "random" seed is derived
+ * from the master seed and the run number.  The output files of components
+ * that write one per run (the "file" of a WriterPopulationMetric or
+ * FileLineageRecorder, and the "logFile" of a migration policy) get a
+ * "_run&lt;i&gt;" suffix, so runs never share an output file.  Each run also
+ * gets its own IDSpace, starting at (i + 1)*2^40, so its individuals' IDs
+ * don't depend on what the other runs are doing and never collide with
+ * theirs.  Because the runs share no state, up to numParallelRuns of them can
+ * execute at once, and the results (including IDs and lineage) are the same
+ * no matter how many run in parallel.  Within a run, IDs are only
+ * reproducible if individuals are bred on one thread at a time, which is not
+ * the case for an island model with several threads.
  *
  * @author Eric 'Siggy' Scott
  */
 public class SimpleExperiment<T extends Individual<F>, F extends Fitness> extends Experiment<List<EvolutionResult<T, F>>> {
     private final static String P_CIRCLE_OF_LIFE = "circleOfLife";
     private final static String P_NUM_RUNS = "numRuns";
-        
-    private final CircleOfLife<T, F> circleOfLife;
+    private final static String P_EXECUTOR = "executor";
+    private final static String P_RANDOM = "random";
+    private final static String P_SEED = "seed";
+    private final static String P_INDEPENDENT_RUNS = "independentRuns";
+    private final static String P_NUM_PARALLEL_RUNS = "numParallelRuns";
+    /** Each independent run's IDs start at a multiple of 2^RUN_ID_BITS. */
+    private final static int RUN_ID_BITS = 40;
+
+    /** The parameters that name a per-run output file, by the type of
+     * component they belong to. */
+    private final static Map<Class<?>, String> OUTPUT_FILE_PARAMETERS = new LinkedHashMap<Class<?>, String>() {{
+        put(WriterPopulationMetric.class, WriterPopulationMetric.P_FILE);
+        put(FileLineageRecorder.class, FileLineageRecorder.P_FILE);
+        put(RandomMigrationPolicy.class, RandomMigrationPolicy.P_LOG_FILE);
+        put(RandomInjectionMigrationPolicy.class, RandomInjectionMigrationPolicy.P_LOG_FILE);
+    }};
+
+    private final Parameters parameters;
+    private final String base;
+    private final Option<CircleOfLife<T, F>> circleOfLife;
     private final int numRuns;
+    private final boolean independentRuns;
+    private final int numParallelRuns;
+    private final long masterSeed;
+    private final Option<EvaluationExecutor> executor;
     private final List<EvolutionResult<T, F>> results;
-    
+
     public SimpleExperiment(final Parameters parameters, final String base) {
         assert(parameters != null);
         assert(base != null);
-        
-        this.circleOfLife = parameters.getInstanceFromParameter(Parameters.push(base, P_CIRCLE_OF_LIFE), CircleOfLife.class);
+        this.parameters = parameters;
+        this.base = base;
         this.numRuns = parameters.getIntParameter(Parameters.push(base, P_NUM_RUNS));
+        this.independentRuns = parameters.getOptionalBooleanParameter(Parameters.push(base, P_INDEPENDENT_RUNS), false);
+        this.numParallelRuns = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_PARALLEL_RUNS), 1);
+        if (numParallelRuns < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_NUM_PARALLEL_RUNS, numParallelRuns));
+        if (numParallelRuns > 1 && !independentRuns)
+            throw new IllegalStateException(String.format("%s: %s is %d, but parallel runs require %s to be true.", this.getClass().getSimpleName(), P_NUM_PARALLEL_RUNS, numParallelRuns, P_INDEPENDENT_RUNS));
+        this.executor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        if (independentRuns) {
+            if (!parameters.isDefined(Parameters.push(base, P_RANDOM)))
+                throw new IllegalStateException(String.format("%s: %s is true, but %s is not defined.", this.getClass().getSimpleName(), P_INDEPENDENT_RUNS, Parameters.push(base, P_RANDOM)));
+            // Each run builds its own CircleOfLife, so we don't create one here
+            this.circleOfLife = Option.NONE;
+            this.masterSeed = parameters.getOptionalLongParameter(Parameters.push(Parameters.push(base, P_RANDOM), P_SEED), System.currentTimeMillis());
+        }
+        else {
+            this.circleOfLife = new Option<>((CircleOfLife<T, F>) parameters.getInstanceFromParameter(Parameters.push(base, P_CIRCLE_OF_LIFE), CircleOfLife.class));
+            this.masterSeed = 0;
+        }
         this.results = new ArrayList<EvolutionResult<T, F>>(numRuns);
         assert(repOK());
     }
-    
+
     @Override
     public void run() {
-        Logger.getLogger(this.getClass().getName()).log(Level.INFO, String.format("Beginning evolutionary run with the following configuration: %s.", circleOfLife.toString()));
         final long startTime = System.currentTimeMillis();
-        for (int i = 0; i < numRuns; i++) {
-            Logger.getLogger(SimpleExperiment.class.getName()).log(Level.INFO, String.format("Run %d", i));
-            results.add(circleOfLife.evolve(i));
+        try {
+            if (independentRuns)
+                runIndependently();
+            else {
+                Logger.getLogger(this.getClass().getName()).log(Level.INFO, String.format("Beginning evolutionary run with the following configuration: %s.", circleOfLife.get().toString()));
+                for (int i = 0; i < numRuns; i++) {
+                    Logger.getLogger(SimpleExperiment.class.getName()).log(Level.INFO, String.format("Run %d", i));
+                    results.add(circleOfLife.get().evolve(i));
+                }
+            }
+        }
+        finally {
+            // Release the shared worker threads
+            if (executor.isDefined())
+                executor.get().shutdown();
         }
         final double time = (System.currentTimeMillis() - startTime)/1000.0;
         Logger.getLogger(this.getClass().getName()).log(Level.INFO, "Finished (" + time + "s)");
     }
 
+    private void runIndependently() {
+        Logger.getLogger(this.getClass().getName()).log(Level.INFO, String.format("Beginning %d independent runs (%d at a time) with master seed %d.", numRuns, numParallelRuns, masterSeed));
+        final ExecutorService pool = Executors.newFixedThreadPool(numParallelRuns);
+        try {
+            final List<Future<EvolutionResult<T, F>>> futures = new ArrayList<>(numRuns);
+            for (int i = 0; i < numRuns; i++)
+                futures.add(pool.submit(new IDSpace((long) (i + 1) << RUN_ID_BITS).wrap(new IndependentRun(i))));
+            // Collect in run order, regardless of which run finishes first
+            for (final Future<EvolutionResult<T, F>> f : futures)
+                results.add(f.get());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("%s: interrupted while waiting for runs to finish.", this.getClass().getSimpleName()), ex);
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException(String.format("%s: a run failed.", this.getClass().getSimpleName()), ex.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Build a private copy of the parameter database for one run, with its
+     * own seed and output files. */
+    private Parameters runParameters(final int run) {
+        assert(run >= 0);
+        final Parameters.Builder builder = new Parameters.Builder(parameters).clearInstances()
+                .setParameter(Parameters.push(Parameters.push(base, P_RANDOM), P_SEED), String.valueOf(SRandom.deriveSeed(masterSeed, run)));
+        for (final String name : parameters.getParameterNames()) {
+            if (isOutputFile(name))
+                builder.setParameter(name, perRunFileName(parameters.getStringParameter(name), run));
+        }
+        // Runs share the experiment's worker threads, if it has any
+        if (executor.isDefined())
+            builder.registerInstance(Parameters.push(base, P_EXECUTOR), executor.get());
+        return builder.build();
+    }
+
+    /** @return True if the parameter names the output file of a component
+     * listed in OUTPUT_FILE_PARAMETERS. */
+    private boolean isOutputFile(final String parameterName) {
+        final int split = parameterName.lastIndexOf(Parameters.PROPERTY_DELIMITER);
+        if (split < 0)
+            return false;
+        final String component = parameterName.substring(0, split);
+        final String property = parameterName.substring(split + 1);
+        if (!OUTPUT_FILE_PARAMETERS.containsValue(property))
+            return false;
+        final Option<String> className = className(component);
+        if (!className.isDefined())
+            return false;
+        try {
+            final Class<?> c = Class.forName(className.get());
+            for (final Map.Entry<Class<?>, String> entry : OUTPUT_FILE_PARAMETERS.entrySet())
+                if (entry.getValue().equals(property) && entry.getKey().isAssignableFrom(c))
+                    return true;
+            return false;
+        } catch (final ClassNotFoundException ex) {
+            return false;
+        }
+    }
+    
+    /** Find the class name that a parameter is set to, looking inside the
+     * enclosing list if the parameter is an element of one (ex. "metrics.1"). */
+    private Option<String> className(final String parameterName) {
+        if (parameters.isDefined(parameterName))
+            return new Option<>(parameters.getStringParameter(parameterName).trim());
+        final int split = parameterName.lastIndexOf(Parameters.PROPERTY_DELIMITER);
+        if (split < 0)
+            return Option.NONE;
+        final String listName = parameterName.substring(0, split);
+        final String index = parameterName.substring(split + 1);
+        if (!parameters.isDefined(listName) || !index.matches("[0-9]+"))
+            return Option.NONE;
+        final String[] elements = parameters.getStringParameter(listName).split(Parameters.LIST_DELIMITER);
+        final int i = Integer.parseInt(index);
+        return i < elements.length ? new Option<>(elements[i].trim()) : Option.NONE;
+    }
+
+    /** Insert "_run&lt;i&gt;" before a file name's extension. */
+    static String perRunFileName(final String fileName, final int run) {
+        assert(fileName != null);
+        final int dot = fileName.lastIndexOf('.');
+        final int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        if (dot <= slash + 1)
+            return String.format("%s_run%d", fileName, run);
+        return String.format("%s_run%d%s", fileName.substring(0, dot), run, fileName.substring(dot));
+    }
+
+    private class IndependentRun implements Callable<EvolutionResult<T, F>> {
+        private final int run;
+
+        IndependentRun(final int run) {
+            assert(run >= 0);
+            this.run = run;
+        }
+
+        @Override
+        public EvolutionResult<T, F> call() {
+            Logger.getLogger(SimpleExperiment.class.getName()).log(Level.INFO, String.format("Run %d", run));
+            final CircleOfLife<T, F> runCircleOfLife = runParameters(run).getInstanceFromParameter(Parameters.push(base, P_CIRCLE_OF_LIFE), CircleOfLife.class);
+            return runCircleOfLife.evolve(run);
+        }
+    }
+
     @Override
     public List<EvolutionResult<T, F>> getResult() {
         return new ArrayList<EvolutionResult<T, F>>(results);
@@ -52,8 +241,15 @@ public class SimpleExperiment<T extends Individual<F>, F extends Fitness> extend
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
     @Override
     public final boolean repOK() {
-        return circleOfLife != null
-                && numRuns > 0;
+        return parameters != null
+                && base != null
+                && circleOfLife != null
+                && circleOfLife.isDefined() != independentRuns
+                && numRuns > 0
+                && numParallelRuns > 0
+                && (independentRuns || numParallelRuns == 1)
+                && executor != null
+                && results != null;
     }
 
     @Override
@@ -64,20 +260,30 @@ public class SimpleExperiment<T extends Individual<F>, F extends Fitness> extend
             return false;
         final SimpleExperiment ref = (SimpleExperiment) o;
         return numRuns == ref.numRuns
+                && independentRuns == ref.independentRuns
+                && numParallelRuns == ref.numParallelRuns
+                && masterSeed == ref.masterSeed
                 && circleOfLife.equals(ref.circleOfLife);
     }
 
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 43 * hash + (this.circleOfLife != null ? this.circleOfLife.hashCode() : 0);
+        hash = 43 * hash + Objects.hashCode(this.circleOfLife);
         hash = 43 * hash + this.numRuns;
+        hash = 43 * hash + (this.independentRuns ? 1 : 0);
+        hash = 43 * hash + this.numParallelRuns;
+        hash = 43 * hash + (int) (this.masterSeed ^ (this.masterSeed >>> 32));
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("[%s: numRuns=%d, circleOfLife=%s]", numRuns, circleOfLife);
+        return String.format("[%s: %s=%d, %s=%B, %s=%d, %s=%s]", this.getClass().getSimpleName(),
+                P_NUM_RUNS, numRuns,
+                P_INDEPENDENT_RUNS, independentRuns,
+                P_NUM_PARALLEL_RUNS, numParallelRuns,
+                P_CIRCLE_OF_LIFE, circleOfLife);
     }
     // </editor-fold>
 }
@@ -0,0 +1,459 @@
+package SigmaEC.experiment;
+
+import SigmaEC.ContractObject;
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.evaluate.transform.TimedObjective;
+import SigmaEC.measure.Profiler;
+import SigmaEC.meta.CircleOfLife;
+import SigmaEC.meta.ProfiledStoppingCondition;
+import SigmaEC.util.Option;
+import SigmaEC.util.Parameters;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An end-to-end throughput benchmark.  Runs each of a list of reference
+ * CircleOfLife configurations ("engines") at each of several thread counts,
+ * and reports evaluations per second, generations per second, peak heap usage,
+ * and the speedup over the first thread count.
+ *
+ * Each engine is named by a parameter that holds its CircleOfLife (ex.
+ * "simple = SigmaEC.meta.SimpleCircleOfLife", with its settings under
+ * "simple.*").  Every run builds the engine afresh from the parameters, so
+ * with a fixed seed each run repeats exactly the same work.  The thread count
+ * is applied by overwriting each parameter listed in threadParameters (ex.
+ * "experiment.executor.numThreads").  Before the measured runs of each
+ * configuration, warmupRuns untimed runs give the JIT a chance to settle.
+ *
+ * Evaluations and generations are counted with the shared Profiler given by
+ * "profiler": wrap each engine's objective in a TimedObjective and its
+ * stopping condition in a ProfiledStoppingCondition, both referring to it with
+ * the '%' syntax.
+ *
+ * If a baseline file (the output of an earlier run) is given, every
+ * configuration whose evaluation or generation rate has dropped by more than
+ * the given tolerance is logged as a regression, and if failOnRegression is
+ * true the experiment throws an exception once all results are written.
+ *
+ * @author Eric O. Scott
+ */
+public class ThroughputExperiment extends Experiment<List<ThroughputExperiment.ThroughputResult>> {
+    public final static String P_ENGINES = "engines";
+    public final static String P_THREAD_COUNTS = "threadCounts";
+    public final static String P_THREAD_PARAMETERS = "threadParameters";
+    public final static String P_PROFILER = "profiler";
+    public final static String P_EVALUATION_COMPONENT = "evaluationComponent";
+    public final static String P_GENERATION_COMPONENT = "generationComponent";
+    public final static String P_EXECUTOR = "executor";
+    public final static String P_WARMUP_RUNS = "warmupRuns";
+    public final static String P_NUM_RUNS = "numRuns";
+    public final static String P_FILE = "file";
+    public final static String P_BASELINE = "baseline";
+    public final static String P_TOLERANCE = "tolerance";
+    public final static String P_FAIL_ON_REGRESSION = "failOnRegression";
+    public final static String CSV_HEADER = "engine, threads, runs, evaluationsPerSec, generationsPerSec, peakHeapMB, speedup, regression";
+
+    private final Parameters parameters;
+    private final String base;
+    private final String[] engines;
+    private final int[] threadCounts;
+    private final String[] threadParameters;
+    private final String evaluationComponent;
+    private final String generationComponent;
+    private final int warmupRuns;
+    private final int numRuns;
+    private final Option<String> file;
+    private final Option<String> baseline;
+    private final double tolerance;
+    private final boolean failOnRegression;
+    private final List<ThroughputResult> results = new ArrayList<>();
+
+    public ThroughputExperiment(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        this.parameters = parameters;
+        this.base = base;
+        engines = parameters.getStringArrayParameter(Parameters.push(base, P_ENGINES));
+        threadCounts = parameters.getOptionalIntArrayParameter(Parameters.push(base, P_THREAD_COUNTS), new int[] { 1 });
+        for (final int t : threadCounts)
+            if (t < 1)
+                throw new IllegalStateException(String.format("%s: %s contains %d, but thread counts must be positive.", this.getClass().getSimpleName(), P_THREAD_COUNTS, t));
+        threadParameters = parameters.getOptionalStringArrayParameter(Parameters.push(base, P_THREAD_PARAMETERS), new String[0]);
+        if (threadCounts.length > 1 && threadParameters.length == 0)
+            throw new IllegalStateException(String.format("%s: several %s are given, but %s is empty.", this.getClass().getSimpleName(), P_THREAD_COUNTS, P_THREAD_PARAMETERS));
+        if (!parameters.isDefined(Parameters.push(base, P_PROFILER)))
+            throw new IllegalStateException(String.format("%s: %s is not defined.", this.getClass().getSimpleName(), Parameters.push(base, P_PROFILER)));
+        evaluationComponent = parameters.getOptionalStringParameter(Parameters.push(base, P_EVALUATION_COMPONENT), TimedObjective.DEFAULT_COMPONENT);
+        generationComponent = parameters.getOptionalStringParameter(Parameters.push(base, P_GENERATION_COMPONENT), ProfiledStoppingCondition.DEFAULT_COMPONENT);
+        warmupRuns = parameters.getOptionalIntParameter(Parameters.push(base, P_WARMUP_RUNS), 1);
+        if (warmupRuns < 0)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be >= 0.", this.getClass().getSimpleName(), P_WARMUP_RUNS, warmupRuns));
+        numRuns = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_RUNS), 3);
+        if (numRuns < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_NUM_RUNS, numRuns));
+        file = parameters.getOptionalStringParameter(Parameters.push(base, P_FILE));
+        baseline = parameters.getOptionalStringParameter(Parameters.push(base, P_BASELINE));
+        tolerance = parameters.getOptionalDoubleParameter(Parameters.push(base, P_TOLERANCE), 0.1);
+        if (tolerance < 0 || tolerance >= 1 || Double.isNaN(tolerance))
+            throw new IllegalStateException(String.format("%s: %s is %f, but must be in [0, 1).", this.getClass().getSimpleName(), P_TOLERANCE, tolerance));
+        failOnRegression = parameters.getOptionalBooleanParameter(Parameters.push(base, P_FAIL_ON_REGRESSION), false);
+        assert(repOK());
+    }
+
+    @Override
+    public void run() {
+        final Map<String, ThroughputResult> baselineResults = baseline.isDefined() ? readBaseline(baseline.get()) : new HashMap<String, ThroughputResult>();
+        results.clear();
+        for (final String engine : engines) {
+            double firstRate = 0.0;
+            for (int i = 0; i < threadCounts.length; i++) {
+                final ThroughputResult raw = measure(engine, threadCounts[i]);
+                final double rate = raw.evaluationsPerSec > 0 ? raw.evaluationsPerSec : raw.generationsPerSec;
+                if (i == 0)
+                    firstRate = rate;
+                final double speedup = firstRate > 0 ? rate/firstRate : 0.0;
+                final ThroughputResult reference = baselineResults.get(key(engine, threadCounts[i]));
+                final boolean regression = reference != null && isRegression(raw, reference);
+                if (regression)
+                    Logger.getLogger(this.getClass().getName()).log(Level.WARNING, String.format("Throughput regression in %s with %d threads: %.1f evaluations/s and %.1f generations/s, compared to %.1f and %.1f in the baseline.",
+                            engine, threadCounts[i], raw.evaluationsPerSec, raw.generationsPerSec, reference.evaluationsPerSec, reference.generationsPerSec));
+                results.add(new ThroughputResult(engine, threadCounts[i], numRuns, raw.evaluationsPerSec, raw.generationsPerSec, raw.peakHeapMB, speedup, regression));
+            }
+        }
+        write();
+        if (failOnRegression && hasRegression())
+            throw new IllegalStateException(String.format("%s: throughput regressed by more than %.0f%% compared to '%s'.", this.getClass().getSimpleName(), 100*tolerance, baseline.get()));
+    }
+
+    /** Run one engine with one thread count, and measure its throughput
+     * across all of the measured runs. */
+    private ThroughputResult measure(final String engine, final int numThreads) {
+        assert(engine != null);
+        assert(numThreads > 0);
+        Logger.getLogger(this.getClass().getName()).log(Level.INFO, String.format("Measuring %s with %d threads.", engine, numThreads));
+        for (int i = 0; i < warmupRuns; i++)
+            trial(engine, numThreads, i);
+        long totalNanos = 0;
+        long evaluations = 0;
+        long generations = 0;
+        double peakHeapMB = 0.0;
+        for (int i = 0; i < numRuns; i++) {
+            final Trial t = trial(engine, numThreads, i);
+            totalNanos += t.nanos;
+            evaluations += t.evaluations;
+            generations += t.generations;
+            peakHeapMB = Math.max(peakHeapMB, t.peakHeapBytes/(1024.0*1024.0));
+        }
+        if (evaluations == 0 && generations == 0)
+            Logger.getLogger(this.getClass().getName()).log(Level.WARNING, String.format("%s recorded no evaluations or generations.  Is its objective wrapped in a %s and its stopping condition in a %s that refer to %s?",
+                    engine, TimedObjective.class.getSimpleName(), ProfiledStoppingCondition.class.getSimpleName(), Parameters.push(base, P_PROFILER)));
+        final double seconds = Math.max(totalNanos, 1)/1e9;
+        return new ThroughputResult(engine, numThreads, numRuns, evaluations/seconds, generations/seconds, peakHeapMB, 1.0, false);
+    }
+
+    private Trial trial(final String engine, final int numThreads, final int run) {
+        final Parameters trialParameters = trialParameters(numThreads);
+        final CircleOfLife circleOfLife = trialParameters.getInstanceFromParameter(engine, CircleOfLife.class);
+        // The engine refers to the profiler, so this is the instance it records into
+        final Profiler profiler = trialParameters.getInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
+        final Option<EvaluationExecutor> executor = trialParameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        profiler.reset();
+        System.gc();
+        final List<MemoryPoolMXBean> heapPools = heapPools();
+        for (final MemoryPoolMXBean pool : heapPools)
+            pool.resetPeakUsage();
+        try {
+            final long start = System.nanoTime();
+            circleOfLife.evolve(run);
+            final long nanos = System.nanoTime() - start;
+            long peakHeapBytes = 0;
+            for (final MemoryPoolMXBean pool : heapPools)
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            return new Trial(nanos, profiler.getHistogram(evaluationComponent).getCount(), profiler.getHistogram(generationComponent).getCount(), peakHeapBytes);
+        }
+        finally {
+            if (executor.isDefined())
+                executor.get().shutdown();
+        }
+    }
+
+    /** A fresh copy of the parameter database, so that every run starts from
+     * newly constructed (and identically seeded) components. */
+    private Parameters trialParameters(final int numThreads) {
+        final Parameters.Builder builder = new Parameters.Builder(parameters).clearInstances();
+        for (final String p : threadParameters)
+            builder.setParameter(p, String.valueOf(numThreads));
+        return builder.build();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.isValid())
+                pools.add(pool);
+        return pools;
+    }
+
+    private boolean isRegression(final ThroughputResult current, final ThroughputResult reference) {
+        return current.evaluationsPerSec < (1 - tolerance)*reference.evaluationsPerSec
+                || current.generationsPerSec < (1 - tolerance)*reference.generationsPerSec;
+    }
+
+    private boolean hasRegression() {
+        for (final ThroughputResult r : results)
+            if (r.regression)
+                return true;
+        return false;
+    }
+
+    private static String key(final String engine, final int numThreads) {
+        return engine + "@" + numThreads;
+    }
+
+    /** Read the results of an earlier run, as written by write(). */
+    private Map<String, ThroughputResult> readBaseline(final String fileName) {
+        assert(fileName != null);
+        final Map<String, ThroughputResult> baselineResults = new HashMap<>();
+        try (final BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line = reader.readLine(); // Skip the header
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty())
+                    continue;
+                final ThroughputResult r = ThroughputResult.parse(line);
+                baselineResults.put(key(r.engine, r.threads), r);
+            }
+        }
+        catch (final IOException | RuntimeException e) {
+            throw new IllegalStateException(String.format("%s: could not read baseline file '%s'.", this.getClass().getSimpleName(), fileName), e);
+        }
+        return baselineResults;
+    }
+
+    private void write() {
+        try {
+            final Writer writer = file.isDefined() ? new FileWriter(file.get()) : new OutputStreamWriter(System.out);
+            writer.write(CSV_HEADER + "\n");
+            for (final ThroughputResult r : results)
+                writer.write(r + "\n");
+            if (file.isDefined())
+                writer.close();
+            else
+                writer.flush();
+        }
+        catch (final IOException e) {
+            throw new IllegalStateException(String.format("%s: could not write results.", this.getClass().getSimpleName()), e);
+        }
+    }
+
+    @Override
+    public List<ThroughputResult> getResult() {
+        return new ArrayList<>(results);
+    }
+
+    /** The raw numbers from a single run. */
+    private static class Trial {
+        final long nanos;
+        final long evaluations;
+        final long generations;
+        final long peakHeapBytes;
+
+        Trial(final long nanos, final long evaluations, final long generations, final long peakHeapBytes) {
+            this.nanos = nanos;
+            this.evaluations = evaluations;
+            this.generations = generations;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_ENGINES != null
+                && !P_ENGINES.isEmpty()
+                && P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && parameters != null
+                && base != null
+                && engines != null
+                && engines.length > 0
+                && threadCounts != null
+                && threadCounts.length > 0
+                && threadParameters != null
+                && evaluationComponent != null
+                && generationComponent != null
+                && warmupRuns >= 0
+                && numRuns > 0
+                && file != null
+                && baseline != null
+                && tolerance >= 0
+                && tolerance < 1
+                && results != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ThroughputExperiment))
+            return false;
+        final ThroughputExperiment ref = (ThroughputExperiment) o;
+        return warmupRuns == ref.warmupRuns
+                && numRuns == ref.numRuns
+                && Double.doubleToLongBits(tolerance) == Double.doubleToLongBits(ref.tolerance)
+                && failOnRegression == ref.failOnRegression
+                && Arrays.equals(engines, ref.engines)
+                && Arrays.equals(threadCounts, ref.threadCounts)
+                && Arrays.equals(threadParameters, ref.threadParameters)
+                && evaluationComponent.equals(ref.evaluationComponent)
+                && generationComponent.equals(ref.generationComponent)
+                && file.equals(ref.file)
+                && baseline.equals(ref.baseline);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 59 * hash + Arrays.hashCode(this.engines);
+        hash = 59 * hash + Arrays.hashCode(this.threadCounts);
+        hash = 59 * hash + Arrays.hashCode(this.threadParameters);
+        hash = 59 * hash + Objects.hashCode(this.evaluationComponent);
+        hash = 59 * hash + Objects.hashCode(this.generationComponent);
+        hash = 59 * hash + this.warmupRuns;
+        hash = 59 * hash + this.numRuns;
+        hash = 59 * hash + Objects.hashCode(this.file);
+        hash = 59 * hash + Objects.hashCode(this.baseline);
+        hash = 59 * hash + (int) (Double.doubleToLongBits(this.tolerance) ^ (Double.doubleToLongBits(this.tolerance) >>> 32));
+        hash = 59 * hash + (this.failOnRegression ? 1 : 0);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%d, %s=%d, %s=%s, %s=%s, %s=%f, %s=%B]", this.getClass().getSimpleName(),
+                P_ENGINES, Arrays.toString(engines),
+                P_THREAD_COUNTS, Arrays.toString(threadCounts),
+                P_THREAD_PARAMETERS, Arrays.toString(threadParameters),
+                P_WARMUP_RUNS, warmupRuns,
+                P_NUM_RUNS, numRuns,
+                P_FILE, file,
+                P_BASELINE, baseline,
+                P_TOLERANCE, tolerance,
+                P_FAIL_ON_REGRESSION, failOnRegression);
+    }
+    // </editor-fold>
+
+    /** The throughput of one engine at one thread count.  toString() gives a
+     * row of the results file. */
+    public static class ThroughputResult extends ContractObject {
+        private final String engine;
+        private final int threads;
+        private final int runs;
+        private final double evaluationsPerSec;
+        private final double generationsPerSec;
+        private final double peakHeapMB;
+        private final double speedup;
+        private final boolean regression;
+
+        public ThroughputResult(final String engine, final int threads, final int runs, final double evaluationsPerSec, final double generationsPerSec, final double peakHeapMB, final double speedup, final boolean regression) {
+            this.engine = engine;
+            this.threads = threads;
+            this.runs = runs;
+            this.evaluationsPerSec = evaluationsPerSec;
+            this.generationsPerSec = generationsPerSec;
+            this.peakHeapMB = peakHeapMB;
+            this.speedup = speedup;
+            this.regression = regression;
+            assert(repOK());
+        }
+
+        /** Parse a row of a results file. */
+        public static ThroughputResult parse(final String line) {
+            assert(line != null);
+            final String[] fields = line.split(",");
+            if (fields.length < 8)
+                throw new IllegalArgumentException(String.format("%s: expected 8 fields, but found %d in '%s'.", ThroughputResult.class.getSimpleName(), fields.length, line));
+            return new ThroughputResult(fields[0].trim(),
+                    Integer.parseInt(fields[1].trim()),
+                    Integer.parseInt(fields[2].trim()),
+                    Double.parseDouble(fields[3].trim()),
+                    Double.parseDouble(fields[4].trim()),
+                    Double.parseDouble(fields[5].trim()),
+                    Double.parseDouble(fields[6].trim()),
+                    Boolean.parseBoolean(fields[7].trim()));
+        }
+
+        public String getEngine() { return engine; }
+        public int getThreads() { return threads; }
+        public int getRuns() { return runs; }
+        public double getEvaluationsPerSec() { return evaluationsPerSec; }
+        public double getGenerationsPerSec() { return generationsPerSec; }
+        public double getPeakHeapMB() { return peakHeapMB; }
+        public double getSpeedup() { return speedup; }
+        public boolean isRegression() { return regression; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public final boolean repOK() {
+            return engine != null
+                    && !engine.isEmpty()
+                    && threads > 0
+                    && runs > 0
+                    && evaluationsPerSec >= 0
+                    && generationsPerSec >= 0
+                    && peakHeapMB >= 0
+                    && speedup >= 0;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this)
+                return true;
+            if (!(o instanceof ThroughputResult))
+                return false;
+            final ThroughputResult ref = (ThroughputResult) o;
+            return threads == ref.threads
+                    && runs == ref.runs
+                    && regression == ref.regression
+                    && Double.doubleToLongBits(evaluationsPerSec) == Double.doubleToLongBits(ref.evaluationsPerSec)
+                    && Double.doubleToLongBits(generationsPerSec) == Double.doubleToLongBits(ref.generationsPerSec)
+                    && Double.doubleToLongBits(peakHeapMB) == Double.doubleToLongBits(ref.peakHeapMB)
+                    && Double.doubleToLongBits(speedup) == Double.doubleToLongBits(ref.speedup)
+                    && engine.equals(ref.engine);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 29 * hash + Objects.hashCode(this.engine);
+            hash = 29 * hash + this.threads;
+            hash = 29 * hash + this.runs;
+            hash = 29 * hash + (int) (Double.doubleToLongBits(this.evaluationsPerSec) ^ (Double.doubleToLongBits(this.evaluationsPerSec) >>> 32));
+            hash = 29 * hash + (int) (Double.doubleToLongBits(this.generationsPerSec) ^ (Double.doubleToLongBits(this.generationsPerSec) >>> 32));
+            hash = 29 * hash + (int) (Double.doubleToLongBits(this.peakHeapMB) ^ (Double.doubleToLongBits(this.peakHeapMB) >>> 32));
+            hash = 29 * hash + (int) (Double.doubleToLongBits(this.speedup) ^ (Double.doubleToLongBits(this.speedup) >>> 32));
+            hash = 29 * hash + (this.regression ? 1 : 0);
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s, %d, %d, %f, %f, %f, %f, %B", engine, threads, runs, evaluationsPerSec, generationsPerSec, peakHeapMB, speedup, regression);
+        }
+        // </editor-fold>
+    }
+}
@@ -0,0 +1,164 @@
+package SigmaEC.measure;
+
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.meta.Fitness;
+import SigmaEC.meta.Population;
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Parameters;
+import java.util.Objects;
+
+/**
+ * Reports how many of the individuals an EvaluationOperator (with
+ * "deduplicate" set) was asked to evaluate since the previous measurement
+ * turned out to duplicate a genome it had already evaluated in the same
+ * generation.  Point "evaluator" at the operator with the '%' syntax.  The
+ * operator's statistics are reset after each measurement.
+ *
+ * @author Eric O. Scott
+ */
+public class DeduplicationPopulationMetric<T extends Individual<F>, F extends Fitness> extends PopulationMetric<T, F> {
+    public final static String P_EVALUATOR = "evaluator";
+
+    private final EvaluationOperator evaluator;
+
+    public DeduplicationPopulationMetric(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        evaluator = parameters.getInstanceFromParameter(Parameters.push(base, P_EVALUATOR), EvaluationOperator.class);
+        assert(repOK());
+    }
+
+    /** Prints a row of the form "run, step, candidates, duplicates, duplicateRate". */
+    @Override
+    public synchronized DeduplicationMeasurement measurePopulation(final int run, final int step, final Population<T, F> population) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(population != null);
+        final long candidates = evaluator.getNumDeduplicationCandidates();
+        final long duplicates = evaluator.getNumDuplicates();
+        evaluator.resetDeduplicationStatistics();
+        final double rate = candidates == 0 ? 0.0 : (double) duplicates/candidates;
+        final DeduplicationMeasurement measurement = new DeduplicationMeasurement(run, step, candidates, duplicates, rate);
+        assert(repOK());
+        return measurement;
+    }
+
+    @Override
+    public void ping(final int step, final Population<T, F> population) {
+        // Do nothing
+    }
+
+    @Override
+    public String csvHeader() {
+        return "run, step, candidates, duplicates, duplicateRate";
+    }
+
+    @Override
+    public void reset() {
+        evaluator.resetDeduplicationStatistics();
+    }
+
+    @Override
+    public void flush() { }
+
+    @Override
+    public void close() { }
+
+    //<editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    final public boolean repOK() {
+        return P_EVALUATOR != null
+                && !P_EVALUATOR.isEmpty()
+                && evaluator != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_EVALUATOR, evaluator);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof DeduplicationPopulationMetric))
+            return false;
+        final DeduplicationPopulationMetric ref = (DeduplicationPopulationMetric) o;
+        return evaluator.equals(ref.evaluator);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 29 * hash + Objects.hashCode(this.evaluator);
+        return hash;
+    }
+    //</editor-fold>
+
+    public static class DeduplicationMeasurement extends Measurement {
+        private final int run;
+        private final int step;
+        private final long candidates;
+        private final long duplicates;
+        private final double duplicateRate;
+
+        public DeduplicationMeasurement(final int run, final int step, final long candidates, final long duplicates, final double duplicateRate) {
+            this.run = run;
+            this.step = step;
+            this.candidates = candidates;
+            this.duplicates = duplicates;
+            this.duplicateRate = duplicateRate;
+            assert(repOK());
+        }
+
+        @Override public int getRun() { return run; }
+        @Override public int getStep() { return step; }
+        public long getCandidates() { return candidates; }
+        public long getDuplicates() { return duplicates; }
+        public double getDuplicateRate() { return duplicateRate; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public String toString() {
+            return String.format("%d, %d, %d, %d, %f", run, step, candidates, duplicates, duplicateRate);
+        }
+
+        @Override
+        public final boolean repOK() {
+            return run >= 0
+                    && step >= 0
+                    && candidates >= 0
+                    && duplicates >= 0
+                    && duplicateRate >= 0.0
+                    && duplicateRate <= 1.0;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof DeduplicationMeasurement))
+                return false;
+            final DeduplicationMeasurement ref = (DeduplicationMeasurement)o;
+            return run == ref.run
+                    && step == ref.step
+                    && candidates == ref.candidates
+                    && duplicates == ref.duplicates
+                    && Misc.doubleEquals(duplicateRate, ref.duplicateRate);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 37 * hash + this.run;
+            hash = 37 * hash + this.step;
+            hash = 37 * hash + (int) (this.candidates ^ (this.candidates >>> 32));
+            hash = 37 * hash + (int) (this.duplicates ^ (this.duplicates >>> 32));
+            hash = 37 * hash + (int) (Double.doubleToLongBits(this.duplicateRate) ^ (Double.doubleToLongBits(this.duplicateRate) >>> 32));
+            return hash;
+        }
+        // </editor-fold>
+    }
+}
@@ -0,0 +1,165 @@
+package SigmaEC.measure;
+
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.meta.Fitness;
+import SigmaEC.meta.Population;
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Parameters;
+import java.util.Objects;
+
+/**
+ * Reports how busy an EvaluationExecutor has been since the previous
+ * measurement: the number of tasks it completed, the largest number of tasks
+ * that were waiting in its queue, and the fraction of thread-time spent
+ * working.  The executor's statistics are reset after each measurement.
+ *
+ * @author Eric O. Scott
+ */
+public class ExecutorStatisticsPopulationMetric<T extends Individual<F>, F extends Fitness> extends PopulationMetric<T, F> {
+    public final static String P_EXECUTOR = "executor";
+
+    private final EvaluationExecutor executor;
+
+    public ExecutorStatisticsPopulationMetric(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        executor = parameters.getInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        assert(repOK());
+    }
+
+    /** Prints a row of the form "run, step, numThreads, completedTasks, maxQueueDepth, utilization". */
+    @Override
+    public synchronized ExecutorStatisticsMeasurement measurePopulation(final int run, final int step, final Population<T, F> population) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(population != null);
+        final ExecutorStatisticsMeasurement measurement = new ExecutorStatisticsMeasurement(run, step, executor.getNumThreads(), executor.getCompletedTaskCount(), executor.getMaxQueueDepth(), executor.getUtilization());
+        executor.resetStatistics();
+        assert(repOK());
+        return measurement;
+    }
+
+    @Override
+    public void ping(final int step, final Population<T, F> population) {
+        // Do nothing
+    }
+
+    @Override
+    public String csvHeader() {
+        return "run, step, numThreads, completedTasks, maxQueueDepth, utilization";
+    }
+
+    @Override
+    public void reset() {
+        executor.resetStatistics();
+    }
+
+    @Override
+    public void flush() { }
+
+    @Override
+    public void close() { }
+
+    //<editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    final public boolean repOK() {
+        return P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
+                && executor != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_EXECUTOR, executor);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ExecutorStatisticsPopulationMetric))
+            return false;
+        final ExecutorStatisticsPopulationMetric ref = (ExecutorStatisticsPopulationMetric) o;
+        return executor.equals(ref.executor);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 29 * hash + Objects.hashCode(this.executor);
+        return hash;
+    }
+    //</editor-fold>
+
+    public static class ExecutorStatisticsMeasurement extends Measurement {
+        private final int run;
+        private final int step;
+        private final int numThreads;
+        private final long completedTasks;
+        private final int maxQueueDepth;
+        private final double utilization;
+
+        public ExecutorStatisticsMeasurement(final int run, final int step, final int numThreads, final long completedTasks, final int maxQueueDepth, final double utilization) {
+            this.run = run;
+            this.step = step;
+            this.numThreads = numThreads;
+            this.completedTasks = completedTasks;
+            this.maxQueueDepth = maxQueueDepth;
+            this.utilization = utilization;
+            assert(repOK());
+        }
+
+        @Override public int getRun() { return run; }
+        @Override public int getStep() { return step; }
+        public int getNumThreads() { return numThreads; }
+        public long getCompletedTasks() { return completedTasks; }
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+        public double getUtilization() { return utilization; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public String toString() {
+            return String.format("%d, %d, %d, %d, %d, %f", run, step, numThreads, completedTasks, maxQueueDepth, utilization);
+        }
+
+        @Override
+        public final boolean repOK() {
+            return run >= 0
+                    && step >= 0
+                    && numThreads > 0
+                    && completedTasks >= 0
+                    && maxQueueDepth >= 0
+                    && utilization >= 0.0;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ExecutorStatisticsMeasurement))
+                return false;
+            final ExecutorStatisticsMeasurement ref = (ExecutorStatisticsMeasurement)o;
+            return run == ref.run
+                    && step == ref.step
+                    && numThreads == ref.numThreads
+                    && completedTasks == ref.completedTasks
+                    && maxQueueDepth == ref.maxQueueDepth
+                    && Misc.doubleEquals(utilization, ref.utilization);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 37 * hash + this.run;
+            hash = 37 * hash + this.step;
+            hash = 37 * hash + this.numThreads;
+            hash = 37 * hash + (int) (this.completedTasks ^ (this.completedTasks >>> 32));
+            hash = 37 * hash + this.maxQueueDepth;
+            hash = 37 * hash + (int) (Double.doubleToLongBits(this.utilization) ^ (Double.doubleToLongBits(this.utilization) >>> 32));
+            return hash;
+        }
+        // </editor-fold>
+    }
+}
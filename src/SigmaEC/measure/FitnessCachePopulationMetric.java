@@ -0,0 +1,178 @@
+package SigmaEC.measure;
+
+import SigmaEC.evaluate.FitnessCache;
+import SigmaEC.meta.Fitness;
+import SigmaEC.meta.Population;
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Parameters;
+import java.util.Objects;
+
+/**
+ * Reports how well a FitnessCache has been doing since the previous
+ * measurement: its hits, misses, misses that waited on another thread's
+ * evaluation, evictions, current size, and hit rate.  The cache's statistics
+ * are reset after each measurement.
+ *
+ * @author Eric O. Scott
+ */
+public class FitnessCachePopulationMetric<T extends Individual<F>, F extends Fitness> extends PopulationMetric<T, F> {
+    public final static String P_CACHE = "cache";
+
+    private final FitnessCache<F> cache;
+
+    public FitnessCachePopulationMetric(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        cache = parameters.getInstanceFromParameter(Parameters.push(base, P_CACHE), FitnessCache.class);
+        assert(repOK());
+    }
+
+    /** Prints a row of the form "run, step, hits, misses, collapsedMisses, evictions, entries, hitRate". */
+    @Override
+    public synchronized FitnessCacheMeasurement measurePopulation(final int run, final int step, final Population<T, F> population) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(population != null);
+        final FitnessCacheMeasurement measurement = new FitnessCacheMeasurement(run, step, cache.getHits(), cache.getMisses(), cache.getCollapsedMisses(), cache.getEvictions(), cache.size(), cache.getHitRate());
+        cache.resetStatistics();
+        assert(repOK());
+        return measurement;
+    }
+
+    @Override
+    public void ping(final int step, final Population<T, F> population) {
+        // Do nothing
+    }
+
+    @Override
+    public String csvHeader() {
+        return "run, step, hits, misses, collapsedMisses, evictions, entries, hitRate";
+    }
+
+    @Override
+    public void reset() {
+        cache.resetStatistics();
+    }
+
+    @Override
+    public void flush() { }
+
+    @Override
+    public void close() { }
+
+    //<editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    final public boolean repOK() {
+        return P_CACHE != null
+                && !P_CACHE.isEmpty()
+                && cache != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_CACHE, cache);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof FitnessCachePopulationMetric))
+            return false;
+        final FitnessCachePopulationMetric ref = (FitnessCachePopulationMetric) o;
+        return cache.equals(ref.cache);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 29 * hash + Objects.hashCode(this.cache);
+        return hash;
+    }
+    //</editor-fold>
+
+    public static class FitnessCacheMeasurement extends Measurement {
+        private final int run;
+        private final int step;
+        private final long hits;
+        private final long misses;
+        private final long collapsedMisses;
+        private final long evictions;
+        private final int entries;
+        private final double hitRate;
+
+        public FitnessCacheMeasurement(final int run, final int step, final long hits, final long misses, final long collapsedMisses, final long evictions, final int entries, final double hitRate) {
+            this.run = run;
+            this.step = step;
+            this.hits = hits;
+            this.misses = misses;
+            this.collapsedMisses = collapsedMisses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.hitRate = hitRate;
+            assert(repOK());
+        }
+
+        @Override public int getRun() { return run; }
+        @Override public int getStep() { return step; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getCollapsedMisses() { return collapsedMisses; }
+        public long getEvictions() { return evictions; }
+        public int getEntries() { return entries; }
+        public double getHitRate() { return hitRate; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public String toString() {
+            return String.format("%d, %d, %d, %d, %d, %d, %d, %f", run, step, hits, misses, collapsedMisses, evictions, entries, hitRate);
+        }
+
+        @Override
+        public final boolean repOK() {
+            return run >= 0
+                    && step >= 0
+                    && hits >= 0
+                    && misses >= 0
+                    && collapsedMisses >= 0
+                    && evictions >= 0
+                    && entries >= 0
+                    && hitRate >= 0.0
+                    && hitRate <= 1.0;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof FitnessCacheMeasurement))
+                return false;
+            final FitnessCacheMeasurement ref = (FitnessCacheMeasurement)o;
+            return run == ref.run
+                    && step == ref.step
+                    && hits == ref.hits
+                    && misses == ref.misses
+                    && collapsedMisses == ref.collapsedMisses
+                    && evictions == ref.evictions
+                    && entries == ref.entries
+                    && Misc.doubleEquals(hitRate, ref.hitRate);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 37 * hash + this.run;
+            hash = 37 * hash + this.step;
+            hash = 37 * hash + (int) (this.hits ^ (this.hits >>> 32));
+            hash = 37 * hash + (int) (this.misses ^ (this.misses >>> 32));
+            hash = 37 * hash + (int) (this.collapsedMisses ^ (this.collapsedMisses >>> 32));
+            hash = 37 * hash + (int) (this.evictions ^ (this.evictions >>> 32));
+            hash = 37 * hash + this.entries;
+            hash = 37 * hash + (int) (Double.doubleToLongBits(this.hitRate) ^ (Double.doubleToLongBits(this.hitRate) >>> 32));
+            return hash;
+        }
+        // </editor-fold>
+    }
+}
@@ -4,6 +4,7 @@ import SigmaEC.evaluate.EvaluationOperator;
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.FitnessComparator;
 import SigmaEC.meta.Population;
+import SigmaEC.meta.PopulationSummary;
 import SigmaEC.represent.Individual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
@@ -49,12 +50,17 @@ public class FitnessStatisticsPopulationMetric<T extends Individual<F>, P, F ext
 
     @Override
     public void ping(final int step, final Population<T, F> population) {
+        if (step == lastBSFUpdate)
+            return;
+        updateBestSoFar(step, getBestsOfStep(population));
+    }
+    
+    private void updateBestSoFar(final int step, final List<T> bestsOfStep) {
         if (step - lastBSFUpdate > 1)
             throw new IllegalStateException(String.format("%s: the ping() method was called after an interval of %d steps.  It must be called every step in order to maintain a valid record of the best-so-far individual.", this.getClass().getSimpleName(), step - lastBSFUpdate));
         if (step == lastBSFUpdate)
             return;
         // Update best so far memory
-        final List<T> bestsOfStep = getBestsOfStep(population);
         if (step == 0 && lastBSFUpdate == -1) {
             assert(bestSoFar.isEmpty());
             bestSoFar.addAll(bestsOfStep);
@@ -84,6 +90,33 @@ public class FitnessStatisticsPopulationMetric<T extends Individual<F>, P, F ext
         return new MultipleMeasurement<>(measurements);
     }
     
+    /** Takes the same measurements, but reads them from the summary instead of
+     * scanning the population.  Falls back to a full scan if the summary was
+     * computed with a different comparator, or if we have an auxiliary
+     * evaluator. */
+    @Override
+    public synchronized MultipleMeasurement<FitnessStatisticsMeasurement> measurePopulation(final int run, final int step, final PopulationSummary<T, F> summary) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(summary != null);
+        if (auxiliaryEvaluator.isDefined() || !summary.getComparator().equals(fitnessComparator))
+            return measurePopulation(run, step, summary.getPopulation());
+        
+        if (step != lastBSFUpdate)
+            updateBestSoFar(step, new ArrayList<T>() {{
+                for (int i = 0; i < summary.numSubpopulations(); i++)
+                    add(summary.getBest(i));
+            }});
+        final List<FitnessStatisticsMeasurement> measurements = new ArrayList<FitnessStatisticsMeasurement>() {{
+            for (int pop = 0; pop < summary.numSubpopulations(); pop++) {
+                final T bsf = bestSoFar.get(pop);
+                add(new FitnessStatisticsMeasurement(run, step, pop, summary.getMean(pop), summary.getStd(pop), summary.getBest(pop).getFitness(), summary.getWorst(pop).getFitness(), bsf.getFitness(), bsf.getID()));
+            }
+        }};
+        assert(repOK());
+        return new MultipleMeasurement<>(measurements);
+    }
+    
     private FitnessStatisticsMeasurement measureSubpopulation(final int run, final int step, final int subpop, final Population<T, F> population) {
         assert(run >= 0);
         assert(step >= 0);
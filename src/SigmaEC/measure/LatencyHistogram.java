@@ -0,0 +1,127 @@
+package SigmaEC.measure;
+
+import SigmaEC.ContractObject;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of durations in nanoseconds, from which the count,
+ * total, maximum, and approximate percentiles can be read.
+ *
+ * Values below 64ns are counted exactly.  Above that, each power of two is
+ * split into 32 equal buckets, so a reported percentile is never more than
+ * about 3% above the true value, while the histogram stays a fixed 16KB no
+ * matter how many values it holds.  Recording is lock-free, so it is cheap
+ * enough to call around every fitness evaluation.
+ *
+ * @author Eric O. Scott
+ */
+public class LatencyHistogram extends ContractObject {
+    private final static int SUB_BITS = 5;
+    private final static int SUB = 1 << SUB_BITS;
+    private final static int NUM_BUCKETS = 64*SUB;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        assert(repOK());
+    }
+
+    /** Add a duration to the histogram.  Negative values are counted as 0. */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value))
+            m = max.get();
+    }
+
+    static int bucketIndex(final long value) {
+        assert(value >= 0);
+        if (value < 2*SUB)
+            return (int) value;
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        return shift*SUB + (int) (value >>> shift);
+    }
+
+    /** @return The largest value that falls in the given bucket. */
+    static long bucketUpperBound(final int index) {
+        assert(index >= 0);
+        assert(index < NUM_BUCKETS);
+        if (index < 2*SUB)
+            return index;
+        final int shift = index/SUB - 1;
+        final long mantissa = index%SUB + SUB;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public long getCount() { return count.get(); }
+
+    /** @return The sum of all recorded durations, in nanoseconds. */
+    public long getTotal() { return total.get(); }
+
+    /** @return The largest recorded duration, in nanoseconds. */
+    public long getMax() { return max.get(); }
+
+    /**
+     * @param quantile A value between 0 and 1 (ex. 0.99 for the 99th percentile).
+     * @return An upper bound on the given percentile, in nanoseconds, or 0 if
+     * nothing has been recorded.
+     */
+    public long getPercentile(final double quantile) {
+        assert(quantile >= 0.0);
+        assert(quantile <= 1.0);
+        final long n = count.get();
+        if (n == 0)
+            return 0;
+        final long rank = Math.max(1, (long) Math.ceil(quantile*n));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank)
+                return Math.min(bucketUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Forget everything that has been recorded. */
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++)
+            buckets.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return buckets != null
+                && buckets.length() == NUM_BUCKETS
+                && count.get() >= 0
+                && total.get() >= 0
+                && max.get() >= 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: count=%d, total=%d, max=%d]", this.getClass().getSimpleName(),
+                count.get(), total.get(), max.get());
+    }
+    // </editor-fold>
+}
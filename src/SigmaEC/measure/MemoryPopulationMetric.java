@@ -2,6 +2,7 @@ package SigmaEC.measure;
 
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.Population;
+import SigmaEC.meta.PopulationSummary;
 import SigmaEC.represent.Individual;
 
 /**
@@ -35,6 +36,16 @@ public class MemoryPopulationMetric<T extends Individual<F>, F extends Fitness>
         assert(repOK());
         return measurement;
     }
+    
+    @Override
+    public synchronized Measurement measurePopulation(final int run, final int step, final PopulationSummary<T, F> summary) {
+        assert(summary != null);
+        ping(step, summary.getPopulation());
+        final Measurement measurement = wrappedMetric.measurePopulation(run, step, summary);
+        mostRecentMeasurement = measurement;
+        assert(repOK());
+        return measurement;
+    }
 
     @Override
     public void ping(int step, Population<T, F> population) {
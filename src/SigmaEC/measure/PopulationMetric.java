@@ -3,6 +3,7 @@ package SigmaEC.measure;
 import SigmaEC.ContractObject;
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.Population;
+import SigmaEC.meta.PopulationSummary;
 import SigmaEC.represent.Individual;
 
 /**
@@ -29,6 +30,21 @@ public abstract class PopulationMetric<T extends Individual<F>, F extends Fitnes
      */
     public abstract Measurement measurePopulation(int run, int step, Population<T, F> population);
     
+    /** Like measurePopulation(run, step, population), but may reuse statistics
+     * that have already been computed for this step instead of scanning the
+     * population again.  Decorators should pass the summary on to the metrics
+     * they wrap.
+     * 
+     * @param run The run the sample is coming from
+     * @param step The generation the sample is coming from
+     * @param summary Statistics of the population at this step
+     * @return A Measurement is returned.
+     */
+    public Measurement measurePopulation(final int run, final int step, final PopulationSummary<T, F> summary) {
+        assert(summary != null);
+        return measurePopulation(run, step, summary.getPopulation());
+    }
+    
     /** Notifies this PopulationMetric that the population has advanced to the next step.
      * This must be called at every step (or else an exception is thrown), and
      * because it may be used, for instance, to update the metric's memory of
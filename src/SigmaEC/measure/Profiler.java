@@ -0,0 +1,115 @@
+package SigmaEC.measure;
+
+import SigmaEC.ContractObject;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects wall-clock timings of the components of an evolutionary run
+ * (operators, evaluation, migration, metrics, individual fitness calls...),
+ * keeping a LatencyHistogram for each component.
+ *
+ * Wire a single instance into a CircleOfLife, a TimedObjective, and a
+ * ProfilerPopulationMetric by referencing it with the '%' syntax in the
+ * parameter file.  The circle and objective record into it, and the metric
+ * reports what has been recorded since its previous measurement.
+ *
+ * Components are reported in the order they were first recorded.
+ *
+ * @author Eric O. Scott
+ */
+public class Profiler extends ContractObject {
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final List<String> components = new CopyOnWriteArrayList<>();
+
+    public Profiler(final Parameters parameters, final String base) {
+        this();
+    }
+
+    public Profiler() {
+        assert(repOK());
+    }
+
+    /** @return A name for the index'th element of a list-valued parameter,
+     * such as "operators.2:TournamentSelector". */
+    public static String componentName(final String parameter, final int index, final Object component) {
+        assert(parameter != null);
+        assert(index >= 0);
+        assert(component != null);
+        return String.format("%s.%d:%s", parameter, index, component.getClass().getSimpleName());
+    }
+
+    /** @return A name for a single-valued parameter, such as
+     * "migrationPolicy:RandomMigrationPolicy". */
+    public static String componentName(final String parameter, final Object component) {
+        assert(parameter != null);
+        assert(component != null);
+        return String.format("%s:%s", parameter, component.getClass().getSimpleName());
+    }
+
+    /** Record one call to a component that took the given number of nanoseconds. */
+    public void record(final String component, final long nanos) {
+        assert(component != null);
+        getHistogram(component).record(nanos);
+    }
+
+    /** Record one call to a component that began at startNanos (as given by
+     * System.nanoTime()) and has just finished. */
+    public void recordSince(final String component, final long startNanos) {
+        record(component, System.nanoTime() - startNanos);
+    }
+
+    /** @return The histogram for a component, creating it if necessary. */
+    public LatencyHistogram getHistogram(final String component) {
+        assert(component != null);
+        final LatencyHistogram h = histograms.get(component);
+        if (h != null)
+            return h;
+        final LatencyHistogram created = new LatencyHistogram();
+        final LatencyHistogram existing = histograms.putIfAbsent(component, created);
+        if (existing != null)
+            return existing;
+        components.add(component);
+        return created;
+    }
+
+    /** @return The names of every component that has been recorded. */
+    public List<String> getComponents() {
+        return new ArrayList<>(components);
+    }
+
+    /** Clear every histogram.  Components that have been seen are still
+     * reported, with zero calls, until they are recorded again. */
+    public void reset() {
+        for (final String c : components)
+            histograms.get(c).reset();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return histograms != null
+                && components != null;
+    }
+
+    /** Profilers are compared by identity, since each one is meant to be shared. */
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: components=%s]", this.getClass().getSimpleName(), components);
+    }
+    // </editor-fold>
+}
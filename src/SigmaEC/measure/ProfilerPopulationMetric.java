@@ -0,0 +1,199 @@
+package SigmaEC.measure;
+
+import SigmaEC.meta.Fitness;
+import SigmaEC.meta.Population;
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reports where the time went since the previous measurement, as recorded by
+ * a Profiler: for each component, the number of calls, the total time spent
+ * in it, and the median, 99th percentile and maximum time of a single call.
+ * The profiler is reset after each measurement.
+ *
+ * The first row of every measurement is the "step" component, which is the
+ * wall-clock time that passed since the previous measurement.
+ *
+ * @author Eric O. Scott
+ */
+public class ProfilerPopulationMetric<T extends Individual<F>, F extends Fitness> extends PopulationMetric<T, F> {
+    public final static String P_PROFILER = "profiler";
+    public final static String STEP_COMPONENT = "step";
+
+    private final Profiler profiler;
+    private long lastMeasurementTime = System.nanoTime();
+
+    public ProfilerPopulationMetric(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        profiler = parameters.getInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
+        assert(repOK());
+    }
+
+    public ProfilerPopulationMetric(final Profiler profiler) {
+        assert(profiler != null);
+        this.profiler = profiler;
+        assert(repOK());
+    }
+
+    /** Prints rows of the form "run, step, component, calls, totalMillis, p50Micros, p99Micros, maxMicros". */
+    @Override
+    public synchronized MultipleMeasurement<ProfilerMeasurement> measurePopulation(final int run, final int step, final Population<T, F> population) {
+        assert(run >= 0);
+        assert(step >= 0);
+        final long now = System.nanoTime();
+        final long elapsed = now - lastMeasurementTime;
+        lastMeasurementTime = now;
+        final List<ProfilerMeasurement> measurements = new ArrayList<ProfilerMeasurement>() {{
+            add(new ProfilerMeasurement(run, step, STEP_COMPONENT, 1, elapsed, elapsed, elapsed, elapsed));
+            for (final String c : profiler.getComponents()) {
+                final LatencyHistogram h = profiler.getHistogram(c);
+                add(new ProfilerMeasurement(run, step, c, h.getCount(), h.getTotal(), h.getPercentile(0.5), h.getPercentile(0.99), h.getMax()));
+            }
+        }};
+        profiler.reset();
+        assert(repOK());
+        return new MultipleMeasurement<>(measurements);
+    }
+
+    @Override
+    public void ping(final int step, final Population<T, F> population) {
+        // Do nothing
+    }
+
+    @Override
+    public String csvHeader() {
+        return "run, step, component, calls, totalMillis, p50Micros, p99Micros, maxMicros";
+    }
+
+    @Override
+    public synchronized void reset() {
+        profiler.reset();
+        lastMeasurementTime = System.nanoTime();
+    }
+
+    @Override
+    public void flush() { }
+
+    @Override
+    public void close() { }
+
+    //<editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    final public boolean repOK() {
+        return P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && profiler != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_PROFILER, profiler);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ProfilerPopulationMetric))
+            return false;
+        final ProfilerPopulationMetric ref = (ProfilerPopulationMetric) o;
+        return profiler.equals(ref.profiler);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 29 * hash + Objects.hashCode(this.profiler);
+        return hash;
+    }
+    //</editor-fold>
+
+    public static class ProfilerMeasurement extends Measurement {
+        private final int run;
+        private final int step;
+        private final String component;
+        private final long calls;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public ProfilerMeasurement(final int run, final int step, final String component, final long calls, final long totalNanos, final long p50Nanos, final long p99Nanos, final long maxNanos) {
+            this.run = run;
+            this.step = step;
+            this.component = component;
+            this.calls = calls;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            assert(repOK());
+        }
+
+        @Override public int getRun() { return run; }
+        @Override public int getStep() { return step; }
+        public String getComponent() { return component; }
+        public long getCalls() { return calls; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public String toString() {
+            return String.format("%d, %d, %s, %d, %f, %f, %f, %f", run, step, component, calls,
+                    totalNanos/1e6, p50Nanos/1e3, p99Nanos/1e3, maxNanos/1e3);
+        }
+
+        @Override
+        public final boolean repOK() {
+            return run >= 0
+                    && step >= 0
+                    && component != null
+                    && !component.isEmpty()
+                    && calls >= 0
+                    && totalNanos >= 0
+                    && p50Nanos >= 0
+                    && p99Nanos >= 0
+                    && maxNanos >= 0;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ProfilerMeasurement))
+                return false;
+            final ProfilerMeasurement ref = (ProfilerMeasurement)o;
+            return run == ref.run
+                    && step == ref.step
+                    && component.equals(ref.component)
+                    && calls == ref.calls
+                    && totalNanos == ref.totalNanos
+                    && p50Nanos == ref.p50Nanos
+                    && p99Nanos == ref.p99Nanos
+                    && maxNanos == ref.maxNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 37 * hash + this.run;
+            hash = 37 * hash + this.step;
+            hash = 37 * hash + Objects.hashCode(this.component);
+            hash = 37 * hash + (int) (this.calls ^ (this.calls >>> 32));
+            hash = 37 * hash + (int) (this.totalNanos ^ (this.totalNanos >>> 32));
+            hash = 37 * hash + (int) (this.p50Nanos ^ (this.p50Nanos >>> 32));
+            hash = 37 * hash + (int) (this.p99Nanos ^ (this.p99Nanos >>> 32));
+            hash = 37 * hash + (int) (this.maxNanos ^ (this.maxNanos >>> 32));
+            return hash;
+        }
+        // </editor-fold>
+    }
+}
@@ -2,6 +2,7 @@ package SigmaEC.measure;
 
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.Population;
+import SigmaEC.meta.PopulationSummary;
 import SigmaEC.represent.Individual;
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
@@ -77,21 +78,35 @@ public class WriterPopulationMetric<T extends Individual<F>, F extends Fitness>
         assert(run >= 0);
         assert(step >= 0);
         assert(population != null);
-        if (step % modulo == 0) {
-            final Measurement measurement = wrappedMetric.measurePopulation(run, step, population);
-            try {
-                final String prefix = rowPrefix.isDefined() ? rowPrefix.get() + ", " : "";
-                writer.write(String.format("%s%s\n", prefix, measurement.toString()));
-            } catch (final IOException ex) {
-                Logger.getLogger(WriterPopulationMetric.class.getName()).log(Level.SEVERE, null, ex);
-            }
-            assert(repOK());
-            return measurement;
-        }
+        if (step % modulo == 0)
+            return write(wrappedMetric.measurePopulation(run, step, population));
         assert(repOK());
         ping(step, population);
         return null;
     }
+    
+    @Override
+    public Measurement measurePopulation(final int run, final int step, final PopulationSummary<T, F> summary) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(summary != null);
+        if (step % modulo == 0)
+            return write(wrappedMetric.measurePopulation(run, step, summary));
+        assert(repOK());
+        ping(step, summary.getPopulation());
+        return null;
+    }
+    
+    private Measurement write(final Measurement measurement) {
+        try {
+            final String prefix = rowPrefix.isDefined() ? rowPrefix.get() + ", " : "";
+            writer.write(String.format("%s%s\n", prefix, measurement.toString()));
+        } catch (final IOException ex) {
+            Logger.getLogger(WriterPopulationMetric.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        assert(repOK());
+        return measurement;
+    }
 
     @Override
     public void ping(final int step, final Population<T, F> population) {
@@ -0,0 +1,113 @@
+package SigmaEC.meta;
+
+import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stops a run as soon as any one of several "conditions" is met, ex. when a
+ * target fitness is reached or an evaluation budget runs out, whichever comes
+ * first.
+ *
+ * Every condition is consulted at every step (there is no short-circuiting),
+ * so that each one keeps its own state, such as when it was reached, up to
+ * date.
+ *
+ * @author Eric O. Scott
+ */
+public class AnyStoppingCondition<T extends Individual<F>, F extends Fitness> extends StoppingCondition<T, F> {
+    public final static String P_CONDITIONS = "conditions";
+
+    private final List<StoppingCondition<T, F>> conditions;
+
+    public AnyStoppingCondition(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        conditions = parameters.getInstancesFromParameter(Parameters.push(base, P_CONDITIONS), StoppingCondition.class);
+        if (conditions.isEmpty())
+            throw new IllegalStateException(String.format("%s: '%s' is empty.", this.getClass().getSimpleName(), Parameters.push(base, P_CONDITIONS)));
+        assert(repOK());
+    }
+
+    @Override
+    public boolean stop(final Population<T, F> population, final int step) {
+        boolean stop = false;
+        for (final StoppingCondition<T, F> c : conditions)
+            stop |= c.stop(population, step);
+        return stop;
+    }
+
+    @Override
+    public boolean stop(final PopulationSummary<T, F> summary, final int step) {
+        boolean stop = false;
+        for (final StoppingCondition<T, F> c : conditions)
+            stop |= c.stop(summary, step);
+        return stop;
+    }
+
+    @Override
+    public boolean stopInd(final T individual, final int step) {
+        boolean stop = false;
+        for (final StoppingCondition<T, F> c : conditions)
+            stop |= c.stopInd(individual, step);
+        return stop;
+    }
+
+    @Override
+    public void reset() {
+        for (final StoppingCondition<T, F> c : conditions)
+            c.reset();
+    }
+
+    @Override
+    public void writeState(final DataOutputStream out, final IndividualCodec<T> codec) throws IOException {
+        for (final StoppingCondition<T, F> c : conditions)
+            c.writeState(out, codec);
+    }
+
+    @Override
+    public void readState(final DataInputStream in, final IndividualCodec<T> codec) throws IOException {
+        for (final StoppingCondition<T, F> c : conditions)
+            c.readState(in, codec);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_CONDITIONS != null
+                && !P_CONDITIONS.isEmpty()
+                && conditions != null
+                && !conditions.isEmpty()
+                && !Misc.containsNulls(conditions);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof AnyStoppingCondition))
+            return false;
+        final AnyStoppingCondition ref = (AnyStoppingCondition)o;
+        return conditions.equals(ref.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 71 * hash + Objects.hashCode(this.conditions);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_CONDITIONS, conditions);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,382 @@
+package SigmaEC.meta;
+
+import SigmaEC.ContractObject;
+import SigmaEC.SRandom;
+import SigmaEC.represent.IDSpace;
+import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Option;
+import SigmaEC.util.Parameters;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically saves the state of an evolutionary run to a binary file, and
+ * restores it so that an interrupted run can pick up where it left off.
+ *
+ * A checkpoint holds the population, the step counter, the best-so-far
+ * individual, the stopping condition's state, the state of the SRandom
+ * given by the "random" parameter (plus any listed in "additionalRandoms"),
+ * and the next ID in the run's IDSpace.  A run that is resumed from a
+ * checkpoint continues exactly as the original would have, down to the IDs of
+ * new individuals (as long as every random number generator the run uses is
+ * included, and evaluation is deterministic).
+ * Other mutable state, such as objective caches or open metric files, is not
+ * saved: metrics simply start recording again from the step that was resumed.
+ *
+ * The RNG and stopping-condition state is captured on the calling thread, but
+ * the population is encoded and written to disk on a background thread, so
+ * the evolutionary loop only waits on disk I/O if the previous checkpoint is
+ * still being written.  Each file is written under a temporary name and then
+ * renamed, so a crash mid-write never clobbers the last good checkpoint.
+ *
+ * @author Eric O. Scott
+ */
+public class Checkpointer<T extends Individual<F>, F extends Fitness> extends ContractObject {
+    public final static String P_PREFIX = "prefix";
+    public final static String P_INTERVAL = "interval";
+    public final static String P_RESUME = "resume";
+    public final static String P_ASYNC = "async";
+    public final static String P_RANDOM = "random";
+    public final static String P_ADDITIONAL_RANDOMS = "additionalRandoms";
+    public final static String P_CODEC = "codec";
+
+    private final static int MAGIC = 0x53454350; // "SECP"
+    private final static int VERSION = 2;
+
+    private final String prefix;
+    private final int interval;
+    private final boolean resume;
+    private final boolean async;
+    private final List<SRandom> randoms;
+    private final IndividualCodec<T> codec;
+    private ExecutorService writer;
+    private Future<Void> pendingWrite;
+
+    public Checkpointer(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        prefix = parameters.getStringParameter(Parameters.push(base, P_PREFIX));
+        interval = parameters.getOptionalIntParameter(Parameters.push(base, P_INTERVAL), 1);
+        if (interval < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_INTERVAL, interval));
+        resume = parameters.getOptionalBooleanParameter(Parameters.push(base, P_RESUME), false);
+        async = parameters.getOptionalBooleanParameter(Parameters.push(base, P_ASYNC), true);
+        randoms = new ArrayList<>();
+        randoms.add((SRandom) parameters.getInstanceFromParameter(Parameters.push(base, P_RANDOM), SRandom.class));
+        final Option<List<SRandom>> additionalRandoms = parameters.getOptionalInstancesFromParameter(Parameters.push(base, P_ADDITIONAL_RANDOMS), SRandom.class);
+        if (additionalRandoms.isDefined())
+            randoms.addAll(additionalRandoms.get());
+        codec = parameters.getInstanceFromParameter(Parameters.push(base, P_CODEC), IndividualCodec.class);
+        assert(repOK());
+    }
+
+    /** @return The file that checkpoints for the given run are stored in. */
+    public File getFile(final int run) {
+        assert(run >= 0);
+        return new File(String.format("%s_run%d.ckpt", prefix, run));
+    }
+
+    /** Save a checkpoint if step falls on the checkpoint interval.
+     *
+     * @param run The current run.
+     * @param step The step that the run will execute next.
+     * @param population The population to save.  It is copied, so it may be
+     *  modified as soon as this method returns.
+     * @param bestSoFar The best individual seen so far, or null if there is none.
+     * @param stoppingCondition The run's stopping condition.
+     */
+    public void checkpoint(final int run, final int step, final Population<T, F> population, final T bestSoFar, final StoppingCondition<T, F> stoppingCondition) {
+        assert(run >= 0);
+        assert(step >= 0);
+        assert(population != null);
+        assert(stoppingCondition != null);
+        if (step % interval != 0)
+            return;
+
+        // Capture mutable state now, before the loop goes on to change it
+        final long nextID = IDSpace.current().peek();
+        final byte[] state;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            for (final SRandom random : randoms)
+                random.writeState(out);
+            stoppingCondition.writeState(out, codec);
+            out.flush();
+            state = bytes.toByteArray();
+        } catch (final IOException ex) {
+            throw new IllegalStateException(String.format("%s: failed to capture run state.", this.getClass().getSimpleName()), ex);
+        }
+        // Snapshot the population, since the writer may still be reading it after the loop has moved on
+        final List<List<T>> subpopulations = new ArrayList<>(population.numSuppopulations());
+        for (int i = 0; i < population.numSuppopulations(); i++)
+            subpopulations.add(population.snapshotSubpopulation(i));
+
+        final Callable<Void> write = new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                write(getFile(run), run, step, nextID, state, subpopulations, bestSoFar);
+                return null;
+            }
+        };
+        if (async) {
+            flush();
+            pendingWrite = getWriter().submit(write);
+        }
+        else {
+            try {
+                write.call();
+            } catch (final Exception ex) {
+                Logger.getLogger(Checkpointer.class.getName()).log(Level.SEVERE, String.format("Failed to write checkpoint for run %d.", run), ex);
+            }
+        }
+    }
+
+    private void write(final File file, final int run, final int step, final long nextID, final byte[] state, final List<List<T>> subpopulations, final T bestSoFar) throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        final File temp = new File(file.getPath() + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(run);
+            out.writeInt(step);
+            out.writeLong(nextID);
+            out.writeInt(state.length);
+            out.write(state);
+            out.writeBoolean(bestSoFar != null);
+            if (bestSoFar != null)
+                codec.write(bestSoFar, out);
+            out.writeInt(subpopulations.size());
+            for (final List<T> subpop : subpopulations) {
+                out.writeInt(subpop.size());
+                for (final T ind : subpop)
+                    codec.write(ind, out);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** If resuming is enabled and a checkpoint exists for the given run, load
+     * it.  This restores the state of the random number generators and the
+     * stopping condition, and advances the current IDSpace past every ID the
+     * run had handed out, as side effects, so it should be called after the
+     * stopping condition has been reset.
+     *
+     * @return The saved population, step, and best-so-far individual, or
+     *  Option.NONE if the run should start from scratch.
+     */
+    public Option<Checkpoint<T, F>> resume(final int run, final StoppingCondition<T, F> stoppingCondition) {
+        assert(run >= 0);
+        assert(stoppingCondition != null);
+        final File file = getFile(run);
+        if (!resume || !file.exists())
+            return Option.NONE;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new IllegalStateException(String.format("%s: '%s' is not a checkpoint file.", this.getClass().getSimpleName(), file));
+            final int version = in.readInt();
+            if (version != VERSION)
+                throw new IllegalStateException(String.format("%s: '%s' has version %d, but expected %d.", this.getClass().getSimpleName(), file, version, VERSION));
+            final int savedRun = in.readInt();
+            if (savedRun != run)
+                throw new IllegalStateException(String.format("%s: '%s' belongs to run %d, but expected run %d.", this.getClass().getSimpleName(), file, savedRun, run));
+            final int step = in.readInt();
+            IDSpace.current().reserveThrough(in.readLong() - 1);
+            in.readInt(); // Length of the state block
+            for (final SRandom random : randoms)
+                random.readState(in);
+            stoppingCondition.readState(in, codec);
+            final Option<T> bestSoFar = in.readBoolean() ? new Option<>(codec.read(in)) : Option.NONE;
+            final List<T>[] subpopulations = new List[in.readInt()];
+            for (int i = 0; i < subpopulations.length; i++) {
+                final int size = in.readInt();
+                subpopulations[i] = new ArrayList<>(size);
+                for (int j = 0; j < size; j++)
+                    subpopulations[i].add(codec.read(in));
+            }
+            return new Option<>(new Checkpoint<>(step, subpopulations, bestSoFar));
+        } catch (final IOException ex) {
+            throw new IllegalStateException(String.format("%s: failed to read checkpoint '%s'.", this.getClass().getSimpleName(), file), ex);
+        }
+    }
+
+    /** Block until any checkpoint that is being written in the background has
+     * reached the disk. */
+    public void flush() {
+        if (pendingWrite == null)
+            return;
+        try {
+            pendingWrite.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ex) {
+            Logger.getLogger(Checkpointer.class.getName()).log(Level.SEVERE, "Failed to write checkpoint.", ex.getCause());
+        }
+        pendingWrite = null;
+    }
+
+    private synchronized ExecutorService getWriter() {
+        if (writer == null)
+            writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, Checkpointer.class.getSimpleName());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        return writer;
+    }
+
+    /** The state of a run that was loaded from a checkpoint. */
+    public static class Checkpoint<T extends Individual<F>, F extends Fitness> extends ContractObject {
+        private final int step;
+        private final List<T>[] subpopulations;
+        private final Option<T> bestSoFar;
+
+        Checkpoint(final int step, final List<T>[] subpopulations, final Option<T> bestSoFar) {
+            assert(subpopulations != null);
+            assert(bestSoFar != null);
+            this.step = step;
+            this.subpopulations = subpopulations;
+            this.bestSoFar = bestSoFar;
+            assert(repOK());
+        }
+
+        /** @return The step that the run should execute next. */
+        public int getStep() { return step; }
+        public Option<T> getBestSoFar() { return bestSoFar; }
+
+        /** @return The saved subpopulations, in a form suitable for
+         * constructing a Population or DoubleVectorPopulation. */
+        public List<T>[] getSubpopulations() { return subpopulations; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public final boolean repOK() {
+            return step >= 0
+                    && subpopulations != null
+                    && subpopulations.length > 0
+                    && !Misc.containsNulls(subpopulations)
+                    && bestSoFar != null;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Checkpoint))
+                return false;
+            final Checkpoint ref = (Checkpoint)o;
+            return step == ref.step
+                    && Arrays.equals(subpopulations, ref.subpopulations)
+                    && bestSoFar.equals(ref.bestSoFar);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 53 * hash + this.step;
+            hash = 53 * hash + Arrays.deepHashCode(this.subpopulations);
+            hash = 53 * hash + Objects.hashCode(this.bestSoFar);
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s: step=%d, numSubpopulations=%d, bestSoFar=%s]", this.getClass().getSimpleName(),
+                    step, subpopulations.length, bestSoFar);
+        }
+        // </editor-fold>
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_PREFIX != null
+                && !P_PREFIX.isEmpty()
+                && P_INTERVAL != null
+                && !P_INTERVAL.isEmpty()
+                && P_RESUME != null
+                && !P_RESUME.isEmpty()
+                && P_ASYNC != null
+                && !P_ASYNC.isEmpty()
+                && P_RANDOM != null
+                && !P_RANDOM.isEmpty()
+                && P_ADDITIONAL_RANDOMS != null
+                && !P_ADDITIONAL_RANDOMS.isEmpty()
+                && P_CODEC != null
+                && !P_CODEC.isEmpty()
+                && prefix != null
+                && !prefix.isEmpty()
+                && interval > 0
+                && randoms != null
+                && !randoms.isEmpty()
+                && !Misc.containsNulls(randoms)
+                && codec != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Checkpointer))
+            return false;
+        final Checkpointer ref = (Checkpointer)o;
+        return interval == ref.interval
+                && resume == ref.resume
+                && async == ref.async
+                && prefix.equals(ref.prefix)
+                && randoms.equals(ref.randoms)
+                && codec.equals(ref.codec);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.prefix);
+        hash = 41 * hash + this.interval;
+        hash = 41 * hash + (this.resume ? 1 : 0);
+        hash = 41 * hash + (this.async ? 1 : 0);
+        hash = 41 * hash + Objects.hashCode(this.randoms);
+        hash = 41 * hash + Objects.hashCode(this.codec);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+                P_PREFIX, prefix,
+                P_INTERVAL, interval,
+                P_RESUME, resume,
+                P_ASYNC, async,
+                P_RANDOM, randoms,
+                P_CODEC, codec);
+    }
+    // </editor-fold>
+}
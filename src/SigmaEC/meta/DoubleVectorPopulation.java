@@ -0,0 +1,110 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.Initializer;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.select.ScalarFitnessComparator;
+import java.util.List;
+
+/**
+ * A Population of real-valued individuals that stores each subpopulation in
+ * a DoubleVectorSubpopulation, i.e. as one contiguous genome block with
+ * parallel fitness and ID arrays.
+ *
+ * The List-based API of Population keeps working, so existing Operators are
+ * compatible, but getSubpopulation() returns a lazily materialized view
+ * instead of a defensive copy.  Changes made with set() are visible through
+ * views obtained earlier; views obtained before a call to setSubpopulation()
+ * continue to see the old subpopulation.  Use snapshotSubpopulation() for a
+ * copy that nothing can change, which copies the primitive arrays without
+ * materializing any individuals.
+ *
+ * PopulationSummary reads the scalar fitness array directly, so the per-step
+ * statistics don't materialize an individual for every member.  The genome
+ * block (ex. for DoubleVectorObjective.fitnessBlock()) is only assembled if
+ * something asks for it, so replacing a subpopulation doesn't copy genomes.
+ *
+ * @author Eric O. Scott
+ */
+public class DoubleVectorPopulation extends Population<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+
+    public DoubleVectorPopulation(final int numSubPopulations, final Initializer<DoubleVectorIndividual<ScalarFitness>> initializer) {
+        super(initialize(numSubPopulations, initializer), false);
+        assert(repOK());
+    }
+
+    public DoubleVectorPopulation(final List<DoubleVectorIndividual<ScalarFitness>>[] subpopulations) {
+        super(toColumnar(subpopulations), false);
+        assert(repOK());
+    }
+
+    private static List<DoubleVectorIndividual<ScalarFitness>>[] initialize(final int numSubPopulations, final Initializer<DoubleVectorIndividual<ScalarFitness>> initializer) {
+        assert(numSubPopulations > 0);
+        assert(initializer != null);
+        final List<DoubleVectorIndividual<ScalarFitness>>[] subpopulations = new List[numSubPopulations];
+        for (int i = 0; i < numSubPopulations; i++)
+            subpopulations[i] = new DoubleVectorSubpopulation(initializer.generatePopulation());
+        return subpopulations;
+    }
+
+    private static List<DoubleVectorIndividual<ScalarFitness>>[] toColumnar(final List<DoubleVectorIndividual<ScalarFitness>>[] subpopulations) {
+        assert(subpopulations != null);
+        final List<DoubleVectorIndividual<ScalarFitness>>[] result = new List[subpopulations.length];
+        for (int i = 0; i < subpopulations.length; i++)
+            result[i] = new DoubleVectorSubpopulation(subpopulations[i]);
+        return result;
+    }
+
+    /** @return The primitive store backing the ith subpopulation, without copying it. */
+    public DoubleVectorSubpopulation getColumnarSubpopulation(final int i) {
+        return (DoubleVectorSubpopulation) getSubpopulationStorage(i);
+    }
+
+    /** @return A lazily materialized, read-mostly view of the ith subpopulation. */
+    @Override
+    public List<DoubleVectorIndividual<ScalarFitness>> getSubpopulation(final int i) {
+        return getSubpopulationStorage(i);
+    }
+
+    @Override
+    public List<DoubleVectorIndividual<ScalarFitness>> snapshotSubpopulation(final int i) {
+        return getColumnarSubpopulation(i).copy();
+    }
+
+    @Override
+    public synchronized void setSubpopulation(final int i, final List<DoubleVectorIndividual<ScalarFitness>> population) {
+        assert(population != null);
+        super.setSubpopulation(i, new DoubleVectorSubpopulation(population));
+    }
+
+    @Override
+    public DoubleVectorIndividual<ScalarFitness> getBest(final int subpopulation, final FitnessComparator<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> comparator) {
+        assert(comparator != null);
+        if (!(comparator instanceof ScalarFitnessComparator))
+            return super.getBest(subpopulation, comparator);
+        // Scan the primitive fitness array and only materialize the winner
+        final ScalarFitnessComparator scalarComparator = (ScalarFitnessComparator) comparator;
+        final DoubleVectorSubpopulation subpop = getColumnarSubpopulation(subpopulation);
+        final double[] fitnesses = subpop.getFitnessesView();
+        int best = 0;
+        for (int i = 0; i < fitnesses.length; i++) {
+            if (!subpop.isEvaluated(i))
+                return super.getBest(subpopulation, comparator); // Let the generic path report unevaluated individuals
+            if (scalarComparator.betterThan(fitnesses[i], fitnesses[best]))
+                best = i;
+        }
+        return subpop.get(best);
+    }
+
+    @Override
+    public DoubleVectorIndividual<ScalarFitness> getBest(final FitnessComparator<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> comparator) {
+        assert(comparator != null);
+        DoubleVectorIndividual<ScalarFitness> best = getBest(0, comparator);
+        for (int i = 1; i < numSuppopulations(); i++) {
+            final DoubleVectorIndividual<ScalarFitness> candidate = getBest(i, comparator);
+            if (comparator.betterThan(candidate, best))
+                best = candidate;
+        }
+        return best;
+    }
+}
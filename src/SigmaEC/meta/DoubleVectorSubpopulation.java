@@ -0,0 +1,215 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Misc;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A structure-of-arrays store for a subpopulation of real-valued individuals.
+ *
+ * Scalar fitnesses and IDs are kept in parallel primitive arrays, and all
+ * genomes can be viewed as a single contiguous, row-major double[] block of
+ * size() * getNumDimensions() elements.  Code that only needs the numbers can
+ * loop over these arrays directly without allocating anything.
+ *
+ * The genome block is only assembled the first time something asks for it
+ * (and is kept up to date from then on), so a subpopulation that is replaced
+ * wholesale every step (ex. by each of SimpleCircleOfLife's operators) never
+ * copies its genomes.  Until then, the individuals it was given are kept and
+ * handed back as they are.
+ *
+ * For compatibility with Operators and other code written against List, this
+ * class is also a List of DoubleVectorIndividuals.  Individuals whose fitness
+ * was set in place with setFitness() are materialized from the block the next
+ * time their index is read, and are cached until that index is overwritten.
+ * Materialized individuals keep their original IDs, but parent references are
+ * not retained.
+ *
+ * The List view does not support structural modification (add, remove, etc.),
+ * but set() is supported and writes through to the primitive arrays.
+ *
+ * @author Eric O. Scott
+ */
+public class DoubleVectorSubpopulation extends AbstractList<DoubleVectorIndividual<ScalarFitness>> {
+    private final int numDimensions;
+    private double[] genomes; // Assembled on demand; guarded by this
+    private final double[] fitnesses;
+    private final boolean[] evaluated;
+    private final long[] ids;
+    private final DoubleVectorIndividual<ScalarFitness>[] materialized;
+
+    public DoubleVectorSubpopulation(final List<? extends DoubleVectorIndividual<ScalarFitness>> population) {
+        assert(population != null);
+        if (population.isEmpty())
+            throw new IllegalArgumentException(String.format("%s: population is empty.", this.getClass().getSimpleName()));
+        final int size = population.size();
+        numDimensions = checkType(((List) population).get(0)).size();
+        fitnesses = new double[size];
+        evaluated = new boolean[size];
+        ids = new long[size];
+        materialized = new DoubleVectorIndividual[size];
+        for (int i = 0; i < size; i++)
+            write(i, ((List) population).get(i)); // Raw access, so that we can report a useful error if the type is wrong
+        assert(repOK());
+    }
+
+    private DoubleVectorSubpopulation(final DoubleVectorSubpopulation ref) {
+        assert(ref != null);
+        synchronized (ref) {
+            numDimensions = ref.numDimensions;
+            genomes = (ref.genomes == null) ? null : ref.genomes.clone();
+            fitnesses = ref.fitnesses.clone();
+            evaluated = ref.evaluated.clone();
+            ids = ref.ids.clone();
+            materialized = ref.materialized.clone(); // Individuals are immutable, so they can be shared
+        }
+        assert(repOK());
+    }
+
+    /** @return An independent copy of this subpopulation, made by copying
+     * the primitive arrays rather than by materializing every individual. */
+    public DoubleVectorSubpopulation copy() {
+        return new DoubleVectorSubpopulation(this);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Primitive accessors">
+    public int getNumDimensions() {
+        return numDimensions;
+    }
+
+    /**
+     * @return The row-major genome block, without copying it (though it is
+     * assembled on the first call).  Individual i's genome occupies indices
+     * [i*getNumDimensions(), (i+1)*getNumDimensions()).  The array is a
+     * read-only view: callers must never write to it.
+     */
+    public synchronized double[] getGenomesView() {
+        if (genomes == null) {
+            genomes = new double[size()*numDimensions];
+            for (int i = 0; i < size(); i++)
+                System.arraycopy(materialized[i].getGenomeView(), 0, genomes, i*numDimensions, numDimensions);
+        }
+        return genomes;
+    }
+
+    /** @return The scalar fitness of each individual, without copying.  Unevaluated
+     * individuals have a fitness of NaN.  The array is a read-only view: callers
+     * must never write to it. */
+    public double[] getFitnessesView() {
+        return fitnesses;
+    }
+
+    /** @return The ID of each individual, without copying.  The array is a
+     * read-only view: callers must never write to it. */
+    public long[] getIDsView() {
+        return ids;
+    }
+
+    public double getGene(final int individual, final int gene) {
+        assert(individual >= 0);
+        assert(individual < size());
+        assert(gene >= 0);
+        assert(gene < numDimensions);
+        final DoubleVectorIndividual<ScalarFitness> cached = materialized[individual];
+        if (cached != null)
+            return cached.getElement(gene);
+        return getGenomesView()[individual*numDimensions + gene];
+    }
+
+    public boolean isEvaluated(final int individual) {
+        assert(individual >= 0);
+        assert(individual < size());
+        return evaluated[individual];
+    }
+
+    /** Set the fitness of the ith individual in place, without allocating a new individual. */
+    public synchronized void setFitness(final int individual, final double fitness) {
+        assert(individual >= 0);
+        assert(individual < size());
+        getGenomesView(); // The individual will be rebuilt from the block
+        fitnesses[individual] = fitness;
+        evaluated[individual] = true;
+        materialized[individual] = null;
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="List view">
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public DoubleVectorIndividual<ScalarFitness> get(final int i) {
+        assert(i >= 0);
+        assert(i < size());
+        // DoubleVectorIndividual is immutable, so a cached instance is safe to read without locking
+        final DoubleVectorIndividual<ScalarFitness> cached = materialized[i];
+        if (cached != null)
+            return cached;
+        return materialize(i);
+    }
+
+    @Override
+    public synchronized DoubleVectorIndividual<ScalarFitness> set(final int i, final DoubleVectorIndividual<ScalarFitness> ind) {
+        assert(i >= 0);
+        assert(i < size());
+        assert(ind != null);
+        final DoubleVectorIndividual<ScalarFitness> old = get(i);
+        write(i, ind);
+        return old;
+    }
+
+    private synchronized DoubleVectorIndividual<ScalarFitness> materialize(final int i) {
+        if (materialized[i] != null)
+            return materialized[i];
+        final double[] genome = Arrays.copyOfRange(getGenomesView(), i*numDimensions, (i + 1)*numDimensions);
+        final DoubleVectorIndividual.Builder builder = DoubleVectorIndividual.Builder.wrap(genome).setID(ids[i]);
+        if (evaluated[i])
+            builder.setFitness(new ScalarFitness(fitnesses[i]));
+        materialized[i] = builder.build();
+        return materialized[i];
+    }
+
+    /** Generic types are erased at runtime, so check that we really were given real-valued individuals. */
+    private static DoubleVectorIndividual<?> checkType(final Object o) {
+        assert(o != null);
+        if (!(o instanceof DoubleVectorIndividual))
+            throw new IllegalStateException(String.format("%s: can only store %s, but was given a %s.", DoubleVectorSubpopulation.class.getSimpleName(), DoubleVectorIndividual.class.getSimpleName(), o.getClass().getSimpleName()));
+        return (DoubleVectorIndividual<?>) o;
+    }
+
+    private void write(final int i, final Object o) {
+        final DoubleVectorIndividual<?> ind = checkType(o);
+        if (ind.size() != numDimensions)
+            throw new IllegalArgumentException(String.format("%s: individual has %d dimensions, but this subpopulation has %d.", this.getClass().getSimpleName(), ind.size(), numDimensions));
+        if (genomes != null)
+            System.arraycopy(ind.getGenomeView(), 0, genomes, i*numDimensions, numDimensions);
+        evaluated[i] = ind.isEvaluated();
+        fitnesses[i] = evaluated[i] ? ind.getFitness().asScalar() : Double.NaN;
+        ids[i] = ind.getID();
+        materialized[i] = (DoubleVectorIndividual<ScalarFitness>) ind; // Immutable, so get() can hand it back as is
+    }
+    // </editor-fold>
+
+    public final synchronized boolean repOK() {
+        return numDimensions > 0
+                && fitnesses != null
+                && evaluated != null
+                && ids != null
+                && materialized != null
+                && ids.length > 0
+                && fitnesses.length == ids.length
+                && evaluated.length == ids.length
+                && materialized.length == ids.length
+                && (genomes == null ? !Misc.containsNulls(Arrays.asList(materialized)) : genomes.length == ids.length*numDimensions && Misc.allFinite(genomes));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: size=%d, numDimensions=%d]", this.getClass().getSimpleName(), size(), numDimensions);
+    }
+}
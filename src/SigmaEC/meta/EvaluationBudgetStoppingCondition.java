@@ -0,0 +1,79 @@
+package SigmaEC.meta;
+
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Parameters;
+
+/**
+ * Stops a run once it has made "maxEvaluations" calls to its objective, as
+ * counted by the EvaluationCounter given by "counter".  The same counter must
+ * be given to every EvaluationOperator in the run.
+ *
+ * Evaluations are checked once per step, so a run may overshoot its budget by
+ * up to one step's worth of evaluations.
+ *
+ * @author Eric O. Scott
+ */
+public class EvaluationBudgetStoppingCondition<T extends Individual<F>, F extends Fitness> extends ThresholdStoppingCondition<T, F> {
+    public final static String P_MAX_EVALUATIONS = "maxEvaluations";
+
+    private final long maxEvaluations;
+
+    public EvaluationBudgetStoppingCondition(final Parameters parameters, final String base) {
+        super(parameters, base);
+        if (!getCounter().isDefined())
+            throw new IllegalStateException(String.format("%s: '%s' is required.", this.getClass().getSimpleName(), Parameters.push(base, P_COUNTER)));
+        maxEvaluations = parameters.getLongParameter(Parameters.push(base, P_MAX_EVALUATIONS));
+        if (maxEvaluations < 0)
+            throw new IllegalStateException(String.format("%s: %s is negative, must be >= 0.", this.getClass().getSimpleName(), P_MAX_EVALUATIONS));
+        assert(repOK());
+    }
+
+    @Override
+    public boolean stop(final Population<T, F> population, final int step) {
+        assert(step >= 0);
+        return record(evaluationsUsed() >= maxEvaluations, step);
+    }
+
+    @Override
+    public boolean stopInd(final T individual, final int step) {
+        return stop((Population<T, F>) null, step);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return thresholdRepOK()
+                && P_MAX_EVALUATIONS != null
+                && !P_MAX_EVALUATIONS.isEmpty()
+                && getCounter().isDefined()
+                && maxEvaluations >= 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof EvaluationBudgetStoppingCondition))
+            return false;
+        final EvaluationBudgetStoppingCondition ref = (EvaluationBudgetStoppingCondition)o;
+        return maxEvaluations == ref.maxEvaluations
+                && getCounter().equals(ref.getCounter());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 29 * hash + (int) (this.maxEvaluations ^ (this.maxEvaluations >>> 32));
+        hash = 29 * hash + getCounter().hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%d, %s=%s, hit=%s]", this.getClass().getSimpleName(),
+                P_MAX_EVALUATIONS, maxEvaluations,
+                P_COUNTER, getCounter(),
+                getHit());
+    }
+    // </editor-fold>
+}
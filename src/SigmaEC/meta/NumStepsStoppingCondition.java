@@ -40,7 +40,7 @@ public class NumStepsStoppingCondition<T extends Individual<F>, F extends Fitnes
 
     @Override
     public boolean stopInd(final T individual, final int step) {
-        return stop(null, step);
+        return stop((Population<T, F>) null, step);
     }
     
     private static String progressBar(final int complete, final int total) {
@@ -1,8 +1,12 @@
 package SigmaEC.meta;
 
 import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
 import SigmaEC.select.ScalarFitnessComparator;
 import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  *
@@ -35,12 +39,40 @@ public class NumStepsWithoutGlobalImprovementStoppingCondition<T extends Individ
         stepsPassedSinceLastImprovement = 0;
     }
     
+    @Override
+    public void writeState(final DataOutputStream out, final IndividualCodec<T> codec) throws IOException {
+        assert(out != null);
+        assert(codec != null);
+        out.writeInt(stepsPassedSinceLastImprovement);
+        out.writeBoolean(bestSoFar != null);
+        if (bestSoFar != null)
+            codec.write(bestSoFar, out);
+    }
+    
+    @Override
+    public void readState(final DataInputStream in, final IndividualCodec<T> codec) throws IOException {
+        assert(in != null);
+        assert(codec != null);
+        stepsPassedSinceLastImprovement = in.readInt();
+        bestSoFar = in.readBoolean() ? codec.read(in) : null;
+        assert(repOK());
+    }
+    
     @Override
     public boolean stop(final Population<T, F> population, int step) {
         assert(step >= 0);
         final T bestOfGen = population.getBest(fitnessComparator);
         return stopInd(bestOfGen, step);
     }
+    
+    @Override
+    public boolean stop(final PopulationSummary<T, F> summary, int step) {
+        assert(summary != null);
+        assert(step >= 0);
+        if (!summary.getComparator().equals(fitnessComparator))
+            return stop(summary.getPopulation(), step);
+        return stopInd(summary.getBest(), step);
+    }
 
     @Override
     public boolean stopInd(T individual, int step) {
@@ -24,9 +24,23 @@ public class Population<T extends Individual<F>, F extends Fitness> extends Cont
     }
     
     public Population(final List<T>[] subpopulations) {
-        this.subpopulations = new List[subpopulations.length];
-        for (int i = 0; i < subpopulations.length; i++)
-            this.subpopulations[i] = new ArrayList<>(subpopulations[i]); // Defensive copy
+        this(subpopulations, true);
+    }
+    
+    /**
+     * @param subpopulations The initial subpopulations.
+     * @param defensiveCopy If false, the lists are stored as-is.  This allows
+     *  subclasses to supply their own List implementations.
+     */
+    protected Population(final List<T>[] subpopulations, final boolean defensiveCopy) {
+        assert(subpopulations != null);
+        if (defensiveCopy) {
+            this.subpopulations = new List[subpopulations.length];
+            for (int i = 0; i < subpopulations.length; i++)
+                this.subpopulations[i] = new ArrayList<>(subpopulations[i]); // Defensive copy
+        }
+        else
+            this.subpopulations = subpopulations;
         assert(repOK());
     }
     
@@ -43,6 +57,20 @@ public class Population<T extends Individual<F>, F extends Fitness> extends Cont
         return new ArrayList<>(subpopulations[i]);
     }
     
+    /** @return A copy of the ith subpopulation that later changes to this
+     * population can never affect, ex. for a checkpoint that is written in
+     * the background. */
+    public List<T> snapshotSubpopulation(final int i) {
+        return getSubpopulation(i);
+    }
+    
+    /** @return The ith subpopulation's underlying storage, without copying it. */
+    protected List<T> getSubpopulationStorage(final int i) {
+        assert(i >= 0);
+        assert(i < subpopulations.length);
+        return subpopulations[i];
+    }
+    
     public synchronized void setSubpopulation(final int i, final List<T> population) {
         assert(i >= 0);
         assert(i < subpopulations.length);
@@ -0,0 +1,301 @@
+package SigmaEC.meta;
+
+import SigmaEC.ContractObject;
+import SigmaEC.represent.Individual;
+import SigmaEC.select.ScalarFitnessComparator;
+import SigmaEC.util.Misc;
+import SigmaEC.util.math.Statistics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Fitness statistics for one step of a population, computed once and shared by
+ * every StoppingCondition and PopulationMetric that wants them.
+ *
+ * The scalar fitness, best and worst individual, mean and standard deviation of
+ * each subpopulation are gathered in a single pass over the population (which
+ * can be split across threads), along with the best individual overall and the
+ * best-so-far individual of the run.  Ties are resolved the same way as
+ * Statistics.best() and Statistics.worst(), and the moments are computed by
+ * Statistics.mean() and Statistics.std(), so the results do not depend on how
+ * many threads are used.
+ *
+ * A summary refers to the population it was computed from without copying it,
+ * so it is only valid until the population is next modified.
+ *
+ * @author Eric O. Scott
+ */
+public class PopulationSummary<T extends Individual<F>, F extends Fitness> extends ContractObject {
+    private final Population<T, F> population;
+    private final FitnessComparator<T, F> comparator;
+    private final double[][] fitnesses;
+    private final int[] bestIndex;
+    private final int[] worstIndex;
+    private final double[] mean;
+    private final double[] std;
+    private final T best;
+    private final T bestSoFar;
+
+    /**
+     * Summarize a population in a single pass on the calling thread.
+     *
+     * @param population The population to summarize.
+     * @param comparator Defines what it means for one individual to be better than another.
+     * @param previousBestSoFar The best-so-far individual before this step, or
+     * null if there is none yet.
+     */
+    public PopulationSummary(final Population<T, F> population, final FitnessComparator<T, F> comparator, final T previousBestSoFar) {
+        this(population, comparator, previousBestSoFar, null, 1);
+    }
+
+    /**
+     * Summarize a population, splitting each subpopulation into numChunks
+     * pieces that are scanned in parallel.
+     *
+     * @param population The population to summarize.
+     * @param comparator Defines what it means for one individual to be better than another.
+     * @param previousBestSoFar The best-so-far individual before this step, or
+     * null if there is none yet.
+     * @param executor The thread pool to scan chunks on.  If null, the scan
+     * runs on the calling thread.
+     * @param numChunks How many pieces to split each subpopulation into.
+     */
+    public PopulationSummary(final Population<T, F> population, final FitnessComparator<T, F> comparator, final T previousBestSoFar, final ExecutorService executor, final int numChunks) {
+        assert(population != null);
+        assert(comparator != null);
+        assert(numChunks > 0);
+        this.population = population;
+        this.comparator = comparator;
+        final int numSubpops = population.numSuppopulations();
+        fitnesses = new double[numSubpops][];
+        bestIndex = new int[numSubpops];
+        worstIndex = new int[numSubpops];
+        mean = new double[numSubpops];
+        std = new double[numSubpops];
+
+        // Scan every chunk of every subpopulation
+        final List<Chunk> chunks = new ArrayList<>();
+        for (int s = 0; s < numSubpops; s++) {
+            final List<T> subpop = population.getSubpopulationStorage(s);
+            assert(!subpop.isEmpty());
+            fitnesses[s] = new double[subpop.size()];
+            final int chunkSize = (subpop.size() + numChunks - 1)/numChunks;
+            for (int from = 0; from < subpop.size(); from += chunkSize)
+                chunks.add(new Chunk(s, subpop, from, Math.min(from + chunkSize, subpop.size())));
+        }
+        if (executor == null || chunks.size() == 1) {
+            for (final Chunk c : chunks)
+                c.call();
+        }
+        else {
+            try {
+                for (final Future<Void> f : executor.invokeAll(chunks))
+                    f.get();
+            } catch (final InterruptedException | ExecutionException ex) {
+                throw new IllegalStateException(String.format("%s: exception while summarizing population.", this.getClass().getSimpleName()), ex);
+            }
+        }
+
+        // Combine the chunks in order, so ties go to the same individual as a sequential scan
+        Arrays.fill(bestIndex, -1);
+        Arrays.fill(worstIndex, -1);
+        for (final Chunk c : chunks) {
+            final List<T> subpop = population.getSubpopulationStorage(c.subpop);
+            if (bestIndex[c.subpop] == -1 || comparator.betterThan(subpop.get(c.bestIndex), subpop.get(bestIndex[c.subpop])))
+                bestIndex[c.subpop] = c.bestIndex;
+            if (worstIndex[c.subpop] == -1 || !comparator.betterThan(subpop.get(c.worstIndex), subpop.get(worstIndex[c.subpop])))
+                worstIndex[c.subpop] = c.worstIndex;
+        }
+
+        T bestOverall = null;
+        for (int s = 0; s < numSubpops; s++) {
+            mean[s] = Statistics.mean(fitnesses[s]);
+            std[s] = Statistics.std(fitnesses[s], mean[s]);
+            final T subpopBest = getBest(s);
+            if (bestOverall == null || comparator.betterThan(subpopBest, bestOverall))
+                bestOverall = subpopBest;
+        }
+        best = bestOverall;
+        bestSoFar = comparator.betterThan(best, previousBestSoFar) ? best : previousBestSoFar;
+        assert(repOK());
+    }
+
+    /** Scans a contiguous range of one subpopulation. */
+    private class Chunk implements Callable<Void> {
+        private final int subpop;
+        private final List<T> individuals;
+        private final int from;
+        private final int to;
+        private int bestIndex;
+        private int worstIndex;
+
+        Chunk(final int subpop, final List<T> individuals, final int from, final int to) {
+            assert(from < to);
+            this.subpop = subpop;
+            this.individuals = individuals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Void call() {
+            if (individuals instanceof DoubleVectorSubpopulation && comparator instanceof ScalarFitnessComparator && scanPrimitive())
+                return null;
+            final double[] f = fitnesses[subpop];
+            T best = individuals.get(from);
+            T worst = best;
+            bestIndex = worstIndex = from;
+            for (int i = from; i < to; i++) {
+                final T ind = individuals.get(i);
+                f[i] = ind.getFitness().asScalar();
+                if (comparator.betterThan(ind, best)) {
+                    best = ind;
+                    bestIndex = i;
+                }
+                if (!comparator.betterThan(ind, worst)) {
+                    worst = ind;
+                    worstIndex = i;
+                }
+            }
+            return null;
+        }
+
+        /** Like call(), but reads the scalar fitness array of a
+         * DoubleVectorSubpopulation instead of materializing individuals.
+         * @return false, having done nothing, if some individual in the range
+         * is unevaluated (the generic scan reports that). */
+        private boolean scanPrimitive() {
+            final DoubleVectorSubpopulation store = (DoubleVectorSubpopulation) individuals;
+            final ScalarFitnessComparator scalarComparator = (ScalarFitnessComparator) comparator;
+            for (int i = from; i < to; i++) {
+                if (!store.isEvaluated(i))
+                    return false;
+            }
+            final double[] source = store.getFitnessesView();
+            final double[] f = fitnesses[subpop];
+            System.arraycopy(source, from, f, from, to - from);
+            bestIndex = worstIndex = from;
+            for (int i = from; i < to; i++) {
+                if (scalarComparator.betterThan(f[i], f[bestIndex]))
+                    bestIndex = i;
+                if (!scalarComparator.betterThan(f[i], f[worstIndex]))
+                    worstIndex = i;
+            }
+            return true;
+        }
+    }
+
+    /** @return The population that was summarized. */
+    public Population<T, F> getPopulation() { return population; }
+
+    /** @return The comparator that defined "best" and "worst" for this summary. */
+    public FitnessComparator<T, F> getComparator() { return comparator; }
+
+    public int numSubpopulations() { return fitnesses.length; }
+
+    /** @return The scalar fitness of every individual in a subpopulation.
+     * This is the summary's own array, so callers must not modify it. */
+    public double[] getFitnesses(final int subpopulation) {
+        assert(subpopulation >= 0);
+        assert(subpopulation < fitnesses.length);
+        return fitnesses[subpopulation];
+    }
+
+    public int getBestIndex(final int subpopulation) {
+        assert(subpopulation >= 0);
+        assert(subpopulation < fitnesses.length);
+        return bestIndex[subpopulation];
+    }
+
+    public int getWorstIndex(final int subpopulation) {
+        assert(subpopulation >= 0);
+        assert(subpopulation < fitnesses.length);
+        return worstIndex[subpopulation];
+    }
+
+    public T getBest(final int subpopulation) {
+        return population.getSubpopulationStorage(subpopulation).get(getBestIndex(subpopulation));
+    }
+
+    public T getWorst(final int subpopulation) {
+        return population.getSubpopulationStorage(subpopulation).get(getWorstIndex(subpopulation));
+    }
+
+    public double getMean(final int subpopulation) {
+        assert(subpopulation >= 0);
+        assert(subpopulation < fitnesses.length);
+        return mean[subpopulation];
+    }
+
+    public double getStd(final int subpopulation) {
+        assert(subpopulation >= 0);
+        assert(subpopulation < fitnesses.length);
+        return std[subpopulation];
+    }
+
+    /** @return The best individual across all subpopulations. */
+    public T getBest() { return best; }
+
+    /** @return The best individual seen so far in the run, including this step. */
+    public T getBestSoFar() { return bestSoFar; }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return population != null
+                && comparator != null
+                && fitnesses != null
+                && fitnesses.length == population.numSuppopulations()
+                && !Misc.containsNulls(fitnesses)
+                && bestIndex != null
+                && bestIndex.length == fitnesses.length
+                && worstIndex != null
+                && worstIndex.length == fitnesses.length
+                && mean != null
+                && mean.length == fitnesses.length
+                && std != null
+                && std.length == fitnesses.length
+                && best != null
+                && bestSoFar != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof PopulationSummary))
+            return false;
+        final PopulationSummary ref = (PopulationSummary)o;
+        return population.equals(ref.population)
+                && comparator.equals(ref.comparator)
+                && Arrays.deepEquals(fitnesses, ref.fitnesses)
+                && Arrays.equals(bestIndex, ref.bestIndex)
+                && Arrays.equals(worstIndex, ref.worstIndex)
+                && bestSoFar.equals(ref.bestSoFar);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 37 * hash + Objects.hashCode(this.population);
+        hash = 37 * hash + Objects.hashCode(this.comparator);
+        hash = 37 * hash + Arrays.deepHashCode(this.fitnesses);
+        hash = 37 * hash + Arrays.hashCode(this.bestIndex);
+        hash = 37 * hash + Arrays.hashCode(this.worstIndex);
+        hash = 37 * hash + Objects.hashCode(this.bestSoFar);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: numSubpopulations=%d, comparator=%s, mean=%s, std=%s, best=%s, bestSoFar=%s]", this.getClass().getSimpleName(),
+                fitnesses.length, comparator, Arrays.toString(mean), Arrays.toString(std), best, bestSoFar);
+    }
+    // </editor-fold>
+}
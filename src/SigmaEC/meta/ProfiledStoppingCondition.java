@@ -0,0 +1,129 @@
+package SigmaEC.meta;
+
+import SigmaEC.measure.Profiler;
+import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
+import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A decorator that records every step of a run in a Profiler, by timing the
+ * interval between successive calls to the wrapped StoppingCondition.  Since
+ * every CircleOfLife consults its stopping condition exactly once per step,
+ * this counts generations (and measures their latency) for any engine,
+ * including trajectory methods that only call stopInd().
+ *
+ * Steps are recorded under "component" (default "generation").  The first
+ * call after a reset() marks the start of the first step and records nothing.
+ *
+ * @author Eric O. Scott
+ */
+public class ProfiledStoppingCondition<T extends Individual<F>, F extends Fitness> extends StoppingCondition<T, F> {
+    public final static String P_STOPPING_CONDITION = "stoppingCondition";
+    public final static String P_PROFILER = "profiler";
+    public final static String P_COMPONENT = "component";
+    public final static String DEFAULT_COMPONENT = "generation";
+
+    private final StoppingCondition<T, F> stoppingCondition;
+    private final Profiler profiler;
+    private final String component;
+    private long lastCallTime = -1;
+
+    public ProfiledStoppingCondition(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        stoppingCondition = parameters.getInstanceFromParameter(Parameters.push(base, P_STOPPING_CONDITION), StoppingCondition.class);
+        profiler = parameters.getInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
+        component = parameters.getOptionalStringParameter(Parameters.push(base, P_COMPONENT), DEFAULT_COMPONENT);
+        assert(repOK());
+    }
+
+    private void recordStep() {
+        final long now = System.nanoTime();
+        if (lastCallTime >= 0)
+            profiler.record(component, now - lastCallTime);
+        lastCallTime = now;
+    }
+
+    @Override
+    public boolean stop(final Population<T, F> population, final int step) {
+        recordStep();
+        return stoppingCondition.stop(population, step);
+    }
+
+    @Override
+    public boolean stop(final PopulationSummary<T, F> summary, final int step) {
+        recordStep();
+        return stoppingCondition.stop(summary, step);
+    }
+
+    @Override
+    public boolean stopInd(final T individual, final int step) {
+        recordStep();
+        return stoppingCondition.stopInd(individual, step);
+    }
+
+    @Override
+    public void reset() {
+        lastCallTime = -1;
+        stoppingCondition.reset();
+    }
+
+    @Override
+    public void writeState(final DataOutputStream out, final IndividualCodec<T> codec) throws IOException {
+        stoppingCondition.writeState(out, codec);
+    }
+
+    @Override
+    public void readState(final DataInputStream in, final IndividualCodec<T> codec) throws IOException {
+        stoppingCondition.readState(in, codec);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_STOPPING_CONDITION != null
+                && !P_STOPPING_CONDITION.isEmpty()
+                && P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && P_COMPONENT != null
+                && !P_COMPONENT.isEmpty()
+                && stoppingCondition != null
+                && profiler != null
+                && component != null
+                && !component.isEmpty();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof ProfiledStoppingCondition))
+            return false;
+        final ProfiledStoppingCondition ref = (ProfiledStoppingCondition)o;
+        return stoppingCondition.equals(ref.stoppingCondition)
+                && profiler.equals(ref.profiler)
+                && component.equals(ref.component);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 53 * hash + Objects.hashCode(this.stoppingCondition);
+        hash = 53 * hash + Objects.hashCode(this.profiler);
+        hash = 53 * hash + Objects.hashCode(this.component);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+                P_COMPONENT, component,
+                P_PROFILER, profiler,
+                P_STOPPING_CONDITION, stoppingCondition);
+    }
+    // </editor-fold>
+}
@@ -3,20 +3,29 @@ package SigmaEC.meta;
 import SigmaEC.evaluate.EvaluationOperator;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.measure.PopulationMetric;
+import SigmaEC.measure.Profiler;
 import SigmaEC.represent.Individual;
 import SigmaEC.represent.Initializer;
 import SigmaEC.select.ScalarFitnessComparator;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
-import SigmaEC.util.math.Statistics;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A basic evolutionary loop that mates parents, mutates offspring, and applies
  * selection.  Optionally takes one or more PopulationMetrics to be run every
  * generation for data collection purposes.
  * 
+ * Fitness statistics are gathered into a PopulationSummary once per generation
+ * and shared by the stopping condition and the metrics.  Set "summaryThreads"
+ * to compute them on more than one thread.
+ * 
+ * If a "profiler" is given, the time spent in each operator, metric, and
+ * summary is recorded in it every generation.
+ * 
  * @author Eric 'Siggy' Scott
  */
 public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> extends CircleOfLife<T, F> {
@@ -29,6 +38,10 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
     public final static String P_RANDOM = "random";
     public final static String P_IS_DYNAMIC = "isDynamic";
     public final static String P_STOPPING_CONDITION = "stoppingCondition";
+    public final static String P_PRIMITIVE_POPULATION = "primitivePopulation";
+    public final static String P_CHECKPOINTER = "checkpointer";
+    public final static String P_SUMMARY_THREADS = "summaryThreads";
+    public final static String P_PROFILER = "profiler";
     
     private final Initializer<T> initializer;
     private final EvaluationOperator<T, P, F> evaluator;
@@ -38,6 +51,10 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
     private final ObjectiveFunction<P, F> objective;
     private final StoppingCondition<T, F> stoppingCondition;
     private final boolean isDynamic;
+    private final boolean primitivePopulation;
+    private final Option<Checkpointer<T, F>> checkpointer;
+    private final int summaryThreads;
+    private final Option<Profiler> profiler;
     
     public SimpleCircleOfLife(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -50,6 +67,12 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
         metrics = parameters.getOptionalInstancesFromParameter(Parameters.push(base, P_METRICS), PopulationMetric.class);
         stoppingCondition = parameters.getInstanceFromParameter(Parameters.push(base, P_STOPPING_CONDITION), StoppingCondition.class);
         isDynamic = parameters.getOptionalBooleanParameter(Parameters.push(base, P_IS_DYNAMIC), true);
+        primitivePopulation = parameters.getOptionalBooleanParameter(Parameters.push(base, P_PRIMITIVE_POPULATION), false);
+        checkpointer = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_CHECKPOINTER), Checkpointer.class);
+        summaryThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_SUMMARY_THREADS), 1);
+        if (summaryThreads < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_SUMMARY_THREADS, summaryThreads));
+        profiler = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
         assert(repOK());
     }
     
@@ -60,44 +83,97 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
         T bestSoFarInd = null;
         int i = 0;
         
-        // Initialize and evaluate the starting population
-        final Population<T, F> population = new Population<>(1, initializer);
-        population.setSubpopulation(0, evaluator.operate(run, i, population.getSubpopulation(0)));
+        final Option<Checkpointer.Checkpoint<T, F>> checkpoint = checkpointer.isDefined() ?
+                checkpointer.get().resume(run, stoppingCondition)
+                : Option.NONE;
+        final Population<T, F> population;
+        if (checkpoint.isDefined()) {
+            // Pick up where a previous, interrupted run left off
+            i = checkpoint.get().getStep();
+            bestSoFarInd = checkpoint.get().getBestSoFar().isDefined() ? checkpoint.get().getBestSoFar().get() : null;
+            population = primitivePopulation ?
+                (Population<T, F>) (Population) new DoubleVectorPopulation((List[]) checkpoint.get().getSubpopulations())
+                : new Population<>(checkpoint.get().getSubpopulations());
+            if (isDynamic && i > 0)
+                objective.setStep(i - 1);
+        }
+        else {
+            // Initialize and evaluate the starting population
+            population = primitivePopulation ?
+                    (Population<T, F>) (Population) new DoubleVectorPopulation(1, (Initializer) initializer)
+                    : new Population<>(1, initializer);
+            final long start = System.nanoTime();
+            population.setSubpopulation(0, evaluator.operate(run, i, population.getSubpopulation(0)));
+            if (profiler.isDefined())
+                profiler.get().recordSince(P_EVALUATOR, start);
+        }
         
-        while (!stoppingCondition.stop(population, i)) {
-            // Take measurements
-            if (metrics.isDefined())
-                for (final PopulationMetric<T, F> metric : metrics.get())
-                    metric.measurePopulation(run, i, population);
+        // Fitness statistics are computed once per step and shared by the stopping condition and metrics
+        final ExecutorService summaryExecutor = (summaryThreads > 1) ? Executors.newFixedThreadPool(summaryThreads) : null;
+        PopulationSummary<T, F> summary;
+        try {
+            summary = summarize(population, bestSoFarInd, summaryExecutor);
+            while (!stoppingCondition.stop(summary, i)) {
+                // Take measurements
+                measure(run, i, summary);
             
-            // Apply operators
-            for (final Operator<T> gen : operators) {
-                final List<T> newSubpop = gen.operate(run, i, population.getSubpopulation(0));
-                population.setSubpopulation(0, newSubpop);
-            }
+                // Apply operators
+                for (int j = 0; j < operators.size(); j++) {
+                    final Operator<T> gen = operators.get(j);
+                    final long start = System.nanoTime();
+                    final List<T> newSubpop = gen.operate(run, i, population.getSubpopulation(0));
+                    population.setSubpopulation(0, newSubpop);
+                    if (profiler.isDefined())
+                        profiler.get().recordSince(Profiler.componentName(P_OPERATORS, j, gen), start);
+                }
             
-            // Tell the problem what generation we're on (if it's a dynamic landscape)
-            if (isDynamic)
-                objective.setStep(i);
+                // Tell the problem what generation we're on (if it's a dynamic landscape)
+                if (isDynamic)
+                    objective.setStep(i);
             
-            // Update our local best-so-far variable
-            final T bestOfGen = Statistics.best(population.getSubpopulation(0), fitnessComparator);
-            if (fitnessComparator.betterThan(bestOfGen, bestSoFarInd)) 
-                bestSoFarInd = bestOfGen;
+                // Update our local best-so-far variable
+                summary = summarize(population, bestSoFarInd, summaryExecutor);
+                bestSoFarInd = summary.getBestSoFar();
             
-            flushMetrics();
-            i++;
+                flushMetrics();
+                i++;
+                if (checkpointer.isDefined())
+                    checkpointer.get().checkpoint(run, i, population, bestSoFarInd, stoppingCondition);
+            }
+        } finally {
+            if (summaryExecutor != null)
+                summaryExecutor.shutdown();
         }
+        if (checkpointer.isDefined())
+            checkpointer.get().flush();
         
         // Measure the final population
-        if (metrics.isDefined())
-            for (PopulationMetric<T, F> metric : metrics.get())
-                metric.measurePopulation(run, i, population);
+        measure(run, i, summary);
         
         assert(repOK());
         return new EvolutionResult<>(population, bestSoFarInd, bestSoFarInd.getFitness());
     }
     
+    private PopulationSummary<T, F> summarize(final Population<T, F> population, final T previousBestSoFar, final ExecutorService summaryExecutor) {
+        final long start = System.nanoTime();
+        final PopulationSummary<T, F> summary = new PopulationSummary<>(population, fitnessComparator, previousBestSoFar, summaryExecutor, summaryThreads);
+        if (profiler.isDefined())
+            profiler.get().recordSince("summary", start);
+        return summary;
+    }
+    
+    private void measure(final int run, final int step, final PopulationSummary<T, F> summary) {
+        if (!metrics.isDefined())
+            return;
+        for (int j = 0; j < metrics.get().size(); j++) {
+            final PopulationMetric<T, F> metric = metrics.get().get(j);
+            final long start = System.nanoTime();
+            metric.measurePopulation(run, step, summary);
+            if (profiler.isDefined())
+                profiler.get().recordSince(Profiler.componentName(P_METRICS, j, metric), start);
+        }
+    }
+    
     /** Flush I/O buffers. */
     private void flushMetrics() {
         if (metrics.isDefined())
@@ -131,12 +207,23 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
                 && !P_RANDOM.isEmpty()
                 && P_STOPPING_CONDITION != null
                 && !P_STOPPING_CONDITION.isEmpty()
+                && P_PRIMITIVE_POPULATION != null
+                && !P_PRIMITIVE_POPULATION.isEmpty()
+                && P_CHECKPOINTER != null
+                && !P_CHECKPOINTER.isEmpty()
+                && P_SUMMARY_THREADS != null
+                && !P_SUMMARY_THREADS.isEmpty()
+                && summaryThreads > 0
+                && P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && profiler != null
                 && operators != null
                 && initializer != null
                 && fitnessComparator != null
                 && stoppingCondition != null
                 && objective != null
                 && metrics != null
+                && checkpointer != null
                 && !operators.isEmpty()
                 && !Misc.containsNulls(operators)
                 && !(metrics.isDefined() && Misc.containsNulls(metrics.get()));
@@ -144,14 +231,18 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
     
     @Override
     public String toString() {
-        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%d, %s=%s]", this.getClass().getSimpleName(),
                 P_IS_DYNAMIC, isDynamic,
+                P_PRIMITIVE_POPULATION, primitivePopulation,
                 P_INITIALIZER, initializer,
                 P_STOPPING_CONDITION, stoppingCondition,
                 P_OBJECTIVE, objective,
                 P_COMPARATOR, fitnessComparator,
                 P_METRICS, metrics,
-                P_OPERATORS, operators);
+                P_OPERATORS, operators,
+                P_CHECKPOINTER, checkpointer,
+                P_SUMMARY_THREADS, summaryThreads,
+                P_PROFILER, profiler);
     }
     
     @Override
@@ -163,12 +254,16 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
         
         final SimpleCircleOfLife ref = (SimpleCircleOfLife) o;
         return isDynamic == ref.isDynamic
+                && primitivePopulation == ref.primitivePopulation
                 && initializer.equals(ref.initializer)
                 && stoppingCondition.equals(ref.stoppingCondition)
                 && operators.equals(ref.operators)
                 && objective.equals(ref.objective)
                 && fitnessComparator.equals(ref.fitnessComparator)
-                && metrics.equals(ref.metrics);
+                && metrics.equals(ref.metrics)
+                && checkpointer.equals(ref.checkpointer)
+                && summaryThreads == ref.summaryThreads
+                && profiler.equals(ref.profiler);
     }
 
     @Override
@@ -181,6 +276,10 @@ public class SimpleCircleOfLife<T extends Individual<F>, P, F extends Fitness> e
         hash = 31 * hash + (this.objective != null ? this.objective.hashCode() : 0);
         hash = 31 * hash + (this.stoppingCondition != null ? this.stoppingCondition.hashCode() : 0);
         hash = 31 * hash + (this.isDynamic ? 1 : 0);
+        hash = 31 * hash + (this.primitivePopulation ? 1 : 0);
+        hash = 31 * hash + (this.checkpointer != null ? this.checkpointer.hashCode() : 0);
+        hash = 31 * hash + this.summaryThreads;
+        hash = 31 * hash + (this.profiler != null ? this.profiler.hashCode() : 0);
         return hash;
     }
     //</editor-fold>
@@ -0,0 +1,317 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.measure.PopulationMetric;
+import SigmaEC.operate.Mator;
+import SigmaEC.operate.Mutator;
+import SigmaEC.represent.Individual;
+import SigmaEC.represent.Initializer;
+import SigmaEC.select.ScalarFitnessComparator;
+import SigmaEC.select.Selector;
+import SigmaEC.util.Misc;
+import SigmaEC.util.Option;
+import SigmaEC.util.Parameters;
+import SigmaEC.util.math.Statistics;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A steady-state evolutionary loop that keeps a fixed number of evaluations
+ * in flight at all times, instead of waiting for a whole generation to be
+ * evaluated before breeding the next one.
+ *
+ * Each time an evaluation finishes, the child is inserted into the population
+ * (at an index chosen by the replacement selector), and a new child is
+ * immediately bred and submitted in its place.  Breeding happens on the
+ * calling thread, so only the evaluator needs to be threadsafe.  Each child
+ * is evaluated with EvaluationOperator.operateInd(), so the evaluator's
+ * options (ex. a counter, random streams or a timeout) apply just as they do
+ * to a whole population.  "deduplicate" is rejected, since children are
+ * evaluated one at a time, and so is a timeout or speculative evaluation on
+ * the same executor as this, since the evaluator would wait on it from one of
+ * its own threads.
+ *
+ * For the purposes of StoppingConditions and PopulationMetrics, one "step"
+ * is counted every time populationSize evaluations have completed.  Note that
+ * when numInFlight > 1, the order in which results arrive depends on thread
+ * scheduling, so runs are not exactly repeatable even with a fixed seed.
+ *
+ * @author Eric O. Scott
+ */
+public class SteadyStateCircleOfLife<T extends Individual<F>, P, F extends Fitness> extends CircleOfLife<T, F> {
+    public final static String P_INITIALIZER = "initializer";
+    public final static String P_EVALUATOR = "evaluator";
+    public final static String P_PARENT_SELECTOR = "parentSelector";
+    public final static String P_MATOR = "mator";
+    public final static String P_MUTATOR = "mutator";
+    public final static String P_REPLACEMENT_SELECTOR = "replacementSelector";
+    public final static String P_ALWAYS_REPLACE = "alwaysReplace";
+    public final static String P_COMPARATOR = "fitnessComparator";
+    public final static String P_METRICS = "metrics";
+    public final static String P_STOPPING_CONDITION = "stoppingCondition";
+    public final static String P_NUM_IN_FLIGHT = "numInFlight";
+    public final static String P_EXECUTOR = "executor";
+
+    private final Initializer<T> initializer;
+    private final EvaluationOperator<T, P, F> evaluator;
+    private final Selector<T> parentSelector;
+    private final Option<Mator<T>> mator;
+    private final Option<Mutator<T>> mutator;
+    private final Selector<T> replacementSelector;
+    private final boolean alwaysReplace;
+    private final FitnessComparator<T, F> fitnessComparator;
+    private final Option<List<PopulationMetric<T, F>>> metrics;
+    private final StoppingCondition<T, F> stoppingCondition;
+    private final int numInFlight;
+    private final EvaluationExecutor executor;
+
+    public SteadyStateCircleOfLife(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        initializer = parameters.getInstanceFromParameter(Parameters.push(base, P_INITIALIZER), Initializer.class);
+        evaluator = parameters.getInstanceFromParameter(Parameters.push(base, P_EVALUATOR), EvaluationOperator.class);
+        parentSelector = parameters.getInstanceFromParameter(Parameters.push(base, P_PARENT_SELECTOR), Selector.class);
+        mator = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_MATOR), Mator.class);
+        mutator = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_MUTATOR), Mutator.class);
+        if (!mator.isDefined() && !mutator.isDefined())
+            throw new IllegalStateException(String.format("%s: at least one of '%s' or '%s' must be defined.", this.getClass().getSimpleName(), Parameters.push(base, P_MATOR), Parameters.push(base, P_MUTATOR)));
+        replacementSelector = parameters.getInstanceFromParameter(Parameters.push(base, P_REPLACEMENT_SELECTOR), Selector.class);
+        alwaysReplace = parameters.getOptionalBooleanParameter(Parameters.push(base, P_ALWAYS_REPLACE), true);
+        fitnessComparator = parameters.getInstanceFromParameter(Parameters.push(base, P_COMPARATOR), ScalarFitnessComparator.class);
+        metrics = parameters.getOptionalInstancesFromParameter(Parameters.push(base, P_METRICS), PopulationMetric.class);
+        stoppingCondition = parameters.getInstanceFromParameter(Parameters.push(base, P_STOPPING_CONDITION), StoppingCondition.class);
+        final Option<EvaluationExecutor> sharedExecutor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        numInFlight = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_IN_FLIGHT), sharedExecutor.isDefined() ? sharedExecutor.get().getNumThreads() : Runtime.getRuntime().availableProcessors());
+        if (numInFlight < 1)
+            throw new IllegalStateException(String.format("%s: '%s' is %d, but must be positive.", this.getClass().getSimpleName(), Parameters.push(base, P_NUM_IN_FLIGHT), numInFlight));
+        executor = sharedExecutor.isDefined() ? sharedExecutor.get() : new EvaluationExecutor(numInFlight);
+        if (evaluator.isDeduplicating())
+            throw new IllegalStateException(String.format("%s: '%s' deduplicates, but children are evaluated one at a time.", this.getClass().getSimpleName(), Parameters.push(base, P_EVALUATOR)));
+        if (evaluator.waitsOnTasksIn(executor))
+            throw new IllegalStateException(String.format("%s: '%s' uses a timeout or speculative evaluation on the same executor as '%s'.  Give it its own executor.", this.getClass().getSimpleName(), Parameters.push(base, P_EVALUATOR), Parameters.push(base, P_EXECUTOR)));
+        assert(repOK());
+    }
+
+    @Override
+    public EvolutionResult<T, F> evolve(final int run) {
+        assert(run >= 0);
+        reset();
+        int step = 0;
+
+        // Initialize and evaluate the starting population
+        final Population<T, F> population = new Population<>(1, initializer);
+        population.setSubpopulation(0, evaluator.operate(run, step, population.getSubpopulation(0)));
+        // Breeding and replacement all happen on this thread, so we work on a private copy
+        final List<T> current = population.getSubpopulation(0);
+        final int populationSize = current.size();
+        T bestSoFarInd = Statistics.best(current, fitnessComparator);
+
+        final CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        final Deque<T> pendingChildren = new ArrayDeque<>();
+        int inFlight = 0;
+        try {
+            while (!stoppingCondition.stop(population, step)) {
+                // Take measurements
+                if (metrics.isDefined())
+                    for (final PopulationMetric<T, F> metric : metrics.get())
+                        metric.measurePopulation(run, step, population);
+
+                for (int completed = 0; completed < populationSize; completed++) {
+                    // Keep the evaluator saturated
+                    for (; inFlight < numInFlight; inFlight++)
+                        completionService.submit(new EvaluationTask(breed(step, current, pendingChildren), step));
+
+                    // Insert the next finished child as soon as it's ready
+                    final T child = completionService.take().get();
+                    inFlight--;
+                    final int replacementIndex = replacementSelector.selectIndividualIndex(current);
+                    if (alwaysReplace || fitnessComparator.betterThan(child, current.get(replacementIndex)))
+                        current.set(replacementIndex, child);
+                    if (fitnessComparator.betterThan(child, bestSoFarInd))
+                        bestSoFarInd = child;
+                }
+                population.setSubpopulation(0, current);
+                flushMetrics();
+                step++;
+            }
+
+            // Let the remaining evaluations finish so they don't leak into the next run
+            for (; inFlight > 0; inFlight--)
+                completionService.take().get();
+        }
+        catch (final InterruptedException | ExecutionException ex) {
+            Logger.getLogger(SteadyStateCircleOfLife.class.getName()).log(Level.SEVERE, null, ex);
+            throw new IllegalStateException(ex);
+        }
+
+        // Measure the final population
+        if (metrics.isDefined())
+            for (final PopulationMetric<T, F> metric : metrics.get())
+                metric.measurePopulation(run, step, population);
+
+        assert(repOK());
+        return new EvolutionResult<>(population, bestSoFarInd, bestSoFarInd.getFitness());
+    }
+
+    /** Produce a single unevaluated child.  If the Mator produces more than
+     * one child, the extras are saved in pendingChildren and used first on
+     * subsequent calls. */
+    private T breed(final int step, final List<T> current, final Deque<T> pendingChildren) {
+        assert(step >= 0);
+        assert(current != null);
+        assert(pendingChildren != null);
+        final T child;
+        if (!pendingChildren.isEmpty())
+            child = pendingChildren.removeFirst();
+        else if (mator.isDefined()) {
+            final int numParents = mator.get().getNumParents() > 0 ? mator.get().getNumParents() : 2;
+            final List<T> children = mator.get().mate(parentSelector.selectMultipleIndividuals(current, numParents));
+            assert(!children.isEmpty());
+            child = children.get(0);
+            pendingChildren.addAll(children.subList(1, children.size()));
+        }
+        else
+            child = parentSelector.selectIndividual(current);
+        return mutator.isDefined() ? mutator.get().mutate(child, step) : child;
+    }
+
+    private class EvaluationTask implements Callable<T> {
+        private final T ind;
+        private final int step;
+
+        EvaluationTask(final T ind, final int step) {
+            assert(ind != null);
+            assert(step >= 0);
+            this.ind = ind;
+            this.step = step;
+        }
+
+        @Override
+        public T call() throws Exception {
+            return evaluator.operateInd(ind, step);
+        }
+    }
+
+    /** Flush I/O buffers. */
+    private void flushMetrics() {
+        if (metrics.isDefined())
+            for (final PopulationMetric<T, F> metric: metrics.get())
+                metric.flush();
+    }
+
+    private void reset() {
+        stoppingCondition.reset();
+        if (metrics.isDefined())
+            for (final PopulationMetric<T, F> metric : metrics.get())
+                    metric.reset();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    final public boolean repOK() {
+        return P_INITIALIZER != null
+                && !P_INITIALIZER.isEmpty()
+                && P_EVALUATOR != null
+                && !P_EVALUATOR.isEmpty()
+                && P_PARENT_SELECTOR != null
+                && !P_PARENT_SELECTOR.isEmpty()
+                && P_MATOR != null
+                && !P_MATOR.isEmpty()
+                && P_MUTATOR != null
+                && !P_MUTATOR.isEmpty()
+                && P_REPLACEMENT_SELECTOR != null
+                && !P_REPLACEMENT_SELECTOR.isEmpty()
+                && P_ALWAYS_REPLACE != null
+                && !P_ALWAYS_REPLACE.isEmpty()
+                && P_COMPARATOR != null
+                && !P_COMPARATOR.isEmpty()
+                && P_METRICS != null
+                && !P_METRICS.isEmpty()
+                && P_STOPPING_CONDITION != null
+                && !P_STOPPING_CONDITION.isEmpty()
+                && P_NUM_IN_FLIGHT != null
+                && !P_NUM_IN_FLIGHT.isEmpty()
+                && P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
+                && initializer != null
+                && evaluator != null
+                && parentSelector != null
+                && mator != null
+                && mutator != null
+                && (mator.isDefined() || mutator.isDefined())
+                && replacementSelector != null
+                && fitnessComparator != null
+                && metrics != null
+                && !(metrics.isDefined() && Misc.containsNulls(metrics.get()))
+                && stoppingCondition != null
+                && numInFlight > 0
+                && executor != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%B, %s=%s, %s=%s, %s=%s, %s=%d, %s=%s]", this.getClass().getSimpleName(),
+                P_INITIALIZER, initializer,
+                P_EVALUATOR, evaluator,
+                P_PARENT_SELECTOR, parentSelector,
+                P_MATOR, mator,
+                P_MUTATOR, mutator,
+                P_REPLACEMENT_SELECTOR, replacementSelector,
+                P_ALWAYS_REPLACE, alwaysReplace,
+                P_COMPARATOR, fitnessComparator,
+                P_METRICS, metrics,
+                P_STOPPING_CONDITION, stoppingCondition,
+                P_NUM_IN_FLIGHT, numInFlight,
+                P_EXECUTOR, executor);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof SteadyStateCircleOfLife))
+            return false;
+
+        final SteadyStateCircleOfLife ref = (SteadyStateCircleOfLife) o;
+        return alwaysReplace == ref.alwaysReplace
+                && numInFlight == ref.numInFlight
+                && initializer.equals(ref.initializer)
+                && evaluator.equals(ref.evaluator)
+                && parentSelector.equals(ref.parentSelector)
+                && mator.equals(ref.mator)
+                && mutator.equals(ref.mutator)
+                && replacementSelector.equals(ref.replacementSelector)
+                && fitnessComparator.equals(ref.fitnessComparator)
+                && metrics.equals(ref.metrics)
+                && stoppingCondition.equals(ref.stoppingCondition)
+                && executor.equals(ref.executor);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 37 * hash + Objects.hashCode(this.initializer);
+        hash = 37 * hash + Objects.hashCode(this.evaluator);
+        hash = 37 * hash + Objects.hashCode(this.parentSelector);
+        hash = 37 * hash + Objects.hashCode(this.mator);
+        hash = 37 * hash + Objects.hashCode(this.mutator);
+        hash = 37 * hash + Objects.hashCode(this.replacementSelector);
+        hash = 37 * hash + (this.alwaysReplace ? 1 : 0);
+        hash = 37 * hash + Objects.hashCode(this.fitnessComparator);
+        hash = 37 * hash + Objects.hashCode(this.metrics);
+        hash = 37 * hash + Objects.hashCode(this.stoppingCondition);
+        hash = 37 * hash + this.numInFlight;
+        hash = 37 * hash + Objects.hashCode(this.executor);
+        return hash;
+    }
+    //</editor-fold>
+}
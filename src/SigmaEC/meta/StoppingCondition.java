@@ -2,6 +2,10 @@ package SigmaEC.meta;
 
 import SigmaEC.ContractObject;
 import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  * A StoppingCondition is used by a CircleOfLife to decide when to stop an evolutionary run.
@@ -11,8 +15,29 @@ import SigmaEC.represent.Individual;
 public abstract class StoppingCondition<T extends Individual<F>, F extends Fitness> extends ContractObject {
     /** Determine whether it's time to stop evolving this population. */
     public abstract boolean stop(final Population<T, F> population, final int step);
+    
+    /** Determine whether it's time to stop, reusing statistics that have
+     * already been computed for this step.  Conditions that can answer from
+     * the summary (ex. by looking at its best individual) should override this
+     * to avoid another pass over the population. */
+    public boolean stop(final PopulationSummary<T, F> summary, final int step) {
+        assert(summary != null);
+        return stop(summary.getPopulation(), step);
+    }
     /** Determine whether it's time to stop evolving this individual.  This is a convenience function for trajectory methods. */
     public abstract boolean stopInd(final T individual, final int step);
     /** Reset any mutable state between runs. */
     public abstract void reset();
+    
+    /** Save any mutable state to a checkpoint.  Stateless conditions need not
+     * override this. */
+    public void writeState(final DataOutputStream out, final IndividualCodec<T> codec) throws IOException {
+        // Do nothing
+    }
+    
+    /** Restore state that was saved with writeState().  Stateless conditions
+     * need not override this. */
+    public void readState(final DataInputStream in, final IndividualCodec<T> codec) throws IOException {
+        // Do nothing
+    }
 }
@@ -0,0 +1,100 @@
+package SigmaEC.meta;
+
+import SigmaEC.represent.Individual;
+import SigmaEC.select.ScalarFitnessComparator;
+import SigmaEC.util.Parameters;
+
+/**
+ * Stops a run as soon as its best individual is at least as good as the
+ * "target" fitness, according to "fitnessComparator" (so whether the target is
+ * a lower or an upper bound depends on whether the comparator minimizes).
+ *
+ * getHit() then reports the time-to-target: the step, wall-clock time, and (if
+ * a "counter" is given) number of evaluations it took to reach the target.
+ *
+ * @author Eric O. Scott
+ */
+public class TargetFitnessStoppingCondition<T extends Individual<F>, F extends Fitness> extends ThresholdStoppingCondition<T, F> {
+    public final static String P_TARGET = "target";
+    public final static String P_FITNESS_COMPARATOR = "fitnessComparator";
+
+    private final double target;
+    private final ScalarFitnessComparator<T, F> fitnessComparator;
+
+    public TargetFitnessStoppingCondition(final Parameters parameters, final String base) {
+        super(parameters, base);
+        target = parameters.getDoubleParameter(Parameters.push(base, P_TARGET));
+        if (Double.isNaN(target))
+            throw new IllegalStateException(String.format("%s: %s is NaN.", this.getClass().getSimpleName(), P_TARGET));
+        fitnessComparator = parameters.getInstanceFromParameter(Parameters.push(base, P_FITNESS_COMPARATOR), ScalarFitnessComparator.class);
+        assert(repOK());
+    }
+
+    @Override
+    public boolean stop(final Population<T, F> population, final int step) {
+        assert(population != null);
+        assert(step >= 0);
+        return stopInd(population.getBest(fitnessComparator), step);
+    }
+
+    @Override
+    public boolean stop(final PopulationSummary<T, F> summary, final int step) {
+        assert(summary != null);
+        assert(step >= 0);
+        if (!summary.getComparator().equals(fitnessComparator))
+            return stop(summary.getPopulation(), step);
+        return stopInd(summary.getBest(), step);
+    }
+
+    @Override
+    public boolean stopInd(final T individual, final int step) {
+        assert(step >= 0);
+        final boolean reached = individual != null
+                && individual.isEvaluated()
+                && fitnessComparator.compare(individual.getFitness().asScalar(), target) >= 0;
+        return record(reached, step);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return thresholdRepOK()
+                && P_TARGET != null
+                && !P_TARGET.isEmpty()
+                && P_FITNESS_COMPARATOR != null
+                && !P_FITNESS_COMPARATOR.isEmpty()
+                && !Double.isNaN(target)
+                && fitnessComparator != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof TargetFitnessStoppingCondition))
+            return false;
+        final TargetFitnessStoppingCondition ref = (TargetFitnessStoppingCondition)o;
+        return Double.doubleToLongBits(target) == Double.doubleToLongBits(ref.target)
+                && fitnessComparator.equals(ref.fitnessComparator)
+                && getCounter().equals(ref.getCounter());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 59 * hash + (int) (Double.doubleToLongBits(this.target) ^ (Double.doubleToLongBits(this.target) >>> 32));
+        hash = 59 * hash + fitnessComparator.hashCode();
+        hash = 59 * hash + getCounter().hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%f, %s=%s, %s=%s, hit=%s]", this.getClass().getSimpleName(),
+                P_TARGET, target,
+                P_FITNESS_COMPARATOR, fitnessComparator,
+                P_COUNTER, getCounter(),
+                getHit());
+    }
+    // </editor-fold>
+}
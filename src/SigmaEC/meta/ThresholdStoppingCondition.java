@@ -0,0 +1,179 @@
+package SigmaEC.meta;
+
+import SigmaEC.ContractObject;
+import SigmaEC.evaluate.EvaluationCounter;
+import SigmaEC.represent.Individual;
+import SigmaEC.represent.IndividualCodec;
+import SigmaEC.util.Option;
+import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Base class for stopping conditions that stop once some threshold has been
+ * reached, and that remember when it was first reached: the step, the
+ * wall-clock time since the start of the run, and (if a "counter" is given)
+ * the number of evaluations made since the start of the run.
+ *
+ * A run starts when reset() is called, which every CircleOfLife does before
+ * evaluating its initial population.
+ *
+ * @author Eric O. Scott
+ */
+public abstract class ThresholdStoppingCondition<T extends Individual<F>, F extends Fitness> extends StoppingCondition<T, F> {
+    public final static String P_COUNTER = "counter";
+
+    private final Option<EvaluationCounter> counter;
+    private long startNanos;
+    private long startEvaluations;
+    private Option<Hit> hit;
+
+    protected ThresholdStoppingCondition(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        counter = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_COUNTER), EvaluationCounter.class);
+        reset();
+    }
+
+    /** @return The counter given by the "counter" parameter, if any. */
+    protected final Option<EvaluationCounter> getCounter() {
+        return counter;
+    }
+
+    /** @return The time since the start of the run, in nanoseconds. */
+    protected final long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /** @return The number of evaluations made since the start of the run.
+     * Only valid if a counter was given. */
+    protected final long evaluationsUsed() {
+        assert(counter.isDefined());
+        return counter.get().get() - startEvaluations;
+    }
+
+    /** Remember the first step at which the threshold was reached.
+     * @return reached, so subclasses can write "return record(..., step);" */
+    protected final boolean record(final boolean reached, final int step) {
+        assert(step >= 0);
+        if (reached && !hit.isDefined()) {
+            final Option<Long> evaluations = counter.isDefined() ? new Option<>(evaluationsUsed()) : Option.NONE;
+            hit = new Option<>(new Hit(step, elapsedNanos()/1.0e9, evaluations));
+        }
+        return reached;
+    }
+
+    /** @return When the threshold was first reached during the current run,
+     * or nothing if it has not been reached yet. */
+    public Option<Hit> getHit() {
+        return hit;
+    }
+
+    @Override
+    public final void reset() {
+        startNanos = System.nanoTime();
+        startEvaluations = counter.isDefined() ? counter.get().get() : 0;
+        hit = Option.NONE;
+    }
+
+    /** Saves the time and evaluations used so far, rather than the absolute
+     * clock and counter values, so that a resumed run picks up its budget
+     * where it left off. */
+    @Override
+    public void writeState(final DataOutputStream out, final IndividualCodec<T> codec) throws IOException {
+        assert(out != null);
+        out.writeLong(elapsedNanos());
+        out.writeLong(counter.isDefined() ? evaluationsUsed() : 0);
+        out.writeBoolean(hit.isDefined());
+        if (hit.isDefined()) {
+            out.writeInt(hit.get().step);
+            out.writeDouble(hit.get().elapsedSeconds);
+            out.writeBoolean(hit.get().evaluations.isDefined());
+            if (hit.get().evaluations.isDefined())
+                out.writeLong(hit.get().evaluations.get());
+        }
+    }
+
+    @Override
+    public void readState(final DataInputStream in, final IndividualCodec<T> codec) throws IOException {
+        assert(in != null);
+        startNanos = System.nanoTime() - in.readLong();
+        final long evaluationsUsed = in.readLong();
+        startEvaluations = counter.isDefined() ? counter.get().get() - evaluationsUsed : 0;
+        if (in.readBoolean()) {
+            final int step = in.readInt();
+            final double elapsedSeconds = in.readDouble();
+            final Option<Long> evaluations = in.readBoolean() ? new Option<>(in.readLong()) : Option.NONE;
+            hit = new Option<>(new Hit(step, elapsedSeconds, evaluations));
+        }
+        else
+            hit = Option.NONE;
+    }
+
+    /** The point in a run at which a threshold was first reached. */
+    public static class Hit extends ContractObject {
+        private final int step;
+        private final double elapsedSeconds;
+        private final Option<Long> evaluations;
+
+        public Hit(final int step, final double elapsedSeconds, final Option<Long> evaluations) {
+            assert(evaluations != null);
+            this.step = step;
+            this.elapsedSeconds = elapsedSeconds;
+            this.evaluations = evaluations;
+            assert(repOK());
+        }
+
+        public int getStep() { return step; }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+        /** @return The number of evaluations made, if they were being counted. */
+        public Option<Long> getEvaluations() { return evaluations; }
+
+        // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+        @Override
+        public final boolean repOK() {
+            return step >= 0
+                    && elapsedSeconds >= 0.0
+                    && evaluations != null
+                    && !(evaluations.isDefined() && evaluations.get() < 0);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this)
+                return true;
+            if (!(o instanceof Hit))
+                return false;
+            final Hit ref = (Hit)o;
+            return step == ref.step
+                    && Double.doubleToLongBits(elapsedSeconds) == Double.doubleToLongBits(ref.elapsedSeconds)
+                    && evaluations.equals(ref.evaluations);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 3;
+            hash = 41 * hash + this.step;
+            hash = 41 * hash + (int) (Double.doubleToLongBits(this.elapsedSeconds) ^ (Double.doubleToLongBits(this.elapsedSeconds) >>> 32));
+            hash = 41 * hash + Objects.hashCode(this.evaluations);
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s: step=%d, elapsedSeconds=%f, evaluations=%s]", this.getClass().getSimpleName(),
+                    step, elapsedSeconds, evaluations);
+        }
+        // </editor-fold>
+    }
+
+    /** Subclasses should include this in their own repOK(). */
+    protected final boolean thresholdRepOK() {
+        return P_COUNTER != null
+                && !P_COUNTER.isEmpty()
+                && counter != null
+                && hit != null;
+    }
+}
@@ -0,0 +1,77 @@
+package SigmaEC.meta;
+
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Parameters;
+
+/**
+ * Stops a run once "maxSeconds" of wall-clock time have passed since it
+ * started.  The time is checked once per step, so a run may overshoot by up to
+ * one step.
+ *
+ * @author Eric O. Scott
+ */
+public class WallClockStoppingCondition<T extends Individual<F>, F extends Fitness> extends ThresholdStoppingCondition<T, F> {
+    public final static String P_MAX_SECONDS = "maxSeconds";
+
+    private final double maxSeconds;
+    private final long maxNanos;
+
+    public WallClockStoppingCondition(final Parameters parameters, final String base) {
+        super(parameters, base);
+        maxSeconds = parameters.getDoubleParameter(Parameters.push(base, P_MAX_SECONDS));
+        if (!(maxSeconds >= 0.0) || Double.isInfinite(maxSeconds))
+            throw new IllegalStateException(String.format("%s: %s is %f, but must be finite and >= 0.", this.getClass().getSimpleName(), P_MAX_SECONDS, maxSeconds));
+        maxNanos = (long) (maxSeconds*1.0e9);
+        assert(repOK());
+    }
+
+    @Override
+    public boolean stop(final Population<T, F> population, final int step) {
+        assert(step >= 0);
+        return record(elapsedNanos() >= maxNanos, step);
+    }
+
+    @Override
+    public boolean stopInd(final T individual, final int step) {
+        return stop((Population<T, F>) null, step);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return thresholdRepOK()
+                && P_MAX_SECONDS != null
+                && !P_MAX_SECONDS.isEmpty()
+                && maxSeconds >= 0.0
+                && !Double.isInfinite(maxSeconds)
+                && maxNanos >= 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof WallClockStoppingCondition))
+            return false;
+        final WallClockStoppingCondition ref = (WallClockStoppingCondition)o;
+        return maxNanos == ref.maxNanos
+                && getCounter().equals(ref.getCounter());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 37 * hash + (int) (this.maxNanos ^ (this.maxNanos >>> 32));
+        hash = 37 * hash + getCounter().hashCode();
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%f, %s=%s, hit=%s]", this.getClass().getSimpleName(),
+                P_MAX_SECONDS, maxSeconds,
+                P_COUNTER, getCounter(),
+                getHit());
+    }
+    // </editor-fold>
+}
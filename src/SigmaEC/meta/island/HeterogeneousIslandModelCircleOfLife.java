@@ -8,6 +8,7 @@ import SigmaEC.meta.Fitness;
 import SigmaEC.meta.Operator;
 import SigmaEC.meta.Population;
 import SigmaEC.meta.StoppingCondition;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.represent.Individual;
 import SigmaEC.represent.Initializer;
 import SigmaEC.util.Misc;
@@ -103,7 +104,7 @@ public class HeterogeneousIslandModelCircleOfLife<T extends Individual<F>, P, F
                 // Execute each island in parallel
                 final Collection<Callable<Void>> tasks = new ArrayList<>(topology.numIslands());
                 for (final IslandConfiguration isl : islands)
-                    tasks.add(new HeterogeneousIslandModelCircleOfLife.IslandStepper(run, step, isl, population));
+                    tasks.add(IDSpace.current().wrap(new HeterogeneousIslandModelCircleOfLife.IslandStepper(run, step, isl, population)));
                 try {
                     final List<Future<Void>> results = executor.invokeAll(tasks);
                     for (final Future<Void> f : results)
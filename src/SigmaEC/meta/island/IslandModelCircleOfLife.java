@@ -5,12 +5,17 @@ import SigmaEC.SRandom;
 import SigmaEC.evaluate.EvaluationOperator;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
 import SigmaEC.measure.PopulationMetric;
+import SigmaEC.measure.Profiler;
+import SigmaEC.meta.Checkpointer;
 import SigmaEC.meta.CircleOfLife;
+import SigmaEC.meta.DoubleVectorPopulation;
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.FitnessComparator;
 import SigmaEC.meta.Operator;
 import SigmaEC.meta.Population;
+import SigmaEC.meta.PopulationSummary;
 import SigmaEC.meta.StoppingCondition;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.represent.Individual;
 import SigmaEC.represent.Initializer;
 import SigmaEC.util.Misc;
@@ -31,6 +36,14 @@ import java.util.logging.Logger;
  * Communication among islands occurs as synchronous intervals, and the
  * operators and objective function used across the islands are homogeneous.
  * 
+ * If "randomStreams" is true, each island executes each step inside its own
+ * SRandom.Stream, so the islands draw from independent random number streams
+ * and the results don't depend on numThreads.
+ * 
+ * If a "profiler" is given, the time spent in each operator (summed over
+ * islands), in migration, in metrics, and in the islands' step as a whole is
+ * recorded in it every generation.
+ * 
  * @author Eric O. Scott
  */
 public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitness> extends CircleOfLife<T, F> {
@@ -46,6 +59,10 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
     public final static String P_IS_DYNAMIC = "isDynamic";
     public final static String P_STOPPING_CONDITION = "stoppingCondition";
     public final static String P_NUM_THREADS = "numThreads";
+    public final static String P_PRIMITIVE_POPULATION = "primitivePopulation";
+    public final static String P_CHECKPOINTER = "checkpointer";
+    public final static String P_RANDOM_STREAMS = "randomStreams";
+    public final static String P_PROFILER = "profiler";
     
     private final SRandom random;
     private final Topology topology;
@@ -59,6 +76,10 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
     private final StoppingCondition<T, F> stoppingCondition;
     private final boolean isDynamic;
     private final int numThreads;
+    private final boolean primitivePopulation;
+    private final Option<Checkpointer<T, F>> checkpointer;
+    private final boolean randomStreams;
+    private final Option<Profiler> profiler;
     
     public IslandModelCircleOfLife(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -75,6 +96,10 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
         metrics = parameters.getOptionalInstancesFromParameter(Parameters.push(base, P_METRICS), PopulationMetric.class);
         stoppingCondition = parameters.getInstanceFromParameter(Parameters.push(base, P_STOPPING_CONDITION), StoppingCondition.class);
         numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), topology.numIslands());
+        primitivePopulation = parameters.getOptionalBooleanParameter(Parameters.push(base, P_PRIMITIVE_POPULATION), false);
+        checkpointer = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_CHECKPOINTER), Checkpointer.class);
+        randomStreams = parameters.getOptionalBooleanParameter(Parameters.push(base, P_RANDOM_STREAMS), false);
+        profiler = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_PROFILER), Profiler.class);
         assert(repOK());
     }
     
@@ -85,77 +110,149 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
         int step = 0;
         T bestSoFarInd = null;
         
-        // Initialize subpopulations
-        final Population<T, F> population = new Population<>(topology.numIslands(), initializer);
-        // Evaluate initial subpopulations
-        for (int i = 0; i < population.numSuppopulations(); i++)
-            population.setSubpopulation(i, evaluator.operate(run, step, population.getSubpopulation(i)));
+        final Option<Checkpointer.Checkpoint<T, F>> checkpoint = checkpointer.isDefined() ?
+                checkpointer.get().resume(run, stoppingCondition)
+                : Option.NONE;
+        final Population<T, F> population;
+        if (checkpoint.isDefined()) {
+            // Pick up where a previous, interrupted run left off
+            assert(checkpoint.get().getSubpopulations().length == topology.numIslands());
+            step = checkpoint.get().getStep();
+            bestSoFarInd = checkpoint.get().getBestSoFar().isDefined() ? checkpoint.get().getBestSoFar().get() : null;
+            population = primitivePopulation ?
+                    (Population<T, F>) (Population) new DoubleVectorPopulation((List[]) checkpoint.get().getSubpopulations())
+                    : new Population<>(checkpoint.get().getSubpopulations());
+            if (isDynamic && step > 0)
+                objective.setStep(step - 1);
+        }
+        else {
+            // Initialize subpopulations
+            population = primitivePopulation ?
+                    (Population<T, F>) (Population) new DoubleVectorPopulation(topology.numIslands(), (Initializer) initializer)
+                    : new Population<>(topology.numIslands(), initializer);
+            // Evaluate initial subpopulations
+            final long start = System.nanoTime();
+            for (int i = 0; i < population.numSuppopulations(); i++)
+                population.setSubpopulation(i, evaluator.operate(run, step, population.getSubpopulation(i)));
+            if (profiler.isDefined())
+                profiler.get().recordSince(P_EVALUATOR, start);
+        }
         
         final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        while (!(stoppingCondition.stop(population, step))) {
-            // Take measurements
-            if (metrics.isDefined())
-                for (PopulationMetric<T, F> metric : metrics.get())
-                    metric.measurePopulation(run, step, population);
+        // Fitness statistics are computed once per step (one island per thread) and shared by the stopping condition and metrics
+        PopulationSummary<T, F> summary;
+        try {
+            summary = summarize(population, bestSoFarInd, executor);
+            while (!(stoppingCondition.stop(summary, step))) {
+                // Take measurements
+                measure(run, step, summary);
             
-            // Execute each island in parallel
-            final Collection<Callable<Void>> tasks = new ArrayList<>(topology.numIslands());
-            for (int i = 0; i < topology.numIslands(); i++)
-                tasks.add(new IslandStepper(run, step, population, i));
-            try {
-                executor.invokeAll(tasks);
-            } catch (final InterruptedException ex) {
-                Logger.getLogger(IslandModelCircleOfLife.class.getName()).log(Level.SEVERE, null, ex);
-            }
+                // Execute each island in parallel
+                final Option<Long> streamRoot = randomStreams ? new Option<>(random.nextLong()) : Option.NONE;
+                final Collection<Callable<Void>> tasks = new ArrayList<>(topology.numIslands());
+                for (int i = 0; i < topology.numIslands(); i++)
+                    tasks.add(IDSpace.current().wrap(new IslandStepper(run, step, population, i, streamRoot)));
+                final long islandsStart = System.nanoTime();
+                try {
+                    executor.invokeAll(tasks);
+                } catch (final InterruptedException ex) {
+                    Logger.getLogger(IslandModelCircleOfLife.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                if (profiler.isDefined())
+                    profiler.get().recordSince("islands", islandsStart);
             
-            migrationPolicy.migrateAll(step, population, topology);
+                final long migrationStart = System.nanoTime();
+                migrationPolicy.migrateAll(step, population, topology);
+                if (profiler.isDefined())
+                    profiler.get().recordSince(Profiler.componentName(P_MIGRATION, migrationPolicy), migrationStart);
 
-            if (isDynamic)
-                objective.setStep(step);
+                if (isDynamic)
+                    objective.setStep(step);
             
-            // Update our local best-so-far variable
-            final T bestOfGen = population.getBest(fitnessComparator);
-            if (fitnessComparator.betterThan(bestOfGen, bestSoFarInd)) 
-                bestSoFarInd = bestOfGen;
-            flushMetrics();
-            step++;
+                // Update our local best-so-far variable
+                summary = summarize(population, bestSoFarInd, executor);
+                bestSoFarInd = summary.getBestSoFar();
+                flushMetrics();
+                step++;
+                if (checkpointer.isDefined())
+                    checkpointer.get().checkpoint(run, step, population, bestSoFarInd, stoppingCondition);
+            }
+        } finally {
+            executor.shutdown();
         }
-        executor.shutdown();
+        if (checkpointer.isDefined())
+            checkpointer.get().flush();
         
         // Measure final population
-        if (metrics.isDefined())
-            for (PopulationMetric<T, F> metric : metrics.get())
-                metric.measurePopulation(run, step, population);
+        measure(run, step, summary);
         
         assert(repOK());
         return new EvolutionResult<>(population, bestSoFarInd, bestSoFarInd.getFitness());
     }
     
+    private PopulationSummary<T, F> summarize(final Population<T, F> population, final T previousBestSoFar, final ExecutorService executor) {
+        final long start = System.nanoTime();
+        final PopulationSummary<T, F> summary = new PopulationSummary<>(population, fitnessComparator, previousBestSoFar, executor, 1);
+        if (profiler.isDefined())
+            profiler.get().recordSince("summary", start);
+        return summary;
+    }
+    
+    private void measure(final int run, final int step, final PopulationSummary<T, F> summary) {
+        if (!metrics.isDefined())
+            return;
+        for (int j = 0; j < metrics.get().size(); j++) {
+            final PopulationMetric<T, F> metric = metrics.get().get(j);
+            final long start = System.nanoTime();
+            metric.measurePopulation(run, step, summary);
+            if (profiler.isDefined())
+                profiler.get().recordSince(Profiler.componentName(P_METRICS, j, metric), start);
+        }
+    }
+    
     private class IslandStepper extends ContractObject implements Callable<Void> {
         private final Population<T, F> population;
         private final int subpopulation;
         private final int run;
         private final int generation;
+        private final Option<Long> streamRoot;
         
-        IslandStepper(final int run, final int generation, final Population<T, F> population, final int populationID) {
+        IslandStepper(final int run, final int generation, final Population<T, F> population, final int populationID, final Option<Long> streamRoot) {
             assert(run >= 0);
             assert(generation >= 0);
             assert(population != null);
+            assert(streamRoot != null);
             this.run = run;
             this.generation = generation;
             this.population = population;
             this.subpopulation = populationID;
+            this.streamRoot = streamRoot;
             assert(repOK());
         }
         
         @Override
         public Void call() {
+            if (!streamRoot.isDefined())
+                return applyOperators();
+            final SRandom.Stream stream = SRandom.openStream(streamRoot.get(), subpopulation);
+            try {
+                return applyOperators();
+            } finally {
+                stream.close();
+            }
+        }
+        
+        private Void applyOperators() {
             // Apply operators
-            for (final Operator<T> gen : operators) {
+            for (int j = 0; j < operators.size(); j++) {
+                final Operator<T> gen = operators.get(j);
+                final long start = System.nanoTime();
                 final List<T> newSubpop = gen.operate(run, generation, population.getSubpopulation(subpopulation));
                 synchronized (population) {
                     population.setSubpopulation(subpopulation, newSubpop);
                 }
+                if (profiler.isDefined())
+                    profiler.get().recordSince(Profiler.componentName(P_OPERATORS, j, gen), start);
             }
             return null;
         }
@@ -166,6 +263,7 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
             return run >= 0
                     && generation >= 0
                     && population != null
+                    && streamRoot != null
                     && subpopulation >= 0
                     && subpopulation < population.numSuppopulations();
         }
@@ -226,6 +324,8 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
                 && !P_INITIALIZER.isEmpty()
                 && P_IS_DYNAMIC != null
                 && !P_IS_DYNAMIC.isEmpty()
+                && P_PRIMITIVE_POPULATION != null
+                && !P_PRIMITIVE_POPULATION.isEmpty()
                 && P_METRICS != null
                 && !P_METRICS.isEmpty()
                 && P_OBJECTIVE != null
@@ -240,6 +340,13 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
                 && !P_TOPOLOGY.isEmpty()
                 && P_MIGRATION != null
                 && !P_MIGRATION.isEmpty()
+                && P_CHECKPOINTER != null
+                && !P_CHECKPOINTER.isEmpty()
+                && P_RANDOM_STREAMS != null
+                && !P_RANDOM_STREAMS.isEmpty()
+                && P_PROFILER != null
+                && !P_PROFILER.isEmpty()
+                && profiler != null
                 && random != null
                 && topology != null
                 && migrationPolicy != null
@@ -252,7 +359,8 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
                 && fitnessComparator != null
                 && metrics != null
                 && !(metrics.isDefined() && (metrics.get().isEmpty() || Misc.containsNulls(metrics.get())))
-                && stoppingCondition != null;
+                && stoppingCondition != null
+                && checkpointer != null;
     }
 
     @Override
@@ -263,6 +371,7 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
             return false;
         final IslandModelCircleOfLife ref = (IslandModelCircleOfLife)o;
         return isDynamic == ref.isDynamic
+                && primitivePopulation == ref.primitivePopulation
                 && random.equals(ref.random)
                 && topology.equals(ref.topology)
                 && migrationPolicy.equals(ref.migrationPolicy)
@@ -273,6 +382,9 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
                 && fitnessComparator.equals(ref.fitnessComparator)
                 && metrics.equals(ref.metrics)
                 && stoppingCondition.equals(ref.stoppingCondition)
+                && checkpointer.equals(ref.checkpointer)
+                && randomStreams == ref.randomStreams
+                && profiler.equals(ref.profiler)
                 && numThreads == topology.numIslands();
     }
 
@@ -291,12 +403,16 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
         hash = 73 * hash + Objects.hashCode(this.stoppingCondition);
         hash = 73 * hash + (this.isDynamic ? 1 : 0);
         hash = 73 * hash + this.numThreads;
+        hash = 73 * hash + (this.primitivePopulation ? 1 : 0);
+        hash = 73 * hash + Objects.hashCode(this.checkpointer);
+        hash = 73 * hash + (this.randomStreams ? 1 : 0);
+        hash = 73 * hash + Objects.hashCode(this.profiler);
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%B, %s=%d]", this.getClass().getSimpleName(),
+        return String.format("[%s: %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%B, %s=%d, %s=%B, %s=%s, %s=%B, %s=%s]", this.getClass().getSimpleName(),
                 P_RANDOM, random,
                 P_TOPOLOGY, topology,
                 P_MIGRATION, migrationPolicy,
@@ -307,7 +423,11 @@ public class IslandModelCircleOfLife<T extends Individual<F>, P, F extends Fitne
                 P_METRICS, metrics,
                 P_STOPPING_CONDITION, stoppingCondition,
                 P_IS_DYNAMIC, isDynamic,
-                P_NUM_THREADS, numThreads);
+                P_NUM_THREADS, numThreads,
+                P_PRIMITIVE_POPULATION, primitivePopulation,
+                P_CHECKPOINTER, checkpointer,
+                P_RANDOM_STREAMS, randomStreams,
+                P_PROFILER, profiler);
     }
     // </editor-fold>
 }
@@ -1,6 +1,7 @@
 package SigmaEC.meta.island;
 
 import SigmaEC.SRandom;
+import SigmaEC.evaluate.EvaluationExecutor;
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.FitnessComparator;
 import SigmaEC.meta.Population;
@@ -18,8 +19,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +27,11 @@ import java.util.logging.Logger;
  * randomly selected islands.  This method ignores the connection topology
  * among islands.
  * 
+ * If randomStreams is true, each injection draws its random numbers from its
+ * own SRandom.Stream (keyed by the injection's index), so the individuals that
+ * are generated do not depend on how the injections are scheduled onto
+ * threads.
+ * 
  * @author Eric O. Scott
  */
 public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends Fitness> extends MigrationPolicy<T, F> {
@@ -41,6 +45,8 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
     public final static String P_PREFIX = "prefix";
     public final static String P_LOG_FILE = "logFile";
     public final static String P_NUM_THREADS = "numThreads";
+    public final static String P_EXECUTOR = "executor";
+    public final static String P_RANDOM_STREAMS = "randomStreams";
     
     private final SRandom random;
     private final int interval;
@@ -51,6 +57,8 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
     private final FitnessComparator<T, F> fitnessComparator;
     private final Writer writer;
     private final int numThreads;
+    private final EvaluationExecutor executor;
+    private final boolean randomStreams;
     
     public RandomInjectionMigrationPolicy(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -60,9 +68,20 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
         numInjections = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_INJECTIONS));
         initializer = parameters.getInstanceFromParameter(Parameters.push(base, P_INITIALIZER), Initializer.class);
         replacementSelector = parameters.getInstanceFromParameter(Parameters.push(base, P_REPLACEMENT_SELECTOR), Selector.class);
-        numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+        final Option<EvaluationExecutor> sharedExecutor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        if (sharedExecutor.isDefined()) {
+            if (parameters.isDefined(Parameters.push(base, P_NUM_THREADS)))
+                throw new IllegalStateException(String.format("%s: both '%s' and '%s' are defined.  Set the number of threads on the executor instead.", this.getClass().getSimpleName(), Parameters.push(base, P_NUM_THREADS), Parameters.push(base, P_EXECUTOR)));
+            executor = sharedExecutor.get();
+            numThreads = executor.getNumThreads();
+        }
+        else {
+            numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+            executor = new EvaluationExecutor(numThreads);
+        }
         alwaysReplace = parameters.getBooleanParameter(Parameters.push(base, P_ALWAYS_REPLACE));
         fitnessComparator = parameters.getInstanceFromParameter(Parameters.push(base, P_COMPARATOR), FitnessComparator.class);
+        randomStreams = parameters.getOptionalBooleanParameter(Parameters.push(base, P_RANDOM_STREAMS), false);
         
         final Option<String> file = parameters.getOptionalStringParameter(Parameters.push(base, P_LOG_FILE));
         if (file.isDefined()) {
@@ -97,7 +116,7 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
         if ((step % interval) != 0)
             return;
         
-        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final Option<Long> streamRoot = randomStreams ? new Option<>(random.nextLong()) : Option.NONE;
         final Collection<Callable<Void>> tasks = new ArrayList<Callable<Void>>(topology.numIslands()) {{
             final int numIndsToGenerate = numInjections.isDefined() ? numInjections.get() : topology.numIslands();
             // For each island
@@ -105,9 +124,9 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
                 // Randomly choose a destination from the set of all islands
                 final int target = random.nextInt(topology.numIslands());
                 if (islandConfigs.isDefined())
-                    add(new InjectionThread(step, target, population, new Option(islandConfigs.get().get(target))));
+                    add(new InjectionThread(step, i, target, population, new Option(islandConfigs.get().get(target)), streamRoot));
                 else
-                    add(new InjectionThread(step, target, population, Option.NONE));
+                    add(new InjectionThread(step, i, target, population, Option.NONE, streamRoot));
             }
         }};
         try {
@@ -116,20 +135,21 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
             Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, null, ex);
             throw new IllegalStateException(ex);
         }
-        finally {
-            executor.shutdown();
-        }
         assert(repOK());
     }
     
     private class InjectionThread implements Callable<Void> {
         private final int step;
+        private final int injection;
         private final int target;
         private final Population<T, F> population;
         private final Option<IslandConfiguration> targetIsland;
+        private final Option<Long> streamRoot;
     
-        public InjectionThread(final int step, final int targetPopIndex, final Population<T, F> population, final Option<IslandConfiguration> targetIsland) {
+        public InjectionThread(final int step, final int injection, final int targetPopIndex, final Population<T, F> population, final Option<IslandConfiguration> targetIsland, final Option<Long> streamRoot) {
             assert(step >= 0);
+            assert(injection >= 0);
+            assert(streamRoot != null);
             assert(population != null);
             assert(targetIsland != null);
             assert(targetPopIndex >= 0);
@@ -138,10 +158,23 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
             this.target = targetPopIndex;
             this.population = population;
             this.targetIsland = targetIsland;
+            this.injection = injection;
+            this.streamRoot = streamRoot;
         }
         
         @Override
         public Void call() {
+            if (!streamRoot.isDefined())
+                return inject();
+            final SRandom.Stream stream = SRandom.openStream(streamRoot.get(), injection);
+            try {
+                return inject();
+            } finally {
+                stream.close();
+            }
+        }
+        
+        private Void inject() {
             final List<T> targetPop = population.getSubpopulation(target);
             
             final T sourceInd = targetIsland.isDefined() ?
@@ -199,6 +232,10 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
                 && !P_LOG_FILE.isEmpty()
                 && P_NUM_THREADS != null
                 && !P_NUM_THREADS.isEmpty()
+                && P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
+                && P_RANDOM_STREAMS != null
+                && !P_RANDOM_STREAMS.isEmpty()
                 && random != null
                 && interval > 0
                 && numInjections != null
@@ -207,6 +244,7 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
                 && replacementSelector != null
                 && fitnessComparator != null
                 && numThreads > 0
+                && executor != null
                 && writer != null;
     }
 
@@ -219,6 +257,7 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
         final RandomInjectionMigrationPolicy ref = (RandomInjectionMigrationPolicy)o;
         return interval == ref.interval
                 && alwaysReplace == ref.alwaysReplace
+                && randomStreams == ref.randomStreams
                 && numThreads == ref.numThreads
                 && numInjections.equals(ref.numInjections)
                 && random.equals(ref.random)
@@ -238,19 +277,21 @@ public class RandomInjectionMigrationPolicy<T extends Individual<F>, F extends F
         hash = 59 * hash + Objects.hashCode(this.replacementSelector);
         hash = 59 * hash + (this.alwaysReplace ? 1 : 0);
         hash = 59 * hash + Objects.hashCode(this.fitnessComparator);
+        hash = 59 * hash + (this.randomStreams ? 1 : 0);
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("[%s: %s=%B, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+        return String.format("[%s: %s=%B, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s, %s=%s, %s=%B]", this.getClass().getSimpleName(),
                 P_ALWAYS_REPLACE, alwaysReplace,
                 P_INTERVAL, interval,
                 P_NUM_INJECTIONS, numInjections,
                 P_COMPARATOR, fitnessComparator,
                 P_RANDOM, random,
                 P_INITIALIZER, initializer,
-                P_REPLACEMENT_SELECTOR, replacementSelector);
+                P_REPLACEMENT_SELECTOR, replacementSelector,
+                P_RANDOM_STREAMS, randomStreams);
     }
     // </editor-fold>
 }
@@ -1,6 +1,7 @@
 package SigmaEC.meta.island;
 
 import SigmaEC.SRandom;
+import SigmaEC.evaluate.EvaluationExecutor;
 import SigmaEC.meta.Fitness;
 import SigmaEC.meta.FitnessComparator;
 import SigmaEC.meta.Population;
@@ -19,8 +20,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +28,11 @@ import java.util.logging.Logger;
  * to some other randomly chosen neighbor every time a fixed interval of generations
  * passes.
  * 
+ * If randomStreams is true, each source island's migration draws its random
+ * numbers from its own SRandom.Stream, so the choice of emigrants and of the
+ * individuals they replace does not depend on how migrations are scheduled
+ * onto threads.
+ * 
  * @author Eric O. Scott
  */
 public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> extends MigrationPolicy<T, F> {
@@ -41,6 +45,8 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
     public final static String P_PREFIX = "prefix";
     public final static String P_LOG_FILE = "logFile";
     public final static String P_NUM_THREADS = "numThreads";
+    public final static String P_EXECUTOR = "executor";
+    public final static String P_RANDOM_STREAMS = "randomStreams";
     
     private final SRandom random;
     private final int interval;
@@ -50,6 +56,8 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
     private final FitnessComparator<T, F> fitnessComparator;
     private final Writer writer;
     private final int numThreads;
+    private final EvaluationExecutor executor;
+    private final boolean randomStreams;
     
     public RandomMigrationPolicy(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -58,9 +66,20 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
         interval = parameters.getIntParameter(Parameters.push(base, P_INTERVAL));
         sourceSelector = parameters.getInstanceFromParameter(Parameters.push(base, P_SOURCE_SELECTOR), Selector.class);
         replacementSelector = parameters.getInstanceFromParameter(Parameters.push(base, P_REPLACEMENT_SELECTOR), Selector.class);
-        numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+        final Option<EvaluationExecutor> sharedExecutor = parameters.getOptionalInstanceFromParameter(Parameters.push(base, P_EXECUTOR), EvaluationExecutor.class);
+        if (sharedExecutor.isDefined()) {
+            if (parameters.isDefined(Parameters.push(base, P_NUM_THREADS)))
+                throw new IllegalStateException(String.format("%s: both '%s' and '%s' are defined.  Set the number of threads on the executor instead.", this.getClass().getSimpleName(), Parameters.push(base, P_NUM_THREADS), Parameters.push(base, P_EXECUTOR)));
+            executor = sharedExecutor.get();
+            numThreads = executor.getNumThreads();
+        }
+        else {
+            numThreads = parameters.getOptionalIntParameter(Parameters.push(base, P_NUM_THREADS), Runtime.getRuntime().availableProcessors());
+            executor = new EvaluationExecutor(numThreads);
+        }
         alwaysReplace = parameters.getBooleanParameter(Parameters.push(base, P_ALWAYS_REPLACE));
         fitnessComparator = parameters.getInstanceFromParameter(Parameters.push(base, P_COMPARATOR), FitnessComparator.class);
+        randomStreams = parameters.getOptionalBooleanParameter(Parameters.push(base, P_RANDOM_STREAMS), false);
         final Option<String> file = parameters.getOptionalStringParameter(Parameters.push(base, P_LOG_FILE));
         if (file.isDefined()) {
             final String prefix = parameters.getOptionalStringParameter(Parameters.push(base, P_PREFIX), "");
@@ -94,7 +113,7 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
         if ((step % interval) != 0)
             return;
         
-        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final Option<Long> streamRoot = randomStreams ? new Option<>(random.nextLong()) : Option.NONE;
         final Collection<Callable<Void>> tasks = new ArrayList<Callable<Void>>(topology.numIslands()) {{
             // For each island
             for (int source = 0; source < topology.numIslands(); source++) {
@@ -105,9 +124,9 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
                 assert(target >= 0);
                 assert(target < population.numSuppopulations());
                 if (islandConfigs.isDefined())
-                    add(new MigrationThread(step, source, target, population, new Option(islandConfigs.get().get(target))));
+                    add(new MigrationThread(step, source, target, population, new Option(islandConfigs.get().get(target)), streamRoot));
                 else
-                    add(new MigrationThread(step, source, target, population, Option.NONE));
+                    add(new MigrationThread(step, source, target, population, Option.NONE, streamRoot));
             }
         }};
         try {
@@ -116,9 +135,6 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
             Logger.getLogger(this.getClass().getName()).log(Level.SEVERE, null, ex);
             throw new IllegalStateException(ex);
         }
-        finally {
-            executor.shutdown();
-        }
         assert(repOK());
     }
     
@@ -128,9 +144,11 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
         private final int target;
         private final Population<T, F> population;
         private final Option<IslandConfiguration> targetIsland;
+        private final Option<Long> streamRoot;
     
-        public MigrationThread(final int step, final int sourcePopIndex, final int targetPopIndex, final Population<T, F> population, final Option<IslandConfiguration> targetIsland) {
+        public MigrationThread(final int step, final int sourcePopIndex, final int targetPopIndex, final Population<T, F> population, final Option<IslandConfiguration> targetIsland, final Option<Long> streamRoot) {
             assert(step >= 0);
+            assert(streamRoot != null);
             assert(population != null);
             assert(targetIsland != null);
             assert(sourcePopIndex >= 0);
@@ -143,10 +161,22 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
             this.target = targetPopIndex;
             this.population = population;
             this.targetIsland = targetIsland;
+            this.streamRoot = streamRoot;
         }
         
         @Override
         public Void call() {
+            if (!streamRoot.isDefined())
+                return migrate();
+            final SRandom.Stream stream = SRandom.openStream(streamRoot.get(), source);
+            try {
+                return migrate();
+            } finally {
+                stream.close();
+            }
+        }
+        
+        private Void migrate() {
             final List<T> sourcePop = population.getSubpopulation(source);
             final List<T> targetPop = population.getSubpopulation(target);
             // Select an individual from the source population
@@ -202,14 +232,19 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
                 && !P_SOURCE_SELECTOR.isEmpty()
                 && P_NUM_THREADS != null
                 && !P_NUM_THREADS.isEmpty()
+                && P_EXECUTOR != null
+                && !P_EXECUTOR.isEmpty()
                 && P_LOG_FILE != null
                 && !P_LOG_FILE.isEmpty()
+                && P_RANDOM_STREAMS != null
+                && !P_RANDOM_STREAMS.isEmpty()
                 && random != null
                 && interval > 0
                 && sourceSelector != null
                 && replacementSelector != null
                 && fitnessComparator != null
                 && numThreads > 0
+                && executor != null
                 && writer != null;
     }
 
@@ -223,6 +258,7 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
         return interval == ref.interval
                 && numThreads == ref.numThreads
                 && alwaysReplace == ref.alwaysReplace
+                && randomStreams == ref.randomStreams
                 && writer.equals(ref.writer)
                 && random.equals(ref.random)
                 && sourceSelector.equals(ref.sourceSelector)
@@ -241,12 +277,13 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
         hash = 23 * hash + Objects.hashCode(this.fitnessComparator);
         hash = 23 * hash + Objects.hashCode(this.writer);
         hash = 23 * hash + this.numThreads;
+        hash = 23 * hash + (this.randomStreams ? 1 : 0);
         return hash;
     }
 
     @Override
     public String toString() {
-        return String.format("[%s: %s=%d, %s=%B, %s=%s, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s]", this.getClass().getSimpleName(),
+        return String.format("[%s: %s=%d, %s=%B, %s=%s, %s=%d, %s=%s, %s=%s, %s=%s, %s=%s, %s=%B]", this.getClass().getSimpleName(),
                 P_NUM_THREADS, numThreads,
                 P_ALWAYS_REPLACE, alwaysReplace,
                 P_LOG_FILE, writer,
@@ -254,7 +291,8 @@ public class RandomMigrationPolicy<T extends Individual<F>, F extends Fitness> e
                 P_COMPARATOR, fitnessComparator,
                 P_RANDOM, random,
                 P_SOURCE_SELECTOR, sourceSelector,
-                P_REPLACEMENT_SELECTOR, replacementSelector);
+                P_REPLACEMENT_SELECTOR, replacementSelector,
+                P_RANDOM_STREAMS, randomStreams);
     }
     // </editor-fold>
 }
@@ -0,0 +1,94 @@
+package SigmaEC.meta.island;
+
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.meta.Fitness;
+import SigmaEC.meta.FitnessComparator;
+import SigmaEC.meta.Operator;
+import SigmaEC.represent.Individual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads each island's configuration directly from the parameters, as
+ * "island.0.objective", "island.0.evaluator", "island.0.operators", and so on
+ * up to numIslands - 1.  An island's fitnessComparator and isDynamic may be
+ * left out, in which case defaultFitnessComparator and defaultIsDynamic are
+ * used.
+ *
+ * @author Eric O. Scott
+ */
+public class SimpleIslandGenerator<T extends Individual<F>, P, F extends Fitness> extends IslandGenerator<T, P, F> {
+    public final static String P_NUM_ISLANDS = "numIslands";
+    public final static String P_ISLAND = "island";
+    public final static String P_OBJECTIVE = "objective";
+    public final static String P_EVALUATOR = "evaluator";
+    public final static String P_OPERATORS = "operators";
+    public final static String P_FITNESS_COMPARATOR = "fitnessComparator";
+    public final static String P_IS_DYNAMIC = "isDynamic";
+    public final static String P_DEFAULT_FITNESS_COMPARATOR = "defaultFitnessComparator";
+    public final static String P_DEFAULT_IS_DYNAMIC = "defaultIsDynamic";
+
+    private final List<IslandConfiguration<T, P, F>> islands;
+
+    public SimpleIslandGenerator(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        final int numIslands = parameters.getIntParameter(Parameters.push(base, P_NUM_ISLANDS));
+        if (numIslands < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_NUM_ISLANDS, numIslands));
+        islands = new ArrayList<>(numIslands);
+        for (int i = 0; i < numIslands; i++) {
+            final String islandBase = Parameters.push(Parameters.push(base, P_ISLAND), String.valueOf(i));
+            final ObjectiveFunction<P, F> objective = parameters.getInstanceFromParameter(Parameters.push(islandBase, P_OBJECTIVE), ObjectiveFunction.class);
+            final EvaluationOperator<T, P, F> evaluator = parameters.getInstanceFromParameter(Parameters.push(islandBase, P_EVALUATOR), EvaluationOperator.class);
+            final List<Operator<T>> operators = parameters.getInstancesFromParameter(Parameters.push(islandBase, P_OPERATORS), Operator.class);
+            final FitnessComparator<T, F> fitnessComparator = parameters.getOptionalInstanceFromParameter(Parameters.push(islandBase, P_FITNESS_COMPARATOR), Parameters.push(base, P_DEFAULT_FITNESS_COMPARATOR), FitnessComparator.class);
+            final boolean isDynamic = parameters.getOptionalBooleanParameter(Parameters.push(islandBase, P_IS_DYNAMIC), Parameters.push(base, P_DEFAULT_IS_DYNAMIC), false);
+            islands.add(new IslandConfiguration<T, P, F>(i, evaluator, operators, objective, fitnessComparator, isDynamic));
+        }
+        assert(repOK());
+    }
+
+    @Override
+    public List<IslandConfiguration<T, P, F>> getIslands() {
+        return new ArrayList<>(islands);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_NUM_ISLANDS != null
+                && !P_NUM_ISLANDS.isEmpty()
+                && P_ISLAND != null
+                && !P_ISLAND.isEmpty()
+                && islands != null
+                && !islands.isEmpty()
+                && !islands.contains(null);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof SimpleIslandGenerator))
+            return false;
+        final SimpleIslandGenerator ref = (SimpleIslandGenerator)o;
+        return islands.equals(ref.islands);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 67 * hash + Objects.hashCode(this.islands);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: islands=%s]", this.getClass().getSimpleName(), islands);
+    }
+    // </editor-fold>
+}
@@ -1,7 +1,6 @@
 package SigmaEC.operate;
 
 import SigmaEC.SRandom;
-import SigmaEC.represent.Individual;
 import SigmaEC.represent.linear.BitGene;
 import SigmaEC.represent.linear.LinearGenomeIndividual;
 import SigmaEC.util.Parameters;
@@ -61,11 +60,11 @@ public class BitGeneMutator extends Mutator<LinearGenomeIndividual<BitGene, ?>>
             double roll = random.nextDouble();
             newGenome.add((roll < mutationRate.getRateForGene(i, step, ind)) ? mutate(genome.get(i)) : genome.get(i));
         }
-        final List<? extends Individual> parents = ind.hasParents() ?
-                ind.getParents().get() :
-                new ArrayList<Individual>() {{ add(ind); }};
+        final long[] parentIDs = ind.hasParents() ?
+                ind.getParentIDs().get() :
+                new long[] { ind.getID() };
         assert(repOK());
-        return ind.create(newGenome, parents);
+        return ind.create(newGenome, parentIDs);
     }
     
     //<editor-fold defaultstate="collapsed" desc="Standard Methods">
@@ -31,7 +31,7 @@ public class CloneMator<T extends LinearGenomeIndividual> extends Mator<T> {
         assert(parents.size() == 1);
         assert(!Misc.containsNulls(parents));
         final T parent = parents.get(0);
-        final T child = (T) parents.get(0).create(parent.getGenome(), new ArrayList<T>() {{ add(parent); }});
+        final T child = (T) parents.get(0).create(parent.getGenome(), new long[] { parent.getID() });
         assert(repOK());
         return new ArrayList<T>() {{ add(child); }};
     }
@@ -1,8 +1,8 @@
 package SigmaEC.operate;
 
 import SigmaEC.SRandom;
-import SigmaEC.represent.Individual;
 import SigmaEC.represent.linear.DoubleGene;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.represent.linear.InitializerWithBounds;
 import SigmaEC.represent.linear.LinearGenomeIndividual;
 import SigmaEC.util.Misc;
@@ -115,34 +115,50 @@ public class DoubleGeneMutator extends Mutator<LinearGenomeIndividual<DoubleGene
     @Override
     public LinearGenomeIndividual<DoubleGene, ?> mutate(final LinearGenomeIndividual<DoubleGene, ?> ind, final int step) {
         assert(ind != null);
+        final long[] parentIDs = ind.hasParents() ?
+                ind.getParentIDs().get() :
+                new long[] { ind.getID() };
+        if (ind instanceof DoubleVectorIndividual)
+            return ((DoubleVectorIndividual) ind).create(mutateArray((DoubleVectorIndividual) ind, step), parentIDs);
+        
         final List<DoubleGene> genome = ind.getGenome();
         final List<DoubleGene> newGenome = new ArrayList<>();
         for (int i = 0; i < genome.size(); i++) {
             double roll = random.nextDouble();
-            newGenome.add((roll < mutationRate.getRateForGene(i, step, ind)) ? mutate(ind, genome.get(i), i) : genome.get(i));
+            newGenome.add((roll < mutationRate.getRateForGene(i, step, ind)) ? new DoubleGene(mutate(genome.get(i).value, i)) : genome.get(i));
+        }
+        assert(repOK());
+        return ind.create(newGenome, parentIDs);
+    }
+    
+    /** Mutate a primitive genome without boxing each locus into a DoubleGene.
+     * Draws random numbers in exactly the same order as the List-based path. */
+    private double[] mutateArray(final DoubleVectorIndividual ind, final int step) {
+        final double[] genome = ind.getGenomeView();
+        final double[] newGenome = new double[genome.length];
+        for (int i = 0; i < genome.length; i++) {
+            double roll = random.nextDouble();
+            newGenome[i] = (roll < mutationRate.getRateForGene(i, step, ind)) ? mutate(genome[i], i) : genome[i];
         }
         assert(repOK());
-        final List<? extends Individual> parents = ind.hasParents() ?
-                ind.getParents().get() :
-                new ArrayList<Individual>() {{ add(ind); }};
-        return ind.create(newGenome, parents);
+        return newGenome;
     }
     
-    private DoubleGene mutate(final LinearGenomeIndividual<DoubleGene, ?> ind, final DoubleGene gene, final int i) {
+    private double mutate(final double value, final int i) {
         if (!usingHardBounds())
-            return new DoubleGene(gene.value + distribution.sample());
+            return value + distribution.sample();
         for (int attempt = 0; attempt < HARDBOUND_ATTEMPTS; attempt++) {
             final double range = scaleMutationWidth ? maxValues.get()[i] - minValues.get()[i] : 1;
-            final double newValue = gene.value + distribution.sample()*range;
+            final double newValue = value + distribution.sample()*range;
             if (withinBoundsForGene(newValue, i)) {
                 if (attempt > 100)
                     Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO, String.format("Valid individual generated after %d mutation attempts.", attempt));
-                return new DoubleGene(newValue);
+                return newValue;
             }
         }
         Logger.getLogger(this.getClass().getSimpleName()).log(Level.WARNING,
                 String.format("Failed to find a valid gene value after attempting %d Gaussian mutations on a single gene.", HARDBOUND_ATTEMPTS));
-        return gene; // Give up
+        return value; // Give up
     }
     
     private boolean withinBoundsForGene(final double value, final int i) {
@@ -1,7 +1,6 @@
 package SigmaEC.operate;
 
 import SigmaEC.SRandom;
-import SigmaEC.represent.Individual;
 import SigmaEC.represent.linear.IntGene;
 import SigmaEC.represent.linear.LinearGenomeIndividual;
 import SigmaEC.util.Misc;
@@ -110,10 +109,10 @@ public class IntGeneMutator extends Mutator<LinearGenomeIndividual<IntGene, ?>>
             double roll = random.nextDouble();
             newGenome.add((roll < mutationRate.getRateForGene(i, step, ind)) ? mutate(genome.get(i), i, ind) : genome.get(i));
         }
-        final List<? extends Individual> parents = ind.hasParents() ?
-                ind.getParents().get() :
-                new ArrayList<Individual>() {{ add(ind); }};
-        final LinearGenomeIndividual<IntGene, ?> result = ind.create(newGenome, parents);
+        final long[] parentIDs = ind.hasParents() ?
+                ind.getParentIDs().get() :
+                new long[] { ind.getID() };
+        final LinearGenomeIndividual<IntGene, ?> result = ind.create(newGenome, parentIDs);
         assert(repOK());
         return result;
     }
@@ -3,8 +3,6 @@ package SigmaEC.operate;
 import SigmaEC.meta.Operator;
 import SigmaEC.operate.constraint.Constraint;
 import SigmaEC.represent.Individual;
-import SigmaEC.select.IterativeSelector;
-import SigmaEC.select.Selector;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
@@ -29,7 +27,6 @@ public class MatingOperator<T extends Individual> extends Operator<T> {
     public final static int DEFAULT_CONSTRAINT_ATTEMPTS = 10000;
         
     private final Mator<T> mator;
-    private final Selector<T> parentSelector = new IterativeSelector<T>();
     private final Option<Constraint<T>> constraint;
     private final int maxAttempts;
     private final boolean stopOnUnsatisfiedConstraint;
@@ -52,20 +49,24 @@ public class MatingOperator<T extends Individual> extends Operator<T> {
     }
     
     /**
-     * @return A generation of offspring.
+     * Parents are taken in order.  If the population size is not a multiple
+     * of the mator's arity, the last group wraps around to the front of the
+     * population, and its surplus children are dropped.
+     * 
+     * @return A generation of offspring, the same size as the population.
      */
     @Override
     public List<T> operate(final int run, final int generation, final List<T> population) {
         assert(population.size() >= mator.getNumParents());
-        assert(population.size()%mator.getNumChildren() == 0);
         assert(Misc.containsOnlyClass(population, population.get(0).getClass()));
         
         final List<T> offspring = new ArrayList();
         for(int totalChildren = 0; totalChildren < population.size(); totalChildren += mator.getNumChildren()) {
             List<T> parents = new ArrayList<T>();
             for (int i = 0; i < mator.getNumParents(); i++)
-                parents.add(parentSelector.selectIndividual(population));
-            offspring.addAll(mate(parents));
+                parents.add(population.get((totalChildren + i) % population.size()));
+            final List<T> children = mate(parents);
+            offspring.addAll(children.subList(0, Math.min(children.size(), population.size() - offspring.size())));
         }
         assert(population.size() == offspring.size());
         assert(repOK());
@@ -117,7 +118,6 @@ public class MatingOperator<T extends Individual> extends Operator<T> {
                 && !P_STOP_ON_UNSATISFIED_CONSTRAINT.isEmpty()
                 && P_MAX_ATTEMPTS != null
                 && !P_MAX_ATTEMPTS.isEmpty()
-                && parentSelector != null
                 && mator != null
                 && constraint != null
                 && maxAttempts > 0;
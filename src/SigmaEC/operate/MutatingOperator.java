@@ -3,8 +3,6 @@ package SigmaEC.operate;
 import SigmaEC.meta.Operator;
 import SigmaEC.operate.constraint.Constraint;
 import SigmaEC.represent.Individual;
-import SigmaEC.select.IterativeSelector;
-import SigmaEC.select.Selector;
 import SigmaEC.util.Option;
 import SigmaEC.util.Parameters;
 import java.util.ArrayList;
@@ -36,7 +34,6 @@ public class MutatingOperator<T extends Individual> extends Operator<T> {
     private final boolean stopOnUnsatisfiedConstraint;
     
     private final Mutator<T> mutator;
-    private final Selector<T> parentSelector = new IterativeSelector<>();
     
     public MutatingOperator(final Parameters parameters, final String base) {
         assert(parameters != null);
@@ -59,7 +56,7 @@ public class MutatingOperator<T extends Individual> extends Operator<T> {
         assert(parentPopulation != null);
         final List<T> newPopulation = new ArrayList<>(parentPopulation.size());
         for(int i = 0; i < parentPopulation.size(); i++) {
-            final T parent = parentSelector.selectIndividual(parentPopulation);
+            final T parent = parentPopulation.get(i);
             for (int j = 0; j < childrenPerParent; j++)
                 newPopulation.add(operateInd(parent, step));
         }
@@ -116,7 +113,6 @@ public class MutatingOperator<T extends Individual> extends Operator<T> {
                 && !P_MAX_ATTEMPTS.isEmpty()
                 && childrenPerParent > 0
                 && mutator != null
-                && parentSelector != null
                 && constraint != null
                 & maxAttempts > 0;
     }
@@ -145,7 +141,6 @@ public class MutatingOperator<T extends Individual> extends Operator<T> {
                 && maxAttempts == ref.maxAttempts
                 && overlapStyle.equals(ref.overlapStyle)
                 && mutator.equals(ref.mutator)
-                && parentSelector.equals(ref.parentSelector)
                 && constraint.equals(ref.constraint);
     }
 
@@ -158,7 +153,6 @@ public class MutatingOperator<T extends Individual> extends Operator<T> {
         hash = 79 * hash + this.maxAttempts;
         hash = 79 * hash + (this.stopOnUnsatisfiedConstraint ? 1 : 0);
         hash = 79 * hash + Objects.hashCode(this.mutator);
-        hash = 79 * hash + Objects.hashCode(this.parentSelector);
         return hash;
     }
     //</editor-fold>
@@ -1,5 +1,6 @@
 package SigmaEC.operate;
 
+import SigmaEC.represent.Individual;
 import SigmaEC.represent.linear.Gene;
 import SigmaEC.represent.linear.LinearGenomeIndividual;
 import SigmaEC.util.Option;
@@ -87,9 +88,10 @@ public class NPointCrossoverMator<T extends LinearGenomeIndividual<G, ?>, G exte
         
         assert(child1.size() == parentGenomes.get(0).size());
         assert(child2.size() == parentGenomes.get(0).size());
+        final long[] parentIDs = Individual.getIDs(parents);
         final List<T> offspring = new ArrayList<T>() {{
-           add((T) (parents.get(0).create(child1, parents)));
-           add((T) (parents.get(0).create(child2, parents))); 
+           add((T) (parents.get(0).create(child1, parentIDs)));
+           add((T) (parents.get(0).create(child2, parentIDs))); 
         }};
         assert(repOK());
         return offspring;
@@ -0,0 +1,132 @@
+package SigmaEC.represent;
+
+import SigmaEC.ContractObject;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter that hands out the IDs that individuals are given when they are
+ * created.
+ *
+ * By default every individual in the JVM draws from one global space.  Code
+ * that wants its IDs to be independent of everything else going on in the
+ * JVM (ex. one run of an experiment, while other runs execute in parallel)
+ * can run its work inside its own space instead:
+ *
+ * <pre>
+ * final IDSpace ids = new IDSpace(first);
+ * executor.submit(ids.wrap(task));
+ * </pre>
+ *
+ * While a thread runs a wrapped task, every individual it creates takes its
+ * ID from the wrapping space.  Tasks handed to an EvaluationExecutor carry
+ * their submitter's space with them.  A Checkpointer saves the next ID of the
+ * current space, so that a resumed run carries on where it left off.
+ *
+ * @author Eric O. Scott
+ */
+public class IDSpace extends ContractObject {
+    private final static IDSpace GLOBAL = new IDSpace(0);
+    private final static ThreadLocal<IDSpace> current = new ThreadLocal<>();
+
+    private final AtomicLong next;
+
+    /** @param first The first ID to hand out. */
+    public IDSpace(final long first) {
+        assert(first >= 0);
+        next = new AtomicLong(first);
+        assert(repOK());
+    }
+
+    /** @return The space that the current thread's individuals draw their IDs from. */
+    public static IDSpace current() {
+        final IDSpace space = current.get();
+        return space == null ? GLOBAL : space;
+    }
+
+    /** @return A fresh ID from the current thread's space. */
+    public static long nextID() {
+        return current().next.getAndIncrement();
+    }
+
+    /** @return The ID that this space will hand out next. */
+    public long peek() {
+        return next.get();
+    }
+
+    /** Make sure this space never hands out an ID less than or equal to id
+     * (ex. one that belongs to an individual restored from a checkpoint). */
+    public void reserveThrough(final long id) {
+        long n;
+        do {
+            n = next.get();
+        } while (n <= id && !next.compareAndSet(n, id + 1));
+    }
+
+    /** @return A task that runs the given one with this as the current
+     * thread's space. */
+    public <V> Callable<V> wrap(final Callable<V> task) {
+        assert(task != null);
+        return new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                final IDSpace previous = current.get();
+                current.set(IDSpace.this);
+                try {
+                    return task.call();
+                } finally {
+                    restore(previous);
+                }
+            }
+        };
+    }
+
+    /** @return A task that runs the given one with this as the current
+     * thread's space. */
+    public Runnable wrap(final Runnable task) {
+        assert(task != null);
+        return new Runnable() {
+            @Override
+            public void run() {
+                final IDSpace previous = current.get();
+                current.set(IDSpace.this);
+                try {
+                    task.run();
+                } finally {
+                    restore(previous);
+                }
+            }
+        };
+    }
+
+    private static void restore(final IDSpace previous) {
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return next != null
+                && next.get() >= 0;
+    }
+
+    /** Spaces are compared by identity, since each one is meant to be shared. */
+    @Override
+    public boolean equals(final Object o) {
+        return o == this;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: next=%d]", this.getClass().getSimpleName(), next.get());
+    }
+    // </editor-fold>
+}
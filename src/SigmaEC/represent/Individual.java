@@ -27,14 +27,18 @@ public abstract class Individual<F extends Fitness> extends ContractObject
     
     public abstract boolean isEvaluated();
     
-    public abstract Option<List<Individual<F>>> getParents();
+    /** @return The IDs of the individuals this was produced from, if any.
+     * Individuals only hold on to their parents' IDs, never to the parents
+     * themselves, so that ancestor chains don't accumulate in memory.
+     * @see SigmaEC.represent.lineage.LineageRecorder */
+    public abstract Option<long[]> getParentIDs();
     
     /** Produces a copy of this individual with the fitness set or altered. */
     public abstract Individual<F> setFitness(final F fitness);
     
-    /** Produces a copy of this individual with the list of parents set or altered.
-     * @param parents A list of Individuals that this was produced from.  They must have the same subtype at this. */
-    public abstract Individual<F> setParents(final List<? extends Individual<F>> parents);
+    /** Produces a copy of this individual with the parent IDs set or altered.
+     * @param parentIDs The IDs of the individuals that this was produced from.  Must be non-empty. */
+    public abstract Individual<F> setParentIDs(final long[] parentIDs);
     
     /** Produces a copy of this individual with an empty set of parents. */
     public abstract Individual<F> clearParents();
@@ -42,4 +46,12 @@ public abstract class Individual<F extends Fitness> extends ContractObject
     /** Produces a copy of this individual with an empty fitness attribute. */
     public abstract Individual<F> clearFitness();
     
+    /** @return The IDs of a list of individuals, in order. */
+    public static long[] getIDs(final List<? extends Individual<?>> individuals) {
+        assert(individuals != null);
+        final long[] ids = new long[individuals.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = individuals.get(i).getID();
+        return ids;
+    }
 }
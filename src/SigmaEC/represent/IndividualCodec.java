@@ -0,0 +1,20 @@
+package SigmaEC.represent;
+
+import SigmaEC.ContractObject;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Converts individuals to and from a compact binary form, so that they can be
+ * stored in checkpoint files.
+ * 
+ * @author Eric O. Scott
+ */
+public abstract class IndividualCodec<T extends Individual> extends ContractObject {
+    /** Write an individual (including its ID and fitness, if any) to a stream. */
+    public abstract void write(T individual, DataOutputStream out) throws IOException;
+    
+    /** Read an individual that was previously written with write(). */
+    public abstract T read(DataInputStream in) throws IOException;
+}
@@ -106,16 +106,17 @@ public class CartesianIndividual<F extends Fitness> extends Individual<F> implem
 
     @Override
     public boolean hasParents() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return false;
     }
 
+    /** Lineage isn't tracked for CGP individuals, so they have no parent IDs. */
     @Override
-    public Option<List<Individual<F>>> getParents() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    public Option<long[]> getParentIDs() {
+        return Option.NONE;
     }
 
     @Override
-    public Individual<F> setParents(List<? extends Individual<F>> parents) {
+    public Individual<F> setParentIDs(final long[] parentIDs) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
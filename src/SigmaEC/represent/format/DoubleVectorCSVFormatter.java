@@ -34,7 +34,7 @@ public class DoubleVectorCSVFormatter extends GenomeFormatter<DoubleVectorIndivi
         for (int i = 0; i < split.length; i++)
             genome[i] = Double.valueOf(split[i]);
         assert(repOK());
-        return new DoubleVectorIndividual.Builder(genome).build();
+        return DoubleVectorIndividual.Builder.wrap(genome).build();
     }
 
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
@@ -0,0 +1,124 @@
+package SigmaEC.represent.lineage;
+
+import SigmaEC.util.Parameters;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends every recorded individual to an ancestry log on disk, so that the
+ * complete genealogy of a run can be reconstructed afterward without keeping
+ * any of it in memory.
+ *
+ * Each line of the log starts with an individual's ID, followed by the IDs of
+ * its parents (if any), all separated by commas.  Lines from parallel
+ * evaluations may be interleaved, so the log is ordered by the time each
+ * individual was evaluated, not by ID.
+ *
+ * @author Eric O. Scott
+ */
+public class FileLineageRecorder extends LineageRecorder {
+    public final static String P_PREFIX = "prefix";
+    public final static String P_FILE = "file";
+    public final static String P_HEADER = "header";
+
+    private final String fileName;
+    private final Writer writer;
+
+    public FileLineageRecorder(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        final String prefix = parameters.getOptionalStringParameter(Parameters.push(base, P_PREFIX), "");
+        fileName = prefix + parameters.getStringParameter(Parameters.push(base, P_FILE));
+        try {
+            writer = new BufferedWriter(new FileWriter(fileName));
+            if (parameters.getOptionalBooleanParameter(Parameters.push(base, P_HEADER), true))
+                writer.write("individualID, parentIDs\n");
+        }
+        catch (final IOException e) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName() + ": could not open file " + fileName, e);
+        }
+        assert(repOK());
+    }
+
+    @Override
+    public void record(final long id, final long[] parentIDs) {
+        assert(id >= 0);
+        assert(parentIDs != null);
+        final StringBuilder line = new StringBuilder().append(id);
+        for (final long p : parentIDs)
+            line.append(", ").append(p);
+        line.append('\n');
+        try {
+            synchronized (writer) {
+                writer.write(line.toString());
+            }
+        } catch (final IOException ex) {
+            Logger.getLogger(FileLineageRecorder.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            synchronized (writer) {
+                writer.flush();
+            }
+        } catch (final IOException ex) {
+            Logger.getLogger(FileLineageRecorder.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            synchronized (writer) {
+                writer.close();
+            }
+        } catch (final IOException ex) {
+            Logger.getLogger(FileLineageRecorder.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return P_PREFIX != null
+                && !P_PREFIX.isEmpty()
+                && P_FILE != null
+                && !P_FILE.isEmpty()
+                && P_HEADER != null
+                && !P_HEADER.isEmpty()
+                && fileName != null
+                && !fileName.isEmpty()
+                && writer != null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof FileLineageRecorder))
+            return false;
+        final FileLineageRecorder ref = (FileLineageRecorder)o;
+        return fileName.equals(ref.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 67 * hash + Objects.hashCode(this.fileName);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%s]", this.getClass().getSimpleName(),
+                P_FILE, fileName);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,35 @@
+package SigmaEC.represent.lineage;
+
+import SigmaEC.ContractObject;
+
+/**
+ * Records which individuals each new individual was produced from.
+ *
+ * Individuals only carry the IDs of their immediate parents, and only until
+ * they are evaluated.  A LineageRecorder is where that information goes if you
+ * want to keep it: the EvaluationOperator reports every individual it produces
+ * (under its final, post-evaluation ID) along with its parents' IDs.  Lineage
+ * recording is off unless a recorder is configured.
+ *
+ * Implementations must be thread-safe, since parallel evaluation may report
+ * individuals from several threads at once.
+ *
+ * @author Eric O. Scott
+ */
+public abstract class LineageRecorder extends ContractObject {
+    /** Record that the individual with the given ID was produced from the
+     * given parents.
+     *
+     * @param id The ID of the new individual.
+     * @param parentIDs The IDs of its parents, or an empty array if it has none
+     * (ex. it was created by an initializer).
+     */
+    public abstract void record(long id, long[] parentIDs);
+
+    /** Flush any I/O buffers. */
+    public abstract void flush();
+
+    /** Release any file resources.  Once this is called, the recorder can no
+     * longer be used. */
+    public abstract void close();
+}
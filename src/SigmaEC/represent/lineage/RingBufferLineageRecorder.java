@@ -0,0 +1,116 @@
+package SigmaEC.represent.lineage;
+
+import SigmaEC.util.Option;
+import SigmaEC.util.Parameters;
+import java.util.Arrays;
+
+/**
+ * Keeps the parent IDs of the most recently recorded individuals in memory.
+ *
+ * Only the last "capacity" records are kept, so memory use stays flat no
+ * matter how long a run goes on.  Recent ancestry (ex. the parents and
+ * grandparents of the current population) can be queried with
+ * getParentIDs().
+ *
+ * @author Eric O. Scott
+ */
+public class RingBufferLineageRecorder extends LineageRecorder {
+    public final static String P_CAPACITY = "capacity";
+
+    private final int capacity;
+    private final long[] ids;
+    private final long[][] parentIDs;
+    private int next = 0;
+    private int size = 0;
+
+    public RingBufferLineageRecorder(final Parameters parameters, final String base) {
+        this(parameters.getIntParameter(Parameters.push(base, P_CAPACITY)));
+    }
+
+    public RingBufferLineageRecorder(final int capacity) {
+        if (capacity < 1)
+            throw new IllegalStateException(String.format("%s: %s is %d, but must be positive.", this.getClass().getSimpleName(), P_CAPACITY, capacity));
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.parentIDs = new long[capacity][];
+        assert(repOK());
+    }
+
+    @Override
+    public synchronized void record(final long id, final long[] parentIDs) {
+        assert(id >= 0);
+        assert(parentIDs != null);
+        ids[next] = id;
+        this.parentIDs[next] = Arrays.copyOf(parentIDs, parentIDs.length);
+        next = (next + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        assert(repOK());
+    }
+
+    /** @return The parent IDs recorded for an individual, or NONE if it was
+     * never recorded or has already been overwritten. */
+    public synchronized Option<long[]> getParentIDs(final long id) {
+        // Search from newest to oldest
+        for (int k = 1; k <= size; k++) {
+            final int i = (next - k + capacity) % capacity;
+            if (ids[i] == id)
+                return new Option<>(Arrays.copyOf(parentIDs[i], parentIDs[i].length));
+        }
+        return Option.NONE;
+    }
+
+    /** @return The number of records currently held (at most the capacity). */
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public void flush() {
+        // Nothing is buffered
+    }
+
+    @Override
+    public void close() {
+        // No resources to release
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final synchronized boolean repOK() {
+        return P_CAPACITY != null
+                && !P_CAPACITY.isEmpty()
+                && capacity > 0
+                && ids != null
+                && ids.length == capacity
+                && parentIDs != null
+                && parentIDs.length == capacity
+                && next >= 0
+                && next < capacity
+                && size >= 0
+                && size <= capacity;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof RingBufferLineageRecorder))
+            return false;
+        final RingBufferLineageRecorder ref = (RingBufferLineageRecorder)o;
+        return capacity == ref.capacity;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 29 * hash + this.capacity;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s=%d]", this.getClass().getSimpleName(),
+                P_CAPACITY, capacity);
+    }
+    // </editor-fold>
+}
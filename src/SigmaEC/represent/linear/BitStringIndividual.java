@@ -1,10 +1,12 @@
 package SigmaEC.represent.linear;
 
 import SigmaEC.meta.Fitness;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.represent.Individual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -15,9 +17,9 @@ import java.util.Random;
 public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividual<BitGene, F> {
     private final List<BitGene> genome;
     private final long id;
-    private static long nextId = 0;
+    private final static long[] NO_PARENTS = new long[0];
     private final Option<F> fitness;
-    private final Option<List<Individual<F>>> parents;
+    private final long[] parentIDs; // Empty if the individual has no parents
     
     // <editor-fold defaultstate="collapsed" desc="Producers and Consumers">
     @Override
@@ -50,9 +52,12 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
     }
     
     @Override
-    public LinearGenomeIndividual<BitGene, F> create(final List<BitGene> genome, final List<? extends Individual> parents) {
+    public LinearGenomeIndividual<BitGene, F> create(final List<BitGene> genome, final long[] parentIDs) {
         assert(genome != null);
-        return new Builder(genome).setParents(parents).build();
+        assert(parentIDs != null);
+        if (parentIDs.length == 0)
+            return new Builder(genome).build();
+        return new Builder(genome).setParentIDs(parentIDs).build();
     }
 
     @Override
@@ -68,19 +73,19 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
 
     @Override
     public boolean hasParents() {
-        return parents.isDefined();
+        return parentIDs.length > 0;
     }
 
     @Override
-    public Option<List<Individual<F>>> getParents() {
-        if (!parents.isDefined())
+    public Option<long[]> getParentIDs() {
+        if (!hasParents())
             return Option.NONE;
-        return new Option<>((List<Individual<F>>)new ArrayList(parents.get())); // Defensive copy
+        return new Option<>(Arrays.copyOf(parentIDs, parentIDs.length)); // Defensive copy
     }
 
     @Override
-    public Individual<F> setParents(List<? extends Individual<F>> parents) {
-       return new Builder(this).setParents(parents).build();
+    public Individual<F> setParentIDs(final long[] parentIDs) {
+       return new Builder(this).setParentIDs(parentIDs).build();
     }
 
     @Override
@@ -92,10 +97,10 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
     public static class Builder<F extends Fitness> {
         private List<BitGene> genome;
         private Option<F> fitness = Option.NONE;
-        private Option<List<Individual>> parents = Option.NONE;
+        private long[] parentIDs = NO_PARENTS;
         
         public BitStringIndividual build() {
-            return new BitStringIndividual(genome, fitness, parents);
+            return new BitStringIndividual(genome, fitness, parentIDs);
         }
         
         public Builder(final List<BitGene> genome) {
@@ -115,7 +120,7 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
             assert(ref != null);
             genome = ref.genome;
             fitness = ref.fitness;
-            parents = ref.parents;
+            parentIDs = ref.parentIDs;
         }
         
         public Builder setFitness(final F fitness) {
@@ -123,10 +128,10 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
             return this;
         }
         
-        public Builder setParents(final List<? extends Individual> parents) {
-            assert(parents != null);
-            assert(!Misc.containsNulls(parents));
-            this.parents = new Option<>((List<Individual>)new ArrayList<>(parents));
+        public Builder setParentIDs(final long[] parentIDs) {
+            assert(parentIDs != null);
+            assert(parentIDs.length > 0);
+            this.parentIDs = Arrays.copyOf(parentIDs, parentIDs.length);
             return this;
         }
         
@@ -136,7 +141,7 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
         }
         
         public Builder clearParents() {
-            parents = Option.NONE;
+            parentIDs = NO_PARENTS;
             return this;
         }
     }
@@ -164,24 +169,23 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
                add(new BitGene(roll < pTrue));
            } 
         }};
-        this.id = nextId++;
+        this.id = IDSpace.nextID();
         fitness = Option.NONE;
-        parents = Option.NONE;
+        parentIDs = NO_PARENTS;
         assert(repOK());
     }
     
     
     /** Private constructor for use with the Builder pattern. Does not make defensive copies! */
-    private BitStringIndividual(final List<BitGene> genome, final Option<F> fitness, final Option<List<Individual<F>>> parents) {
+    private BitStringIndividual(final List<BitGene> genome, final Option<F> fitness, final long[] parentIDs) {
         assert(genome != null);
         assert(!Misc.containsNulls(genome));
         assert(fitness != null);
-        assert(parents != null);
-        assert(!(parents.isDefined() && Misc.containsNulls(parents.get())));
+        assert(parentIDs != null);
         this.genome = new ArrayList<>(genome);
-        this.id = nextId++;
+        this.id = IDSpace.nextID();
         this.fitness = fitness;
-        this.parents = parents;
+        this.parentIDs = parentIDs;
         assert(repOK());
     }
 
@@ -190,7 +194,7 @@ public class BitStringIndividual<F extends Fitness> extends LinearGenomeIndividu
     public final boolean repOK() {
         return id >= 0
                 && fitness != null
-                && !(parents.isDefined() && parents.get().isEmpty())
+                && parentIDs != null
                 && genome != null
                 && !Misc.containsNulls(genome);
     }
@@ -1,60 +1,80 @@
 package SigmaEC.represent.linear;
 
 import SigmaEC.meta.Fitness;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.represent.Individual;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
 /**
- *
+ * An individual with a real-valued genome.
+ * 
+ * The genome is stored internally as a contiguous, immutable array of
+ * primitive doubles.  The List&lt;DoubleGene&gt; representation required by
+ * LinearGenomeIndividual is only materialized when getGenome() is called, so
+ * performance-sensitive code should prefer getGenomeView() or getElement().
+ * 
  * @author Eric 'Siggy' Scott
  */
 public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndividual<DoubleGene, F> {
-    private final List<DoubleGene> genome;
+    private final double[] genome;
     private final long id;
-    private static long nextId;
+    private final static long[] NO_PARENTS = new long[0];
     private final Option<F> fitness;
-    private final Option<List<Individual>> parents;
+    private final long[] parentIDs; // Empty if the individual has no parents
     
     // <editor-fold defaultstate="collapsed" desc="Producers and Consumers">
     @Override
     public boolean hasParents() {
-        return parents.isDefined();
+        return parentIDs.length > 0;
     }
     
     @Override
     public long getID() { return id; }
     
     @Override
-    public int size() { return genome.size(); }
+    public int size() { return genome.length; }
     
     @Override
-    public Option<List<Individual<F>>> getParents() {
-        if (!parents.isDefined())
+    public Option<long[]> getParentIDs() {
+        if (!hasParents())
             return Option.NONE;
-        return new Option<>((List<Individual<F>>)new ArrayList(parents.get())); // Defensive copy
+        return new Option<>(Arrays.copyOf(parentIDs, parentIDs.length)); // Defensive copy
     }
 
     @Override
     public List<DoubleGene> getGenome() {
-        return new ArrayList<>(genome); // Defensive copy
+        final List<DoubleGene> list = new ArrayList<>(genome.length);
+        for (final double d : genome)
+            list.add(new DoubleGene(d));
+        return list;
     }
     
+    /** Return a defensive copy of the genome as an array. */
     public double[] getGenomeArray() {
-        final double[] array = new double[genome.size()];
-        for (int i = 0; i < array.length; i++)
-            array[i] = genome.get(i).value;
-        return array;
+        return Arrays.copyOf(genome, genome.length);
+    }
+    
+    /**
+     * Return the array that backs this individual's genome, without copying it.
+     * 
+     * Individuals are immutable, so the returned array is a read-only view:
+     * callers must never write to it.  Use getGenomeArray() if you need a
+     * copy you can modify.
+     */
+    public double[] getGenomeView() {
+        return genome;
     }
     
     public double getElement(final int i) {
         assert(i >= 0);
-        assert(i < genome.size());
-        return genome.get(i).value;
+        assert(i < genome.length);
+        return genome[i];
     }
 
     @Override
@@ -71,8 +91,8 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
     }
 
     @Override
-    public Individual<F> setParents(List<? extends Individual<F>> parents) {
-        return new Builder(this).setParents(parents).build();
+    public Individual<F> setParentIDs(final long[] parentIDs) {
+        return new Builder(this).setParentIDs(parentIDs).build();
     }
 
     @Override
@@ -86,11 +106,24 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
     }
     
     @Override
-    public DoubleVectorIndividual create(final List<DoubleGene> genome, final List<? extends Individual> parents) {
+    public DoubleVectorIndividual create(final List<DoubleGene> genome, final long[] parentIDs) {
         assert(genome != null);
-        if (parents.isEmpty())
+        assert(parentIDs != null);
+        if (parentIDs.length == 0)
             return new Builder(genome).build();
-        return new Builder(genome).setParents(parents).build();
+        return new Builder(genome).setParentIDs(parentIDs).build();
+    }
+    
+    /**
+     * Like create(List, long[]), but takes ownership of a primitive genome array
+     * instead of copying it.  The caller must not modify genome afterward.
+     */
+    public DoubleVectorIndividual create(final double[] genome, final long[] parentIDs) {
+        assert(genome != null);
+        assert(parentIDs != null);
+        if (parentIDs.length == 0)
+            return Builder.wrap(genome).build();
+        return Builder.wrap(genome).setParentIDs(parentIDs).build();
     }
 
     @Override
@@ -100,31 +133,45 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
     // </editor-fold>
     
     public static class Builder<F extends Fitness> {
-        private final List<DoubleGene> genome;
+        private final double[] genome;
         private Option<F> fitness = Option.NONE;
-        private Option<List<Individual<F>>> parents = Option.NONE;
+        private long[] parentIDs = NO_PARENTS;
+        private Option<Long> id = Option.NONE;
         
         public DoubleVectorIndividual build() {
-            return new DoubleVectorIndividual(genome, fitness, parents);
+            return new DoubleVectorIndividual(genome, fitness, parentIDs, id);
         }
         
         public Builder(final List<DoubleGene> genome) {
             assert(genome != null);
-            this.genome = genome;
+            assert(!Misc.containsNulls(genome));
+            this.genome = new double[genome.size()];
+            for (int i = 0; i < this.genome.length; i++)
+                this.genome[i] = genome.get(i).value;
         }
         
         public Builder(final double[] genome) {
+            this(genome, true);
+        }
+        
+        private Builder(final double[] genome, final boolean copy) {
             assert(genome != null);
             assert(Misc.allFinite(genome));
-            this.genome = new ArrayList<>(genome.length);
-            for (int i = 0; i < genome.length; i++)
-                this.genome.add(new DoubleGene(genome[i]));
+            this.genome = copy ? Arrays.copyOf(genome, genome.length) : genome;
+        }
+        
+        /**
+         * Creates a Builder that takes ownership of genome without copying it.
+         * The caller must not modify the array after passing it in.
+         */
+        public static Builder wrap(final double[] genome) {
+            return new Builder(genome, false);
         }
         
         public Builder(final DoubleVectorIndividual ref) {
             assert(ref != null);
             genome = ref.genome;
-            parents = ref.parents;
+            parentIDs = ref.parentIDs;
             fitness = ref.fitness;
         }
         
@@ -133,16 +180,15 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
             return this;
         }
         
-        public Builder setParents(final List<? extends Individual> parents) {
-            assert(parents != null);
-            assert(!parents.isEmpty());
-            assert(!Misc.containsNulls(parents));
-            this.parents = new Option<>((List<Individual<F>>)new ArrayList(parents));
+        public Builder setParentIDs(final long[] parentIDs) {
+            assert(parentIDs != null);
+            assert(parentIDs.length > 0);
+            this.parentIDs = Arrays.copyOf(parentIDs, parentIDs.length);
             return this;
         }
         
         public Builder clearParents() {
-            parents = Option.NONE;
+            parentIDs = NO_PARENTS;
             return this;
         }
         
@@ -150,6 +196,18 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
             fitness = Option.NONE;
             return this;
         }
+        
+        /**
+         * Reuse an existing ID instead of drawing a fresh one.  This is only
+         * meant for reconstructing an individual that was previously stored in
+         * another form (such as a columnar population store), so that it keeps
+         * its identity in logged output.
+         */
+        public Builder setID(final long id) {
+            assert(id >= 0);
+            this.id = new Option<>(id);
+            return this;
+        }
     }
     
     /** Construct a random double vector. */
@@ -160,17 +218,15 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
         assert(maxValues != null);
         assert(minValues.length == numDimensions);
         assert(maxValues.length == numDimensions);
-        this.genome = new ArrayList<DoubleGene>(numDimensions) {{
-           for (int i = 0; i < numDimensions; i++) {
-               final double delta = maxValues[i] - minValues[i];
-               assert(delta >= 0);
-               final double roll = minValues[i] + (random.nextDouble()*delta);
-               add(new DoubleGene(roll));
-           } 
-        }};
-        this.id = nextId++;
+        this.genome = new double[numDimensions];
+        for (int i = 0; i < numDimensions; i++) {
+            final double delta = maxValues[i] - minValues[i];
+            assert(delta >= 0);
+            genome[i] = minValues[i] + (random.nextDouble()*delta);
+        }
+        this.id = IDSpace.nextID();
         fitness = Option.NONE;
-        parents = Option.NONE;
+        parentIDs = NO_PARENTS;
         assert(repOK());
     }
     
@@ -178,31 +234,28 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
     public DoubleVectorIndividual(final Random random, final int numDimensions, final double defaultMinValue, final double defaultMaxValue) {
         assert(random != null);
         assert(numDimensions > 0);
-        this.genome = new ArrayList<DoubleGene>(numDimensions) {{
-           for (int i = 0; i < numDimensions; i++) {
-               final double delta = defaultMaxValue - defaultMinValue;
-               assert(delta >= 0);
-               final double roll = defaultMinValue + (random.nextDouble()*delta);
-               add(new DoubleGene(roll));
-           } 
-        }};
-        this.id = nextId++;
+        this.genome = new double[numDimensions];
+        for (int i = 0; i < numDimensions; i++) {
+            final double delta = defaultMaxValue - defaultMinValue;
+            assert(delta >= 0);
+            genome[i] = defaultMinValue + (random.nextDouble()*delta);
+        }
+        this.id = IDSpace.nextID();
         fitness = Option.NONE;
-        parents = Option.NONE;
+        parentIDs = NO_PARENTS;
         assert(repOK());
     }
     
     /** Private constructor for use with the Builder pattern. Does not make defensive copies! */
-    private DoubleVectorIndividual(final List<DoubleGene> genome, final Option<F> fitness, final Option<List<Individual>> parents) {
+    private DoubleVectorIndividual(final double[] genome, final Option<F> fitness, final long[] parentIDs, final Option<Long> id) {
         assert(genome != null);
-        assert(!Misc.containsNulls(genome));
         assert(fitness != null);
-        assert(parents != null);
-        assert(!(parents.isDefined() && Misc.containsNulls(parents.get())));
-        this.genome = new ArrayList<>(genome);
-        this.id = nextId++;
+        assert(parentIDs != null);
+        assert(id != null);
+        this.genome = genome;
+        this.id = id.isDefined() ? id.get() : IDSpace.nextID();
         this.fitness = fitness;
-        this.parents = parents;
+        this.parentIDs = parentIDs;
         assert(repOK());
     }
 
@@ -212,8 +265,8 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
         return id >= 0
                 && genome != null
                 && fitness != null
-                && !(parents.isDefined() && parents.get().isEmpty())
-                && !Misc.containsNulls(genome);
+                && parentIDs != null
+                && Misc.allFinite(genome);
     }
     
     @Override
@@ -221,23 +274,23 @@ public class DoubleVectorIndividual<F extends Fitness> extends LinearGenomeIndiv
         if (!(o instanceof DoubleVectorIndividual))
             return false;
         final DoubleVectorIndividual ref = (DoubleVectorIndividual) o;
-        return genome.equals(ref.genome)
+        return Misc.doubleArrayEquals(genome, ref.genome)
                 && fitness.equals(ref.fitness)
-                && parents.equals(ref.parents);
+                && Arrays.equals(parentIDs, ref.parentIDs);
     }
 
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 53 * hash + Objects.hashCode(this.genome);
+        hash = 53 * hash + Arrays.hashCode(this.genome);
         hash = 53 * hash + Objects.hashCode(this.fitness);
-        hash = 53 * hash + Objects.hashCode(this.parents);
+        hash = 53 * hash + Arrays.hashCode(this.parentIDs);
         return hash;
     }
     
     @Override
     public String toString() {
-        return String.format("[%s: id=%s, fitness=%s, parents=%s, genome=%s]", this.getClass().getSimpleName(), this.getID(), fitness, parents, genome.toString());
+        return String.format("[%s: id=%s, fitness=%s, parents=%s, genome=%s]", this.getClass().getSimpleName(), this.getID(), fitness, Arrays.toString(parentIDs), getGenome().toString());
     }
     
     // </editor-fold>
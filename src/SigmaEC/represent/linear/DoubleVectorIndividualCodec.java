@@ -0,0 +1,77 @@
+package SigmaEC.represent.linear;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.IndividualCodec;
+import SigmaEC.util.Parameters;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Stores a DoubleVectorIndividual with a scalar fitness as its ID, its genome,
+ * and (if it has been evaluated) its fitness.  Parent pointers are not stored.
+ * 
+ * @author Eric O. Scott
+ */
+public class DoubleVectorIndividualCodec extends IndividualCodec<DoubleVectorIndividual<ScalarFitness>> {
+
+    public DoubleVectorIndividualCodec(final Parameters parameters, final String base) {
+        assert(parameters != null);
+        assert(base != null);
+        assert(repOK());
+    }
+    
+    public DoubleVectorIndividualCodec() {
+        assert(repOK());
+    }
+    
+    @Override
+    public void write(final DoubleVectorIndividual<ScalarFitness> individual, final DataOutputStream out) throws IOException {
+        assert(individual != null);
+        assert(out != null);
+        final double[] genome = individual.getGenomeView();
+        out.writeLong(individual.getID());
+        out.writeInt(genome.length);
+        for (final double x : genome)
+            out.writeDouble(x);
+        out.writeBoolean(individual.isEvaluated());
+        if (individual.isEvaluated())
+            out.writeDouble(individual.getFitness().asScalar());
+    }
+
+    @Override
+    public DoubleVectorIndividual<ScalarFitness> read(final DataInputStream in) throws IOException {
+        assert(in != null);
+        final long id = in.readLong();
+        final double[] genome = new double[in.readInt()];
+        for (int i = 0; i < genome.length; i++)
+            genome[i] = in.readDouble();
+        final DoubleVectorIndividual.Builder builder = DoubleVectorIndividual.Builder.wrap(genome).setID(id);
+        if (in.readBoolean())
+            builder.setFitness(new ScalarFitness(in.readDouble()));
+        return builder.build();
+    }
+    
+    // <editor-fold defaultstate="collapsed" desc="Standard Methods">
+    @Override
+    public final boolean repOK() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return (o instanceof DoubleVectorIndividualCodec);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s]", this.getClass().getSimpleName());
+    }
+    // </editor-fold>
+}
@@ -1,10 +1,11 @@
 package SigmaEC.represent.linear;
 
 import SigmaEC.meta.Fitness;
-import SigmaEC.represent.Individual;
+import SigmaEC.represent.IDSpace;
 import SigmaEC.util.Misc;
 import SigmaEC.util.Option;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -15,14 +16,14 @@ import java.util.Random;
 public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividual<IntGene, F> {
     private final List<IntGene> genome;
     private final long id;
-    private static long nextId;
+    private final static long[] NO_PARENTS = new long[0];
     private final Option<F> fitness;
-    private final Option<List<Individual>> parents;
+    private final long[] parentIDs; // Empty if the individual has no parents
     
      // <editor-fold defaultstate="collapsed" desc="Producers and Consumers">
     @Override
     public boolean hasParents() {
-        return parents.isDefined();
+        return parentIDs.length > 0;
     }
     
     @Override
@@ -32,10 +33,10 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
     public int size() { return genome.size(); }
     
     @Override
-    public Option<List<Individual<F>>> getParents() {
-        if (!parents.isDefined())
+    public Option<long[]> getParentIDs() {
+        if (!hasParents())
             return Option.NONE;
-        return new Option<>((List<Individual<F>>)new ArrayList(parents.get())); // Defensive copy
+        return new Option<>(Arrays.copyOf(parentIDs, parentIDs.length)); // Defensive copy
     }
 
     @Override
@@ -70,41 +71,42 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
     }
 
     @Override
-    public Individual<F> setParents(List<? extends Individual<F>> parents) {
-        return new Builder(this).setParents(parents).build();
+    public IntVectorIndividual<F> setParentIDs(final long[] parentIDs) {
+        return new Builder<>(this).setParentIDs(parentIDs).build();
     }
 
     @Override
     public IntVectorIndividual<F> setFitness(final F fitness) {
-        return new Builder(this).setFitness(fitness).build();
+        return new Builder<>(this).setFitness(fitness).build();
     }
     
     @Override
     public IntVectorIndividual<F> clearFitness() {
-        return new Builder(this).clearFitness().build();
+        return new Builder<>(this).clearFitness().build();
     }
     
     @Override
-    public IntVectorIndividual<F> create(final List<IntGene> genome, final List<? extends Individual> parents) {
+    public IntVectorIndividual<F> create(final List<IntGene> genome, final long[] parentIDs) {
         assert(genome != null);
-        if (parents.isEmpty())
-            return new Builder(genome).build();
-        return new Builder(genome).setParents(parents).build();
+        assert(parentIDs != null);
+        if (parentIDs.length == 0)
+            return new Builder<F>(genome).build();
+        return new Builder<F>(genome).setParentIDs(parentIDs).build();
     }
 
     @Override
-    public Individual clearParents() {
-        return new Builder(this).clearParents().build();
+    public IntVectorIndividual<F> clearParents() {
+        return new Builder<>(this).clearParents().build();
     }
     // </editor-fold>
     
     public static class Builder<F extends Fitness> {
         private final List<IntGene> genome;
         private Option<F> fitness = Option.NONE;
-        private Option<List<Individual>> parents = Option.NONE;
+        private long[] parentIDs = NO_PARENTS;
         
-        public IntVectorIndividual build() {
-            return new IntVectorIndividual(genome, fitness, parents);
+        public IntVectorIndividual<F> build() {
+            return new IntVectorIndividual<>(genome, fitness, parentIDs);
         }
         
         public Builder(final List<IntGene> genome) {
@@ -119,31 +121,31 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
                 this.genome.add(new IntGene(genome[i]));
         }
         
-        public Builder(final IntVectorIndividual ref) {
+        public Builder(final IntVectorIndividual<F> ref) {
             assert(ref != null);
             genome = ref.genome;
-            parents = ref.parents;
+            parentIDs = ref.parentIDs;
             fitness = ref.fitness;
         }
         
-        public Builder setFitness(final F fitness) {
+        public Builder<F> setFitness(final F fitness) {
             this.fitness = new Option<>(fitness);
             return this;
         }
         
-        public Builder setParents(final List<? extends Individual> parents) {
-            assert(parents != null);
-            assert(!Misc.containsNulls(parents));
-            this.parents = new Option<>((List<Individual>)new ArrayList<Individual>(parents));
+        public Builder<F> setParentIDs(final long[] parentIDs) {
+            assert(parentIDs != null);
+            assert(parentIDs.length > 0);
+            this.parentIDs = Arrays.copyOf(parentIDs, parentIDs.length);
             return this;
         }
         
-        public Builder clearParents() {
-            parents = Option.NONE;
+        public Builder<F> clearParents() {
+            parentIDs = NO_PARENTS;
             return this;
         }
         
-        public Builder clearFitness() {
+        public Builder<F> clearFitness() {
             fitness = Option.NONE;
             return this;
         }
@@ -165,9 +167,9 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
                add(new IntGene(roll));
            } 
         }};
-        this.id = nextId++;
+        this.id = IDSpace.nextID();
         fitness = Option.NONE;
-        parents = Option.NONE;
+        parentIDs = NO_PARENTS;
         assert(repOK());
     }
     
@@ -182,20 +184,21 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
                add(new IntGene(roll));
            } 
         }};
-        this.id = nextId++;
+        this.id = IDSpace.nextID();
         fitness = Option.NONE;
-        parents = Option.NONE;
+        parentIDs = NO_PARENTS;
         assert(repOK());
     }
     
     /** Private constructor for use with the Builder pattern. Does not make defensive copies! */
-    private IntVectorIndividual(final List<IntGene> genome, final Option<F> fitness, final Option<List<Individual>> parents) {
+    private IntVectorIndividual(final List<IntGene> genome, final Option<F> fitness, final long[] parentIDs) {
         assert(genome != null);
         assert(!Misc.containsNulls(genome));
+        assert(parentIDs != null);
         this.genome = new ArrayList<>(genome);
-        this.id = nextId++;
+        this.id = IDSpace.nextID();
         this.fitness = fitness;
-        this.parents = parents;
+        this.parentIDs = parentIDs;
         assert(repOK());
     }
 
@@ -205,7 +208,7 @@ public class IntVectorIndividual<F extends Fitness> extends LinearGenomeIndividu
         return id >= 0
                 && genome != null
                 && fitness != null
-                && !(parents.isDefined() && parents.get().isEmpty())
+                && parentIDs != null
                 && !Misc.containsNulls(genome);
     }
     
@@ -17,9 +17,10 @@ public abstract class LinearGenomeIndividual<G extends Gene, F extends Fitness>
      * the subtype.
      * 
      * @param genome The genome to use in the new individual.
-     * @param parents The parent(s) of the individual.
+     * @param parentIDs The IDs of the parent(s) of the individual, or an
+     * empty array if it has none.
      */
-    public abstract LinearGenomeIndividual<G, F> create(final List<G> genome, final List<? extends Individual> parents);
+    public abstract LinearGenomeIndividual<G, F> create(final List<G> genome, final long[] parentIDs);
     
     /** Return a defensive copy of the genome. */
     public abstract List<G> getGenome();
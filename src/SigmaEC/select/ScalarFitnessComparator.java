@@ -55,13 +55,16 @@ public class ScalarFitnessComparator<T extends Individual<F>, F extends Fitness>
         assert(ind != null);
         if (ind1 == null)
             return 1; // Always better than null
-        final F t = ind.getFitness();
-        final F t1 = ind1.getFitness();
-        if (Double.isNaN(t1.asScalar()))
+        return compare(ind.getFitness().asScalar(), ind1.getFitness().asScalar());
+    }
+    
+    /** Compare two raw fitness values, with the same semantics as compare(T, T). */
+    public int compare(final double fitness, final double fitness1) {
+        if (Double.isNaN(fitness1))
             return 1; // Always better than NaN.
-        if (Misc.doubleEquals(t.asScalar(), t1.asScalar(), delta))
+        if (Misc.doubleEquals(fitness, fitness1, delta))
             return 0;
-        if (t.asScalar() < t1.asScalar())
+        if (fitness < fitness1)
             return (minimize ? 1 : -1);
         else
             return (minimize ? -1 : 1);
@@ -77,6 +80,14 @@ public class ScalarFitnessComparator<T extends Individual<F>, F extends Fitness>
         else
             return compare(ind, ind1) > 0;
     }
+    
+    /** Compare two raw fitness values, with the same semantics as betterThan(T, T). */
+    public boolean betterThan(final double fitness, final double fitness1) {
+        if (equalIsBetter)
+            return compare(fitness, fitness1) >= 0;
+        else
+            return compare(fitness, fitness1) > 0;
+    }
 
     // <editor-fold defaultstate="collapsed" desc="Standard Methods">
     public final boolean repOK() {
@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -83,6 +84,13 @@ public class Parameters extends ContractObject {
             return this;
         }
         
+        /** Forget every registered instance, so that the Parameters database
+         * that is built creates its objects afresh. */
+        public Builder clearInstances() {
+            instanceRegistry.clear();
+            return this;
+        }
+        
         /** Remove an entry from this Parameters database. */
         public Builder clearParameter(final String parameter) {
             assert(parameter != null);
@@ -109,6 +117,11 @@ public class Parameters extends ContractObject {
         return properties.containsKey(parameterName);
     }
     
+    /** @return The names of all the parameters that are defined. */
+    public Set<String> getParameterNames() {
+        return properties.stringPropertyNames();
+    }
+    
     public boolean isRegistered(final String parameterName) {
         assert(parameterName != null);
         assert(!parameterName.isEmpty());
@@ -2,8 +2,17 @@ package SigmaEC.util.math;
 
 import SigmaEC.util.Misc;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
+ * Dense matrix routines, both for jagged double[][] matrices and for flat,
+ * row-major double[] matrices.
+ * 
+ * The flat routines (gemm(), gemv(), multiplyTransposed()) are cache-blocked,
+ * and gemm() and gemv() have fork/join-parallel versions for large problems.
+ * They all accumulate each output element in the same order as the textbook
+ * triple loop, so blocking and parallelism never change the results.
  *
  * @author Eric 'Siggy' Scott
  */
@@ -40,27 +49,308 @@ public class Matrix {
         assert(allRowsEqualLength(M1) && allRowsEqualLength(M2));
         assert(M1[0].length == M2.length);
 
-        int numRows = M1.length;
-        int numCols = M2[0].length;
-        double[][] productMatrix = new double[numRows][numCols];
-        double sumProduct = 0.0;
+        final int numRows = M1.length;
+        final int numInner = M2.length;
+        final int numCols = M2[0].length;
+        final double[] product = new double[numRows*numCols];
+        parallelGemm(flatten(M1), flatten(M2), product, numRows, numInner, numCols);
+        return unflatten(product, numRows, numCols);
+    }
+    
+    /** Right-multiply a square matrix, in place, by the Givens rotation that
+     * is the identity except for rows and columns p and q, where it is
+     * [ cos -sin ; sin cos ].  This takes O(n) time instead of the O(n^3) of
+     * building the rotation matrix and calling multiply(), and gives the same
+     * result. */
+    public static void rotateColumns(final double[][] matrix, final int p, final int q, final double cos, final double sin) {
+        assert(matrix != null);
+        assert(isSquare(matrix));
+        assert(p >= 0 && p < matrix.length);
+        assert(q >= 0 && q < matrix.length);
+        assert(p != q);
+        for (final double[] row : matrix) {
+            final double a = row[p];
+            final double b = row[q];
+            row[p] = a * cos + b * sin;
+            row[q] = a * -sin + b * cos;
+        }
+    }
+    
+    /** Like rotateColumns(double[][], ...), for an n-by-n flat matrix. */
+    public static void rotateColumns(final double[] matrix, final int n, final int p, final int q, final double cos, final double sin) {
+        assert(matrix != null);
+        assert(matrix.length == n*n);
+        assert(p >= 0 && p < n);
+        assert(q >= 0 && q < n);
+        assert(p != q);
+        for (int row = 0; row < matrix.length; row += n) {
+            final double a = matrix[row + p];
+            final double b = matrix[row + q];
+            matrix[row + p] = a * cos + b * sin;
+            matrix[row + q] = a * -sin + b * cos;
+        }
+    }
+    
+    // <editor-fold defaultstate="collapsed" desc="Flat matrices">
+    /** Tile sizes for gemm(): a 128-by-256 tile of B is 256 KB. */
+    private final static int GEMM_DEPTH_BLOCK = 128;
+    private final static int GEMM_COLUMN_BLOCK = 256;
+    /** Problems with fewer multiply-adds than this aren't worth forking. */
+    private final static long PARALLEL_THRESHOLD = 1 << 18;
+    private static ForkJoinPool pool;
+    
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null)
+            pool = new ForkJoinPool();
+        return pool;
+    }
+    
+    /** @return A flat row-major matrix as a jagged one. */
+    public static double[][] unflatten(final double[] matrix, final int rows, final int columns) {
+        assert(matrix != null);
+        assert(matrix.length == rows*columns);
+        final double[][] jagged = new double[rows][];
+        for (int i = 0; i < rows; i++)
+            jagged[i] = Arrays.copyOfRange(matrix, i*columns, (i + 1)*columns);
+        return jagged;
+    }
+    
+    /**
+     * General matrix-matrix product, c = a * b, for flat row-major matrices.
+     * 
+     * @param a An m-by-k matrix.
+     * @param b A k-by-n matrix.
+     * @param c Output, an m-by-n matrix.  Must not be a or b.
+     */
+    public static void gemm(final double[] a, final double[] b, final double[] c, final int m, final int k, final int n) {
+        assert(a != null);
+        assert(b != null);
+        assert(c != null);
+        assert(a.length == m*k);
+        assert(b.length == k*n);
+        assert(c.length == m*n);
+        assert(c != a && c != b);
+        gemmRows(a, b, c, k, n, 0, m);
+    }
+    
+    /** Like gemm(), but the rows of c are split among fork/join tasks if the
+     * product is large enough to benefit. */
+    public static void parallelGemm(final double[] a, final double[] b, final double[] c, final int m, final int k, final int n) {
+        assert(a != null);
+        assert(b != null);
+        assert(c != null);
+        assert(a.length == m*k);
+        assert(b.length == k*n);
+        assert(c.length == m*n);
+        assert(c != a && c != b);
+        if ((long) m*k*n < PARALLEL_THRESHOLD)
+            gemmRows(a, b, c, k, n, 0, m);
+        else
+            pool().invoke(new GemmTask(a, b, c, k, n, 0, m));
+    }
+    
+    /** Rows from (inclusive) through to (exclusive) of gemm().  Each c[i][j]
+     * is accumulated from zero over l = 0, ..., k-1 in order. */
+    private static void gemmRows(final double[] a, final double[] b, final double[] c, final int k, final int n, final int from, final int to) {
+        Arrays.fill(c, from*n, to*n, 0.0);
+        for (int l0 = 0; l0 < k; l0 += GEMM_DEPTH_BLOCK) {
+            final int l1 = Math.min(l0 + GEMM_DEPTH_BLOCK, k);
+            for (int j0 = 0; j0 < n; j0 += GEMM_COLUMN_BLOCK) {
+                final int j1 = Math.min(j0 + GEMM_COLUMN_BLOCK, n);
+                for (int i = from; i < to; i++) {
+                    final int cRow = i*n;
+                    final int aRow = i*k;
+                    for (int l = l0; l < l1; l++) {
+                        final double ail = a[aRow + l];
+                        final int bRow = l*n;
+                        for (int j = j0; j < j1; j++)
+                            c[cRow + j] += ail * b[bRow + j];
+                    }
+                }
+            }
+        }
+    }
+    
+    private static class GemmTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] a, b, c;
+        private final int k, n, from, to;
+        
+        GemmTask(final double[] a, final double[] b, final double[] c, final int k, final int n, final int from, final int to) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.k = k;
+            this.n = n;
+            this.from = from;
+            this.to = to;
+        }
         
-        for(int i = 0; i < numRows; i++)
-        {
-            for(int j = 0; j < M2[0].length; j++)
-            {
-                sumProduct=0.0;
-                for(int k = 0; k < numCols; k++)
-                {
-                    sumProduct += M1[i][k] * M2[k][j];  
-                }              
-                productMatrix[i][j] = sumProduct;
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || (long) (to - from)*k*n < PARALLEL_THRESHOLD)
+                gemmRows(a, b, c, k, n, from, to);
+            else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new GemmTask(a, b, c, k, n, from, middle), new GemmTask(a, b, c, k, n, middle, to));
             }
         }
-                
-        return productMatrix;
     }
     
+    /**
+     * General matrix-vector product, y = a * x, for a flat row-major matrix.
+     * 
+     * @param a An m-by-n matrix.
+     * @param x A vector of length n.
+     * @param y Output, a vector of length m.  Must not be x.
+     */
+    public static void gemv(final double[] a, final double[] x, final double[] y, final int m, final int n) {
+        assert(a != null);
+        assert(x != null);
+        assert(y != null);
+        assert(a.length == m*n);
+        assert(x.length == n);
+        assert(y.length == m);
+        assert(x != y);
+        gemvRows(a, x, y, n, 0, m);
+    }
+    
+    /** Like gemv(), but the rows are split among fork/join tasks if the
+     * matrix is large enough to benefit. */
+    public static void parallelGemv(final double[] a, final double[] x, final double[] y, final int m, final int n) {
+        assert(a != null);
+        assert(x != null);
+        assert(y != null);
+        assert(a.length == m*n);
+        assert(x.length == n);
+        assert(y.length == m);
+        assert(x != y);
+        if ((long) m*n < PARALLEL_THRESHOLD)
+            gemvRows(a, x, y, n, 0, m);
+        else
+            pool().invoke(new GemvTask(a, x, y, n, 0, m));
+    }
+    
+    private static void gemvRows(final double[] a, final double[] x, final double[] y, final int n, final int from, final int to) {
+        for (int i = from; i < to; i++)
+            y[i] = Vector.dotProduct(a, i*n, x, 0, n);
+    }
+    
+    private static class GemvTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] a, x, y;
+        private final int n, from, to;
+        
+        GemvTask(final double[] a, final double[] x, final double[] y, final int n, final int from, final int to) {
+            this.a = a;
+            this.x = x;
+            this.y = y;
+            this.n = n;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1 || (long) (to - from)*n < PARALLEL_THRESHOLD)
+                gemvRows(a, x, y, n, from, to);
+            else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new GemvTask(a, x, y, n, from, middle), new GemvTask(a, x, y, n, middle, to));
+            }
+        }
+    }
+    
+    /** Tile sizes for multiplyTransposed(), chosen so that a tile of each
+     * operand (32 rows of 256 doubles, 64 KB) stays in the L2 cache. */
+    private final static int ROW_BLOCK = 32;
+    private final static int DEPTH_BLOCK = 256;
+    
+    /** @return A jagged matrix laid out row-major in one array. */
+    public static double[] flatten(final double[][] matrix) {
+        assert(matrix != null);
+        assert(allRowsEqualLength(matrix));
+        if (matrix.length == 0)
+            return new double[0];
+        final int columns = matrix[0].length;
+        final double[] flat = new double[matrix.length*columns];
+        for (int i = 0; i < matrix.length; i++)
+            System.arraycopy(matrix[i], 0, flat, i*columns, columns);
+        return flat;
+    }
+    
+    /**
+     * Multiply a block of row vectors by the transpose of an n-by-n matrix,
+     * i.e. out[r] = M * x[r] for each row r, as a cache-blocked
+     * matrix-matrix product.  All three arrays are flat and row-major.  Only
+     * rows fromRow (inclusive) through toRow (exclusive) are computed, so
+     * that several threads can share the work.
+     * 
+     * Each output element is accumulated from zero over j = 0, ..., n-1 in
+     * order, exactly as a plain matrix-vector product would, so the results
+     * are bit-for-bit the same.
+     * 
+     * @param x The input vectors, n elements each.
+     * @param m The matrix, n*n elements.
+     * @param n The length of each vector.
+     * @param out Output, the same size as x.  Must not be x.
+     */
+    public static void multiplyTransposed(final double[] x, final double[] m, final int n, final double[] out, final int fromRow, final int toRow) {
+        assert(x != null);
+        assert(m != null);
+        assert(out != null);
+        assert(out != x);
+        assert(n > 0);
+        assert(m.length == n*n);
+        assert(x.length % n == 0);
+        assert(out.length == x.length);
+        assert(fromRow >= 0);
+        assert(toRow <= x.length/n);
+        assert(fromRow <= toRow);
+        Arrays.fill(out, fromRow*n, toRow*n, 0.0);
+        for (int r0 = fromRow; r0 < toRow; r0 += ROW_BLOCK) {
+            final int r1 = Math.min(r0 + ROW_BLOCK, toRow);
+            for (int i0 = 0; i0 < n; i0 += ROW_BLOCK) {
+                final int i1 = Math.min(i0 + ROW_BLOCK, n);
+                for (int j0 = 0; j0 < n; j0 += DEPTH_BLOCK) {
+                    final int j1 = Math.min(j0 + DEPTH_BLOCK, n);
+                    int r = r0;
+                    // Four rows at a time: each element of m is loaded once for all four, and the four sums are independent
+                    for (; r + 4 <= r1; r += 4) {
+                        final int x0 = r*n, x1 = x0 + n, x2 = x1 + n, x3 = x2 + n;
+                        for (int i = i0; i < i1; i++) {
+                            final int mRow = i*n;
+                            double s0 = out[x0 + i], s1 = out[x1 + i], s2 = out[x2 + i], s3 = out[x3 + i];
+                            for (int j = j0; j < j1; j++) {
+                                final double mij = m[mRow + j];
+                                s0 += x[x0 + j] * mij;
+                                s1 += x[x1 + j] * mij;
+                                s2 += x[x2 + j] * mij;
+                                s3 += x[x3 + j] * mij;
+                            }
+                            out[x0 + i] = s0;
+                            out[x1 + i] = s1;
+                            out[x2 + i] = s2;
+                            out[x3 + i] = s3;
+                        }
+                    }
+                    for (; r < r1; r++) {
+                        final int xRow = r*n;
+                        for (int i = i0; i < i1; i++) {
+                            final int mRow = i*n;
+                            double sum = out[xRow + i];
+                            for (int j = j0; j < j1; j++)
+                                sum += x[xRow + j] * m[mRow + j];
+                            out[xRow + i] = sum;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    // </editor-fold>
+    
     public static String prettyPrint(final double[][] matrix) {
         assert(allRowsEqualLength(matrix));
         if (matrix.length == 0)
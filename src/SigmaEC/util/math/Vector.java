@@ -26,7 +26,7 @@ public final class Vector {
         assert(v != null);
         double sum = 0;
         for (int i = 0; i < v.length; i++)
-            sum += Math.pow(v[i], 2);
+            sum += v[i]*v[i];
         return Math.sqrt(sum);
     }
     
@@ -53,6 +53,28 @@ public final class Vector {
         return sum;
     }
     
+    /** Dot product of length elements of v1 and v2, starting at the given
+     * offsets (ex. of a row of a flat matrix with a vector). */
+    public static double dotProduct(final double[] v1, final int offset1, final double[] v2, final int offset2, final int length) {
+        assert(v1 != null);
+        assert(v2 != null);
+        assert(offset1 >= 0 && offset1 + length <= v1.length);
+        assert(offset2 >= 0 && offset2 + length <= v2.length);
+        double sum = 0;
+        for (int i = 0; i < length; i++)
+            sum += v1[offset1 + i] * v2[offset2 + i];
+        return sum;
+    }
+    
+    /** Add a multiple of one vector to another, in place: y = y + a*x. */
+    public static void axpy(final double a, final double[] x, final double[] y) {
+        assert(x != null);
+        assert(y != null);
+        assert(x.length == y.length);
+        for (int i = 0; i < x.length; i++)
+            y[i] += a * x[i];
+    }
+    
     /** Difference between to vectors.
      * 
      * @return v1 - v2
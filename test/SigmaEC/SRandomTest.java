@@ -0,0 +1,159 @@
+package SigmaEC;
+
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class SRandomTest {
+
+    public SRandomTest() {
+    }
+
+    private static double[] draw(final SRandom random, final int n) {
+        final double[] result = new double[n];
+        for (int i = 0; i < n; i++)
+            result[i] = (i % 2 == 0) ? random.nextDouble() : random.nextGaussian();
+        return result;
+    }
+
+    private static double[] drawInStream(final SRandom random, final long root, final long index, final int n) {
+        final SRandom.Stream stream = SRandom.openStream(root, index);
+        try {
+            return draw(random, n);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /** Test of openStream method, of class SRandom. */
+    @Test
+    public void testStreamIsReproducible() {
+        System.out.println("stream is reproducible");
+        final SRandom random = new SRandom(4242);
+        final double[] expected = drawInStream(random, 7, 3, 20);
+        random.nextInt(); // Advancing the shared state doesn't affect streams
+        assertArrayEquals(expected, drawInStream(random, 7, 3, 20), 0.0);
+        assertArrayEquals(expected, drawInStream(new SRandom(4242), 7, 3, 20), 0.0);
+    }
+
+    /** Test of openStream method, of class SRandom. */
+    @Test
+    public void testStreamsDiffer() {
+        System.out.println("streams differ");
+        final SRandom random = new SRandom(4242);
+        final double[] a = drawInStream(random, 7, 3, 20);
+        assertFalse(Arrays.equals(a, drawInStream(random, 7, 4, 20)));
+        assertFalse(Arrays.equals(a, drawInStream(random, 8, 3, 20)));
+        assertFalse(Arrays.equals(a, drawInStream(new SRandom(1), 7, 3, 20)));
+    }
+
+    /** Test that drawing from a stream leaves the shared state alone. */
+    @Test
+    public void testStreamLeavesSharedStateAlone() {
+        System.out.println("stream leaves shared state alone");
+        final SRandom expected = new SRandom(4242);
+        final SRandom random = new SRandom(4242);
+        drawInStream(random, 7, 3, 20);
+        assertArrayEquals(draw(expected, 20), draw(random, 20), 0.0);
+    }
+
+    /** Test that nested streams are reproducible and restore their parent on close. */
+    @Test
+    public void testNestedStreams() {
+        System.out.println("nested streams");
+        final SRandom random = new SRandom(4242);
+        final double[] outerBefore, inner, outerAfter;
+        final SRandom.Stream outer = SRandom.openStream(7, 3);
+        try {
+            outerBefore = draw(random, 4);
+            inner = drawInStream(random, 1, 2, 4);
+            outerAfter = draw(random, 4);
+        } finally {
+            outer.close();
+        }
+        final double[] outerAll = drawInStream(random, 7, 3, 8);
+        assertArrayEquals(outerBefore, Arrays.copyOfRange(outerAll, 0, 4), 0.0);
+        assertArrayEquals(outerAfter, Arrays.copyOfRange(outerAll, 4, 8), 0.0);
+        // A nested stream is keyed by its parent, so it differs from a top-level one
+        assertFalse(Arrays.equals(inner, drawInStream(random, 1, 2, 4)));
+    }
+
+    /** Test that a stream gives the same draws no matter which thread opens it. */
+    @Test
+    public void testStreamIsThreadIndependent() throws Exception {
+        System.out.println("stream is thread independent");
+        final SRandom random = new SRandom(4242);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>() {{
+                for (int i = 0; i < 16; i++) {
+                    final int index = i;
+                    add(new Callable<double[]>() {
+                        @Override
+                        public double[] call() {
+                            return drawInStream(random, 99, index, 50);
+                        }
+                    });
+                }
+            }};
+            final List<Future<double[]>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++)
+                assertArrayEquals(drawInStream(random, 99, i, 50), results.get(i).get(), 0.0);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<DoubleVectorIndividual<ScalarFitness>> evaluateNoisily(final int numThreads) {
+        final SRandom random = new SRandom(4242);
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective = new ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>() {
+            @Override
+            public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+                return new ScalarFitness(ind.getElement(0) + random.nextGaussian());
+            }
+            @Override public void setStep(final int i) { }
+            @Override public int getNumDimensions() { return 1; }
+            @Override public boolean repOK() { return true; }
+            @Override public boolean equals(final Object o) { return o == this; }
+            @Override public int hashCode() { return 0; }
+            @Override public String toString() { return "noisy"; }
+        };
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective)
+                .setNumThreads(numThreads)
+                .setRandomStreams(random)
+                .build();
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 40; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i }).build());
+        }};
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population);
+        assertTrue(op.repOK());
+        return result;
+    }
+
+    /** Test that EvaluationOperator's random streams make noisy fitness independent of the number of threads. */
+    @Test
+    public void testEvaluationIsThreadCountIndependent() {
+        System.out.println("evaluation is thread count independent");
+        final List<DoubleVectorIndividual<ScalarFitness>> expected = evaluateNoisily(1);
+        final List<DoubleVectorIndividual<ScalarFitness>> actual = evaluateNoisily(4);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i).getFitness(), actual.get(i).getFitness());
+    }
+}
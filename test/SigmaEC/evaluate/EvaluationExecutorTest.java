@@ -0,0 +1,119 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.evaluate.objective.ConstantObjective;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class EvaluationExecutorTest {
+
+    public EvaluationExecutorTest() {
+    }
+
+    private static List<Callable<Integer>> tasks(final int n) {
+        return new ArrayList<Callable<Integer>>(n) {{
+            for (int i = 0; i < n; i++) {
+                final int x = i;
+                add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return x*x;
+                    }
+                });
+            }
+        }};
+    }
+
+    /** Test of invokeAll method, of class EvaluationExecutor. */
+    @Test
+    public void testInvokeAll() throws Exception {
+        System.out.println("invokeAll");
+        final EvaluationExecutor sut = new EvaluationExecutor(3);
+        final List<Future<Integer>> results = sut.invokeAll(tasks(20));
+        assertEquals(20, results.size());
+        for (int i = 0; i < results.size(); i++)
+            assertEquals(i*i, (int) results.get(i).get());
+        assertEquals(20, sut.getCompletedTaskCount());
+        assertTrue(sut.getMaxQueueDepth() <= 20);
+        assertTrue(sut.getUtilization() >= 0.0);
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that invokeAll runs nested batches on the calling worker instead
+     * of waiting on a pool that every thread is blocked in. */
+    @Test(timeout = 10000)
+    public void testNestedInvokeAll() throws Exception {
+        System.out.println("invokeAll (nested)");
+        final EvaluationExecutor sut = new EvaluationExecutor(2);
+        assertFalse(sut.isWorkerThread());
+        final List<Callable<Integer>> outer = new ArrayList<Callable<Integer>>() {{
+            for (int i = 0; i < 4; i++)
+                add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        assertTrue(sut.isWorkerThread());
+                        int sum = 0;
+                        for (final Future<Integer> f : sut.invokeAll(tasks(5)))
+                            sum += f.get();
+                        return sum;
+                    }
+                });
+        }};
+        for (final Future<Integer> f : sut.invokeAll(outer))
+            assertEquals(30, (int) f.get());
+        assertFalse(new EvaluationExecutor(1).isWorkerThread());
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of shutdown method, of class EvaluationExecutor. */
+    @Test
+    public void testReusableAfterShutdown() throws Exception {
+        System.out.println("reusable after shutdown");
+        final EvaluationExecutor sut = new EvaluationExecutor(2);
+        sut.invokeAll(tasks(5));
+        sut.shutdown();
+        assertEquals(0, sut.getQueueDepth());
+        final List<Future<Integer>> results = sut.invokeAll(tasks(5));
+        assertEquals(16, (int) results.get(4).get());
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of resetStatistics method, of class EvaluationExecutor. */
+    @Test
+    public void testResetStatistics() throws Exception {
+        System.out.println("resetStatistics");
+        final EvaluationExecutor sut = new EvaluationExecutor(2);
+        sut.invokeAll(tasks(5));
+        assertEquals(5, sut.getCompletedTaskCount());
+        sut.resetStatistics();
+        assertEquals(0, sut.getCompletedTaskCount());
+        assertEquals(0, sut.getMaxQueueDepth());
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of fitnessAsync method, of class ObjectiveFunction, run on an EvaluationExecutor. */
+    @Test
+    public void testFitnessAsync() throws Exception {
+        System.out.println("fitnessAsync");
+        final EvaluationExecutor sut = new EvaluationExecutor(2);
+        final ObjectiveFunction<DoubleVectorIndividual, ScalarFitness> objective = new ConstantObjective<>(2, 5.0);
+        final DoubleVectorIndividual ind = new DoubleVectorIndividual.Builder(new double[] { 1.0, 2.0 }).build();
+        final Future<ScalarFitness> result = objective.fitnessAsync(ind, sut);
+        assertEquals(new ScalarFitness(5.0), result.get());
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+}
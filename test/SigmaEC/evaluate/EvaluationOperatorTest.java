@@ -0,0 +1,274 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.evaluate.objective.ConstantObjective;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class EvaluationOperatorTest {
+    private final static String BASE = "evaluator";
+
+    public EvaluationOperatorTest() {
+    }
+
+    /** An objective whose fitness is the first gene.  The first time the
+     * individual whose first gene is 0 is evaluated, it hangs until it is
+     * interrupted. */
+    private static class StragglerObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+        final AtomicInteger numStragglerCalls = new AtomicInteger();
+        final AtomicInteger numInterrupted = new AtomicInteger();
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            if (ind.getElement(0) == 0.0 && numStragglerCalls.getAndIncrement() == 0) {
+                try {
+                    Thread.sleep(60000);
+                } catch (final InterruptedException ex) {
+                    numInterrupted.incrementAndGet();
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return new ScalarFitness(ind.getElement(0));
+        }
+
+        @Override public void setStep(final int i) { }
+        @Override public int getNumDimensions() { return 2; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[StragglerObjective]"; }
+    }
+
+    /** An objective that hangs until it is interrupted, and keeps track of
+     * how many of its evaluations are running. */
+    private static class HangingObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+        final AtomicInteger numStarted = new AtomicInteger();
+        final AtomicInteger numRunning = new AtomicInteger();
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            numStarted.incrementAndGet();
+            numRunning.incrementAndGet();
+            try {
+                Thread.sleep(60000);
+                return new ScalarFitness(ind.getElement(0));
+            } catch (final InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                numRunning.decrementAndGet();
+            }
+        }
+
+        @Override public void setStep(final int i) { }
+        @Override public int getNumDimensions() { return 2; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[HangingObjective]"; }
+    }
+
+    /** An objective whose fitness is the first gene, and whose asynchronous
+     * evaluations only run when their result is asked for, without using the
+     * executor.  Keeps track of how many are outstanding at once. */
+    private static class DeferredObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+        final AtomicInteger numOutstanding = new AtomicInteger();
+        final AtomicInteger maxOutstanding = new AtomicInteger();
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            return new ScalarFitness(ind.getElement(0));
+        }
+
+        @Override
+        public Future<ScalarFitness> fitnessAsync(final DoubleVectorIndividual<ScalarFitness> ind, final Executor executor) {
+            final int n = numOutstanding.incrementAndGet();
+            if (n > maxOutstanding.get())
+                maxOutstanding.set(n);
+            return new FutureTask<ScalarFitness>(new Callable<ScalarFitness>() {
+                @Override
+                public ScalarFitness call() {
+                    numOutstanding.decrementAndGet();
+                    return fitness(ind);
+                }
+            }) {
+                @Override
+                public ScalarFitness get() throws InterruptedException, ExecutionException {
+                    run(); // Does nothing if it has already run
+                    return super.get();
+                }
+            };
+        }
+
+        @Override public void setStep(final int i) { }
+        @Override public int getNumDimensions() { return 2; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[DeferredObjective]"; }
+    }
+
+    private static List<DoubleVectorIndividual<ScalarFitness>> population(final int n) {
+        return new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < n; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+    }
+
+    /** Test of asynchronous mode, of class EvaluationOperator. */
+    @Test
+    public void testAsynchronous() {
+        System.out.println("asynchronous");
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective = new ConstantObjective<>(2, 5.0);
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setMaxInFlight(16).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> population = population(50);
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population);
+        assertEquals(population.size(), result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertArrayEquals(population.get(i).getGenomeView(), result.get(i).getGenomeView(), 0.0);
+            assertEquals(new ScalarFitness(5.0), result.get(i).getFitness());
+        }
+        assertTrue(op.repOK());
+    }
+
+    /** Test that asynchronous mode never has more than maxInFlight
+     * evaluations outstanding, even if the objective doesn't use the
+     * executor's threads. */
+    @Test
+    public void testAsynchronousMaxInFlight() {
+        System.out.println("asynchronous (maxInFlight)");
+        final DeferredObjective objective = new DeferredObjective();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setMaxInFlight(3).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population(20));
+        assertEquals(20, result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        assertEquals(3, objective.maxOutstanding.get());
+        assertEquals(0, objective.numOutstanding.get());
+        assertTrue(op.repOK());
+    }
+
+    /** Test of timeoutSeconds and penaltyFitness, of class EvaluationOperator. */
+    @Test
+    public void testTimeout() throws Exception {
+        System.out.println("timeout");
+        final StragglerObjective objective = new StragglerObjective();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setNumThreads(4).setTimeout(0.2).setPenaltyFitness(new ScalarFitness(-1000.0)).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population(20));
+        assertEquals(20, result.size());
+        assertEquals(new ScalarFitness(-1000.0), result.get(0).getFitness());
+        for (int i = 1; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        assertEquals(1, op.getNumTimeouts());
+        // The cancelled evaluation is interrupted, but may take a moment to notice
+        for (int i = 0; i < 100 && objective.numInterrupted.get() == 0; i++)
+            Thread.sleep(10);
+        assertEquals(1, objective.numInterrupted.get());
+        assertTrue(op.repOK());
+    }
+
+    /** Test of timeoutSeconds without a penaltyFitness, of class EvaluationOperator. */
+    @Test
+    public void testTimeoutWithoutPenalty() throws Exception {
+        System.out.println("timeout (no penalty)");
+        final HangingObjective objective = new HangingObjective();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setNumThreads(4).setTimeout(0.2).build();
+        try {
+            op.operate(0, 0, population(20));
+            fail("Expected the timeout to fail the run.");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        // The other evaluations are cancelled too, and the queued ones never start
+        for (int i = 0; i < 100 && objective.numRunning.get() > 0; i++)
+            Thread.sleep(10);
+        assertEquals(0, objective.numRunning.get());
+        final int numStarted = objective.numStarted.get();
+        assertTrue(numStarted <= 4);
+        Thread.sleep(200);
+        assertEquals(numStarted, objective.numStarted.get());
+        assertEquals(0, objective.numRunning.get());
+    }
+
+    /** Test of timeoutSeconds and penaltyFitness given as parameters, of class EvaluationOperator. */
+    @Test
+    public void testTimeoutParameters() {
+        System.out.println("timeout (parameters)");
+        final StragglerObjective objective = new StragglerObjective();
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .registerInstance(Parameters.push(BASE, EvaluationOperator.P_OBJECTIVE), objective)
+                .setParameter(Parameters.push(BASE, EvaluationOperator.P_NUM_THREADS), "4")
+                .setParameter(Parameters.push(BASE, EvaluationOperator.P_TIMEOUT), "0.2")
+                .setParameter(Parameters.push(BASE, EvaluationOperator.P_PENALTY_FITNESS), "SigmaEC.evaluate.ScalarFitness")
+                .setParameter(Parameters.push(Parameters.push(BASE, EvaluationOperator.P_PENALTY_FITNESS), ScalarFitness.P_VALUE), "-1000.0")
+                .build();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator<>(parameters, BASE);
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population(20));
+        assertEquals(new ScalarFitness(-1000.0), result.get(0).getFitness());
+        for (int i = 1; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        assertEquals(1, op.getNumTimeouts());
+        assertTrue(op.repOK());
+    }
+
+    /** Test of speculativeFraction, of class EvaluationOperator. */
+    @Test
+    public void testSpeculation() {
+        System.out.println("speculation");
+        final StragglerObjective objective = new StragglerObjective();
+        final EvaluationCounter counter = new EvaluationCounter();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setNumThreads(4).setSpeculativeFraction(0.95).setCounter(counter).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population(20));
+        assertEquals(20, result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        assertEquals(1, op.getNumSpeculativeRuns());
+        assertEquals(2, objective.numStragglerCalls.get());
+        // The duplicate counts as a call to the objective
+        assertEquals(21, counter.get());
+        assertTrue(op.repOK());
+    }
+
+    /** Test of deduplicate, of class EvaluationOperator. */
+    @Test
+    public void testDeduplicate() {
+        System.out.println("deduplicate");
+        final AtomicInteger numCalls = new AtomicInteger();
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> counting = new ConstantObjective<DoubleVectorIndividual<ScalarFitness>>(2, 0.0) {
+            @Override
+            public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+                numCalls.incrementAndGet();
+                return new ScalarFitness(ind.getElement(1));
+            }
+        };
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 20; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { 1.0, i % 5 }).build());
+        }};
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(counting).setNumThreads(4).setDeduplicate(true).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population);
+        assertEquals(20, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(new ScalarFitness(i % 5), result.get(i).getFitness());
+            assertArrayEquals(population.get(i).getGenomeView(), result.get(i).getGenomeView(), 0.0);
+        }
+        assertEquals(5, numCalls.get());
+        assertEquals(20, op.getNumDeduplicationCandidates());
+        assertEquals(15, op.getNumDuplicates());
+        assertTrue(op.repOK());
+    }
+}
@@ -0,0 +1,206 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class FitnessCacheTest {
+    private final static String BASE = "base";
+
+    public FitnessCacheTest() {
+    }
+
+    /** Returns the first gene, and counts how many times it was called. */
+    private static class CountingObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+        final AtomicInteger numCalls = new AtomicInteger();
+        final long delayMillis;
+
+        CountingObjective(final long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            numCalls.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (final InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            return new ScalarFitness(ind.getElement(0));
+        }
+
+        @Override public void setStep(final int i) { }
+        @Override public int getNumDimensions() { return 2; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[CountingObjective]"; }
+    }
+
+    private static DoubleVectorIndividual<ScalarFitness> ind(final double x) {
+        return new DoubleVectorIndividual.Builder(new double[] { x, -x }).build();
+    }
+
+    /** Test that individuals with equal genomes share an entry, of class FitnessCache. */
+    @Test
+    public void testFitnessGenomeKeyed() {
+        System.out.println("fitness (genome keyed)");
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(100, FitnessCache.EvictionPolicy.LRU);
+        final CountingObjective objective = new CountingObjective(0);
+        assertEquals(new ScalarFitness(1.0), sut.fitness(ind(1.0), objective));
+        // A different individual with the same genome, a different ID, and a stale fitness
+        final DoubleVectorIndividual<ScalarFitness> clone = new DoubleVectorIndividual.Builder(new double[] { 1.0, -1.0 }).setID(12345).setFitness(new ScalarFitness(7.0)).build();
+        assertEquals(new ScalarFitness(1.0), sut.fitness(clone, objective));
+        assertEquals(1, objective.numCalls.get());
+        assertEquals(1, sut.getHits());
+        assertEquals(1, sut.getMisses());
+        assertEquals(0.5, sut.getHitRate(), 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of fitnessBatch method, of class FitnessCache. */
+    @Test
+    public void testFitnessBatch() {
+        System.out.println("fitnessBatch");
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(100, FitnessCache.EvictionPolicy.LRU);
+        final CountingObjective objective = new CountingObjective(0);
+        sut.fitness(ind(0.0), objective);
+        final List<DoubleVectorIndividual<ScalarFitness>> batch = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            add(ind(0.0));
+            add(ind(1.0));
+            add(ind(2.0));
+            add(ind(1.0));
+        }};
+        final List<ScalarFitness> result = sut.fitnessBatch(batch, objective);
+        assertEquals(4, result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(batch.get(i).getElement(0)), result.get(i));
+        assertEquals(3, objective.numCalls.get());
+        assertEquals(3, sut.size());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that an LRU cache stays within its bound, of class FitnessCache. */
+    /** Test that objectives sharing a cache don't see each other's values. */
+    @Test
+    public void testSharedAmongObjectives() {
+        System.out.println("shared among objectives");
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(100, FitnessCache.EvictionPolicy.LRU);
+        final CountingObjective identity = new CountingObjective(0);
+        final CountingObjective tenTimes = new CountingObjective(0) {
+            @Override
+            public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+                numCalls.incrementAndGet();
+                return new ScalarFitness(10*ind.getElement(0));
+            }
+        };
+        assertEquals(new ScalarFitness(3.0), sut.fitness(ind(3.0), identity));
+        assertEquals(new ScalarFitness(30.0), sut.fitness(ind(3.0), tenTimes));
+        final List<DoubleVectorIndividual<ScalarFitness>> batch = new ArrayList<>();
+        batch.add(ind(3.0));
+        batch.add(ind(4.0));
+        final List<ScalarFitness> result = sut.fitnessBatch(batch, tenTimes);
+        assertEquals(new ScalarFitness(30.0), result.get(0));
+        assertEquals(new ScalarFitness(40.0), result.get(1));
+        assertEquals(new ScalarFitness(4.0), sut.fitness(ind(4.0), identity));
+        assertEquals(2, identity.numCalls.get());
+        assertEquals(2, tenTimes.numCalls.get());
+        assertEquals(4, sut.size());
+        assertEquals(1, sut.getHits());
+        assertTrue(sut.repOK());
+    }
+
+    @Test
+    public void testLRUEviction() {
+        System.out.println("LRU eviction");
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .setParameter(Parameters.push(BASE, FitnessCache.P_MAX_ENTRIES), "10")
+                .build();
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(parameters, BASE);
+        final CountingObjective objective = new CountingObjective(0);
+        for (int i = 0; i < 100; i++) {
+            sut.fitness(ind(0.0), objective); // Kept fresh
+            sut.fitness(ind(i + 1), objective);
+            assertTrue(sut.size() <= 10);
+        }
+        assertEquals(10, sut.size());
+        assertEquals(91, sut.getEvictions());
+        assertEquals(101, objective.numCalls.get());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that a TinyLFU cache stays within its bound and keeps popular
+     * entries through a scan, of class FitnessCache. */
+    @Test
+    public void testTinyLFUEviction() {
+        System.out.println("TinyLFU eviction");
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .setParameter(Parameters.push(BASE, FitnessCache.P_MAX_ENTRIES), "100")
+                .setParameter(Parameters.push(BASE, FitnessCache.P_POLICY), "TINY_LFU")
+                .build();
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(parameters, BASE);
+        final CountingObjective objective = new CountingObjective(0);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++)
+                sut.fitness(ind(i), objective);
+        }
+        final int popularCalls = objective.numCalls.get();
+        // A scan of one-off genomes, more than the cache can hold
+        for (int i = 1000; i < 1300; i++) {
+            sut.fitness(ind(i), objective);
+            assertTrue(sut.size() <= 100);
+        }
+        objective.numCalls.set(0);
+        for (int i = 0; i < 50; i++)
+            sut.fitness(ind(i), objective);
+        assertEquals(50, popularCalls);
+        assertEquals(0, objective.numCalls.get());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that concurrent misses on one genome are evaluated once, of class FitnessCache. */
+    @Test
+    public void testCollapsedMisses() throws Exception {
+        System.out.println("collapsed misses");
+        final FitnessCache<ScalarFitness> sut = new FitnessCache<>(100, FitnessCache.EvictionPolicy.TINY_LFU);
+        final CountingObjective objective = new CountingObjective(200);
+        final ExecutorService threads = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<ScalarFitness>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(threads.submit(new Callable<ScalarFitness>() {
+                @Override
+                public ScalarFitness call() throws Exception {
+                    start.await();
+                    return sut.fitness(ind(3.0), objective);
+                }
+            }));
+        }
+        start.countDown();
+        for (final Future<ScalarFitness> f : results)
+            assertEquals(new ScalarFitness(3.0), f.get());
+        threads.shutdown();
+        assertEquals(1, objective.numCalls.get());
+        assertEquals(1, sut.getMisses());
+        assertEquals(7, sut.getHits() + sut.getCollapsedMisses());
+        assertTrue(sut.repOK());
+    }
+}
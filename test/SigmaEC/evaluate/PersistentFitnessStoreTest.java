@@ -0,0 +1,185 @@
+package SigmaEC.evaluate;
+
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.real.SphereObjective;
+import SigmaEC.evaluate.transform.PersistentCachedObjective;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class PersistentFitnessStoreTest {
+    private File file;
+
+    public PersistentFitnessStoreTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("fitness", ".store");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        PersistentFitnessStore.open(file).close();
+        file.delete();
+    }
+
+    private static long[] fingerprint(final double x) {
+        return GenomeKey.of(new DoubleVectorIndividual.Builder(new double[] { x, -x }).build()).getFingerprint();
+    }
+
+    /** Test of put and get methods across a reopen, of class PersistentFitnessStore. */
+    @Test
+    public void testReopen() {
+        System.out.println("reopen");
+        PersistentFitnessStore sut = PersistentFitnessStore.open(file);
+        assertSame(sut, PersistentFitnessStore.open(file));
+        // Enough to make the file grow
+        for (int i = 0; i < 3000; i++)
+            sut.put(1, fingerprint(i), i*2.0);
+        sut.put(2, fingerprint(0), -1.0);
+        assertNull(sut.get(3, fingerprint(0)));
+        sut.close();
+
+        sut = PersistentFitnessStore.open(file);
+        assertEquals(3001, sut.size());
+        for (int i = 0; i < 3000; i++)
+            assertEquals(i*2.0, sut.get(1, fingerprint(i)), 0.0);
+        assertEquals(-1.0, sut.get(2, fingerprint(0)), 0.0);
+        assertNull(sut.get(1, fingerprint(3000)));
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of compact method, of class PersistentFitnessStore. */
+    @Test
+    public void testCompact() {
+        System.out.println("compact");
+        final PersistentFitnessStore sut = PersistentFitnessStore.open(file);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++)
+                sut.put(1, fingerprint(i), round);
+        }
+        assertEquals(300, sut.getNumRecords());
+        sut.compact();
+        assertEquals(100, sut.getNumRecords());
+        assertEquals(100, sut.size());
+        sut.put(1, fingerprint(100), 5.0);
+        sut.close();
+
+        final PersistentFitnessStore reopened = PersistentFitnessStore.open(file);
+        assertEquals(101, reopened.getNumRecords());
+        for (int i = 0; i < 100; i++)
+            assertEquals(2.0, reopened.get(1, fingerprint(i)), 0.0);
+        assertEquals(5.0, reopened.get(1, fingerprint(100)), 0.0);
+        assertTrue(reopened.repOK());
+    }
+
+    /** Test that a store whose compaction can't be moved into place, or
+     * reopened, is forgotten, of class PersistentFitnessStore. */
+    @Test
+    public void testCompactFailure() throws Exception {
+        System.out.println("compact (failure)");
+        final PersistentFitnessStore sut = PersistentFitnessStore.open(file);
+        sut.put(1, fingerprint(0), 1.0);
+        // Put a non-empty directory where the log was, so the move fails
+        assertTrue(file.delete());
+        assertTrue(new File(file, "x").mkdirs());
+        try {
+            sut.compact();
+            fail();
+        } catch (final IllegalStateException ex) {
+            // Expected
+        } finally {
+            new File(file, "x").delete();
+            file.delete();
+        }
+        assertFalse(new File(file.getPath() + ".compact").exists());
+        try {
+            sut.put(1, fingerprint(1), 2.0);
+            fail();
+        } catch (final IllegalStateException ex) {
+            // Expected
+        }
+
+        final PersistentFitnessStore reopened = PersistentFitnessStore.open(file);
+        assertNotSame(sut, reopened);
+        assertEquals(0, reopened.size());
+        reopened.put(1, fingerprint(0), 3.0);
+        assertEquals(3.0, reopened.get(1, fingerprint(0)), 0.0);
+        assertTrue(reopened.repOK());
+    }
+
+    private static class CountingSphere extends SphereObjective {
+        final AtomicInteger numCalls = new AtomicInteger();
+
+        CountingSphere() {
+            super(2);
+        }
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            numCalls.incrementAndGet();
+            return super.fitness(ind);
+        }
+
+        @Override
+        public List<ScalarFitness> fitnessBatch(final List<? extends DoubleVectorIndividual<ScalarFitness>> inds) {
+            numCalls.addAndGet(inds.size());
+            return super.fitnessBatch(inds);
+        }
+    }
+
+    /** Test that a second run skips evaluations paid for by the first, of
+     * class PersistentCachedObjective. */
+    @Test
+    public void testWarmStart() {
+        System.out.println("PersistentCachedObjective (warm start)");
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 20; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+        final CountingSphere first = new CountingSphere();
+        final List<ScalarFitness> expected = new PersistentCachedObjective<>(first, PersistentFitnessStore.open(file), "sphere").fitnessBatch(population);
+        assertEquals(20, first.numCalls.get());
+        PersistentFitnessStore.open(file).close();
+
+        final CountingSphere second = new CountingSphere();
+        final PersistentCachedObjective<DoubleVectorIndividual<ScalarFitness>> sut = new PersistentCachedObjective<>(second, PersistentFitnessStore.open(file), "sphere");
+        assertEquals(expected, sut.fitnessBatch(population));
+        assertEquals(expected.get(3), sut.fitness(population.get(3)));
+        assertEquals(0, second.numCalls.get());
+        assertEquals(21, sut.getHits());
+
+        // Another objective doesn't see the stored values
+        final CountingSphere third = new CountingSphere();
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> other = new PersistentCachedObjective<>(third, PersistentFitnessStore.open(file), "other");
+        other.fitness(population.get(3));
+        assertEquals(1, third.numCalls.get());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that the namespace must be given explicitly, of class
+     * PersistentCachedObjective. */
+    @Test(expected = IllegalStateException.class)
+    public void testNamespaceRequired() {
+        System.out.println("PersistentCachedObjective (namespace required)");
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .registerInstance(Parameters.push("objective", PersistentCachedObjective.P_OBJECTIVE), new CountingSphere())
+                .setParameter(Parameters.push("objective", PersistentCachedObjective.P_FILE), file.getPath())
+                .build();
+        new PersistentCachedObjective<DoubleVectorIndividual<ScalarFitness>>(parameters, "objective");
+    }
+}
@@ -0,0 +1,220 @@
+package SigmaEC.evaluate.objective;
+
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Runs small shell scripts as the external command, so it needs /bin/sh.
+ *
+ * @author Eric O. Scott
+ */
+public class ExternalObjectiveTest {
+    private final static String BASE = "base";
+    private File script;
+    private List<DoubleVectorIndividual> population;
+
+    public ExternalObjectiveTest() {
+    }
+
+    @Before
+    public void setUp() {
+        population = new ArrayList<DoubleVectorIndividual>() {{
+            for (int i = 0; i < 10; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+    }
+
+    @After
+    public void tearDown() {
+        if (script != null)
+            script.delete();
+    }
+
+    /** @return A Parameters.Builder for an ExternalObjective that runs the given script. */
+    private Parameters.Builder builder(final String body) throws IOException {
+        return builder(BASE, body);
+    }
+
+    private Parameters.Builder builder(final String base, final String body) throws IOException {
+        script = File.createTempFile("objective", ".sh");
+        try (final Writer w = new FileWriter(script)) {
+            w.write("#!/bin/sh\n");
+            w.write(body);
+        }
+        assertTrue(script.setExecutable(true));
+        return new Parameters.Builder(new Properties())
+                .setParameter(Parameters.push(base, ExternalObjective.P_DIMENSIONS), "2")
+                .setParameter(Parameters.push(base, ExternalObjective.P_COMMAND), script.getAbsolutePath())
+                .setParameter(Parameters.push(base, ExternalObjective.P_FORMATTER), "SigmaEC.represent.format.DoubleVectorCSVFormatter");
+    }
+
+    /** Prints the first gene of each genome it reads. */
+    private final static String FIRST_GENE = "while IFS=, read a rest; do echo \"$a\"; done\n";
+
+    /** Test of fitnessBatch method in batch mode, of class ExternalObjective. */
+    @Test
+    public void testFitnessBatch() throws Exception {
+        System.out.println("fitnessBatch (batch)");
+        final Parameters parameters = builder(FIRST_GENE)
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH), "true")
+                .build();
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(parameters, BASE);
+        final List<ScalarFitness> result = sut.fitnessBatch(population);
+        assertEquals(population.size(), result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i));
+        assertEquals(new ScalarFitness(3.0), sut.fitness(population.get(3)));
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of fitnessBatch method with chunks, of class ExternalObjective. */
+    @Test
+    public void testFitnessBatchChunks() throws Exception {
+        System.out.println("fitnessBatch (chunks)");
+        final Parameters parameters = builder(FIRST_GENE)
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH), "true")
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH_SIZE), "3")
+                .build();
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(parameters, BASE);
+        final List<ScalarFitness> result = sut.fitnessBatch(population);
+        assertEquals(population.size(), result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i));
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that a batch command that returns too few values is an error. */
+    @Test(expected = IllegalStateException.class)
+    public void testFitnessBatchShort() throws Exception {
+        System.out.println("fitnessBatch (short)");
+        final Parameters parameters = builder("read a; echo 1.0\n")
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH), "true")
+                .build();
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(parameters, BASE);
+        sut.fitnessBatch(population);
+    }
+
+    /** Test of fitnessAsync method, of class ExternalObjective. */
+    @Test(timeout = 60000)
+    public void testFitnessAsync() throws Exception {
+        System.out.println("fitnessAsync");
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(builder("IFS=, read a rest; sleep 1; echo \"$a\"\n").build(), BASE);
+        // The processes run on their own, so the executor is never needed
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                fail("fitnessAsync() should not use the executor.");
+            }
+        };
+        final long start = System.nanoTime();
+        final List<Future<ScalarFitness>> result = new ArrayList<>();
+        for (final DoubleVectorIndividual ind : population)
+            result.add(sut.fitnessAsync(ind, executor));
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).get());
+        // All the processes sleep at the same time
+        assertTrue((System.nanoTime() - start)/1.0e9 < population.size()/2.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that cancelling the result of fitnessAsync kills the process. */
+    @Test(timeout = 60000)
+    public void testFitnessAsyncCancel() throws Exception {
+        System.out.println("fitnessAsync (cancel)");
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(builder("exec sleep 30\n").build(), BASE);
+        final Future<ScalarFitness> result = sut.fitnessAsync(population.get(0), new EvaluationExecutor(1));
+        assertFalse(result.isDone());
+        assertTrue(result.cancel(true));
+        assertTrue(result.isCancelled());
+        assertTrue(result.isDone());
+        try {
+            result.get();
+            fail("Expected a CancellationException.");
+        } catch (final CancellationException e) {
+            // Expected
+        }
+    }
+
+    /** Test of fitness method with a worker pool, of class ExternalObjective. */
+    @Test
+    public void testFitnessWorkers() throws Exception {
+        System.out.println("fitness (workers)");
+        final Parameters parameters = builder(FIRST_GENE)
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_NUM_WORKERS), "2")
+                .build();
+        final ExternalObjective<DoubleVectorIndividual> sut = new ExternalObjective<>(parameters, BASE);
+        for (int i = 0; i < population.size(); i++)
+            assertEquals(new ScalarFitness(i), sut.fitness(population.get(i)));
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that evaluating through an EvaluationOperator that shares the
+     * objective's executor doesn't deadlock when the batches are chunked. */
+    @Test(timeout = 60000)
+    public void testFitnessBatchSharedExecutor() throws Exception {
+        System.out.println("fitnessBatch (shared executor)");
+        final EvaluationExecutor executor = new EvaluationExecutor(2);
+        final Parameters parameters = builder(FIRST_GENE)
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH), "true")
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_BATCH_SIZE), "1")
+                .setParameter(Parameters.push(BASE, ExternalObjective.P_EXECUTOR), "%exec")
+                .registerInstance("exec", executor)
+                .build();
+        final ExternalObjective<DoubleVectorIndividual<ScalarFitness>> objective = new ExternalObjective<>(parameters, BASE);
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setExecutor(executor).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> inds = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 8; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, inds);
+        assertEquals(inds.size(), result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        executor.shutdown();
+    }
+
+    /** Test that an EvaluationOperator configured through parameters can share
+     * its executor with its objective, just like one built with a Builder. */
+    @Test(timeout = 60000)
+    public void testEvaluationOperatorSharedExecutor() throws Exception {
+        System.out.println("EvaluationOperator (shared executor)");
+        final String objectiveBase = Parameters.push("eval", EvaluationOperator.P_OBJECTIVE);
+        final Parameters parameters = builder(objectiveBase, FIRST_GENE)
+                .setParameter("exec", "SigmaEC.evaluate.EvaluationExecutor")
+                .setParameter("eval", "SigmaEC.evaluate.EvaluationOperator")
+                .setParameter("eval.executor", "%exec")
+                .setParameter(objectiveBase, "SigmaEC.evaluate.objective.ExternalObjective")
+                .setParameter(Parameters.push(objectiveBase, ExternalObjective.P_BATCH), "true")
+                .setParameter(Parameters.push(objectiveBase, ExternalObjective.P_BATCH_SIZE), "1")
+                .setParameter(Parameters.push(objectiveBase, ExternalObjective.P_EXECUTOR), "%exec")
+                .build();
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = parameters.getInstanceFromParameter("eval", EvaluationOperator.class);
+        final List<DoubleVectorIndividual<ScalarFitness>> inds = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 8; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, inds);
+        assertEquals(inds.size(), result.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(new ScalarFitness(i), result.get(i).getFitness());
+        final EvaluationExecutor executor = parameters.getInstanceFromParameter("exec", EvaluationExecutor.class);
+        executor.shutdown();
+    }
+}
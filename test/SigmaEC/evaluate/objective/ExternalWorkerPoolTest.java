@@ -0,0 +1,106 @@
+package SigmaEC.evaluate.objective;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Runs small shell scripts as workers, so it needs /bin/sh.
+ *
+ * @author Eric O. Scott
+ */
+public class ExternalWorkerPoolTest {
+    private final List<File> scripts = new ArrayList<>();
+
+    public ExternalWorkerPoolTest() {
+    }
+
+    @After
+    public void tearDown() {
+        for (final File f : scripts)
+            f.delete();
+    }
+
+    private String script(final String body) throws IOException {
+        final File f = File.createTempFile("worker", ".sh");
+        try (final Writer w = new FileWriter(f)) {
+            w.write("#!/bin/sh\n");
+            w.write(body);
+        }
+        assertTrue(f.setExecutable(true));
+        scripts.add(f);
+        return f.getAbsolutePath();
+    }
+
+    /** Test of request method, of class ExternalWorkerPool. */
+    @Test
+    public void testRequest() throws Exception {
+        System.out.println("request");
+        // Replies with the first field of each line
+        final ExternalWorkerPool sut = new ExternalWorkerPool(script("while IFS=, read a rest; do echo \"$a\"; done\n"), 2, 10000, 0);
+        final ExecutorService threads = Executors.newFixedThreadPool(8);
+        final List<Future<String>> replies = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final int x = i;
+            replies.add(threads.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return sut.request(x + ",1.0,2.0");
+                }
+            }));
+        }
+        for (int i = 0; i < 50; i++)
+            assertEquals(String.valueOf(i), replies.get(i).get());
+        threads.shutdown();
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that a worker that exits is restarted and the request retried. */
+    @Test
+    public void testRestart() throws Exception {
+        System.out.println("restart");
+        // Answers one request, then exits
+        final ExternalWorkerPool sut = new ExternalWorkerPool(script("read a; echo \"$a\"\n"), 1, 10000, 1);
+        for (int i = 0; i < 5; i++)
+            assertEquals(String.valueOf(i), sut.request(String.valueOf(i)));
+        sut.shutdown();
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that a worker that hangs is given up on. */
+    @Test(expected = IllegalStateException.class)
+    public void testTimeout() throws Exception {
+        System.out.println("timeout");
+        final ExternalWorkerPool sut = new ExternalWorkerPool(script("read a; exec sleep 60\n"), 1, 200, 1);
+        try {
+            sut.request("1");
+        } finally {
+            sut.shutdown();
+        }
+    }
+
+    /** Test that shutdown releases the pool's processes from the JVM-wide
+     * shutdown hook, so pools don't accumulate there. */
+    @Test
+    public void testShutdown() throws Exception {
+        System.out.println("shutdown");
+        final int before = ExternalWorkerPool.getNumRunningProcesses();
+        final ExternalWorkerPool sut = new ExternalWorkerPool(script("while read a; do echo \"$a\"; done\n"), 1, 10000, 0);
+        assertEquals("1", sut.request("1"));
+        assertEquals(before + 1, ExternalWorkerPool.getNumRunningProcesses());
+        sut.shutdown();
+        assertEquals(before, ExternalWorkerPool.getNumRunningProcesses());
+        assertTrue(sut.repOK());
+    }
+}
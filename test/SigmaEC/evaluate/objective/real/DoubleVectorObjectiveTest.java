@@ -0,0 +1,114 @@
+package SigmaEC.evaluate.objective.real;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import SigmaEC.util.math.Vector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class DoubleVectorObjectiveTest {
+    private final static String BASE = "base";
+    private List<DoubleVectorIndividual<ScalarFitness>> individuals;
+    private List<DoubleVectorObjective<DoubleVectorIndividual>> objectives;
+
+    public DoubleVectorObjectiveTest() {
+    }
+
+    @Before
+    public void setUp() {
+        individuals = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            add(new DoubleVectorIndividual.Builder(new double[] { 0.0, 0.0, 0.0 }).build());
+            add(new DoubleVectorIndividual.Builder(new double[] { 1.0, -2.0, 0.5 }).build());
+            add(new DoubleVectorIndividual.Builder(new double[] { -3.5, 4.0, 2.25 }).build());
+        }};
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .setParameter(Parameters.push(BASE, "numDimensions"), "3")
+                .setParameter(Parameters.push(BASE, "optimum"), "1.0, 2.0, -1.0")
+                .setParameter(Parameters.push(BASE, "slopeVector"), "1.0, 1.0, 0.5").build();
+        objectives = new ArrayList<DoubleVectorObjective<DoubleVectorIndividual>>() {{
+            add((DoubleVectorObjective) new SphereObjective(3));
+            add(new RastriginObjective(parameters, BASE));
+            add(new RosenbrockObjective(parameters, BASE));
+            add((DoubleVectorObjective) new AckleyObjective(parameters, BASE));
+            add((DoubleVectorObjective) new GaussianObjective(3, 2.0, 0.7));
+            add(new ValleyObjective(parameters, BASE));
+        }};
+    }
+
+    /** Test of fitnessBatch method, of class DoubleVectorObjective. */
+    @Test
+    public void testFitnessBatch() {
+        System.out.println("fitnessBatch");
+        for (final DoubleVectorObjective<DoubleVectorIndividual> sut : objectives) {
+            final List<ScalarFitness> result = sut.fitnessBatch(individuals);
+            assertEquals(individuals.size(), result.size());
+            for (int i = 0; i < individuals.size(); i++)
+                assertEquals(sut.fitness(individuals.get(i)), result.get(i));
+            assertTrue(sut.repOK());
+        }
+    }
+
+    /** Test of fitnessBlock method, of class DoubleVectorObjective. */
+    @Test
+    public void testFitnessBlock() {
+        System.out.println("fitnessBlock");
+        final double[] genomes = new double[individuals.size()*3];
+        for (int i = 0; i < individuals.size(); i++)
+            System.arraycopy(individuals.get(i).getGenomeView(), 0, genomes, i*3, 3);
+        for (final DoubleVectorObjective<DoubleVectorIndividual> sut : objectives) {
+            final double[] fitnesses = new double[individuals.size()];
+            sut.fitnessBlock(genomes, fitnesses);
+            for (int i = 0; i < individuals.size(); i++)
+                assertEquals(sut.fitness(individuals.get(i)).asScalar(), fitnesses[i], 0.0);
+            assertTrue(sut.repOK());
+        }
+    }
+
+    /** The kernels must agree bit-for-bit with the textbook formulas they
+     * were written from. */
+    @Test
+    public void testValueMatchesReference() {
+        System.out.println("value (reference)");
+        final Random random = new Random(7);
+        final double[] optimum = new double[] { 1.0, 2.0, -1.0 };
+        final double[] slopeVector = Vector.normalize(new double[] { 1.0, 1.0, 0.5 });
+        for (int trial = 0; trial < 1000; trial++) {
+            final double[] x = new double[3];
+            for (int i = 0; i < x.length; i++)
+                x[i] = 10*random.nextGaussian();
+            final DoubleVectorIndividual ind = new DoubleVectorIndividual.Builder(x).build();
+            
+            double sphere = 0;
+            double rosenbrock = 0;
+            double sumA = 0;
+            double sumB = 0;
+            double exponent = 0;
+            for (int i = 0; i < x.length; i++) {
+                sphere += Math.pow(x[i], 2);
+                if (i < x.length - 1)
+                    rosenbrock += 100*Math.pow((x[i+1] - Math.pow(x[i], 2)), 2) + Math.pow((1 - x[i]), 2);
+                sumA += Math.pow(x[i], 2);
+                sumB += Math.cos(2.0*Math.PI*x[i]);
+                exponent += Math.pow(x[i], 2)/(2*Math.pow(0.7, 2));
+            }
+            final double ackley = -20*Math.exp(-0.2*Math.sqrt(sumA/3)) - Math.exp(sumB/3) + 20 + Math.E;
+            final double gaussian = 2.0*Math.exp(-exponent);
+            final double valley = Vector.euclideanDistance(x, optimum) + 10*Vector.pointToLineEuclideanDistance(x, slopeVector, optimum);
+            
+            final double[] expected = new double[] { sphere, rosenbrock, ackley, gaussian, valley };
+            final int[] indices = new int[] { 0, 2, 3, 4, 5 };
+            for (int j = 0; j < expected.length; j++)
+                assertEquals(Double.doubleToLongBits(expected[j]), Double.doubleToLongBits(objectives.get(indices[j]).fitness(ind).asScalar()));
+        }
+    }
+}
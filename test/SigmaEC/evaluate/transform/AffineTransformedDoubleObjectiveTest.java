@@ -1,13 +1,19 @@
 package SigmaEC.evaluate.transform;
 
+import SigmaEC.evaluate.EvaluationExecutor;
+import SigmaEC.evaluate.EvaluationOperator;
 import SigmaEC.evaluate.ScalarFitness;
 import SigmaEC.evaluate.objective.ConstantObjective;
 import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.real.SphereObjective;
 import SigmaEC.represent.linear.DoubleVectorIndividual;
 import SigmaEC.util.Parameters;
 import SigmaEC.util.math.Matrix;
 import SigmaEC.util.math.Vector;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -135,6 +141,68 @@ public class AffineTransformedDoubleObjectiveTest {
         assertTrue(sut.repOK());
     }
 
+    /** Test that the blocked fitnessBatch method agrees exactly with fitness,
+     * of class AffineTransformedDoubleObjective. */
+    @Test
+    public void testFitnessBatchBlocked() {
+        System.out.println("fitnessBatch (blocked)");
+        final int n = 300;
+        final Random random = new Random(7);
+        final double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                matrix[i][j] = random.nextGaussian();
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<>();
+        for (int r = 0; r < 70; r++) {
+            final double[] genome = new double[n];
+            for (int j = 0; j < n; j++)
+                genome[j] = random.nextDouble() - 0.5;
+            population.add(new DoubleVectorIndividual.Builder(genome).build());
+        }
+        final EvaluationExecutor executor = new EvaluationExecutor(3);
+        final List<AffineTransformedDoubleObjective> suts = new ArrayList<AffineTransformedDoubleObjective>() {{
+            add(new AffineTransformedDoubleObjective(matrix, new SphereObjective(n)));
+            add(new AffineTransformedDoubleObjective(matrix, new SphereObjective(n), executor));
+            add(new AffineTransformedDoubleObjective(matrix, new BoundedDoubleObjective(n, 10.0, new SphereObjective(n))));
+        }};
+        for (final AffineTransformedDoubleObjective instance : suts) {
+            final List<ScalarFitness> batch = instance.fitnessBatch(population);
+            assertEquals(population.size(), batch.size());
+            for (int r = 0; r < population.size(); r++)
+                assertEquals(Double.doubleToLongBits(instance.fitness(population.get(r)).asScalar()), Double.doubleToLongBits(batch.get(r).asScalar()));
+            assertTrue(instance.repOK());
+        }
+        executor.shutdown();
+    }
+
+    /** Test that evaluating through an EvaluationOperator that shares the
+     * objective's executor doesn't deadlock. */
+    @Test(timeout = 30000)
+    public void testFitnessBatchSharedExecutor() {
+        System.out.println("fitnessBatch (shared executor)");
+        final int n = 4;
+        final Random random = new Random(11);
+        final double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                matrix[i][j] = random.nextGaussian();
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            final double[] genome = new double[n];
+            for (int j = 0; j < n; j++)
+                genome[j] = random.nextDouble() - 0.5;
+            population.add(new DoubleVectorIndividual.Builder(genome).build());
+        }
+        final EvaluationExecutor executor = new EvaluationExecutor(2);
+        final AffineTransformedDoubleObjective objective = new AffineTransformedDoubleObjective(matrix, new SphereObjective(n), executor);
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective).setExecutor(executor).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population);
+        assertEquals(population.size(), result.size());
+        for (int r = 0; r < population.size(); r++)
+            assertEquals(objective.fitness(population.get(r)), result.get(r).getFitness());
+        executor.shutdown();
+    }
+
     /**
      * Test of equals method, of class AffineTransformedDoubleObjective.
      */
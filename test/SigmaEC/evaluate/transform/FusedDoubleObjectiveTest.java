@@ -0,0 +1,86 @@
+package SigmaEC.evaluate.transform;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.evaluate.objective.ConstantObjective;
+import SigmaEC.evaluate.objective.real.SphereObjective;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class FusedDoubleObjectiveTest {
+    private List<DoubleVectorIndividual<ScalarFitness>> population;
+
+    public FusedDoubleObjectiveTest() {
+    }
+
+    @Before
+    public void setUp() {
+        final Random random = new Random(42);
+        population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 200; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { 8*random.nextDouble() - 4, 8*random.nextDouble() - 4, 8*random.nextDouble() - 4 }).build());
+        }};
+    }
+
+    /** Translated -> Affine -> Bounded -> ScalarMultiplied -> base. */
+    private static ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> stack(final ObjectiveFunction base) {
+        final ObjectiveFunction scaled = new ScalarMultipliedObjective(base, -2.5, 0.1);
+        final ObjectiveFunction bounded = new BoundedDoubleObjective(3, 3.0, scaled, -7.0);
+        final ObjectiveFunction rotated = new AffineTransformedDoubleObjective(new double[] { 0.3, -1.1, 0.7 }, 1.3, bounded);
+        return new TranslatedDoubleObjective(new double[] { 0.5, -0.25, 1.0 }, rotated);
+    }
+
+    private void assertIdentical(final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected, final FusedDoubleObjective sut) {
+        final List<ScalarFitness> expectedBatch = expected.fitnessBatch(population);
+        final List<ScalarFitness> batch = sut.fitnessBatch(population);
+        final double[] block = new double[3*population.size()];
+        for (int i = 0; i < population.size(); i++)
+            System.arraycopy(population.get(i).getGenomeView(), 0, block, 3*i, 3);
+        final double[] blockFitnesses = new double[population.size()];
+        sut.fitnessBlock(block, blockFitnesses);
+        for (int i = 0; i < population.size(); i++) {
+            final double e = expected.fitness(population.get(i)).asScalar();
+            assertEquals(Double.doubleToLongBits(e), Double.doubleToLongBits(sut.fitness(population.get(i)).asScalar()));
+            assertEquals(Double.doubleToLongBits(e), Double.doubleToLongBits(expectedBatch.get(i).asScalar()));
+            assertEquals(Double.doubleToLongBits(e), Double.doubleToLongBits(batch.get(i).asScalar()));
+            assertEquals(Double.doubleToLongBits(e), Double.doubleToLongBits(blockFitnesses[i]));
+        }
+    }
+
+    /** Test of fitness methods, of class FusedDoubleObjective. */
+    @Test
+    public void testFitness() {
+        System.out.println("fitness");
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = stack(new SphereObjective(3));
+        final FusedDoubleObjective sut = new FusedDoubleObjective(expected);
+        assertEquals(4, sut.getNumStages());
+        assertEquals(new SphereObjective(3), sut.getBaseObjective());
+        assertIdentical(expected, sut);
+        // Some points must have fallen outside the bounds for this to test anything
+        boolean sawOutside = false;
+        for (final DoubleVectorIndividual<ScalarFitness> ind : population)
+            sawOutside |= sut.fitness(ind).asScalar() == -7.0;
+        assertTrue(sawOutside);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of fitness with a base objective that needs an individual, of class FusedDoubleObjective. */
+    @Test
+    public void testFitnessGenericBase() {
+        System.out.println("fitness (generic base)");
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = stack(new ConstantObjective(3, 4.0));
+        final FusedDoubleObjective sut = new FusedDoubleObjective(expected);
+        assertEquals(4, sut.getNumStages());
+        assertIdentical(expected, sut);
+        assertTrue(sut.repOK());
+    }
+}
@@ -26,13 +26,15 @@ public class ExamplesTest {
         return Arrays.asList(new Object[][] {   
             {"src/SigmaEC/example/GAExample.properties"},
             {"src/SigmaEC/example/FloatingPointExample.properties"}, 
+            {"src/SigmaEC/example/SteadyStateExample.properties"},
             {"src/SigmaEC/example/TestSuiteExample.properties"},
             {"src/SigmaEC/example/TestSuiteViewerExample.properties"},
             {"src/SigmaEC/example/IslandModelExample.properties"},
             {"src/SigmaEC/example/HeterogeneousIslandModelExample.properties"},
             {"src/SigmaEC/example/ACOExample_suite.properties"},
             {"src/SigmaEC/example/CGPExample.properties"},
-            {"src/SigmaEC/example/BooleanTaskDistances.properties"}
+            {"src/SigmaEC/example/BooleanTaskDistances.properties"},
+            {"src/SigmaEC/example/ThroughputExperiment.properties"}
            });
     }
     
@@ -0,0 +1,130 @@
+package SigmaEC.experiment;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.meta.CircleOfLife.EvolutionResult;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class SimpleExperimentTest {
+    private final static String BASE = "experiment";
+    private final static String COL = "experiment.circleOfLife";
+    private final static int NUM_RUNS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public SimpleExperimentTest() {
+    }
+
+    private Parameters parameters(final int numParallelRuns) {
+        final Properties properties = new Properties();
+        properties.setProperty(BASE, "SigmaEC.experiment.SimpleExperiment");
+        properties.setProperty(Parameters.push(BASE, "numRuns"), String.valueOf(NUM_RUNS));
+        properties.setProperty(Parameters.push(BASE, "independentRuns"), "true");
+        properties.setProperty(Parameters.push(BASE, "numParallelRuns"), String.valueOf(numParallelRuns));
+        properties.setProperty(Parameters.push(BASE, "random"), "SigmaEC.SRandom");
+        properties.setProperty(Parameters.push(BASE, "random.seed"), "4242");
+        properties.setProperty(COL, "SigmaEC.meta.SimpleCircleOfLife");
+        properties.setProperty(Parameters.push(COL, "initializer"), "SigmaEC.represent.linear.DoubleVectorInitializer");
+        properties.setProperty(Parameters.push(COL, "initializer.populationSize"), "10");
+        properties.setProperty(Parameters.push(COL, "initializer.defaultMaxValue"), "10.0");
+        properties.setProperty(Parameters.push(COL, "initializer.defaultMinValue"), "-10.0");
+        properties.setProperty(Parameters.push(COL, "initializer.numDimensions"), "3");
+        properties.setProperty(Parameters.push(COL, "initializer.random"), "%experiment.random");
+        properties.setProperty(Parameters.push(COL, "objective"), "SigmaEC.evaluate.objective.real.SphereObjective");
+        properties.setProperty(Parameters.push(COL, "objective.numDimensions"), "3");
+        properties.setProperty(Parameters.push(COL, "evaluator"), "SigmaEC.evaluate.EvaluationOperator");
+        properties.setProperty(Parameters.push(COL, "evaluator.objective"), "%experiment.circleOfLife.objective");
+        properties.setProperty(Parameters.push(COL, "evaluator.decoder"), "SigmaEC.represent.CloneDecoder");
+        properties.setProperty(Parameters.push(COL, "evaluator.lineage"), "SigmaEC.represent.lineage.FileLineageRecorder");
+        properties.setProperty(Parameters.push(COL, "evaluator.lineage.file"), new File(folder.getRoot(), String.format("lineage%d.csv", numParallelRuns)).getPath());
+        properties.setProperty(Parameters.push(COL, "fitnessComparator"), "SigmaEC.select.ScalarFitnessComparator");
+        properties.setProperty(Parameters.push(COL, "fitnessComparator.minimize"), "true");
+        properties.setProperty(Parameters.push(COL, "stoppingCondition"), "SigmaEC.meta.NumStepsStoppingCondition");
+        properties.setProperty(Parameters.push(COL, "stoppingCondition.numSteps"), "15");
+        properties.setProperty(Parameters.push(COL, "operators"), "SigmaEC.select.SelectionOperator, SigmaEC.operate.MutatingOperator, %experiment.circleOfLife.evaluator");
+        properties.setProperty(Parameters.push(COL, "operators.0.selector"), "SigmaEC.select.TournamentSelector");
+        properties.setProperty(Parameters.push(COL, "operators.0.selector.tournamentSize"), "2");
+        properties.setProperty(Parameters.push(COL, "operators.0.selector.fitnessComparator"), "%experiment.circleOfLife.fitnessComparator");
+        properties.setProperty(Parameters.push(COL, "operators.0.selector.random"), "%experiment.random");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator"), "SigmaEC.operate.DoubleGeneMutator");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.distribution"), "SigmaEC.util.math.dist.GaussianDistribution");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.distribution.std"), "0.5");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.distribution.random"), "%experiment.random");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.random"), "%experiment.random");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.mutationRate"), "SigmaEC.operate.ConstantMutationRate");
+        properties.setProperty(Parameters.push(COL, "operators.1.mutator.mutationRate.rate"), "0.5");
+        properties.setProperty(Parameters.push(COL, "metrics"), "SigmaEC.measure.WriterPopulationMetric");
+        properties.setProperty(Parameters.push(COL, "metrics.0.file"), new File(folder.getRoot(), String.format("fitness%d.csv", numParallelRuns)).getPath());
+        properties.setProperty(Parameters.push(COL, "metrics.0.metric"), "SigmaEC.measure.FitnessStatisticsPopulationMetric");
+        properties.setProperty(Parameters.push(COL, "metrics.0.metric.fitnessComparator"), "%experiment.circleOfLife.fitnessComparator");
+        return new Parameters.Builder(properties).build();
+    }
+
+    private List<EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>> run(final int numParallelRuns) {
+        final SimpleExperiment<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = parameters(numParallelRuns).getInstanceFromParameter(BASE, Experiment.class);
+        sut.run();
+        assertTrue(sut.repOK());
+        return sut.getResult();
+    }
+
+    /** Test that parallel independent runs give the same results as sequential ones. */
+    @Test
+    public void testParallelMatchesSequential() throws IOException {
+        System.out.println("parallel runs match sequential runs");
+        final List<EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>> sequential = run(1);
+        final List<EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>> parallel = run(3);
+        assertEquals(NUM_RUNS, sequential.size());
+        assertEquals(NUM_RUNS, parallel.size());
+        for (int r = 0; r < NUM_RUNS; r++) {
+            final List<DoubleVectorIndividual<ScalarFitness>> expected = sequential.get(r).getFinalPopulation().getSubpopulation(0);
+            final List<DoubleVectorIndividual<ScalarFitness>> actual = parallel.get(r).getFinalPopulation().getSubpopulation(0);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i).getGenomeView(), actual.get(i).getGenomeView(), 0.0);
+                assertEquals(expected.get(i).getFitness(), actual.get(i).getFitness());
+                assertEquals(expected.get(i).getID(), actual.get(i).getID());
+            }
+            assertEquals(sequential.get(r).getBestFitness(), parallel.get(r).getBestFitness());
+        }
+        // Different runs get different seeds
+        assertNotEquals(sequential.get(0).getBestFitness(), sequential.get(1).getBestFitness());
+        // Each run writes its own metric and lineage files, identical to the sequential ones
+        for (int r = 0; r < NUM_RUNS; r++) {
+            assertEquals(lines(String.format("fitness1_run%d.csv", r)), lines(String.format("fitness3_run%d.csv", r)));
+            assertEquals(lines(String.format("lineage1_run%d.csv", r)), lines(String.format("lineage3_run%d.csv", r)));
+        }
+        assertFalse(new File(folder.getRoot(), "lineage3.csv").exists());
+    }
+
+    private List<String> lines(final String fileName) throws IOException {
+        final File file = new File(folder.getRoot(), fileName);
+        assertTrue(file.exists());
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertFalse(lines.isEmpty());
+        return lines;
+    }
+
+    /** Test of perRunFileName method, of class SimpleExperiment. */
+    @Test
+    public void testPerRunFileName() {
+        System.out.println("perRunFileName");
+        assertEquals("results/fitness_run2.csv", SimpleExperiment.perRunFileName("results/fitness.csv", 2));
+        assertEquals("results/fitness_run0", SimpleExperiment.perRunFileName("results/fitness", 0));
+        assertEquals("results.d/fitness_run1", SimpleExperiment.perRunFileName("results.d/fitness", 1));
+    }
+}
@@ -0,0 +1,163 @@
+package SigmaEC.experiment;
+
+import SigmaEC.experiment.ThroughputExperiment.ThroughputResult;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class ThroughputExperimentTest {
+    private final static String BASE = "experiment";
+    private final static String ENGINE = "simple";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public ThroughputExperimentTest() {
+    }
+
+    /** A small generational EA, measured at 1 and 2 threads. */
+    private Parameters.Builder builder() {
+        final Properties properties = new Properties();
+        properties.setProperty(BASE, "SigmaEC.experiment.ThroughputExperiment");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_ENGINES), ENGINE);
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_THREAD_COUNTS), "1, 2");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_THREAD_PARAMETERS), "experiment.executor.numThreads");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_WARMUP_RUNS), "0");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_NUM_RUNS), "1");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_PROFILER), "SigmaEC.measure.Profiler");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_EXECUTOR), "SigmaEC.evaluate.EvaluationExecutor");
+        properties.setProperty(Parameters.push(BASE, "executor.numThreads"), "1");
+        properties.setProperty(Parameters.push(BASE, ThroughputExperiment.P_FILE), new File(folder.getRoot(), "throughput.csv").getPath());
+        properties.setProperty("random", "SigmaEC.SRandom");
+        properties.setProperty("random.seed", "4242");
+        properties.setProperty("fitnessComparator", "SigmaEC.select.ScalarFitnessComparator");
+        properties.setProperty("fitnessComparator.minimize", "true");
+        properties.setProperty(ENGINE, "SigmaEC.meta.SimpleCircleOfLife");
+        properties.setProperty(Parameters.push(ENGINE, "initializer"), "SigmaEC.represent.linear.DoubleVectorInitializer");
+        properties.setProperty(Parameters.push(ENGINE, "initializer.populationSize"), "10");
+        properties.setProperty(Parameters.push(ENGINE, "initializer.defaultMaxValue"), "10.0");
+        properties.setProperty(Parameters.push(ENGINE, "initializer.defaultMinValue"), "-10.0");
+        properties.setProperty(Parameters.push(ENGINE, "initializer.numDimensions"), "3");
+        properties.setProperty(Parameters.push(ENGINE, "initializer.random"), "%random");
+        properties.setProperty(Parameters.push(ENGINE, "objective"), "SigmaEC.evaluate.transform.TimedObjective");
+        properties.setProperty(Parameters.push(ENGINE, "objective.profiler"), "%experiment.profiler");
+        properties.setProperty(Parameters.push(ENGINE, "objective.objective"), "SigmaEC.evaluate.objective.real.SphereObjective");
+        properties.setProperty(Parameters.push(ENGINE, "objective.objective.numDimensions"), "3");
+        properties.setProperty(Parameters.push(ENGINE, "evaluator"), "SigmaEC.evaluate.EvaluationOperator");
+        properties.setProperty(Parameters.push(ENGINE, "evaluator.objective"), "%simple.objective");
+        properties.setProperty(Parameters.push(ENGINE, "evaluator.executor"), "%experiment.executor");
+        properties.setProperty(Parameters.push(ENGINE, "fitnessComparator"), "%fitnessComparator");
+        properties.setProperty(Parameters.push(ENGINE, "random"), "%random");
+        properties.setProperty(Parameters.push(ENGINE, "stoppingCondition"), "SigmaEC.meta.ProfiledStoppingCondition");
+        properties.setProperty(Parameters.push(ENGINE, "stoppingCondition.profiler"), "%experiment.profiler");
+        properties.setProperty(Parameters.push(ENGINE, "stoppingCondition.stoppingCondition"), "SigmaEC.meta.NumStepsStoppingCondition");
+        properties.setProperty(Parameters.push(ENGINE, "stoppingCondition.stoppingCondition.numSteps"), "10");
+        properties.setProperty(Parameters.push(ENGINE, "operators"), "SigmaEC.select.SelectionOperator, SigmaEC.operate.MutatingOperator, %simple.evaluator");
+        properties.setProperty(Parameters.push(ENGINE, "operators.0.selector"), "SigmaEC.select.TournamentSelector");
+        properties.setProperty(Parameters.push(ENGINE, "operators.0.selector.tournamentSize"), "2");
+        properties.setProperty(Parameters.push(ENGINE, "operators.0.selector.fitnessComparator"), "%fitnessComparator");
+        properties.setProperty(Parameters.push(ENGINE, "operators.0.selector.random"), "%random");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator"), "SigmaEC.operate.DoubleGeneMutator");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.distribution"), "SigmaEC.util.math.dist.GaussianDistribution");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.distribution.std"), "0.5");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.distribution.random"), "%random");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.random"), "%random");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.mutationRate"), "SigmaEC.operate.ConstantMutationRate");
+        properties.setProperty(Parameters.push(ENGINE, "operators.1.mutator.mutationRate.rate"), "0.5");
+        return new Parameters.Builder(properties);
+    }
+
+    /** A baseline that no machine can keep up with at 1 thread, and that
+     * any machine beats at 2 threads. */
+    private File baseline() throws IOException {
+        final File file = new File(folder.getRoot(), "baseline.csv");
+        try (final Writer w = new FileWriter(file)) {
+            w.write(ThroughputExperiment.CSV_HEADER + "\n");
+            w.write(new ThroughputResult(ENGINE, 1, 1, 1.0e15, 1.0e13, 10.0, 1.0, false) + "\n");
+            w.write("\n");
+            w.write(new ThroughputResult(ENGINE, 2, 1, 0.0, 0.0, 10.0, 1.0, false) + "\n");
+        }
+        return file;
+    }
+
+    /** Test of run method with a baseline, of class ThroughputExperiment. */
+    @Test
+    public void testRunBaseline() throws Exception {
+        System.out.println("run (baseline)");
+        final Parameters parameters = builder()
+                .setParameter(Parameters.push(BASE, ThroughputExperiment.P_BASELINE), baseline().getPath())
+                .build();
+        final ThroughputExperiment sut = parameters.getInstanceFromParameter(BASE, ThroughputExperiment.class);
+        sut.run();
+        final List<ThroughputResult> result = sut.getResult();
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getThreads());
+        assertTrue(result.get(0).isRegression());
+        assertEquals(2, result.get(1).getThreads());
+        assertFalse(result.get(1).isRegression());
+        for (final ThroughputResult r : result) {
+            assertEquals(ENGINE, r.getEngine());
+            assertTrue(r.getEvaluationsPerSec() > 0);
+            assertTrue(r.getGenerationsPerSec() > 0);
+        }
+
+        // The results file can serve as the next baseline
+        final List<String> lines = Files.readAllLines(new File(folder.getRoot(), "throughput.csv").toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals(ThroughputExperiment.CSV_HEADER, lines.get(0));
+        assertTrue(ThroughputResult.parse(lines.get(1)).isRegression());
+        assertFalse(ThroughputResult.parse(lines.get(2)).isRegression());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that a regression fails the run if failOnRegression is set. */
+    @Test(expected = IllegalStateException.class)
+    public void testRunFailOnRegression() throws Exception {
+        System.out.println("run (failOnRegression)");
+        final Parameters parameters = builder()
+                .setParameter(Parameters.push(BASE, ThroughputExperiment.P_BASELINE), baseline().getPath())
+                .setParameter(Parameters.push(BASE, ThroughputExperiment.P_FAIL_ON_REGRESSION), "true")
+                .build();
+        final ThroughputExperiment sut = parameters.getInstanceFromParameter(BASE, ThroughputExperiment.class);
+        sut.run();
+    }
+
+    /** Test that a malformed baseline is reported. */
+    @Test(expected = IllegalStateException.class)
+    public void testRunBadBaseline() throws Exception {
+        System.out.println("run (bad baseline)");
+        final File file = new File(folder.getRoot(), "bad.csv");
+        try (final Writer w = new FileWriter(file)) {
+            w.write(ThroughputExperiment.CSV_HEADER + "\n");
+            w.write("simple, 1, 1, fast\n");
+        }
+        final Parameters parameters = builder()
+                .setParameter(Parameters.push(BASE, ThroughputExperiment.P_BASELINE), file.getPath())
+                .build();
+        final ThroughputExperiment sut = parameters.getInstanceFromParameter(BASE, ThroughputExperiment.class);
+        sut.run();
+    }
+
+    /** Test of parse method, of class ThroughputResult. */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        final ThroughputResult expected = new ThroughputResult(ENGINE, 4, 3, 1234.5, 12.25, 64.0, 3.5, true);
+        assertEquals(expected, ThroughputResult.parse(expected.toString()));
+        assertEquals(expected, ThroughputResult.parse("simple,4,3,1234.5,12.25,64.0,3.5,true"));
+    }
+}
@@ -0,0 +1,51 @@
+package SigmaEC.measure;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class LatencyHistogramTest {
+
+    public LatencyHistogramTest() {
+    }
+
+    /** Test that every value falls in a bucket whose bounds contain it. */
+    @Test
+    public void testBuckets() {
+        System.out.println("buckets");
+        for (long v = 0; v < 100000; v++) {
+            final int i = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.bucketUpperBound(i) >= v);
+            assertTrue(i == 0 || LatencyHistogram.bucketUpperBound(i - 1) < v);
+        }
+        final int i = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(i));
+    }
+
+    /** Test of record and getPercentile methods, of class LatencyHistogram. */
+    @Test
+    public void testPercentiles() {
+        System.out.println("percentiles");
+        final LatencyHistogram sut = new LatencyHistogram();
+        assertEquals(0, sut.getPercentile(0.5));
+        for (long v = 1; v <= 1000; v++)
+            sut.record(v*1000);
+        assertEquals(1000, sut.getCount());
+        assertEquals(500500000, sut.getTotal());
+        assertEquals(1000000, sut.getMax());
+        // Percentiles are upper bounds, accurate to within about 3%
+        assertTrue(sut.getPercentile(0.5) >= 500000);
+        assertTrue(sut.getPercentile(0.5) <= 500000*1.04);
+        assertTrue(sut.getPercentile(0.99) >= 990000);
+        assertTrue(sut.getPercentile(0.99) <= 1000000);
+        assertEquals(1000000, sut.getPercentile(1.0));
+
+        sut.reset();
+        assertEquals(0, sut.getCount());
+        assertEquals(0, sut.getMax());
+        assertTrue(sut.repOK());
+    }
+}
@@ -0,0 +1,197 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.IDSpace;
+import SigmaEC.represent.lineage.LineageRecorder;
+import SigmaEC.represent.lineage.RingBufferLineageRecorder;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class CheckpointerTest {
+    private final static String BASE = "circleOfLife";
+    private final static String RANDOM = "random";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public CheckpointerTest() {
+    }
+
+    private static Parameters parameters(final long seed, final int numSteps, final String checkpointPrefix, final boolean resume) {
+        return parameters(seed, numSteps, checkpointPrefix, resume, false);
+    }
+
+    /** @param streams Whether to evaluate a noisy objective inside random number Streams. */
+    private static Parameters parameters(final long seed, final int numSteps, final String checkpointPrefix, final boolean resume, final boolean streams) {
+        final Properties properties = new Properties();
+        properties.setProperty(RANDOM, "SigmaEC.SRandom");
+        properties.setProperty(Parameters.push(RANDOM, "seed"), String.valueOf(seed));
+        properties.setProperty(BASE, "SigmaEC.meta.SimpleCircleOfLife");
+        properties.setProperty(Parameters.push(BASE, "initializer"), "SigmaEC.represent.linear.DoubleVectorInitializer");
+        properties.setProperty(Parameters.push(BASE, "initializer.populationSize"), "10");
+        properties.setProperty(Parameters.push(BASE, "initializer.defaultMaxValue"), "10.0");
+        properties.setProperty(Parameters.push(BASE, "initializer.defaultMinValue"), "-10.0");
+        properties.setProperty(Parameters.push(BASE, "initializer.numDimensions"), "3");
+        properties.setProperty(Parameters.push(BASE, "initializer.random"), "%" + RANDOM);
+        properties.setProperty(Parameters.push(BASE, "objective"), "SigmaEC.evaluate.objective.real.SphereObjective");
+        properties.setProperty(Parameters.push(BASE, "objective.numDimensions"), "3");
+        if (streams) {
+            properties.setProperty(Parameters.push(BASE, "objective"), "SigmaEC.evaluate.transform.AdditiveNoiseObjective");
+            properties.setProperty(Parameters.push(BASE, "objective.std"), "1.0");
+            properties.setProperty(Parameters.push(BASE, "objective.random"), "%" + RANDOM);
+            properties.setProperty(Parameters.push(BASE, "objective.objective"), "SigmaEC.evaluate.objective.real.SphereObjective");
+            properties.setProperty(Parameters.push(BASE, "objective.objective.numDimensions"), "3");
+            properties.setProperty(Parameters.push(BASE, "evaluator.randomStreams"), "true");
+            properties.setProperty(Parameters.push(BASE, "evaluator.random"), "%" + RANDOM);
+            properties.setProperty(Parameters.push(BASE, "evaluator.numThreads"), "2");
+        }
+        properties.setProperty(Parameters.push(BASE, "evaluator"), "SigmaEC.evaluate.EvaluationOperator");
+        properties.setProperty(Parameters.push(BASE, "evaluator.objective"), "%circleOfLife.objective");
+        properties.setProperty(Parameters.push(BASE, "evaluator.decoder"), "SigmaEC.represent.CloneDecoder");
+        properties.setProperty(Parameters.push(BASE, "fitnessComparator"), "SigmaEC.select.ScalarFitnessComparator");
+        properties.setProperty(Parameters.push(BASE, "fitnessComparator.minimize"), "true");
+        properties.setProperty(Parameters.push(BASE, "stoppingCondition"), "SigmaEC.meta.NumStepsStoppingCondition");
+        properties.setProperty(Parameters.push(BASE, "stoppingCondition.numSteps"), String.valueOf(numSteps));
+        properties.setProperty(Parameters.push(BASE, "operators"), "SigmaEC.select.SelectionOperator, SigmaEC.operate.MutatingOperator, %circleOfLife.evaluator");
+        properties.setProperty(Parameters.push(BASE, "operators.0.selector"), "SigmaEC.select.TournamentSelector");
+        properties.setProperty(Parameters.push(BASE, "operators.0.selector.tournamentSize"), "2");
+        properties.setProperty(Parameters.push(BASE, "operators.0.selector.fitnessComparator"), "%circleOfLife.fitnessComparator");
+        properties.setProperty(Parameters.push(BASE, "operators.0.selector.random"), "%" + RANDOM);
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator"), "SigmaEC.operate.DoubleGeneMutator");
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.distribution"), "SigmaEC.util.math.dist.GaussianDistribution");
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.distribution.std"), "0.5");
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.distribution.random"), "%" + RANDOM);
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.random"), "%" + RANDOM);
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.mutationRate"), "SigmaEC.operate.ConstantMutationRate");
+        properties.setProperty(Parameters.push(BASE, "operators.1.mutator.mutationRate.rate"), "0.5");
+        if (checkpointPrefix != null) {
+            properties.setProperty(Parameters.push(BASE, "checkpointer"), "SigmaEC.meta.Checkpointer");
+            properties.setProperty(Parameters.push(BASE, "checkpointer.prefix"), checkpointPrefix);
+            properties.setProperty(Parameters.push(BASE, "checkpointer.interval"), "5");
+            properties.setProperty(Parameters.push(BASE, "checkpointer.resume"), String.valueOf(resume));
+            properties.setProperty(Parameters.push(BASE, "checkpointer.random"), "%" + RANDOM);
+            properties.setProperty(Parameters.push(BASE, "checkpointer.codec"), "SigmaEC.represent.linear.DoubleVectorIndividualCodec");
+        }
+        return new Parameters.Builder(properties).build();
+    }
+
+    private static CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> evolve(final Parameters parameters) {
+        final CircleOfLife<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> circleOfLife = parameters.getInstanceFromParameter(BASE, CircleOfLife.class);
+        return circleOfLife.evolve(0);
+    }
+
+    /** Evaluate on one thread, so that IDs are handed out in a fixed order,
+     * and record lineage. */
+    private static Parameters withLineage(final Parameters parameters) {
+        return new Parameters.Builder(parameters)
+                .setParameter(Parameters.push(BASE, "evaluator.numThreads"), "1")
+                .setParameter(Parameters.push(BASE, "evaluator.lineage"), "SigmaEC.represent.lineage.RingBufferLineageRecorder")
+                .setParameter(Parameters.push(BASE, "evaluator.lineage.capacity"), "100")
+                .build();
+    }
+
+    /** Evolve in a fresh IDSpace, as if in a new JVM. */
+    private static CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> evolveInNewIDSpace(final Parameters parameters) throws Exception {
+        return new IDSpace(0).wrap(new Callable<CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>>() {
+            @Override
+            public CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> call() {
+                return evolve(parameters);
+            }
+        }).call();
+    }
+
+    private static RingBufferLineageRecorder lineage(final Parameters parameters) {
+        return (RingBufferLineageRecorder) parameters.getInstanceFromParameter(Parameters.push(BASE, "evaluator.lineage"), LineageRecorder.class);
+    }
+
+    private static void assertSamePopulation(final Population<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected, final Population<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> actual) {
+        final List<DoubleVectorIndividual<ScalarFitness>> e = expected.getSubpopulation(0);
+        final List<DoubleVectorIndividual<ScalarFitness>> a = actual.getSubpopulation(0);
+        assertEquals(e.size(), a.size());
+        for (int i = 0; i < e.size(); i++) {
+            assertArrayEquals(e.get(i).getGenomeView(), a.get(i).getGenomeView(), 0.0);
+            assertEquals(e.get(i).getFitness(), a.get(i).getFitness());
+        }
+    }
+
+    /** Test that a run resumed from a checkpoint matches an uninterrupted run. */
+    @Test
+    public void testResume() throws Exception {
+        System.out.println("resume");
+        final String prefix = new File(folder.getRoot(), "checkpoint").getPath();
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = evolve(parameters(4242, 20, null, false));
+
+        // Run halfway, leaving a checkpoint at step 10
+        evolve(parameters(4242, 10, prefix, false));
+        assertTrue(new File(prefix + "_run0.ckpt").exists());
+
+        // Use a different seed, which the checkpoint should override
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> result = evolve(parameters(1, 20, prefix, true));
+        assertSamePopulation(expected.getFinalPopulation(), result.getFinalPopulation());
+        assertEquals(expected.getBestFitness(), result.getBestFitness());
+    }
+
+    /** Test that resume is a no-op when no checkpoint exists yet. */
+    @Test
+    public void testResumeWithoutCheckpoint() throws Exception {
+        System.out.println("resume without checkpoint");
+        final String prefix = new File(folder.getRoot(), "missing").getPath();
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = evolve(parameters(4242, 7, null, false));
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> result = evolve(parameters(4242, 7, prefix, true));
+        assertSamePopulation(expected.getFinalPopulation(), result.getFinalPopulation());
+        assertEquals(expected.getBestFitness(), result.getBestFitness());
+    }
+
+    /** Test that a resumed run matches an uninterrupted one when evaluation
+     * draws from random number Streams, whose seeds are derived from the
+     * SRandom's seed rather than from its current state. */
+    @Test
+    public void testResumeWithStreams() throws Exception {
+        System.out.println("resume with streams");
+        final String prefix = new File(folder.getRoot(), "streams").getPath();
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = evolve(parameters(4242, 20, null, false, true));
+
+        evolve(parameters(4242, 10, prefix, false, true));
+        assertTrue(new File(prefix + "_run0.ckpt").exists());
+
+        // The checkpoint must restore the seed that Streams derive from, not just the generator state
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> result = evolve(parameters(1, 20, prefix, true, true));
+        assertSamePopulation(expected.getFinalPopulation(), result.getFinalPopulation());
+        assertEquals(expected.getBestFitness(), result.getBestFitness());
+    }
+
+    /** Test that a resumed run gives new individuals the same IDs and parent
+     * IDs as an uninterrupted run, even though it starts in a fresh IDSpace. */
+    @Test
+    public void testResumeIDs() throws Exception {
+        System.out.println("resume IDs");
+        final String prefix = new File(folder.getRoot(), "ids").getPath();
+        final Parameters expectedParameters = withLineage(parameters(4242, 20, null, false));
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = evolveInNewIDSpace(expectedParameters);
+
+        evolveInNewIDSpace(withLineage(parameters(4242, 10, prefix, false)));
+        assertTrue(new File(prefix + "_run0.ckpt").exists());
+
+        final Parameters resumedParameters = withLineage(parameters(1, 20, prefix, true));
+        final CircleOfLife.EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> result = evolveInNewIDSpace(resumedParameters);
+        assertSamePopulation(expected.getFinalPopulation(), result.getFinalPopulation());
+        final List<DoubleVectorIndividual<ScalarFitness>> e = expected.getFinalPopulation().getSubpopulation(0);
+        final List<DoubleVectorIndividual<ScalarFitness>> a = result.getFinalPopulation().getSubpopulation(0);
+        for (int i = 0; i < e.size(); i++) {
+            assertEquals(e.get(i).getID(), a.get(i).getID());
+            assertArrayEquals(lineage(expectedParameters).getParentIDs(e.get(i).getID()).get(), lineage(resumedParameters).getParentIDs(a.get(i).getID()).get());
+        }
+    }
+}
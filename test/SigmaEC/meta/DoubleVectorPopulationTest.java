@@ -0,0 +1,141 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.select.ScalarFitnessComparator;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class DoubleVectorPopulationTest {
+    private List<DoubleVectorIndividual<ScalarFitness>> individuals;
+
+    public DoubleVectorPopulationTest() {
+    }
+
+    @Before
+    public void setUp() {
+        individuals = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            add(new DoubleVectorIndividual.Builder(new double[] { 0, 1 }).setFitness(new ScalarFitness(3.0)).build());
+            add(new DoubleVectorIndividual.Builder(new double[] { 2, 3 }).setFitness(new ScalarFitness(1.0)).build());
+            add(new DoubleVectorIndividual.Builder(new double[] { 4, 5 }).build());
+        }};
+    }
+
+    /** Test of the primitive accessors, of class DoubleVectorSubpopulation. */
+    @Test
+    public void testColumnarLayout() {
+        System.out.println("columnar layout");
+        final DoubleVectorSubpopulation sut = new DoubleVectorSubpopulation(individuals);
+        assertEquals(3, sut.size());
+        assertEquals(2, sut.getNumDimensions());
+        assertArrayEquals(new double[] { 0, 1, 2, 3, 4, 5 }, sut.getGenomesView(), 0.0);
+        assertEquals(3.0, sut.getFitnessesView()[0], 0.0);
+        assertEquals(1.0, sut.getFitnessesView()[1], 0.0);
+        assertTrue(Double.isNaN(sut.getFitnessesView()[2]));
+        assertFalse(sut.isEvaluated(2));
+        assertEquals(individuals.get(1).getID(), sut.getIDsView()[1]);
+        assertEquals(5.0, sut.getGene(2, 1), 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of get method, of class DoubleVectorSubpopulation. */
+    @Test
+    public void testGet() {
+        System.out.println("get");
+        final DoubleVectorSubpopulation sut = new DoubleVectorSubpopulation(individuals);
+        for (int i = 0; i < individuals.size(); i++) {
+            assertEquals(individuals.get(i), sut.get(i));
+            assertEquals(individuals.get(i).getID(), sut.get(i).getID());
+        }
+        assertSame(sut.get(0), sut.get(0));
+        assertEquals(individuals, sut);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of set method, of class DoubleVectorSubpopulation. */
+    @Test
+    public void testSet() {
+        System.out.println("set");
+        final DoubleVectorSubpopulation sut = new DoubleVectorSubpopulation(individuals);
+        final DoubleVectorIndividual<ScalarFitness> old = sut.get(1);
+        final DoubleVectorIndividual<ScalarFitness> ind = new DoubleVectorIndividual.Builder(new double[] { 7, 8 }).setFitness(new ScalarFitness(9.0)).build();
+        assertEquals(old, sut.set(1, ind));
+        assertEquals(ind, sut.get(1));
+        assertArrayEquals(new double[] { 0, 1, 7, 8, 4, 5 }, sut.getGenomesView(), 0.0);
+        assertEquals(9.0, sut.getFitnessesView()[1], 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that the genome block is only assembled when it is read, of class DoubleVectorSubpopulation. */
+    @Test
+    public void testLazyGenomeBlock() {
+        System.out.println("lazy genome block");
+        final DoubleVectorSubpopulation sut = new DoubleVectorSubpopulation(individuals);
+        for (int i = 0; i < individuals.size(); i++)
+            assertSame(individuals.get(i), sut.get(i));
+        final DoubleVectorIndividual<ScalarFitness> ind = new DoubleVectorIndividual.Builder(new double[] { 7, 8 }).build();
+        sut.set(1, ind);
+        assertSame(ind, sut.get(1));
+        assertEquals(8.0, sut.getGene(1, 1), 0.0);
+        assertTrue(sut.repOK());
+
+        final double[] block = sut.getGenomesView();
+        assertArrayEquals(new double[] { 0, 1, 7, 8, 4, 5 }, block, 0.0);
+        sut.set(0, individuals.get(2));
+        assertSame(block, sut.getGenomesView());
+        assertArrayEquals(new double[] { 4, 5, 7, 8, 4, 5 }, block, 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of setFitness method, of class DoubleVectorSubpopulation. */
+    @Test
+    public void testSetFitness() {
+        System.out.println("setFitness");
+        final DoubleVectorSubpopulation sut = new DoubleVectorSubpopulation(individuals);
+        assertFalse(sut.get(2).isEvaluated());
+        sut.setFitness(2, 4.0);
+        assertTrue(sut.isEvaluated(2));
+        assertEquals(4.0, sut.get(2).getFitness().asScalar(), 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of getBest method, of class DoubleVectorPopulation. */
+    @Test
+    public void testGetBest() {
+        System.out.println("getBest");
+        final List<DoubleVectorIndividual<ScalarFitness>> evaluated = individuals.subList(0, 2);
+        final DoubleVectorPopulation sut = new DoubleVectorPopulation(new List[] { evaluated });
+        final Population<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> reference = new Population<>(new List[] { evaluated });
+        final Parameters parameters = new Parameters.Builder(new Properties()).build();
+        final FitnessComparator<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> comparator = new ScalarFitnessComparator<>(parameters, "comparator");
+        assertEquals(reference.getBest(comparator), sut.getBest(comparator));
+        assertEquals(reference.getBest(comparator.invert()), sut.getBest(comparator.invert()));
+        assertEquals(reference, sut);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that snapshotSubpopulation is unaffected by later changes, of class DoubleVectorPopulation. */
+    @Test
+    public void testSnapshotSubpopulation() {
+        System.out.println("snapshotSubpopulation");
+        final DoubleVectorPopulation sut = new DoubleVectorPopulation(new List[] { individuals });
+        final List<DoubleVectorIndividual<ScalarFitness>> view = sut.getSubpopulation(0);
+        final List<DoubleVectorIndividual<ScalarFitness>> snapshot = sut.snapshotSubpopulation(0);
+        assertEquals(individuals, snapshot);
+        final DoubleVectorIndividual<ScalarFitness> ind = new DoubleVectorIndividual.Builder(new double[] { 7, 8 }).setFitness(new ScalarFitness(9.0)).build();
+        sut.set(0, 1, ind);
+        assertEquals(ind, view.get(1));
+        assertEquals(individuals, snapshot);
+        assertEquals(individuals.get(1).getID(), snapshot.get(1).getID());
+        assertTrue(sut.repOK());
+    }
+}
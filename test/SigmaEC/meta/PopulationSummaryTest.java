@@ -0,0 +1,126 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.select.ScalarFitnessComparator;
+import SigmaEC.util.Parameters;
+import SigmaEC.util.math.Statistics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class PopulationSummaryTest {
+    private Population<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> population;
+    private FitnessComparator<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> comparator;
+
+    public PopulationSummaryTest() {
+    }
+
+    private static List<DoubleVectorIndividual<ScalarFitness>> subpop(final double... fitnesses) {
+        return new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (final double f : fitnesses)
+                add(new DoubleVectorIndividual.Builder(new double[] { f }).setFitness(new ScalarFitness(f)).build());
+        }};
+    }
+
+    @Before
+    public void setUp() {
+        // Ties in both subpopulations, so we can check which one is chosen
+        population = new Population<>(new List[] {
+            subpop(3.0, 1.0, 5.0, 5.0, 2.0, 1.0, 4.0),
+            subpop(7.0, 0.5, 7.0, 6.0, 0.5)
+        });
+        final Parameters parameters = new Parameters.Builder(new Properties()).build();
+        comparator = new ScalarFitnessComparator<>(parameters, "comparator");
+    }
+
+    /** Test that a sequential summary agrees with Population and Statistics. */
+    @Test
+    public void testSummary() {
+        System.out.println("summary");
+        final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new PopulationSummary<>(population, comparator, null);
+        assertEquals(2, sut.numSubpopulations());
+        for (int s = 0; s < population.numSuppopulations(); s++) {
+            final List<DoubleVectorIndividual<ScalarFitness>> subpop = population.getSubpopulation(s);
+            final double[] expected = new double[subpop.size()];
+            for (int i = 0; i < expected.length; i++)
+                expected[i] = subpop.get(i).getFitness().asScalar();
+            assertArrayEquals(expected, sut.getFitnesses(s), 0.0);
+            assertEquals(Statistics.mean(expected), sut.getMean(s), 0.0);
+            assertEquals(Statistics.std(expected), sut.getStd(s), 0.0);
+            assertSame(population.getBest(s, comparator), sut.getBest(s));
+            assertSame(Statistics.worst(subpop, comparator), sut.getWorst(s));
+        }
+        assertSame(population.getBest(comparator), sut.getBest());
+        assertSame(sut.getBest(), sut.getBestSoFar());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that splitting the scan across threads gives exactly the same summary. */
+    @Test
+    public void testParallelSummary() {
+        System.out.println("parallel summary");
+        final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = new PopulationSummary<>(population, comparator, null);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int numChunks = 1; numChunks <= 8; numChunks++) {
+                final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new PopulationSummary<>(population, comparator, null, executor, numChunks);
+                for (int s = 0; s < population.numSuppopulations(); s++) {
+                    assertEquals(expected.getBestIndex(s), sut.getBestIndex(s));
+                    assertEquals(expected.getWorstIndex(s), sut.getWorstIndex(s));
+                }
+                assertEquals(expected, sut);
+                assertTrue(sut.repOK());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Test that summarizing a DoubleVectorPopulation from its fitness array
+     * gives exactly the same summary as scanning the individuals. */
+    @Test
+    public void testColumnarSummary() {
+        System.out.println("columnar summary");
+        final DoubleVectorPopulation columnar = new DoubleVectorPopulation(new List[] { population.getSubpopulation(0), population.getSubpopulation(1) });
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int numChunks = 1; numChunks <= 8; numChunks++) {
+                final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> expected = new PopulationSummary<>(population, comparator, null, executor, numChunks);
+                final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new PopulationSummary<>(columnar, comparator, null, executor, numChunks);
+                for (int s = 0; s < population.numSuppopulations(); s++) {
+                    assertArrayEquals(expected.getFitnesses(s), sut.getFitnesses(s), 0.0);
+                    assertEquals(expected.getBestIndex(s), sut.getBestIndex(s));
+                    assertEquals(expected.getWorstIndex(s), sut.getWorstIndex(s));
+                    assertEquals(expected.getBest(s), sut.getBest(s));
+                }
+                assertEquals(expected.getBest(), sut.getBest());
+                assertTrue(sut.repOK());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Test that the best-so-far individual is carried over from the previous step. */
+    @Test
+    public void testBestSoFar() {
+        System.out.println("best so far");
+        final DoubleVectorIndividual<ScalarFitness> previous = new DoubleVectorIndividual.Builder(new double[] { 10.0 }).setFitness(new ScalarFitness(10.0)).build();
+        final PopulationSummary<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new PopulationSummary<>(population, comparator, previous);
+        assertSame(previous, sut.getBestSoFar());
+        assertEquals(7.0, sut.getBest().getFitness().asScalar(), 0.0);
+        assertTrue(sut.repOK());
+    }
+}
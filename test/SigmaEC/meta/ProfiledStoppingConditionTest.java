@@ -0,0 +1,66 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.measure.Profiler;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class ProfiledStoppingConditionTest {
+    private final static String BASE = "base";
+    private Parameters parameters;
+
+    public ProfiledStoppingConditionTest() {
+    }
+
+    @Before
+    public void setUp() {
+        parameters = new Parameters.Builder(new Properties())
+                .setParameter("profiler", "SigmaEC.measure.Profiler")
+                .setParameter(Parameters.push(BASE, ProfiledStoppingCondition.P_PROFILER), "%profiler")
+                .setParameter(Parameters.push(BASE, ProfiledStoppingCondition.P_STOPPING_CONDITION), "SigmaEC.meta.NumStepsStoppingCondition")
+                .setParameter(Parameters.push(Parameters.push(BASE, ProfiledStoppingCondition.P_STOPPING_CONDITION), NumStepsStoppingCondition.P_NUM_STEPS), "5")
+                .build();
+    }
+
+    /** Test that each step of a run is recorded, and the wrapped condition decides when to stop. */
+    @Test
+    public void testStopInd() {
+        System.out.println("stopInd");
+        final ProfiledStoppingCondition<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new ProfiledStoppingCondition<>(parameters, BASE);
+        final Profiler profiler = parameters.getInstanceFromParameter("profiler", Profiler.class);
+        int step = 0;
+        while (!sut.stopInd(null, step))
+            step++;
+        assertEquals(5, step);
+        assertEquals(5, profiler.getHistogram(ProfiledStoppingCondition.DEFAULT_COMPONENT).getCount());
+
+        // The first call after a reset starts a new interval instead of recording one
+        sut.reset();
+        assertFalse(sut.stopInd(null, 0));
+        assertEquals(5, profiler.getHistogram(ProfiledStoppingCondition.DEFAULT_COMPONENT).getCount());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that conditions recording into different profilers are not equal. */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        final ProfiledStoppingCondition<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new ProfiledStoppingCondition<>(parameters, BASE);
+        assertEquals(sut, new ProfiledStoppingCondition<>(parameters, BASE));
+        final Parameters other = new Parameters.Builder(new Properties())
+                .setParameter(Parameters.push(BASE, ProfiledStoppingCondition.P_PROFILER), "SigmaEC.measure.Profiler")
+                .setParameter(Parameters.push(BASE, ProfiledStoppingCondition.P_STOPPING_CONDITION), "SigmaEC.meta.NumStepsStoppingCondition")
+                .setParameter(Parameters.push(Parameters.push(BASE, ProfiledStoppingCondition.P_STOPPING_CONDITION), NumStepsStoppingCondition.P_NUM_STEPS), "5")
+                .build();
+        assertFalse(sut.equals(new ProfiledStoppingCondition<>(other, BASE)));
+        assertTrue(sut.repOK());
+    }
+}
@@ -0,0 +1,195 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.EvaluationCounter;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.meta.CircleOfLife.EvolutionResult;
+import SigmaEC.represent.IDSpace;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class SteadyStateCircleOfLifeTest {
+    private final static String BASE = "circleOfLife";
+    private final static int POPULATION_SIZE = 10;
+
+    public SteadyStateCircleOfLifeTest() {
+    }
+
+    /** A sphere objective that hangs until it is interrupted once the
+     * initial population has been evaluated. */
+    private static class HangingChildObjective extends ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> {
+        final AtomicInteger numCalls = new AtomicInteger();
+
+        @Override
+        public ScalarFitness fitness(final DoubleVectorIndividual<ScalarFitness> ind) {
+            if (numCalls.getAndIncrement() >= POPULATION_SIZE) {
+                try {
+                    Thread.sleep(60000);
+                } catch (final InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            double sum = 0.0;
+            for (final double x : ind.getGenomeView())
+                sum += x*x;
+            return new ScalarFitness(sum);
+        }
+
+        @Override public void setStep(final int i) { }
+        @Override public int getNumDimensions() { return 3; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[HangingChildObjective]"; }
+    }
+
+    private static Parameters.Builder builder(final int numSteps, final int numInFlight) {
+        final Properties properties = new Properties();
+        properties.setProperty("random", "SigmaEC.SRandom");
+        properties.setProperty("random.seed", "4242");
+        properties.setProperty("counter", "SigmaEC.evaluate.EvaluationCounter");
+        properties.setProperty(BASE, "SigmaEC.meta.SteadyStateCircleOfLife");
+        properties.setProperty(Parameters.push(BASE, SteadyStateCircleOfLife.P_NUM_IN_FLIGHT), String.valueOf(numInFlight));
+        properties.setProperty(Parameters.push(BASE, "initializer"), "SigmaEC.represent.linear.DoubleVectorInitializer");
+        properties.setProperty(Parameters.push(BASE, "initializer.populationSize"), String.valueOf(POPULATION_SIZE));
+        properties.setProperty(Parameters.push(BASE, "initializer.defaultMaxValue"), "10.0");
+        properties.setProperty(Parameters.push(BASE, "initializer.defaultMinValue"), "-10.0");
+        properties.setProperty(Parameters.push(BASE, "initializer.numDimensions"), "3");
+        properties.setProperty(Parameters.push(BASE, "initializer.random"), "%random");
+        properties.setProperty(Parameters.push(BASE, "evaluator"), "SigmaEC.evaluate.EvaluationOperator");
+        properties.setProperty(Parameters.push(BASE, "evaluator.objective"), "SigmaEC.evaluate.objective.real.SphereObjective");
+        properties.setProperty(Parameters.push(BASE, "evaluator.objective.numDimensions"), "3");
+        properties.setProperty(Parameters.push(BASE, "evaluator.counter"), "%counter");
+        properties.setProperty(Parameters.push(BASE, "stoppingCondition"), "SigmaEC.meta.NumStepsStoppingCondition");
+        properties.setProperty(Parameters.push(BASE, "stoppingCondition.numSteps"), String.valueOf(numSteps));
+        properties.setProperty(Parameters.push(BASE, "fitnessComparator"), "SigmaEC.select.ScalarFitnessComparator");
+        properties.setProperty(Parameters.push(BASE, "fitnessComparator.minimize"), "true");
+        properties.setProperty(Parameters.push(BASE, "parentSelector"), "SigmaEC.select.TournamentSelector");
+        properties.setProperty(Parameters.push(BASE, "parentSelector.tournamentSize"), "2");
+        properties.setProperty(Parameters.push(BASE, "parentSelector.fitnessComparator"), "%circleOfLife.fitnessComparator");
+        properties.setProperty(Parameters.push(BASE, "parentSelector.random"), "%random");
+        properties.setProperty(Parameters.push(BASE, "mutator"), "SigmaEC.operate.DoubleGeneMutator");
+        properties.setProperty(Parameters.push(BASE, "mutator.distribution"), "SigmaEC.util.math.dist.GaussianDistribution");
+        properties.setProperty(Parameters.push(BASE, "mutator.distribution.std"), "0.5");
+        properties.setProperty(Parameters.push(BASE, "mutator.distribution.random"), "%random");
+        properties.setProperty(Parameters.push(BASE, "mutator.random"), "%random");
+        properties.setProperty(Parameters.push(BASE, "mutator.mutationRate"), "SigmaEC.operate.ConstantMutationRate");
+        properties.setProperty(Parameters.push(BASE, "mutator.mutationRate.rate"), "1.0");
+        properties.setProperty(Parameters.push(BASE, "replacementSelector"), "SigmaEC.select.RandomSelector");
+        properties.setProperty(Parameters.push(BASE, "replacementSelector.random"), "%random");
+        properties.setProperty(Parameters.push(BASE, "alwaysReplace"), "true");
+        return new Parameters.Builder(properties);
+    }
+
+    /** Evolve one run in a fresh IDSpace, so that IDs can be compared across runs. */
+    private static EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> evolve(final Parameters parameters) throws Exception {
+        final SteadyStateCircleOfLife<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = parameters.getInstanceFromParameter(BASE, SteadyStateCircleOfLife.class);
+        final EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> result = new IDSpace(0).wrap(new Callable<EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness>>() {
+            @Override
+            public EvolutionResult<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> call() {
+                return sut.evolve(0);
+            }
+        }).call();
+        assertTrue(sut.repOK());
+        return result;
+    }
+
+    /** Test that every child goes through the evaluator's counter. */
+    @Test
+    public void testEvolveCount() throws Exception {
+        System.out.println("evolve (count)");
+        final Parameters parameters = builder(5, 1).build();
+        evolve(parameters);
+        final EvaluationCounter counter = parameters.getInstanceFromParameter("counter", EvaluationCounter.class);
+        assertEquals(POPULATION_SIZE + 5*POPULATION_SIZE, counter.get());
+    }
+
+    /** Test that children replace members of the initial population. */
+    @Test
+    public void testEvolveReplaces() throws Exception {
+        System.out.println("evolve (replaces)");
+        final List<DoubleVectorIndividual<ScalarFitness>> initial = evolve(builder(0, 1).build()).getFinalPopulation().getSubpopulation(0);
+        final Set<Long> initialIDs = new HashSet<>();
+        for (final DoubleVectorIndividual<ScalarFitness> ind : initial)
+            initialIDs.add(ind.getID());
+
+        final List<DoubleVectorIndividual<ScalarFitness>> result = evolve(builder(5, 1).build()).getFinalPopulation().getSubpopulation(0);
+        assertEquals(POPULATION_SIZE, result.size());
+        int numChildren = 0;
+        for (final DoubleVectorIndividual<ScalarFitness> ind : result) {
+            assertTrue(ind.isEvaluated());
+            if (!initialIDs.contains(ind.getID()))
+                numChildren++;
+        }
+        assertTrue(numChildren > 0);
+    }
+
+    /** Test that a fixed seed gives the same run every time with one
+     * evaluation in flight. */
+    @Test
+    public void testEvolveReproducible() throws Exception {
+        System.out.println("evolve (reproducible)");
+        final List<DoubleVectorIndividual<ScalarFitness>> expected = evolve(builder(5, 1).build()).getFinalPopulation().getSubpopulation(0);
+        final List<DoubleVectorIndividual<ScalarFitness>> actual = evolve(builder(5, 1).build()).getFinalPopulation().getSubpopulation(0);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getID(), actual.get(i).getID());
+            assertArrayEquals(expected.get(i).getGenomeView(), actual.get(i).getGenomeView(), 0.0);
+            assertEquals(expected.get(i).getFitness(), actual.get(i).getFitness());
+        }
+    }
+
+    /** Test that children are evaluated with the evaluator's timeout and
+     * penalty, just like the initial population. */
+    @Test(timeout = 60000)
+    public void testEvolveTimeout() throws Exception {
+        System.out.println("evolve (timeout)");
+        final HangingChildObjective objective = new HangingChildObjective();
+        final Parameters parameters = builder(1, 1)
+                .registerInstance(Parameters.push(BASE, "evaluator.objective"), objective)
+                .setParameter(Parameters.push(BASE, "evaluator.timeoutSeconds"), "0.05")
+                .setParameter(Parameters.push(BASE, "evaluator.penaltyFitness"), "SigmaEC.evaluate.ScalarFitness")
+                .setParameter(Parameters.push(BASE, "evaluator.penaltyFitness.value"), "-1.0")
+                .build();
+        final List<DoubleVectorIndividual<ScalarFitness>> result = evolve(parameters).getFinalPopulation().getSubpopulation(0);
+        assertEquals(POPULATION_SIZE, result.size());
+        int numPenalized = 0;
+        for (final DoubleVectorIndividual<ScalarFitness> ind : result) {
+            if (ind.getFitness().equals(new ScalarFitness(-1.0)))
+                numPenalized++;
+        }
+        assertTrue(numPenalized > 0);
+        assertEquals(2*POPULATION_SIZE, objective.numCalls.get());
+    }
+
+    /** Test that an evaluator that deduplicates is rejected. */
+    @Test(expected = IllegalStateException.class)
+    public void testDeduplicate() {
+        System.out.println("deduplicate");
+        builder(5, 1).setParameter(Parameters.push(BASE, "evaluator.deduplicate"), "true").build().getInstanceFromParameter(BASE, SteadyStateCircleOfLife.class);
+    }
+
+    /** Test that an evaluator that would wait on the same executor is rejected. */
+    @Test(expected = IllegalStateException.class)
+    public void testTimeoutOnSharedExecutor() {
+        System.out.println("timeout (shared executor)");
+        builder(5, 1)
+                .setParameter("executor", "SigmaEC.evaluate.EvaluationExecutor")
+                .setParameter(Parameters.push(BASE, SteadyStateCircleOfLife.P_EXECUTOR), "%executor")
+                .setParameter(Parameters.push(BASE, "evaluator.executor"), "%executor")
+                .setParameter(Parameters.push(BASE, "evaluator.timeoutSeconds"), "10")
+                .build().getInstanceFromParameter(BASE, SteadyStateCircleOfLife.class);
+    }
+}
@@ -0,0 +1,134 @@
+package SigmaEC.meta;
+
+import SigmaEC.evaluate.EvaluationCounter;
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ConstantObjective;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the subclasses of ThresholdStoppingCondition.
+ *
+ * @author Eric O. Scott
+ */
+public class ThresholdStoppingConditionTest {
+    private final static String BASE = "base";
+    private Parameters.Builder builder;
+    private List<DoubleVectorIndividual<ScalarFitness>> population;
+
+    public ThresholdStoppingConditionTest() {
+    }
+
+    @Before
+    public void setUp() {
+        builder = new Parameters.Builder(new Properties())
+                .setParameter("counter", "SigmaEC.evaluate.EvaluationCounter")
+                .setParameter(Parameters.push(BASE, ThresholdStoppingCondition.P_COUNTER), "%counter");
+        population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            for (int i = 0; i < 10; i++)
+                add(new DoubleVectorIndividual.Builder(new double[] { i, -i }).build());
+        }};
+    }
+
+    /** Test that a shared counter sees every evaluation, on every thread. */
+    @Test
+    public void testCounter() {
+        System.out.println("counter");
+        final EvaluationCounter counter = new EvaluationCounter();
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective = new ConstantObjective<>(2, 5.0);
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> evaluator = new EvaluationOperator.Builder<>(objective).setNumThreads(3).setChunkSize(2).setReevaluate(true).setCounter(counter).build();
+        evaluator.operate(0, 0, population);
+        assertEquals(10, counter.get());
+        evaluator.operate(0, 1, population);
+        assertEquals(20, counter.get());
+        assertTrue(evaluator.repOK());
+    }
+
+    /** Test of stop method, of class EvaluationBudgetStoppingCondition. */
+    @Test
+    public void testEvaluationBudget() {
+        System.out.println("EvaluationBudgetStoppingCondition");
+        final Parameters parameters = builder
+                .setParameter(Parameters.push(BASE, EvaluationBudgetStoppingCondition.P_MAX_EVALUATIONS), "25")
+                .build();
+        final EvaluationBudgetStoppingCondition<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new EvaluationBudgetStoppingCondition<>(parameters, BASE);
+        final EvaluationCounter sharedCounter = parameters.getInstanceFromParameter("counter", EvaluationCounter.class);
+        // Evaluations made before the run starts don't count against its budget
+        sharedCounter.add(100);
+        sut.reset();
+
+        sharedCounter.add(10);
+        assertFalse(sut.stop((Population) null, 0));
+        sharedCounter.add(10);
+        assertFalse(sut.stop((Population) null, 1));
+        assertFalse(sut.getHit().isDefined());
+        sharedCounter.add(10);
+        assertTrue(sut.stop((Population) null, 2));
+        assertEquals(2, sut.getHit().get().getStep());
+        assertEquals(30, (long) sut.getHit().get().getEvaluations().get());
+
+        // The first hit is the one that is kept
+        sharedCounter.add(10);
+        assertTrue(sut.stop((Population) null, 3));
+        assertEquals(2, sut.getHit().get().getStep());
+
+        sut.reset();
+        assertFalse(sut.getHit().isDefined());
+        assertFalse(sut.stop((Population) null, 0));
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of stopInd method, of class TargetFitnessStoppingCondition. */
+    @Test
+    public void testTargetFitness() {
+        System.out.println("TargetFitnessStoppingCondition");
+        final Parameters parameters = builder
+                .setParameter(Parameters.push(BASE, TargetFitnessStoppingCondition.P_TARGET), "1.0")
+                .setParameter(Parameters.push(BASE, TargetFitnessStoppingCondition.P_FITNESS_COMPARATOR), "SigmaEC.select.ScalarFitnessComparator")
+                .setParameter(Parameters.push(Parameters.push(BASE, TargetFitnessStoppingCondition.P_FITNESS_COMPARATOR), "minimize"), "true")
+                .build();
+        final TargetFitnessStoppingCondition<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new TargetFitnessStoppingCondition<>(parameters, BASE);
+        final DoubleVectorIndividual<ScalarFitness> ind = population.get(0);
+        assertFalse(sut.stopInd(ind, 0)); // Not evaluated
+        assertFalse(sut.stopInd((DoubleVectorIndividual<ScalarFitness>) ind.setFitness(new ScalarFitness(3.0)), 1));
+        assertTrue(sut.stopInd((DoubleVectorIndividual<ScalarFitness>) ind.setFitness(new ScalarFitness(1.0)), 2));
+        assertTrue(sut.stopInd((DoubleVectorIndividual<ScalarFitness>) ind.setFitness(new ScalarFitness(0.5)), 3));
+        assertEquals(2, sut.getHit().get().getStep());
+        assertEquals(0, (long) sut.getHit().get().getEvaluations().get());
+        assertTrue(sut.getHit().get().getElapsedSeconds() >= 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of stop method, of class AnyStoppingCondition. */
+    @Test
+    public void testAny() {
+        System.out.println("AnyStoppingCondition");
+        final Parameters parameters = builder
+                .setParameter(Parameters.push(BASE, AnyStoppingCondition.P_CONDITIONS), "%budget, %clock")
+                .setParameter("budget", "SigmaEC.meta.EvaluationBudgetStoppingCondition")
+                .setParameter("budget.counter", "%counter")
+                .setParameter("budget.maxEvaluations", "10")
+                .setParameter("clock", "SigmaEC.meta.WallClockStoppingCondition")
+                .setParameter("clock.maxSeconds", "3600")
+                .build();
+        final AnyStoppingCondition<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> sut = new AnyStoppingCondition<>(parameters, BASE);
+        final EvaluationCounter sharedCounter = parameters.getInstanceFromParameter("counter", EvaluationCounter.class);
+        sut.reset();
+        assertFalse(sut.stop((Population) null, 0));
+        sharedCounter.add(10);
+        assertTrue(sut.stop((Population) null, 1));
+        final EvaluationBudgetStoppingCondition budget = parameters.getInstanceFromParameter("budget", EvaluationBudgetStoppingCondition.class);
+        final WallClockStoppingCondition clock = parameters.getInstanceFromParameter("clock", WallClockStoppingCondition.class);
+        assertTrue(budget.getHit().isDefined());
+        assertFalse(clock.getHit().isDefined());
+        assertTrue(sut.repOK());
+    }
+}
@@ -0,0 +1,81 @@
+package SigmaEC.operate;
+
+import SigmaEC.test.TestIndividual;
+import SigmaEC.util.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class MatingOperatorTest {
+    private final static String BASE = "base";
+    
+    public MatingOperatorTest() {
+    }
+    
+    /** Records every group of parents it is given, and returns them as the
+     * children. */
+    private static class RecordingMator extends Mator<TestIndividual> {
+        final List<List<TestIndividual>> matings = new ArrayList<>();
+
+        @Override
+        public List<TestIndividual> mate(final List<TestIndividual> parents) {
+            matings.add(new ArrayList<>(parents));
+            return new ArrayList<>(parents);
+        }
+
+        @Override public int getNumParents() { return 2; }
+        @Override public int getNumChildren() { return 2; }
+        @Override public boolean repOK() { return true; }
+        @Override public boolean equals(final Object o) { return o == this; }
+        @Override public int hashCode() { return 0; }
+        @Override public String toString() { return "[RecordingMator]"; }
+    }
+    
+    private static MatingOperator<TestIndividual> operator(final Mator<TestIndividual> mator) {
+        final Parameters parameters = new Parameters.Builder(new Properties())
+                .registerInstance(Parameters.push(BASE, "mator"), mator)
+                .build();
+        return new MatingOperator<>(parameters, BASE);
+    }
+
+    /** Test of operate method with an even population, of class MatingOperator. */
+    @Test
+    public void testOperateEven() {
+        System.out.println("operate (even)");
+        final RecordingMator mator = new RecordingMator();
+        final MatingOperator<TestIndividual> sut = operator(mator);
+        final List<TestIndividual> population = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+            population.add(new TestIndividual(i));
+        final List<TestIndividual> result = sut.operate(0, 0, population);
+        assertEquals(population, result);
+        assertEquals(3, mator.matings.size());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of operate method with a population that isn't a multiple of the
+     * mator's arity, of class MatingOperator. */
+    @Test
+    public void testOperateOdd() {
+        System.out.println("operate (odd)");
+        final RecordingMator mator = new RecordingMator();
+        final MatingOperator<TestIndividual> sut = operator(mator);
+        final List<TestIndividual> population = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            population.add(new TestIndividual(i));
+        final List<TestIndividual> result = sut.operate(0, 0, population);
+        assertEquals(population.size(), result.size());
+        assertEquals(population, result);
+        assertEquals(3, mator.matings.size());
+        // The last pair wraps around to the front of the population
+        assertSame(population.get(4), mator.matings.get(2).get(0));
+        assertSame(population.get(0), mator.matings.get(2).get(1));
+        assertTrue(sut.repOK());
+    }
+}
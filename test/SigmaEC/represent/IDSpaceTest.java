@@ -0,0 +1,50 @@
+package SigmaEC.represent;
+
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.concurrent.Callable;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class IDSpaceTest {
+
+    public IDSpaceTest() {
+    }
+
+    /** Test of wrap method, of class IDSpace. */
+    @Test
+    public void testWrap() throws Exception {
+        System.out.println("wrap");
+        final IDSpace outer = IDSpace.current();
+        final IDSpace sut = new IDSpace(1000);
+        final long[] ids = sut.wrap(new Callable<long[]>() {
+            @Override
+            public long[] call() {
+                assertSame(sut, IDSpace.current());
+                final DoubleVectorIndividual<ScalarFitness> a = new DoubleVectorIndividual.Builder(new double[] { 1.0 }).build();
+                final DoubleVectorIndividual<ScalarFitness> b = a.setFitness(new ScalarFitness(1.0));
+                return new long[] { a.getID(), b.getID() };
+            }
+        }).call();
+        assertArrayEquals(new long[] { 1000, 1001 }, ids);
+        assertEquals(1002, sut.peek());
+        assertSame(outer, IDSpace.current());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of reserveThrough method, of class IDSpace. */
+    @Test
+    public void testReserveThrough() {
+        System.out.println("reserveThrough");
+        final IDSpace sut = new IDSpace(10);
+        sut.reserveThrough(5);
+        assertEquals(10, sut.peek());
+        sut.reserveThrough(20);
+        assertEquals(21, sut.peek());
+        assertTrue(sut.repOK());
+    }
+}
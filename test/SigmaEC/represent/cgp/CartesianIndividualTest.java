@@ -50,6 +50,16 @@ public class CartesianIndividualTest {
         assertTrue(instance.repOK());
     }
 
+    /** Test of getParentIDs method, of class CartesianIndividual. */
+    @Test
+    public void testGetParentIDs() {
+        System.out.println("getParentIDs");
+        final CartesianIndividual instance = getInd().build();
+        assertFalse(instance.hasParents());
+        assertFalse(instance.getParentIDs().isDefined());
+        assertTrue(instance.repOK());
+    }
+
     /** Test of numOutputs method, of class CartesianIndividual. */
     @Test
     public void testNumOutputs() {
@@ -0,0 +1,76 @@
+package SigmaEC.represent.lineage;
+
+import SigmaEC.evaluate.EvaluationOperator;
+import SigmaEC.evaluate.ScalarFitness;
+import SigmaEC.evaluate.objective.ConstantObjective;
+import SigmaEC.evaluate.objective.ObjectiveFunction;
+import SigmaEC.represent.linear.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class RingBufferLineageRecorderTest {
+
+    public RingBufferLineageRecorderTest() {
+    }
+
+    /** Test of record and getParentIDs methods, of class RingBufferLineageRecorder. */
+    @Test
+    public void testRecord() {
+        System.out.println("record");
+        final RingBufferLineageRecorder sut = new RingBufferLineageRecorder(3);
+        sut.record(10, new long[] { 1, 2 });
+        sut.record(11, new long[] { 3 });
+        sut.record(12, new long[0]);
+        assertEquals(3, sut.size());
+        assertArrayEquals(new long[] { 1, 2 }, sut.getParentIDs(10).get());
+        assertArrayEquals(new long[] { 3 }, sut.getParentIDs(11).get());
+        assertArrayEquals(new long[0], sut.getParentIDs(12).get());
+        assertFalse(sut.getParentIDs(13).isDefined());
+
+        // The oldest record is overwritten once the buffer is full
+        sut.record(13, new long[] { 10, 11 });
+        assertEquals(3, sut.size());
+        assertFalse(sut.getParentIDs(10).isDefined());
+        assertArrayEquals(new long[] { 10, 11 }, sut.getParentIDs(13).get());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test that EvaluationOperator reports evaluated individuals under their new IDs. */
+    @Test
+    public void testEvaluationOperatorRecordsLineage() {
+        System.out.println("EvaluationOperator records lineage");
+        final RingBufferLineageRecorder sut = new RingBufferLineageRecorder(100);
+        final ObjectiveFunction<DoubleVectorIndividual<ScalarFitness>, ScalarFitness> objective = new ConstantObjective<>(2, 5.0);
+        final EvaluationOperator<DoubleVectorIndividual<ScalarFitness>, DoubleVectorIndividual<ScalarFitness>, ScalarFitness> op = new EvaluationOperator.Builder<>(objective)
+                .setNumThreads(2)
+                .setLineage(sut)
+                .build();
+        final DoubleVectorIndividual<ScalarFitness> mother = new DoubleVectorIndividual.Builder(new double[] { 1.0, 2.0 }).build();
+        final DoubleVectorIndividual<ScalarFitness> father = new DoubleVectorIndividual.Builder(new double[] { 3.0, 4.0 }).build();
+        final List<DoubleVectorIndividual<ScalarFitness>> population = new ArrayList<DoubleVectorIndividual<ScalarFitness>>() {{
+            add(mother.create(new double[] { 1.0, 4.0 }, new long[] { mother.getID(), father.getID() }));
+            add(mother.create(new double[] { 3.0, 2.0 }, new long[] { mother.getID(), father.getID() }));
+            add(mother.create(new double[] { 1.5, 2.5 }, new long[] { mother.getID() }));
+        }};
+
+        final List<DoubleVectorIndividual<ScalarFitness>> result = op.operate(0, 0, population);
+        assertEquals(3, sut.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertFalse(result.get(i).hasParents());
+            assertArrayEquals(population.get(i).getParentIDs().get(), sut.getParentIDs(result.get(i).getID()).get());
+        }
+
+        // Individuals that are already evaluated link back to their old ID
+        final List<DoubleVectorIndividual<ScalarFitness>> next = op.operate(0, 1, result);
+        for (int i = 0; i < next.size(); i++)
+            assertArrayEquals(new long[] { result.get(i).getID() }, sut.getParentIDs(next.get(i).getID()).get());
+        assertTrue(op.repOK());
+        assertTrue(sut.repOK());
+    }
+}
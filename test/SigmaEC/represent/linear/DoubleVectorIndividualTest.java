@@ -0,0 +1,78 @@
+package SigmaEC.represent.linear;
+
+import SigmaEC.evaluate.ScalarFitness;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class DoubleVectorIndividualTest {
+
+    public DoubleVectorIndividualTest() {
+    }
+
+    /** Test of getGenomeView method, of class DoubleVectorIndividual. */
+    @Test
+    public void testGetGenomeView() {
+        System.out.println("getGenomeView");
+        final double[] genome = new double[] { 1.0, 2.0, 3.0 };
+        final DoubleVectorIndividual sut = new DoubleVectorIndividual.Builder(genome).build();
+        assertArrayEquals(genome, sut.getGenomeView(), 0.0);
+        assertSame(sut.getGenomeView(), sut.getGenomeView());
+        assertNotSame(genome, sut.getGenomeView());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of getGenomeArray method, of class DoubleVectorIndividual. */
+    @Test
+    public void testGetGenomeArray() {
+        System.out.println("getGenomeArray");
+        final DoubleVectorIndividual sut = new DoubleVectorIndividual.Builder(new double[] { 1.0, 2.0, 3.0 }).build();
+        final double[] result = sut.getGenomeArray();
+        assertNotSame(sut.getGenomeView(), result);
+        result[0] = 10.0;
+        assertEquals(1.0, sut.getElement(0), 0.0);
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of Builder.wrap method, of class DoubleVectorIndividual. */
+    @Test
+    public void testWrap() {
+        System.out.println("Builder.wrap");
+        final double[] genome = new double[] { 1.0, 2.0, 3.0 };
+        final DoubleVectorIndividual sut = DoubleVectorIndividual.Builder.wrap(genome).build();
+        assertSame(genome, sut.getGenomeView());
+        assertEquals(3, sut.size());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of getGenome method, of class DoubleVectorIndividual. */
+    @Test
+    public void testGetGenome() {
+        System.out.println("getGenome");
+        final DoubleVectorIndividual sut = new DoubleVectorIndividual.Builder(new double[] { 1.0, 2.0, 3.0 }).build();
+        final List<DoubleGene> expResult = new ArrayList<DoubleGene>() {{
+            add(new DoubleGene(1.0));
+            add(new DoubleGene(2.0));
+            add(new DoubleGene(3.0));
+        }};
+        assertEquals(expResult, sut.getGenome());
+        assertEquals(sut, new DoubleVectorIndividual.Builder(expResult).build());
+        assertTrue(sut.repOK());
+    }
+
+    /** Test of setFitness method, of class DoubleVectorIndividual. */
+    @Test
+    public void testSetFitnessSharesGenome() {
+        System.out.println("setFitness (shares genome)");
+        final DoubleVectorIndividual sut = new DoubleVectorIndividual.Builder(new double[] { 1.0, 2.0, 3.0 }).build();
+        final DoubleVectorIndividual result = sut.setFitness(new ScalarFitness(5.0));
+        assertSame(sut.getGenomeView(), result.getGenomeView());
+        assertTrue(result.isEvaluated());
+        assertFalse(sut.isEvaluated());
+    }
+}
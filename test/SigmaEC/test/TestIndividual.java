@@ -30,7 +30,7 @@ public class TestIndividual extends LinearGenomeIndividual<TestGene, ScalarFitne
     public boolean repOK() { return true; }
 
     @Override
-    public LinearGenomeIndividual create(List<TestGene> genome, final List<? extends Individual> parents) {
+    public LinearGenomeIndividual create(List<TestGene> genome, final long[] parentIDs) {
         return new TestIndividual(0, genome);
     }
 
@@ -85,12 +85,12 @@ public class TestIndividual extends LinearGenomeIndividual<TestGene, ScalarFitne
     }
 
     @Override
-    public Option<List<Individual<ScalarFitness>>> getParents() {
+    public Option<long[]> getParentIDs() {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
     @Override
-    public Individual<ScalarFitness> setParents(List<? extends Individual<ScalarFitness>> parents) {
+    public Individual<ScalarFitness> setParentIDs(final long[] parentIDs) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
@@ -76,12 +76,12 @@ public class TestVectorIndividual extends Individual<ScalarFitness>
     }
 
     @Override
-    public Option<List<Individual<ScalarFitness>>> getParents() {
+    public Option<long[]> getParentIDs() {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
     @Override
-    public Individual<ScalarFitness> setParents(List<? extends Individual<ScalarFitness>> parents) {
+    public Individual<ScalarFitness> setParentIDs(final long[] parentIDs) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
@@ -0,0 +1,116 @@
+package SigmaEC.util.math;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Eric O. Scott
+ */
+public class MatrixTest {
+    
+    public MatrixTest() {
+    }
+    
+    private static double[] random(final Random random, final int length) {
+        final double[] a = new double[length];
+        for (int i = 0; i < length; i++)
+            a[i] = random.nextGaussian();
+        return a;
+    }
+    
+    /** The textbook triple loop. */
+    private static double[] naiveProduct(final double[] a, final double[] b, final int m, final int k, final int n) {
+        final double[] c = new double[m*n];
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int l = 0; l < k; l++)
+                    sum += a[i*k + l] * b[l*n + j];
+                c[i*n + j] = sum;
+            }
+        return c;
+    }
+    
+    private static void assertIdentical(final double[] expected, final double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]));
+    }
+
+    /** Test of multiply method on non-square matrices, of class Matrix. */
+    @Test
+    public void testMultiplyNonSquare() {
+        System.out.println("multiply (non-square)");
+        final double[][] m1 = new double[][] { { 1, 2, 3 }, { 4, 5, 6 } };
+        final double[][] m2 = new double[][] { { 7, 8 }, { 9, 10 }, { 11, 12 } };
+        final double[][] expected = new double[][] { { 58, 64 }, { 139, 154 } };
+        assertArrayEquals(Matrix.flatten(expected), Matrix.flatten(Matrix.multiply(m1, m2)), 0.0);
+    }
+
+    /** Test of gemm and parallelGemm methods, of class Matrix. */
+    @Test
+    public void testGemm() {
+        System.out.println("gemm");
+        final Random random = new Random(3);
+        final int m = 70, k = 300, n = 290;
+        final double[] a = random(random, m*k);
+        final double[] b = random(random, k*n);
+        final double[] expected = naiveProduct(a, b, m, k, n);
+        final double[] c = new double[m*n];
+        Matrix.gemm(a, b, c, m, k, n);
+        assertIdentical(expected, c);
+        final double[] parallel = new double[m*n];
+        Matrix.parallelGemm(a, b, parallel, m, k, n);
+        assertIdentical(expected, parallel);
+    }
+
+    /** Test of gemv and parallelGemv methods, of class Matrix. */
+    @Test
+    public void testGemv() {
+        System.out.println("gemv");
+        final Random random = new Random(4);
+        final int m = 900, n = 700;
+        final double[] a = random(random, m*n);
+        final double[] x = random(random, n);
+        final double[] expected = naiveProduct(a, x, m, n, 1);
+        final double[] y = new double[m];
+        Matrix.gemv(a, x, y, m, n);
+        assertIdentical(expected, y);
+        final double[] parallel = new double[m];
+        Matrix.parallelGemv(a, x, parallel, m, n);
+        assertIdentical(expected, parallel);
+    }
+
+    /** Test that rotateColumns agrees with multiplying by a rotation matrix,
+     * of class Matrix. */
+    @Test
+    public void testRotateColumns() {
+        System.out.println("rotateColumns");
+        final Random random = new Random(5);
+        final int n = 6;
+        double[][] expected = new double[n][n];
+        for (int i = 0; i < n; i++)
+            expected[i][i] = 1.7;
+        final double[][] jagged = Matrix.copy(expected);
+        final double[] flat = Matrix.flatten(expected);
+        for (int p = 0; p < n - 1; p++) {
+            for (int q = p + 1; q < n; q++) {
+                final double angle = 2*Math.PI*random.nextDouble();
+                final double[][] rotation = new double[n][n];
+                for (int i = 0; i < n; i++)
+                    rotation[i][i] = 1.0;
+                rotation[p][p] = Math.cos(angle);
+                rotation[p][q] = -Math.sin(angle);
+                rotation[q][p] = Math.sin(angle);
+                rotation[q][q] = Math.cos(angle);
+                expected = Matrix.multiply(expected, rotation);
+                Matrix.rotateColumns(jagged, p, q, Math.cos(angle), Math.sin(angle));
+                Matrix.rotateColumns(flat, n, p, q, Math.cos(angle), Math.sin(angle));
+            }
+        }
+        assertArrayEquals(Matrix.flatten(expected), Matrix.flatten(jagged), 0.0);
+        assertArrayEquals(Matrix.flatten(expected), flat, 0.0);
+    }
+}